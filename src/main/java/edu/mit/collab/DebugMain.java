@@ -1,18 +1,23 @@
 package edu.mit.collab;
 
 import java.awt.Point;
+import java.util.concurrent.ExecutionException;
 
 import javax.swing.JOptionPane;
 import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
 import javax.swing.UIManager;
 
 import com.jgoodies.looks.plastic.Plastic3DLookAndFeel;
 
 import edu.mit.collab.designer.DesignerFrame;
 import edu.mit.collab.manager.ManagerFrame;
+import edu.mit.collab.transport.FederateHost;
+import edu.mit.collab.util.Utilities;
 
 /**
  * The main class for debugging - launches one manager and three designer GUIs.
+ * The designers are seats of a single federate host.
  * 
  * @author Paul T. Grogan, ptgrogan@mit.edu
  */
@@ -39,18 +44,25 @@ public class DebugMain {
 					m.pack();
 					m.setVisible(true);
 					
-					// start three designer frames and make visible
-					for(int i = 0; i < 3; i++) {
-						DesignerFrame d = new DesignerFrame(i);
-						d.pack();
+					// start three designer frames sharing one federate host
+					// and make visible
+					FederateHost host = new FederateHost(
+							Utilities.readProperties());
+					DesignerFrame[] d = new DesignerFrame[3];
+					for(int i = 0; i < d.length; i++) {
+						d[i] = new DesignerFrame(i, host);
+						d[i].pack();
 						// position to the right of the manager frame
-						d.setLocation(new Point(
+						d[i].setLocation(new Point(
 								m.getLocation().x 
 									+ m.getWidth() 
-									+ i*d.getWidth(), 
+									+ i*d[i].getWidth(), 
 								m.getLocation().y));
-						d.setVisible(true);
+						d[i].setVisible(true);
 					}
+					
+					// start up the federates in the background
+					startUp(m, d);
 				} catch (Exception ex) {
 					// show error message
 					JOptionPane.showMessageDialog(null, 
@@ -64,4 +76,48 @@ public class DebugMain {
 			}
 		});
 	}
+	
+	/**
+	 * Starts up the manager and then the designers in parallel on a 
+	 * background thread, reporting the total start up time.
+	 *
+	 * @param manager the manager frame
+	 * @param designers the designer frames
+	 */
+	private static void startUp(final ManagerFrame manager, 
+			final DesignerFrame[] designers) {
+		new Thread(new Runnable() {
+			@Override
+			public void run() {
+				long time = System.nanoTime();
+				
+				// wait for the manager to create the federation (errors are
+				// reported by the frame)
+				try {
+					manager.startUp().get();
+				} catch (ExecutionException ignored) {
+				} catch (InterruptedException ignored) {
+					return;
+				}
+				
+				// start up all designers in parallel and wait for them
+				@SuppressWarnings("unchecked")
+				SwingWorker<Long, Void>[] workers = new SwingWorker[designers.length];
+				for(int i = 0; i < designers.length; i++) {
+					workers[i] = designers[i].startUp();
+				}
+				for(int i = 0; i < workers.length; i++) {
+					try {
+						workers[i].get();
+					} catch (ExecutionException ignored) {
+					} catch (InterruptedException ignored) {
+						return;
+					}
+				}
+				System.out.println("Debug Log: started up 1 manager and " 
+						+ designers.length + " designers in " 
+						+ (System.nanoTime() - time) / 1000000 + " ms");
+			}
+		}, "Debug start up").start();
+	}
 }
@@ -0,0 +1,80 @@
+package edu.mit.collab;
+
+import java.awt.Point;
+
+import javax.swing.SwingUtilities;
+import javax.swing.UIManager;
+import javax.swing.UnsupportedLookAndFeelException;
+
+import com.jgoodies.looks.plastic.Plastic3DLookAndFeel;
+
+import edu.mit.collab.designer.DesignerFrame;
+import edu.mit.collab.transport.FederateHost;
+import edu.mit.collab.transport.TransportException;
+import edu.mit.collab.util.Utilities;
+
+/**
+ * The main class to launch several designer GUIs on one machine, e.g. for a
+ * multi-seat kiosk. All designers are seats of a single federate host and
+ * share its connection.
+ * 
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ */
+public class DesignerHostMain {
+	/**
+	 * The main method to launch the designer applications.
+	 *
+	 * @param args the arguments
+	 */
+	public static void main(final String[] args) {
+		final int[] designerIndices = new int[args.length];
+		// validate designer indices
+		if(args.length < 1) {
+			throw new IllegalArgumentException(
+					"Designer indices must be specified in args.");
+		}
+		for(int i = 0; i < args.length; i++) {
+			designerIndices[i] = Integer.parseInt(args[i]);
+			if(designerIndices[i] < 0) {
+				throw new IllegalArgumentException(
+						"Designer indices must be non-negative.");
+			}
+		}
+
+		// set jgoodies plastic 3d look and feel for better 
+		// cross-platform support
+		try {
+			UIManager.setLookAndFeel(new Plastic3DLookAndFeel());
+		} catch (UnsupportedLookAndFeelException e) {
+			e.printStackTrace();
+		}
+
+		// start designer frames in java swing thread
+		SwingUtilities.invokeLater(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					// create the federate host shared by all designers
+					FederateHost host = new FederateHost(
+							Utilities.readProperties());
+					
+					// create frames, pack, and make visible side by side
+					int x = 0;
+					for(int i = 0; i < designerIndices.length; i++) {
+						DesignerFrame f = new DesignerFrame(
+								designerIndices[i], host);
+						f.pack();
+						f.setLocation(new Point(x, 0));
+						x += f.getWidth();
+						f.setVisible(true);
+						
+						// start up the seat in the background
+						f.startUp();
+					}
+				} catch (TransportException ex) {
+					ex.printStackTrace();
+				}
+			}
+		});
+	}
+}
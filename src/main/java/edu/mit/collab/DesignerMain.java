@@ -7,7 +7,7 @@ import javax.swing.UnsupportedLookAndFeelException;
 import com.jgoodies.looks.plastic.Plastic3DLookAndFeel;
 
 import edu.mit.collab.designer.DesignerFrame;
-import hla.rti1516e.exceptions.RTIinternalError;
+import edu.mit.collab.transport.TransportException;
 
 /**
  * The main class to launch a designer GUI.
@@ -47,7 +47,10 @@ public class DesignerMain {
 					DesignerFrame f = new DesignerFrame(designerIndex);
 					f.pack();
 					f.setVisible(true);
-				} catch (RTIinternalError ex) {
+					
+					// start up the federate in the background
+					f.startUp();
+				} catch (TransportException ex) {
 					ex.printStackTrace();
 				}
 			}
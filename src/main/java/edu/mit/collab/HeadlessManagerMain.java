@@ -0,0 +1,64 @@
+package edu.mit.collab;
+
+import java.io.File;
+import java.io.IOException;
+
+import edu.mit.collab.manager.Experiment;
+import edu.mit.collab.manager.HeadlessManager;
+import edu.mit.collab.transport.TransportException;
+import edu.mit.collab.util.Utilities;
+
+/**
+ * The main class to launch a manager without a GUI. The arguments are the
+ * experiment file, optionally followed by the model timeout (seconds, 0 to
+ * wait until solved) and the delay to advance solved models (seconds).
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ */
+public class HeadlessManagerMain {
+	/**
+	 * The main method to launch the headless manager application.
+	 *
+	 * @param args the arguments
+	 */
+	public static void main(final String[] args) {
+		// validate arguments
+		if(args.length < 1) {
+			throw new IllegalArgumentException(
+					"Experiment file must be specified in args.");
+		}
+		long modelTimeout = args.length > 1 ?
+				(long) (1000*Double.parseDouble(args[1])) : 0;
+		long solvedDelay = args.length > 2 ?
+				(long) (1000*Double.parseDouble(args[2])) : 0;
+		if(modelTimeout < 0 || solvedDelay < 0) {
+			throw new IllegalArgumentException(
+					"Model timeout and solved delay must be non-negative.");
+		}
+
+		try {
+			// load experiment from file
+			Experiment experiment = Utilities.readExperiment(
+					new File(args[0]));
+
+			// create and start up the manager, then run until complete
+			HeadlessManager manager = new HeadlessManager(experiment,
+					modelTimeout, solvedDelay);
+			manager.startUp();
+			manager.awaitComplete();
+			manager.shutDown();
+		} catch (IOException ex) {
+			ex.printStackTrace();
+			System.exit(1);
+		} catch (TransportException ex) {
+			ex.printStackTrace();
+			System.exit(1);
+		} catch (InterruptedException ex) {
+			ex.printStackTrace();
+			System.exit(1);
+		}
+
+		// exit the application
+		System.exit(0);
+	}
+}
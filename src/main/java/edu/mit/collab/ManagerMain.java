@@ -7,7 +7,7 @@ import javax.swing.UnsupportedLookAndFeelException;
 import com.jgoodies.looks.plastic.Plastic3DLookAndFeel;
 
 import edu.mit.collab.manager.ManagerFrame;
-import hla.rti1516e.exceptions.RTIinternalError;
+import edu.mit.collab.transport.TransportException;
 
 /**
  * The main class to launch a manager GUI.
@@ -38,7 +38,10 @@ public class ManagerMain {
 					ManagerFrame f = new ManagerFrame();
 					f.pack();
 					f.setVisible(true);
-				} catch (RTIinternalError ex) {
+					
+					// start up the federate in the background
+					f.startUp();
+				} catch (TransportException ex) {
 					ex.printStackTrace();
 				}
 			}
@@ -0,0 +1,61 @@
+package edu.mit.collab;
+
+import java.util.Properties;
+
+import javax.swing.SwingUtilities;
+import javax.swing.UIManager;
+import javax.swing.UnsupportedLookAndFeelException;
+
+import com.jgoodies.looks.plastic.Plastic3DLookAndFeel;
+
+import edu.mit.collab.monitor.MonitorFrame;
+import edu.mit.collab.transport.TransportException;
+import edu.mit.collab.util.Utilities;
+
+/**
+ * The main class to launch a monitor GUI which supervises several teams.
+ * The arguments are the federation names of the teams; by default, the
+ * federation in the configuration properties is monitored.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ */
+public class MonitorMain {
+	/**
+	 * The main method to launch the monitor application.
+	 *
+	 * @param args the arguments
+	 */
+	public static void main(final String[] args) {
+		final Properties properties = Utilities.readProperties();
+		final String[] federationNames = args.length > 0 ? args
+				: new String[] {properties.getProperty(
+						"federationName", "collab")};
+
+		// set jgoodies plastic 3d look and feel for better
+		// cross-platform support
+		try {
+			UIManager.setLookAndFeel(new Plastic3DLookAndFeel());
+		} catch (UnsupportedLookAndFeelException e) {
+			e.printStackTrace();
+		}
+
+		// start monitor frame in java swing thread
+		SwingUtilities.invokeLater(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					// create frame, pack, and make visible
+					MonitorFrame f = new MonitorFrame(properties,
+							federationNames);
+					f.pack();
+					f.setVisible(true);
+
+					// start up the monitors in the background
+					f.startUp();
+				} catch (TransportException ex) {
+					ex.printStackTrace();
+				}
+			}
+		});
+	}
+}
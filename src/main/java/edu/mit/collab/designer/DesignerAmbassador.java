@@ -1,91 +1,63 @@
 package edu.mit.collab.designer;
 
+import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.net.MalformedURLException;
-import java.net.URL;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
-import javax.swing.JOptionPane;
 import javax.swing.event.EventListenerList;
 
+import org.apache.commons.math3.linear.ArrayRealVector;
 import org.apache.commons.math3.linear.RealVector;
 
 import com.google.gson.Gson;
 
+import edu.mit.collab.transport.FederateHost;
+import edu.mit.collab.transport.Transport;
+import edu.mit.collab.transport.TransportException;
+import edu.mit.collab.transport.TransportFactory;
+import edu.mit.collab.transport.TransportListener;
+import edu.mit.collab.util.ErrorReporter;
 import edu.mit.collab.util.HLAfloatVector;
 import edu.mit.collab.util.HLAintegerMatrix;
+import edu.mit.collab.util.HLAintegerVector;
 import edu.mit.collab.util.HLAstringVector;
+import edu.mit.collab.util.ModelDictionary;
+import edu.mit.collab.util.SequenceFilter;
 import edu.mit.collab.util.Utilities;
-import hla.rti1516e.AttributeHandleSet;
-import hla.rti1516e.AttributeHandleValueMap;
-import hla.rti1516e.CallbackModel;
-import hla.rti1516e.FederateHandle;
-import hla.rti1516e.LogicalTime;
-import hla.rti1516e.MessageRetractionHandle;
-import hla.rti1516e.NullFederateAmbassador;
-import hla.rti1516e.ObjectClassHandle;
-import hla.rti1516e.ObjectInstanceHandle;
-import hla.rti1516e.OrderType;
-import hla.rti1516e.RTIambassador;
-import hla.rti1516e.ResignAction;
-import hla.rti1516e.RtiFactory;
-import hla.rti1516e.RtiFactoryFactory;
-import hla.rti1516e.TransportationTypeHandle;
-import hla.rti1516e.encoding.ByteWrapper;
+import hla.rti1516e.encoding.DecoderException;
 import hla.rti1516e.encoding.EncoderException;
 import hla.rti1516e.encoding.EncoderFactory;
 import hla.rti1516e.encoding.HLAboolean;
 import hla.rti1516e.encoding.HLAinteger32BE;
+import hla.rti1516e.encoding.HLAinteger64BE;
 import hla.rti1516e.encoding.HLAunicodeString;
-import hla.rti1516e.exceptions.AlreadyConnected;
-import hla.rti1516e.exceptions.AttributeNotDefined;
-import hla.rti1516e.exceptions.AttributeNotOwned;
-import hla.rti1516e.exceptions.CallNotAllowedFromWithinCallback;
-import hla.rti1516e.exceptions.ConnectionFailed;
-import hla.rti1516e.exceptions.CouldNotCreateLogicalTimeFactory;
-import hla.rti1516e.exceptions.CouldNotOpenFDD;
-import hla.rti1516e.exceptions.ErrorReadingFDD;
-import hla.rti1516e.exceptions.FederateAlreadyExecutionMember;
-import hla.rti1516e.exceptions.FederateIsExecutionMember;
-import hla.rti1516e.exceptions.FederateNameAlreadyInUse;
-import hla.rti1516e.exceptions.FederateNotExecutionMember;
-import hla.rti1516e.exceptions.FederateOwnsAttributes;
-import hla.rti1516e.exceptions.FederatesCurrentlyJoined;
-import hla.rti1516e.exceptions.FederationExecutionAlreadyExists;
-import hla.rti1516e.exceptions.FederationExecutionDoesNotExist;
-import hla.rti1516e.exceptions.InconsistentFDD;
-import hla.rti1516e.exceptions.InvalidLocalSettingsDesignator;
-import hla.rti1516e.exceptions.InvalidObjectClassHandle;
-import hla.rti1516e.exceptions.InvalidResignAction;
-import hla.rti1516e.exceptions.NameNotFound;
-import hla.rti1516e.exceptions.NotConnected;
-import hla.rti1516e.exceptions.ObjectClassNotDefined;
-import hla.rti1516e.exceptions.ObjectClassNotPublished;
-import hla.rti1516e.exceptions.ObjectInstanceNotKnown;
-import hla.rti1516e.exceptions.OwnershipAcquisitionPending;
-import hla.rti1516e.exceptions.RTIinternalError;
-import hla.rti1516e.exceptions.RestoreInProgress;
-import hla.rti1516e.exceptions.SaveInProgress;
-import hla.rti1516e.exceptions.UnsupportedCallbackModel;
 
 /**
- * The federate ambassador interface to the RTI for the designer application.
- * This class handles all of the interactions with the RTI including setting up
- * the connection to a federation and receiving all messages from other
- * federates.
- * 
+ * The federate ambassador interface to the transport for the designer
+ * application. This class handles all of the interactions with the transport
+ * including setting up the connection to a federation and receiving all
+ * messages from other federates.
+ *
  * @author Paul T. Grogan, ptgrogan@mit.edu
  */
-public class DesignerAmbassador extends NullFederateAmbassador {
-	private static enum ManagerAction {ADD, MODEL_UPDATE, 
+public class DesignerAmbassador implements TransportListener {
+	private static enum ManagerAction {ADD, MODEL_UPDATE,
 		OUTPUT_UPDATE, REMOVE};
-		
+
 	// the variables below define configuration strings for various
-	// commands issued to the RTI ambassador
+	// commands issued to the transport
 	private static final String federateType = "designer";
 	private static final String managerClassName = "HLAobjectRoot.Manager";
 	private static final String outputAttributeName = "Output";
@@ -96,61 +68,216 @@ public class DesignerAmbassador extends NullFederateAmbassador {
 	private static final String outputIndicesAttributeName = "OutputIndices";
 	private static final String inputLabelsAttributeName = "InputLabels";
 	private static final String outputLabelsAttributeName = "OutputLabels";
+	private static final String modelVersionAttributeName = "ModelVersion";
+	private static final String inputIndicesKeyAttributeName = "InputIndicesKey";
+	private static final String outputIndicesKeyAttributeName =
+			"OutputIndicesKey";
+	private static final String inputLabelsKeyAttributeName = "InputLabelsKey";
+	private static final String outputLabelsKeyAttributeName =
+			"OutputLabelsKey";
 	private static final String designerClassName = "HLAobjectRoot.Designer";
 	private static final String inputAttributeName = "Input";
 	private static final String indexAttributeName = "Index";
 	private static final String readyAttributeName = "Ready";
-	
-	private transient String objectInstanceName;  // set upon connection to RTI
+	private static final String inputDeltaClassName =
+			"HLAinteractionRoot.InputDelta";
+	private static final String designerIndexParameterName = "DesignerIndex";
+	private static final String inputIndicesParameterName = "InputIndices";
+	private static final String inputValuesParameterName = "InputValues";
+	private static final String sequenceParameterName = "Sequence";
+	private static final String baseSequenceParameterName = "BaseSequence";
+	private static final String designerOutputClassName =
+			"HLAobjectRoot.DesignerOutput";
+	private static final String designerIndexAttributeName = "DesignerIndex";
+	private static final String managerAttributeName = "Manager";
+	private static final String solvedAttributeName = "Solved";
+	private static final String designerIndexDimensionName = "DesignerIndex";
+	private static final String[] managerAttributeNames = new String[] {
+		initialInputAttributeName, targetOutputAttributeName,
+		outputAttributeName, activeModelAttributeName,
+		inputIndicesAttributeName, outputIndicesAttributeName,
+		inputLabelsAttributeName, outputLabelsAttributeName,
+		modelVersionAttributeName, inputIndicesKeyAttributeName,
+		outputIndicesKeyAttributeName, inputLabelsKeyAttributeName,
+		outputLabelsKeyAttributeName};
+	private static final String[] dictionaryAttributeNames = new String[] {
+		inputIndicesAttributeName, outputIndicesAttributeName,
+		inputLabelsAttributeName, outputLabelsAttributeName};
+	private static final String[] dictionaryKeyAttributeNames = new String[] {
+		inputIndicesKeyAttributeName, outputIndicesKeyAttributeName,
+		inputLabelsKeyAttributeName, outputLabelsKeyAttributeName};
+	private static final String[] rejoinAttributeNames = new String[] {
+		modelVersionAttributeName, outputAttributeName};
+	private static final String[] designerOutputAttributeNames = new String[] {
+		designerIndexAttributeName, managerAttributeName,
+		outputAttributeName, solvedAttributeName};
+
+	// gson object to help with log message formatting (thread-safe)
+	private static final Gson gson = new Gson();
 
-	private final RTIambassador rtiAmbassador; // immutable
+	private transient String objectInstanceName;  // set upon connection
+
+	private final Transport transport; // immutable
 	private final EncoderFactory encoderFactory; // immutable
 
     private final Properties properties; // mutable
 	private final HLAfloatVector input; // mutable
 	private final HLAinteger32BE index; // mutable
 	private final HLAboolean ready; // mutable
+	private final HLAintegerVector deltaIndices; // mutable
+	private final HLAfloatVector deltaValues; // mutable
+	private final HLAinteger64BE deltaSequence; // mutable
+	private final HLAinteger64BE deltaBaseSequence; // mutable
 	private final EventListenerList listenerList = new EventListenerList(); // mutable
+	private final ErrorReporter errorReporter; // mutable
+
+	// sequence number sent with input updates and filter to drop stale
+	// output updates received over best-effort transportation
+	private final AtomicLong inputSequence = new AtomicLong(); // mutable
+	// sequence number of the latest whole input update, which input deltas
+	// apply to
+	private volatile long inputBaseSequence; // mutable
+	private final SequenceFilter<String> outputFilter =
+			new SequenceFilter<String>(); // mutable
+
+	// reusable data elements and buffers to decode reflected values without
+	// allocating new objects; only accessed from the callback thread
+	private final HLAunicodeString activeModelDecoder; // mutable
+	private final HLAfloatVector vectorDecoder; // mutable
+	private final HLAintegerMatrix matrixDecoder; // mutable
+	private final HLAstringVector stringDecoder; // mutable
+	private double[] outputBuffer = new double[0]; // mutable
+
+	// input delta interactions, sent if enabled by the inputDeltas property
+	private final boolean inputDeltas; // immutable
+
+	// per-designer output objects, subscribed instead of the manager output
+	// attribute if enabled by the designerOutputs property. discovered
+	// instances are kept until their designer index is known; instances for
+	// this designer are then mapped to the instance name of their manager
+	private final boolean designerOutputs; // immutable
+	private final Set<String> designerOutputInstances =
+			Collections.synchronizedSet(new HashSet<String>());
+	private final Map<String, String> designerOutputManagers =
+			Collections.synchronizedMap(new HashMap<String, String>());
+	private final HLAinteger32BE indexDecoder; // mutable
+	private final HLAboolean solvedDecoder; // mutable
+
+	// cache of model payloads and inputs to restore after a restart, if
+	// enabled by the designerCache property; writes are coalesced on a
+	// background thread, and input changes are only written after a delay
+	private static final long cacheInputDelay = 5000;
+	private final DesignerCache cache; // mutable
+	private final File cacheFile; // immutable
+	private final ScheduledExecutorService cacheWriter; // immutable
+	private final AtomicBoolean cacheWritePending = new AtomicBoolean(); // mutable
+	private final HLAinteger64BE versionDecoder; // mutable
+
+	// dictionary of labels and index matrices which managers send by key
+	// once received in full
+	private final ModelDictionary dictionary = new ModelDictionary(); // mutable
+	private final HLAinteger64BE keyDecoder; // mutable
+
+	// cache of model definitions keyed by model name to rebuild the
+	// interface as soon as a model received before is activated again;
+	// only accessed from the callback thread
+	private final Map<String, ModelDefinition> modelCache; // mutable
 
 	// synchronized mutable map to support multi-threaded application
-	private final Map<ObjectInstanceHandle, Manager> managers = 
-			Collections.synchronizedMap(
-					new HashMap<ObjectInstanceHandle, Manager>());
-	
+	private final Map<String, Manager> managers =
+			Collections.synchronizedMap(new HashMap<String, Manager>());
+
 	/**
 	 * Instantiates a new designer ambassador.
 	 *
 	 * @param designerIndex the designer index
-	 * @throws RTIinternalError the RTI internal error
+	 * @throws TransportException the transport exception
+	 */
+	public DesignerAmbassador(int designerIndex) throws TransportException {
+		this(designerIndex, null);
+	}
+
+	/**
+	 * Instantiates a new designer ambassador as a seat of a federate host,
+	 * sharing the host's connection, encoder factory and configuration
+	 * properties with the other seats.
+	 *
+	 * @param designerIndex the designer index
+	 * @param host the federate host (may be null to use a dedicated
+	 * transport)
+	 * @throws TransportException the transport exception
 	 */
-	public DesignerAmbassador(int designerIndex) throws RTIinternalError {
-	    properties = new Properties();
-	    try {
-          InputStream in = getClass().getClassLoader().getResourceAsStream(
-              Utilities.PROPERTIES_PATH);
-          properties.load(in);
-          in.close();
-        } catch (IOException e) {
-          e.printStackTrace();
-        }
-	    String rtiName = properties.getProperty("rtiName", null);
-	    
-        // create the RTI factory and store ambassador and encoder objects
-        RtiFactory rtiFactory;
-        if(rtiName == null) {
-            rtiFactory = RtiFactoryFactory.getRtiFactory();
-        } else {
-            rtiFactory = RtiFactoryFactory.getRtiFactory(rtiName);
-        }
-		rtiAmbassador = rtiFactory.getRtiAmbassador();
-		encoderFactory = rtiFactory.getEncoderFactory();
-		
+	public DesignerAmbassador(int designerIndex, FederateHost host)
+			throws TransportException {
+	    properties = host == null ? Utilities.readProperties()
+	    		: host.getProperties();
+	    errorReporter = new ErrorReporter("Designer " + (designerIndex+1));
+	    inputDeltas = Boolean.parseBoolean(
+	    		properties.getProperty("inputDeltas", "false"));
+	    designerOutputs = Boolean.parseBoolean(
+	    		properties.getProperty("designerOutputs", "false"));
+	    final int modelCacheSize = Integer.parseInt(
+	    		properties.getProperty("modelCacheSize", "32"));
+	    modelCache = new LinkedHashMap<String, ModelDefinition>(16, 0.75f, true) {
+	    	private static final long serialVersionUID = 1L;
+
+	    	@Override
+	    	protected boolean removeEldestEntry(
+	    			Map.Entry<String, ModelDefinition> eldest) {
+	    		return size() > modelCacheSize;
+	    	}
+	    };
+
+	    // read the designer cache, if enabled
+	    DesignerCache designerCache = null;
+	    if(Boolean.parseBoolean(
+	    		properties.getProperty("designerCache", "false"))) {
+	    	designerCache = new DesignerCache();
+	    	try {
+	    		designerCache = DesignerCache.read(getCacheFile(designerIndex));
+	    	} catch (Exception e) {
+	    		// start with an empty cache if the file cannot be read
+	    		e.printStackTrace();
+	    	}
+	    }
+	    cache = designerCache;
+	    cacheFile = getCacheFile(designerIndex);
+	    cacheWriter = Executors.newSingleThreadScheduledExecutor(
+	    		new ThreadFactory() {
+	    	@Override
+	    	public Thread newThread(Runnable r) {
+	    		Thread thread = new Thread(r, "Designer cache");
+	    		thread.setDaemon(true);
+	    		return thread;
+	    	}
+	    });
+
+        // create the transport selected in the properties (or a seat of
+	    // the host) and store the encoder factory
+		transport = host == null ? TransportFactory.createTransport(properties)
+				: host.createSeat();
+		encoderFactory = transport.getEncoderFactory();
+
 		// create hla-compatible data elements for encoding/decoding values
 		input = new HLAfloatVector(encoderFactory);
 		index = encoderFactory.createHLAinteger32BE(designerIndex);
 		ready = encoderFactory.createHLAboolean();
+		deltaIndices = new HLAintegerVector(encoderFactory);
+		deltaValues = new HLAfloatVector(encoderFactory);
+		deltaSequence = encoderFactory.createHLAinteger64BE();
+		deltaBaseSequence = encoderFactory.createHLAinteger64BE();
+
+		// create reusable data elements for decoding values
+		activeModelDecoder = encoderFactory.createHLAunicodeString();
+		vectorDecoder = new HLAfloatVector(encoderFactory);
+		matrixDecoder = new HLAintegerMatrix(encoderFactory);
+		stringDecoder = new HLAstringVector(encoderFactory);
+		indexDecoder = encoderFactory.createHLAinteger32BE();
+		solvedDecoder = encoderFactory.createHLAboolean();
+		versionDecoder = encoderFactory.createHLAinteger64BE();
+		keyDecoder = encoderFactory.createHLAinteger64BE();
 	}
-	
+
 	/**
 	 * Adds the manager listener.
 	 *
@@ -160,97 +287,123 @@ public class DesignerAmbassador extends NullFederateAmbassador {
 		// add listener to list
 		listenerList.add(ManagerListener.class, listener);
 	}
-	
-	/* (non-Javadoc)
-	 * @see hla.rti1516e.NullFederateAmbassador#discoverObjectInstance(hla.rti1516e.ObjectInstanceHandle, hla.rti1516e.ObjectClassHandle, java.lang.String)
+
+	/**
+	 * Stores the input for the active model of a manager in the designer
+	 * cache, if enabled, to restore it after a restart. The cache is written
+	 * after a delay so that consecutive input changes are written once.
+	 *
+	 * @param manager the manager
+	 * @param inputValue the input value
 	 */
-	@Override
-	public void discoverObjectInstance(ObjectInstanceHandle theObject,
-			ObjectClassHandle theObjectClass, 
-			String objectName) {
-		// re-direct method to single method signature
-		discoverObjectInstance(theObject, theObjectClass, objectName, null);
+	public void cacheInput(Manager manager, RealVector inputValue) {
+		if(cache != null && manager != null && cache.putInput(
+				manager.getInstanceName(), inputValue.toArray())) {
+			writeCache(cacheInputDelay);
+		}
 	}
-	
+
+	/**
+	 * Checks the model version of a manager received upon re-joining with a
+	 * cached model. If the cached model is current, the cached input is sent
+	 * to the manager; otherwise, all of the manager's attributes are
+	 * requested.
+	 *
+	 * @param instanceName the manager instance name
+	 * @param modelVersion the model version
+	 * @throws TransportException the transport exception
+	 * @throws EncoderException the encoder exception
+	 */
+	private void checkModelVersion(String instanceName, long modelVersion)
+			throws TransportException, EncoderException {
+		DesignerCache.ModelEntry cached = cache == null ? null
+				: cache.getActiveModel(instanceName);
+		Long cachedVersion = cache == null ? null
+				: cache.getModelVersion(instanceName);
+		if(cached != null && cachedVersion != null
+				&& cachedVersion == modelVersion) {
+			System.out.println("Designer " + (index.getValue()+1) +
+					" Log: restored model version " + modelVersion +
+					" is current");
+			if(cached.getInput() != null) {
+				// re-send the restored input to the manager
+				updateInputAttribute(new ArrayRealVector(cached.getInput()));
+			}
+		} else {
+			// model has changed; request all of the manager's attributes
+			transport.requestAttributeValueUpdate(instanceName,
+					managerAttributeNames);
+		}
+	}
+
 	/* (non-Javadoc)
-	 * @see hla.rti1516e.NullFederateAmbassador#discoverObjectInstance(hla.rti1516e.ObjectInstanceHandle, hla.rti1516e.ObjectClassHandle, java.lang.String)
+	 * @see edu.mit.collab.transport.TransportListener#discoverObjectInstance(java.lang.String, java.lang.String)
 	 */
 	@Override
-	public void discoverObjectInstance(ObjectInstanceHandle theObject,
-			ObjectClassHandle theObjectClass,
-			String objectName,
-			FederateHandle producingFederate) {
-		// this method is called by the RTI when a new object is "discovered"
-		// in this case, we are only expecting managers which should be added
-		// to the list of discovered managers and request attribute updates
+	public void discoverObjectInstance(String instanceName, String className) {
+		// this method is called by the transport when a new object is
+		// "discovered" in this case, we are only expecting managers which
+		// should be added to the list of discovered managers and request
+		// attribute updates
 		try {
-			// check if object is a designer (shouldn't be anything else!)
-			if(theObjectClass.equals(
-					rtiAmbassador.getObjectClassHandle(managerClassName))) {
+			// check if object is a manager
+			if(className.equals(managerClassName)) {
 				// create new object model
-				Manager manager = new Manager(objectName);
-				
-				// add object class handle and manager object to 
+				Manager manager = new Manager(instanceName);
+
+				// add instance name and manager object to
 				// thread-safe map using a synchronized block
 				synchronized(managers) {
-					managers.put(theObject, manager);
+					managers.put(instanceName, manager);
+				}
+
+				// get the cached model of the manager, if any
+				DesignerCache.ModelEntry cached = cache == null ? null
+						: cache.getActiveModel(instanceName);
+
+				if(cached == null) {
+					// issue request attribute value update service call for
+					// all of the manager's attributes
+					transport.requestAttributeValueUpdate(instanceName,
+							managerAttributeNames);
 				}
 
-				// create a new attribute handle set to request updates of the
-				// manager's attributes
-				AttributeHandleSet attributes = rtiAmbassador
-						.getAttributeHandleSetFactory().create();
-				// add initial input attribute
-				attributes.add(rtiAmbassador.getAttributeHandle(
-						rtiAmbassador.getObjectClassHandle(managerClassName), 
-						initialInputAttributeName));
-				// add target output attribute
-				attributes.add(rtiAmbassador.getAttributeHandle(
-						rtiAmbassador.getObjectClassHandle(managerClassName), 
-						targetOutputAttributeName));
-				// add output attribute
-				attributes.add(rtiAmbassador.getAttributeHandle(
-						rtiAmbassador.getObjectClassHandle(managerClassName), 
-						outputAttributeName));
-				// add active model attribute
-				attributes.add(rtiAmbassador.getAttributeHandle(
-						rtiAmbassador.getObjectClassHandle(managerClassName), 
-						activeModelAttributeName));
-				// add input indices attribute
-				attributes.add(rtiAmbassador.getAttributeHandle(
-						rtiAmbassador.getObjectClassHandle(managerClassName), 
-						inputIndicesAttributeName));
-				// add output indices attribute
-				attributes.add(rtiAmbassador.getAttributeHandle(
-						rtiAmbassador.getObjectClassHandle(managerClassName), 
-						outputIndicesAttributeName));
-				// add input labels attribute
-				attributes.add(rtiAmbassador.getAttributeHandle(
-						rtiAmbassador.getObjectClassHandle(managerClassName), 
-						inputLabelsAttributeName));
-				// add output labels attribute
-				attributes.add(rtiAmbassador.getAttributeHandle(
-						rtiAmbassador.getObjectClassHandle(managerClassName), 
-						outputLabelsAttributeName));
-				// issue request attribute value update service call
-				rtiAmbassador.requestAttributeValueUpdate(theObject, 
-						attributes, new byte[0]);
-				
 				// notify listeners that a manager has been discovered
-				fireManagerEvent(ManagerAction.ADD, 
+				fireManagerEvent(ManagerAction.ADD,
 						new ManagerEvent(this, manager));
+
+				if(cached != null) {
+					// restore the cached model immediately and only request
+					// the model version (to check the cached model is
+					// current) and the latest output
+					System.out.println("Designer " + (index.getValue()+1) +
+							" Log: restoring cached model of " + instanceName);
+					reflectManagerValues(instanceName, manager,
+							cached.getAttributes(), new byte[0],
+							cached.getInput() == null ? null
+									: new ArrayRealVector(cached.getInput()));
+					transport.requestAttributeValueUpdate(instanceName,
+							rejoinAttributeNames);
+				}
+			} else if(designerOutputs
+					&& className.equals(designerOutputClassName)) {
+				// store the designer output instance until its designer
+				// index is known
+				designerOutputInstances.add(instanceName);
+
+				// request all of the designer output attributes
+				transport.requestAttributeValueUpdate(instanceName,
+						designerOutputAttributeNames);
 			}
 		} catch (Exception ex) {
 			// in the case of an exception (from the request attribute value
-			// update call), print stack trace and show error message
-			ex.printStackTrace();
-			JOptionPane.showMessageDialog(null, "An exception of type " + 
-					ex.getMessage() + " occurred while discovering an object. " +
-					"See stack trace for more information.", 
-					"Error", JOptionPane.ERROR_MESSAGE);
+			// update call), record the error without blocking
+			// the callback thread
+			errorReporter.report("discovering an object",
+					instanceName, ex);
 		}
 	}
-	
+
 	/**
 	 * Fires a manager event corresponding to an observed action.
 	 *
@@ -279,9 +432,32 @@ public class DesignerAmbassador extends NullFederateAmbassador {
 			}
 		}
 	}
-	
+
+	/**
+	 * Gets the designer cache file, given by the <code>designerCachePath</code>
+	 * property (default <code>.collab</code> in the user home directory).
+	 *
+	 * @param designerIndex the designer index
+	 * @return the cache file
+	 */
+	private File getCacheFile(int designerIndex) {
+		return new File(properties.getProperty("designerCachePath",
+				new File(System.getProperty("user.home"), ".collab").getPath()),
+				properties.getProperty("federationName", "collab")
+				+ "-designer" + designerIndex + ".json");
+	}
+
+	/**
+	 * Gets the error reporter which records exceptions raised in callbacks.
+	 *
+	 * @return the error reporter
+	 */
+	public ErrorReporter getErrorReporter() {
+		return errorReporter;
+	}
+
 	/**
-	 * Gets the instance name issued by the RTI.
+	 * Gets the instance name issued by the transport.
 	 *
 	 * @return the instance name
 	 */
@@ -289,364 +465,483 @@ public class DesignerAmbassador extends NullFederateAmbassador {
 		return objectInstanceName;
 	}
 
+	/**
+	 * Checks whether a manager has a model active, i.e. whether the active
+	 * model name is not one of the transient names sent while no experiment
+	 * is loaded, the experiment is ready, or the experiment is complete.
+	 *
+	 * @param modelName the active model name
+	 * @return true, if a model is active
+	 */
+	private static boolean isModelActive(String modelName) {
+		return !modelName.equals("") && !modelName.equals("Ready...")
+				&& !modelName.equals("Complete!");
+	}
+
 	/* (non-Javadoc)
-	 * @see hla.rti1516e.NullFederateAmbassador#provideAttributeValueUpdate(hla.rti1516e.ObjectInstanceHandle, hla.rti1516e.AttributeHandleSet, byte[])
+	 * @see edu.mit.collab.transport.TransportListener#provideAttributeValueUpdate(java.lang.String, java.util.Set)
 	 */
-	public void provideAttributeValueUpdate(ObjectInstanceHandle theObject,
-			AttributeHandleSet theAttributes, 
-			byte[] userSuppliedTag) {
-		// this method is called by the RTI when this object attribute values
-		// owned by this federate are requested by another federate. in this
-		// case, this corresponds to a designer requesting attribute values
-		// of the manager
+	@Override
+	public void provideAttributeValueUpdate(String instanceName,
+			Set<String> attributeNames) {
+		// this method is called by the transport when this object attribute
+		// values owned by this federate are requested by another federate.
+		// in this case, this corresponds to a manager requesting attribute
+		// values of the designer
 		try {
-			// check to make sure that the object requested is this manager
-			if(theObject.equals(rtiAmbassador.getObjectInstanceHandle(
-					objectInstanceName))) {
-				// create an attribute handle value map to store data
-				AttributeHandleValueMap attributes = rtiAmbassador.
-						getAttributeHandleValueMapFactory().create(3);
-				
+			// check to make sure that the object requested is this designer
+			if(instanceName.equals(objectInstanceName)) {
+				// create an attribute value map to store data
+				Map<String, byte[]> attributes = new HashMap<String, byte[]>();
+
 				// if the input is requested, add it to the map
-				if(theAttributes.contains(rtiAmbassador.getAttributeHandle(
-						rtiAmbassador.getObjectClassHandle(designerClassName), 
-						inputAttributeName))) {
-					attributes.put(rtiAmbassador.getAttributeHandle(
-							rtiAmbassador.getObjectClassHandle(designerClassName), 
-							inputAttributeName), input.toByteArray());
+				if(attributeNames.contains(inputAttributeName)) {
+					attributes.put(inputAttributeName, input.toByteArray());
 				}
-				
+
 				// if the index is requested, add it to the map
-				if(theAttributes.contains(rtiAmbassador.getAttributeHandle(
-						rtiAmbassador.getObjectClassHandle(designerClassName), 
-						indexAttributeName))) {
-					attributes.put(rtiAmbassador.getAttributeHandle(
-							rtiAmbassador.getObjectClassHandle(designerClassName), 
-							indexAttributeName), index.toByteArray());
+				if(attributeNames.contains(indexAttributeName)) {
+					attributes.put(indexAttributeName, index.toByteArray());
 				}
-				
+
 				// if the ready state is requested, add it to the map
-				if(theAttributes.contains(rtiAmbassador.getAttributeHandle(
-						rtiAmbassador.getObjectClassHandle(designerClassName), 
-						readyAttributeName))) {
-					attributes.put(rtiAmbassador.getAttributeHandle(
-							rtiAmbassador.getObjectClassHandle(designerClassName),
-							readyAttributeName), ready.toByteArray());
+				if(attributeNames.contains(readyAttributeName)) {
+					attributes.put(readyAttributeName, ready.toByteArray());
 				}
-				
-				// use the rti's update attribute value service to issue updates
-				rtiAmbassador.updateAttributeValues(
-						rtiAmbassador.getObjectInstanceHandle(objectInstanceName),
-						attributes, new byte[0]);
+
+				// use the transport's update attribute value service to
+				// issue updates
+				transport.updateAttributeValues(objectInstanceName,
+						attributes, SequenceFilter.encodeTag(
+								inputSequence.get()));
 			}
 		} catch (Exception ex) {
 			// in the case of an exception (from the update attribute value
-			// call), print stack trace and show error message
-			ex.printStackTrace();
-			JOptionPane.showMessageDialog(null, "An exception of type " + 
-					ex.getMessage() + " occurred while providing attribute " +
-					"updates. See stack trace for more information.", 
-					"Error", JOptionPane.ERROR_MESSAGE);
+			// call), record the error without blocking
+			// the callback thread
+			errorReporter.report("providing attribute updates",
+					instanceName, ex);
 		}
 	}
-	
+
 	/**
 	 * Configures the published object class attributes.
 	 *
-	 * @throws FederateNotExecutionMember the federate not execution member
-	 * @throws NotConnected the not connected
-	 * @throws NameNotFound the name not found
-	 * @throws InvalidObjectClassHandle the invalid object class handle
-	 * @throws RTIinternalError the RTI internal error
-	 * @throws AttributeNotDefined the attribute not defined
-	 * @throws ObjectClassNotDefined the object class not defined
-	 * @throws SaveInProgress the save in progress
-	 * @throws RestoreInProgress the restore in progress
+	 * @throws TransportException the transport exception
+	 */
+	private void publish() throws TransportException {
+		// use the transport service to publish the input, index and ready
+		// state attributes
+		transport.publishObjectClassAttributes(designerClassName,
+				inputAttributeName, indexAttributeName, readyAttributeName);
+
+		if(inputDeltas) {
+			// use the transport service to publish input delta interactions
+			transport.publishInteractionClass(inputDeltaClassName);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.TransportListener#receiveInteraction(java.lang.String, java.util.Map, byte[])
 	 */
-	private void publish() 
-			throws FederateNotExecutionMember, NotConnected, NameNotFound, 
-			InvalidObjectClassHandle, RTIinternalError, AttributeNotDefined, 
-			ObjectClassNotDefined, SaveInProgress, RestoreInProgress {
-		// create a new attribute handle set to store attributes
-		AttributeHandleSet attributeHandleSet = rtiAmbassador.
-				getAttributeHandleSetFactory().create();
-		// add the input to the set
-		attributeHandleSet.add(rtiAmbassador.getAttributeHandle(
-				rtiAmbassador.getObjectClassHandle(designerClassName), 
-				inputAttributeName));
-		// add the index to the set
-		attributeHandleSet.add(rtiAmbassador.getAttributeHandle(
-				rtiAmbassador.getObjectClassHandle(designerClassName), 
-				indexAttributeName));
-		// add the ready state to the set
-		attributeHandleSet.add(rtiAmbassador.getAttributeHandle(
-				rtiAmbassador.getObjectClassHandle(designerClassName), 
-				readyAttributeName));
-		// use the RTI service to publish object class attributes
-		rtiAmbassador.publishObjectClassAttributes(
-				rtiAmbassador.getObjectClassHandle(designerClassName),
-				attributeHandleSet);
+	@Override
+	public void receiveInteraction(String className,
+			Map<String, byte[]> parameters, byte[] tag) {
+		// designers do not subscribe to any interactions
 	}
 
 	/* (non-Javadoc)
-	 * @see hla.rti1516e.NullFederateAmbassador#reflectAttributeValues(hla.rti1516e.ObjectInstanceHandle, hla.rti1516e.AttributeHandleValueMap, byte[], hla.rti1516e.OrderType, hla.rti1516e.TransportationTypeHandle, hla.rti1516e.LogicalTime, hla.rti1516e.OrderType, hla.rti1516e.MessageRetractionHandle, hla.rti1516e.FederateAmbassador.SupplementalReflectInfo)
+	 * @see edu.mit.collab.transport.TransportListener#reflectAttributeValues(java.lang.String, java.util.Map, byte[])
 	 */
 	@Override
-	public void reflectAttributeValues(ObjectInstanceHandle theObject,
-			AttributeHandleValueMap theAttributes,
-			byte[] userSuppliedTag,
-			OrderType sentOrdering,
-			TransportationTypeHandle theTransport,
-			LogicalTime theTime,
-			OrderType receivedOrdering,
-			MessageRetractionHandle retractionHandle,
-			SupplementalReflectInfo reflectInfo) {
-		// this method is called by the RTI when remote objects update their
-		// values. this method must update any local representations of the 
-		// remote objects to reflect the processed updates
-		
-		// create a gson object to help with log message formatting
-		Gson gson = new Gson();
-		
+	public void reflectAttributeValues(String instanceName,
+			Map<String, byte[]> attributes, byte[] tag) {
+		// this method is called by the transport when remote objects update
+		// their values. this method must update any local representations
+		// of the remote objects to reflect the processed updates
 		try {
 			// check whether the object has been previously discovered
 			Manager manager = null;
 			synchronized(managers) {
-				manager = managers.get(theObject);
+				manager = managers.get(instanceName);
 			}
-			
-			// if manager has not been discovered, simply return
+
+			// if manager has not been discovered, check for designer outputs
 			if(manager == null) {
+				if(designerOutputInstances.contains(instanceName)) {
+					reflectDesignerOutputValues(instanceName, attributes, tag);
+				}
+				return;
+			}
+
+			// resolve values sent by key from the dictionary; if any are
+			// missing, the values are requested in full instead
+			attributes = resolveDictionaryValues(instanceName, attributes);
+			if(attributes == null) {
 				return;
 			}
-			
-			// get the data corresponding to the active model attribute
-			ByteWrapper wrapper = theAttributes.getValueReference(
-					rtiAmbassador.getAttributeHandle(
-							rtiAmbassador.getObjectClassHandle(
-									managerClassName), 
-									activeModelAttributeName));
-			
-			if(wrapper != null) {
-				// active model has changed -- start a complete model update
-				
-				// decode into an HLA data element
-				HLAunicodeString string = 
-						encoderFactory.createHLAunicodeString();
-				string.decode(wrapper);
+
+			// reflect the values of the manager
+			reflectManagerValues(instanceName, manager, attributes, tag, null);
+		} catch (Exception ex) {
+			// in the case of an exception (from the various decode calls),
+			// record the error without blocking the callback thread
+			errorReporter.report("decoding an attribute update",
+					instanceName, ex);
+		}
+	}
+
+	/**
+	 * Reflects updated values of a designer output object.
+	 *
+	 * @param instanceName the designer output instance name
+	 * @param attributes the attributes
+	 * @param tag the user supplied tag
+	 * @throws DecoderException the decoder exception
+	 */
+	private void reflectDesignerOutputValues(String instanceName,
+			Map<String, byte[]> attributes, byte[] tag)
+			throws DecoderException {
+		// get the data corresponding to the designer index attribute
+		byte[] value = attributes.get(designerIndexAttributeName);
+		if(value != null) {
+			indexDecoder.decode(value);
+			if(indexDecoder.getValue() != index.getValue()) {
+				// outputs are for another designer; ignore this instance
+				designerOutputInstances.remove(instanceName);
+				return;
+			}
+
+			// get the data corresponding to the manager attribute and map
+			// the instance to the corresponding manager
+			value = attributes.get(managerAttributeName);
+			if(value != null) {
+				activeModelDecoder.decode(value);
+				synchronized(managers) {
+					for(Map.Entry<String, Manager> entry
+							: managers.entrySet()) {
+						if(entry.getValue().getInstanceName().equals(
+								activeModelDecoder.getValue())) {
+							designerOutputManagers.put(instanceName,
+									entry.getKey());
+						}
+					}
+				}
+			}
+		}
+
+		// check the instance has been mapped to a manager
+		String managerName = designerOutputManagers.get(instanceName);
+		Manager manager = managerName == null ? null
+				: managers.get(managerName);
+		if(manager == null) {
+			return;
+		}
+
+		// drop outputs older than the latest update from the manager
+		if(!outputFilter.accept(managerName, tag)) {
+			return;
+		}
+
+		// get the data corresponding to the solved attribute
+		value = attributes.get(solvedAttributeName);
+		if(value != null) {
+			solvedDecoder.decode(value);
+			manager.setSolved(solvedDecoder.getValue());
+		}
+
+		// get the data corresponding to the output attribute
+		value = attributes.get(outputAttributeName);
+		if(value != null) {
+			// value has data; decode into the reusable data element
+			// and copy into the reusable output buffer
+			vectorDecoder.decode(value);
+			outputBuffer = vectorDecoder.getValue(outputBuffer);
+			System.out.println("Designer " + (index.getValue()+1) +
+					" Log: setting designer output to " + vectorDecoder);
+
+			// update manager object and fire update event
+			manager.setDesignerOutput(outputBuffer, vectorDecoder.size());
+			fireManagerEvent(ManagerAction.OUTPUT_UPDATE,
+					new ManagerEvent(this, manager));
+		}
+	}
+
+	/**
+	 * Reflects updated values of a manager. Values restored from the
+	 * designer cache are reflected with the cached designer input.
+	 *
+	 * @param instanceName the manager instance name
+	 * @param manager the manager
+	 * @param attributes the attributes
+	 * @param tag the user supplied tag
+	 * @param designerInput the designer input restored from the cache, or
+	 * null if the values were received from the manager
+	 * @throws DecoderException the decoder exception
+	 * @throws TransportException the transport exception
+	 * @throws EncoderException the encoder exception
+	 */
+	private void reflectManagerValues(String instanceName, Manager manager,
+			Map<String, byte[]> attributes, byte[] tag,
+			RealVector designerInput) throws DecoderException,
+			TransportException, EncoderException {
+		// check the model version replied upon re-joining with a cached
+		// model, i.e. without the other model attributes
+		byte[] value = attributes.get(modelVersionAttributeName);
+		if(value != null && !attributes.containsKey(activeModelAttributeName)) {
+			versionDecoder.decode(value);
+			checkModelVersion(instanceName, versionDecoder.getValue());
+		}
+
+		// check whether this update is not older than the latest update
+		// received from the manager; model attributes are reliable and
+		// always processed, but stale outputs are dropped
+		boolean current = outputFilter.accept(instanceName, tag);
+
+		// get the data corresponding to the active model attribute
+		value = attributes.get(activeModelAttributeName);
+
+		if(value != null) {
+			// active model has changed -- start a complete model update
+
+			// decode into the reusable data element
+			activeModelDecoder.decode(value);
+			System.out.println("Designer " + (index.getValue()+1) +
+					" Log: setting manager active model to " +
+					activeModelDecoder.getValue());
+
+			// update manager object
+			String modelName = activeModelDecoder.getValue();
+			manager.setActiveModel(modelName);
+
+			// get the data corresponding to the output attribute
+			value = attributes.get(outputAttributeName);
+			if(value != null && current) {
+				// value has data; decode into the reusable data element
+				// and copy into the reusable output buffer
+				vectorDecoder.decode(value);
+				outputBuffer = vectorDecoder.getValue(outputBuffer);
 				System.out.println("Designer " + (index.getValue()+1) +
-						" Log: setting manager active model to " + 
-						string.getValue());
+						" Log: setting manager output to " +
+						vectorDecoder);
 
 				// update manager object
-				manager.setActiveModel(string.getValue());
-				
-				// get the data corresponding to the initial input attribute
-				wrapper = theAttributes.getValueReference(
-						rtiAmbassador.getAttributeHandle(
-								rtiAmbassador.getObjectClassHandle(
-										managerClassName), 
-								initialInputAttributeName));
-				
-				if(wrapper != null) {
-					// wrapper has data; decode into an HLA data element
-					HLAfloatVector vector = new HLAfloatVector(encoderFactory);
-					vector.decode(wrapper);
-					System.out.println("Designer " + (index.getValue()+1) +
-							" Log: setting manager initial input to " + 
-							vector.getValue());
-					
-					// update manager object
-					manager.setInitialInput(vector.getValue());
-				}
-				
-				// get the data corresponding to the target output attribute
-				wrapper = theAttributes.getValueReference(
-						rtiAmbassador.getAttributeHandle(
-								rtiAmbassador.getObjectClassHandle(
-										managerClassName), 
-										targetOutputAttributeName));
-				
-				if(wrapper != null) {
-					// wrapper has data; decode into an HLA data element
-					HLAfloatVector vector = new HLAfloatVector(encoderFactory);
-					vector.decode(wrapper);
-					System.out.println("Designer " + (index.getValue()+1) +
-							" Log: setting manager target output to " + 
-							vector.getValue());
+				manager.setOutput(outputBuffer, vectorDecoder.size());
+			}
 
-					// update manager object
-					manager.setTargetOutput(vector.getValue());
-				}
-				
-
-				// get the data corresponding to the output attribute
-				wrapper = theAttributes.getValueReference(
-						rtiAmbassador.getAttributeHandle(
-								rtiAmbassador.getObjectClassHandle(
-										managerClassName), 
-										outputAttributeName));
-				if(wrapper != null) {
-					// wrapper has data; decode into an HLA data element
-					HLAfloatVector vector = 
-							new HLAfloatVector(encoderFactory);
-					vector.decode(wrapper);
-					System.out.println("Designer " + (index.getValue()+1) +
-							" Log: setting manager output to " + 
-							vector.getValue());
+			// set the input restored from the cache (if any)
+			manager.setDesignerInput(designerInput);
 
-					// update manager object
-					manager.setOutput(vector.getValue());
-				}
+			// if the model was received before, start from the cached
+			// definition and only decode the attributes which differ
+			ModelDefinition cachedDefinition = isModelActive(modelName) ?
+					modelCache.get(modelName) : null;
+			if(cachedDefinition != null) {
+				System.out.println("Designer " + (index.getValue()+1) +
+						" Log: restoring cached definition of model " +
+						modelName);
+			}
+			ModelDefinition definition = cachedDefinition == null ?
+					new ModelDefinition() : new ModelDefinition(cachedDefinition);
+			boolean modified = cachedDefinition == null;
 
-				// get the data corresponding to the input indices attribute
-				wrapper = theAttributes.getValueReference(
-						rtiAmbassador.getAttributeHandle(
-								rtiAmbassador.getObjectClassHandle(
-										managerClassName),
-										inputIndicesAttributeName));
-				if(wrapper != null) {
-					// wrapper has data; decode into an HLA data element
-					HLAintegerMatrix matrix = 
-							new HLAintegerMatrix(encoderFactory);
-					matrix.decode(wrapper);
-					System.out.println("Designer " + (index.getValue()+1) +
-							" Log: setting manager input indices to " + 
-							gson.toJson(matrix.getValue()));
+			// get the data corresponding to the initial input attribute
+			value = attributes.get(initialInputAttributeName);
 
-					// update manager object
-					manager.setInputIndices(matrix.getValue());
-				}
+			if(value != null && !definition.matches(
+					initialInputAttributeName, value)) {
+				// value has data; decode into the reusable data element
+				vectorDecoder.decode(value);
+				System.out.println("Designer " + (index.getValue()+1) +
+						" Log: setting manager initial input to " +
+						vectorDecoder);
 
-				// get the data corresponding to the output indices attribute
-				wrapper = theAttributes.getValueReference(
-						rtiAmbassador.getAttributeHandle(
-								rtiAmbassador.getObjectClassHandle(
-										managerClassName), 
-										outputIndicesAttributeName));
-				
-				if(wrapper != null) {
-					// wrapper has data; decode into an HLA data element
-					HLAintegerMatrix matrix = 
-							new HLAintegerMatrix(encoderFactory);
-					matrix.decode(wrapper);
-					System.out.println("Designer " + (index.getValue()+1) + 
-							" Log: setting manager output indices to " + 
-							gson.toJson(matrix.getValue()));
-
-					// update manager object
-					manager.setOutputIndices(matrix.getValue());
-				}
+				// update model definition
+				definition.setInitialInput(vectorDecoder.getValue(),
+						initialInputAttributeName, value);
+				modified = true;
+			}
 
-				// get the data corresponding to the input labels attribute
-				wrapper = theAttributes.getValueReference(
-						rtiAmbassador.getAttributeHandle(
-								rtiAmbassador.getObjectClassHandle(
-										managerClassName), 
-										inputLabelsAttributeName));
-				
-				if(wrapper != null) {
-					// wrapper has data; decode into an HLA data element
-					HLAstringVector vector = 
-							new HLAstringVector(encoderFactory);
-					vector.decode(wrapper);
-					System.out.println("Designer " + (index.getValue()+1) + 
-							" Log: setting manager input labels to " + 
-							gson.toJson(vector.getValue()));
-
-					// update manager object
-					manager.setInputLabels(vector.getValue());
-				}
+			// get the data corresponding to the target output attribute
+			value = attributes.get(targetOutputAttributeName);
+
+			if(value != null && !definition.matches(
+					targetOutputAttributeName, value)) {
+				// value has data; decode into the reusable data element
+				vectorDecoder.decode(value);
+				System.out.println("Designer " + (index.getValue()+1) +
+						" Log: setting manager target output to " +
+						vectorDecoder);
+
+				// update model definition
+				definition.setTargetOutput(vectorDecoder.getValue(),
+						targetOutputAttributeName, value);
+				modified = true;
+			}
+
+			// get the data corresponding to the input indices attribute
+			value = attributes.get(inputIndicesAttributeName);
+			if(value != null && !definition.matches(
+					inputIndicesAttributeName, value)) {
+				// value has data; decode into the reusable data element
+				matrixDecoder.decode(value);
+				int[][] matrix = matrixDecoder.getValue();
+				System.out.println("Designer " + (index.getValue()+1) +
+						" Log: setting manager input indices to " +
+						gson.toJson(matrix));
+
+				// update model definition
+				definition.setInputIndices(matrix,
+						inputIndicesAttributeName, value);
+				modified = true;
+			}
+
+			// get the data corresponding to the output indices attribute
+			value = attributes.get(outputIndicesAttributeName);
+
+			if(value != null && !definition.matches(
+					outputIndicesAttributeName, value)) {
+				// value has data; decode into the reusable data element
+				matrixDecoder.decode(value);
+				int[][] matrix = matrixDecoder.getValue();
+				System.out.println("Designer " + (index.getValue()+1) +
+						" Log: setting manager output indices to " +
+						gson.toJson(matrix));
+
+				// update model definition
+				definition.setOutputIndices(matrix,
+						outputIndicesAttributeName, value);
+				modified = true;
+			}
 
-				// get the data corresponding to the output labels attribute
-				wrapper = theAttributes.getValueReference(
-						rtiAmbassador.getAttributeHandle(
-								rtiAmbassador.getObjectClassHandle(
-										managerClassName), 
-										outputLabelsAttributeName));
-				
-				if(wrapper != null) {
-					// wrapper has data; decode into an HLA data element
-					HLAstringVector vector = 
-							new HLAstringVector(encoderFactory);
-					vector.decode(wrapper);
-					System.out.println("Designer " + (index.getValue()+1) + 
-							" Log: setting manager output labels to " + 
-							gson.toJson(vector.getValue()));
-
-					// update manager object
-					manager.setOutputLabels(vector.getValue());
+			// get the data corresponding to the input labels attribute
+			value = attributes.get(inputLabelsAttributeName);
+
+			if(value != null && !definition.matches(
+					inputLabelsAttributeName, value)) {
+				// value has data; decode into the reusable data element
+				stringDecoder.decode(value);
+				String[] vector = stringDecoder.getValue();
+				System.out.println("Designer " + (index.getValue()+1) +
+						" Log: setting manager input labels to " +
+						gson.toJson(vector));
+
+				// update model definition
+				definition.setInputLabels(vector,
+						inputLabelsAttributeName, value);
+				modified = true;
+			}
+
+			// get the data corresponding to the output labels attribute
+			value = attributes.get(outputLabelsAttributeName);
+
+			if(value != null && !definition.matches(
+					outputLabelsAttributeName, value)) {
+				// value has data; decode into the reusable data element
+				stringDecoder.decode(value);
+				String[] vector = stringDecoder.getValue();
+				System.out.println("Designer " + (index.getValue()+1) +
+						" Log: setting manager output labels to " +
+						gson.toJson(vector));
+
+				// update model definition
+				definition.setOutputLabels(vector,
+						outputLabelsAttributeName, value);
+				modified = true;
+			}
+
+			// update manager object and store the definition in the cache
+			// if a model is active
+			manager.setModelDefinition(modified ? definition 
+					: cachedDefinition);
+			if(modified && isModelActive(modelName)) {
+				modelCache.put(modelName, definition);
+			}
+
+			if(cache != null && designerInput == null) {
+				// store the model payloads in the cache
+				Long modelVersion = null;
+				value = attributes.get(modelVersionAttributeName);
+				if(value != null) {
+					versionDecoder.decode(value);
+					modelVersion = versionDecoder.getValue();
 				}
+				cache.putModel(instanceName, activeModelDecoder.getValue(),
+						modelVersion, attributes);
+				writeCache(0);
+			}
 
-				// update manager model
-				fireManagerEvent(ManagerAction.MODEL_UPDATE, 
+			// update manager model once all attributes are applied
+			fireManagerEvent(ManagerAction.MODEL_UPDATE,
+					new ManagerEvent(this, manager));
+		} else {
+			// get the data corresponding to the output attribute
+			value = attributes.get(outputAttributeName);
+			if(value != null && current) {
+				// value has data; decode into the reusable data element
+				// and copy into the reusable output buffer
+				vectorDecoder.decode(value);
+				outputBuffer = vectorDecoder.getValue(outputBuffer);
+				System.out.println("Designer " + (index.getValue()+1) +
+						" Log: setting manager output to " +
+						vectorDecoder);
+
+				// update manager object and set flag to update output
+				manager.setOutput(outputBuffer, vectorDecoder.size());
+
+				// fire update event
+				fireManagerEvent(ManagerAction.OUTPUT_UPDATE,
 						new ManagerEvent(this, manager));
-			} else {
-				// get the data corresponding to the output attribute
-				wrapper = theAttributes.getValueReference(
-						rtiAmbassador.getAttributeHandle(
-								rtiAmbassador.getObjectClassHandle(
-										managerClassName), 
-										outputAttributeName));
-				if(wrapper != null) {
-					// wrapper has data; decode into an HLA data element
-					HLAfloatVector vector = 
-							new HLAfloatVector(encoderFactory);
-					vector.decode(wrapper);
-					System.out.println("Designer " + (index.getValue()+1) +
-							" Log: setting manager output to " + 
-							vector.getValue());
-
-					// update manager object and set flag to update output
-					manager.setOutput(vector.getValue());
-					
-					// fire update event
-					fireManagerEvent(ManagerAction.OUTPUT_UPDATE, 
-							new ManagerEvent(this, manager));
-				}
 			}
-		} catch (Exception ex) {
-			// in the case of an exception (from the various RTI calls), 
-			// print stack trace and show error message
-			ex.printStackTrace();
-			JOptionPane.showMessageDialog(null, "An exception of type " + 
-					ex.getMessage() + " occurred while decoding an " +
-					"attribute update. See stack trace for more information.", 
-					"Error", JOptionPane.ERROR_MESSAGE);
 		}
 	}
 
-	/* (non-Javadoc)
-	 * @see hla.rti1516e.NullFederateAmbassador#reflectAttributeValues(hla.rti1516e.ObjectInstanceHandle, hla.rti1516e.AttributeHandleValueMap, byte[], hla.rti1516e.OrderType, hla.rti1516e.TransportationTypeHandle, hla.rti1516e.LogicalTime, hla.rti1516e.OrderType, hla.rti1516e.FederateAmbassador.SupplementalReflectInfo)
-	 */
-	@Override
-	public void reflectAttributeValues(ObjectInstanceHandle theObject,
-			AttributeHandleValueMap theAttributes,
-			byte[] userSuppliedTag,
-			OrderType sentOrdering,
-			TransportationTypeHandle theTransport,
-			LogicalTime theTime,
-			OrderType receivedOrdering,
-			SupplementalReflectInfo reflectInfo) {
-		// re-direct method to single method signature
-		reflectAttributeValues(theObject, theAttributes, userSuppliedTag, 
-				sentOrdering, theTransport, theTime, receivedOrdering, 
-				null, reflectInfo);
-	}
-	
-	/* (non-Javadoc)
-	 * @see hla.rti1516e.NullFederateAmbassador#reflectAttributeValues(hla.rti1516e.ObjectInstanceHandle, hla.rti1516e.AttributeHandleValueMap, byte[], hla.rti1516e.OrderType, hla.rti1516e.TransportationTypeHandle, hla.rti1516e.FederateAmbassador.SupplementalReflectInfo)
+	/**
+	 * Resolves label and index values which a manager sent by key from the
+	 * dictionary. Values received in full are stored in the dictionary. If
+	 * a key is not found, all of the manager's attributes are requested
+	 * (which are then provided in full) and the update is discarded.
+	 *
+	 * @param instanceName the manager instance name
+	 * @param attributes the attributes
+	 * @return the attributes with resolved values, or null if a key is not
+	 * found
+	 * @throws DecoderException the decoder exception
+	 * @throws TransportException the transport exception
 	 */
-	@Override
-	public void reflectAttributeValues(ObjectInstanceHandle theObject,
-			AttributeHandleValueMap theAttributes,
-			byte[] userSuppliedTag,
-			OrderType sentOrdering,
-			TransportationTypeHandle theTransport,
-			SupplementalReflectInfo reflectInfo) {
-		// re-direct method to single method signature
-		reflectAttributeValues(theObject, theAttributes, userSuppliedTag, 
-				sentOrdering, theTransport, null, null, reflectInfo);
+	private Map<String, byte[]> resolveDictionaryValues(String instanceName,
+			Map<String, byte[]> attributes)
+			throws DecoderException, TransportException {
+		Map<String, byte[]> resolved = attributes;
+		for(int i = 0; i < dictionaryAttributeNames.length; i++) {
+			byte[] key = attributes.get(dictionaryKeyAttributeNames[i]);
+			if(key == null) {
+				// value not sent by key
+				continue;
+			}
+			keyDecoder.decode(key);
+			byte[] value = attributes.get(dictionaryAttributeNames[i]);
+			if(value != null) {
+				// value sent in full; store in the dictionary
+				dictionary.put(keyDecoder.getValue(), value);
+				continue;
+			}
+			value = dictionary.get(keyDecoder.getValue());
+			if(value == null) {
+				System.out.println("Designer " + (index.getValue()+1) +
+						" Log: " + dictionaryAttributeNames[i] +
+						" not in dictionary, requesting all attributes");
+				transport.requestAttributeValueUpdate(instanceName,
+						managerAttributeNames);
+				return null;
+			}
+			if(resolved == attributes) {
+				// copy the attributes as they may be re-used by the transport
+				resolved = new HashMap<String, byte[]>(attributes);
+			}
+			resolved.put(dictionaryAttributeNames[i], value);
+		}
+		return resolved;
 	}
 
 	/**
@@ -660,335 +955,238 @@ public class DesignerAmbassador extends NullFederateAmbassador {
 	}
 
 	/* (non-Javadoc)
-	 * @see hla.rti1516e.NullFederateAmbassador#removeObjectInstance(hla.rti1516e.ObjectInstanceHandle, byte[], hla.rti1516e.OrderType, hla.rti1516e.LogicalTime, hla.rti1516e.OrderType, hla.rti1516e.MessageRetractionHandle, hla.rti1516e.FederateAmbassador.SupplementalRemoveInfo)
+	 * @see edu.mit.collab.transport.TransportListener#removeObjectInstance(java.lang.String)
 	 */
 	@Override
-	public void removeObjectInstance(ObjectInstanceHandle theObject,
-			byte[] userSuppliedTag,
-			OrderType sentOrdering,
-			LogicalTime theTime,
-			OrderType receivedOrdering,
-			MessageRetractionHandle retractionHandle,
-			SupplementalRemoveInfo removeInfo) {
+	public void removeObjectInstance(String instanceName) {
 		// try to remove manager from the manager map
 		Manager manager = null;
 		synchronized(managers) {
-			manager = managers.remove(theObject);
+			manager = managers.remove(instanceName);
 		}
+		outputFilter.remove(instanceName);
+		designerOutputInstances.remove(instanceName);
+		designerOutputManagers.remove(instanceName);
 		if(manager != null) {
 			// notify listeners that manager has been removed
-			fireManagerEvent(ManagerAction.REMOVE, 
+			fireManagerEvent(ManagerAction.REMOVE,
 					new ManagerEvent(this, manager));
 		}
 	}
 
-	/* (non-Javadoc)
-	 * @see hla.rti1516e.NullFederateAmbassador#removeObjectInstance(hla.rti1516e.ObjectInstanceHandle, byte[], hla.rti1516e.OrderType, hla.rti1516e.LogicalTime, hla.rti1516e.OrderType, hla.rti1516e.FederateAmbassador.SupplementalRemoveInfo)
-	 */
-	@Override
-	public void removeObjectInstance(ObjectInstanceHandle theObject,
-			byte[] userSuppliedTag,
-			OrderType sentOrdering,
-			LogicalTime theTime,
-			OrderType receivedOrdering,
-			SupplementalRemoveInfo removeInfo) {
-		// re-direct method to single method signature
-		removeObjectInstance(theObject, userSuppliedTag, sentOrdering, 
-				theTime, receivedOrdering, null, removeInfo);
-	}
-	
-	/* (non-Javadoc)
-	 * @see hla.rti1516e.NullFederateAmbassador#removeObjectInstance(hla.rti1516e.ObjectInstanceHandle, byte[], hla.rti1516e.OrderType, hla.rti1516e.FederateAmbassador.SupplementalRemoveInfo)
-	 */
-	@Override
-	public void removeObjectInstance(ObjectInstanceHandle theObject,
-			byte[] userSuppliedTag,
-			OrderType sentOrdering,
-			SupplementalRemoveInfo removeInfo) {
-		// re-direct method to single method signature
-		removeObjectInstance(theObject, userSuppliedTag, sentOrdering, 
-				null, null, null, removeInfo);
-	}
-
 	/**
 	 * Shut down.
 	 *
-	 * @throws InvalidResignAction the invalid resign action
-	 * @throws OwnershipAcquisitionPending the ownership acquisition pending
-	 * @throws FederateOwnsAttributes the federate owns attributes
-	 * @throws CallNotAllowedFromWithinCallback the call not allowed from within callback
-	 * @throws RTIinternalError the RTI internal error
-	 * @throws FederateIsExecutionMember the federate is execution member
+	 * @throws TransportException the transport exception
 	 */
-	public void shutDown() 
-			throws InvalidResignAction, OwnershipAcquisitionPending, 
-			FederateOwnsAttributes, CallNotAllowedFromWithinCallback, 
-			RTIinternalError, FederateIsExecutionMember {
-		
-		// try to resign from the federation execution; ignore
-		// exceptions if already resigned or not connected
-		try {
-			rtiAmbassador.resignFederationExecution(
-					ResignAction.DELETE_OBJECTS_THEN_DIVEST);
-		} catch (FederateNotExecutionMember ignored) {
-		} catch (NotConnected ignored) { }
-		
-		// once resigned, try to destroy federation; ignore
-		// exceptions if other federates still joined, federation
-		// already destroyed, or not connected
+	public void shutDown() throws TransportException {
+		transport.disconnect();
+
+		// cancel delayed writes and write any pending changes to the 
+		// designer cache
+		cacheWriter.shutdownNow();
 		try {
-			rtiAmbassador.destroyFederationExecution(properties.getProperty("federationName", "collab"));
-		} catch (FederatesCurrentlyJoined ignored) {
-		} catch (FederationExecutionDoesNotExist ignored) {
-		} catch (NotConnected ignored) {
+			cacheWriter.awaitTermination(1, TimeUnit.SECONDS);
+		} catch (InterruptedException ignored) { }
+		if(cacheWritePending.getAndSet(false)) {
+			try {
+				cache.write(cacheFile);
+			} catch (IOException ex) {
+				ex.printStackTrace();
+			}
 		}
-		
-		// disconnect from the rti
-		rtiAmbassador.disconnect();
 	}
 
 	/**
 	 * Start up.
 	 *
-	 * @throws ConnectionFailed the connection failed
-	 * @throws InvalidLocalSettingsDesignator the invalid local settings designator
-	 * @throws UnsupportedCallbackModel the unsupported callback model
-	 * @throws CallNotAllowedFromWithinCallback the call not allowed from within callback
-	 * @throws RTIinternalError the RTI internal error
-	 * @throws InconsistentFDD the inconsistent FDD
-	 * @throws ErrorReadingFDD the error reading FDD
-	 * @throws CouldNotOpenFDD the could not open FDD
-	 * @throws NotConnected the not connected
-	 * @throws MalformedURLException the malformed URL exception
-	 * @throws CouldNotCreateLogicalTimeFactory the could not create logical time factory
-	 * @throws FederateNameAlreadyInUse the federate name already in use
-	 * @throws FederationExecutionDoesNotExist the federation execution does not exist
-	 * @throws SaveInProgress the save in progress
-	 * @throws RestoreInProgress the restore in progress
-	 * @throws FederateNotExecutionMember the federate not execution member
-	 * @throws NameNotFound the name not found
-	 * @throws InvalidObjectClassHandle the invalid object class handle
-	 * @throws AttributeNotDefined the attribute not defined
-	 * @throws ObjectClassNotDefined the object class not defined
-	 * @throws ObjectInstanceNotKnown the object instance not known
-	 * @throws ObjectClassNotPublished the object class not published
+	 * @throws TransportException the transport exception
 	 */
-	public void startUp() 
-			throws ConnectionFailed, InvalidLocalSettingsDesignator, 
-			UnsupportedCallbackModel, CallNotAllowedFromWithinCallback, 
-			RTIinternalError, InconsistentFDD, ErrorReadingFDD, 
-			CouldNotOpenFDD, NotConnected, MalformedURLException, 
-			CouldNotCreateLogicalTimeFactory, FederateNameAlreadyInUse, 
-			FederationExecutionDoesNotExist, SaveInProgress, 
-			RestoreInProgress, FederateNotExecutionMember, NameNotFound, 
-			InvalidObjectClassHandle, AttributeNotDefined, 
-			ObjectClassNotDefined, ObjectInstanceNotKnown, 
-			ObjectClassNotPublished {
-		// try to connect to the RTI; ignore if already connected
-		try {
-			// use the HLA_Evoked model to require explicit callbacks
-			rtiAmbassador.connect(this, CallbackModel.HLA_IMMEDIATE);
-		} catch(AlreadyConnected ignored) { }
+	public void startUp() throws TransportException {
+		// connect to the transport and join the federation execution
+		transport.connect("Designer " + index.getValue(), federateType, this);
 
-		// try to create the federation execution using the FOM file;
-		// ignore if already exists
-		try {
-			rtiAmbassador.createFederationExecution(
-			    properties.getProperty("federationName", "collab"), 
-			    getClass().getClassLoader().getResource(
-			        properties.getProperty("fomPath", "resources/collab.xml")));
-		} catch(FederationExecutionAlreadyExists ignored) { }
-		
-		// try to join the federation execution; ignore if already joined
-		try {
-			rtiAmbassador.joinFederationExecution("Designer " + index.getValue(),
-					federateType, properties.getProperty("federationName", "collab"));
-		} catch(FederateAlreadyExecutionMember ignored) { }
-		
 		// publish and subscribe to object class attributes
 		publish();
 		subscribe();
 
 		// register the object instance name
-		objectInstanceName = rtiAmbassador.getObjectInstanceName(
-				rtiAmbassador.registerObjectInstance(
-						rtiAmbassador.getObjectClassHandle(
-								designerClassName)));
+		objectInstanceName = transport.registerObjectInstance(
+				designerClassName);
 	}
-	
+
 	/**
 	 * Subscribe.
 	 *
-	 * @throws FederateNotExecutionMember the federate not execution member
-	 * @throws NotConnected the not connected
-	 * @throws AttributeNotDefined the attribute not defined
-	 * @throws ObjectClassNotDefined the object class not defined
-	 * @throws SaveInProgress the save in progress
-	 * @throws RestoreInProgress the restore in progress
-	 * @throws RTIinternalError the RTI internal error
-	 * @throws NameNotFound the name not found
-	 * @throws InvalidObjectClassHandle the invalid object class handle
+	 * @throws TransportException the transport exception
+	 */
+	private void subscribe() throws TransportException {
+		// use the transport service to subscribe to the manager attributes
+		transport.subscribeObjectClassAttributes(managerClassName,
+				managerAttributeNames);
+
+		if(designerOutputs) {
+			subscribeDesignerOutputs();
+		}
+	}
+
+	/**
+	 * Subscribes to the designer output attributes. The subscription uses a
+	 * region spanning only this designer's index so transports supporting
+	 * regions only deliver this designer's outputs; otherwise, instances for
+	 * other designers are ignored upon reflection.
+	 *
+	 * @throws TransportException the transport exception
 	 */
-	private void subscribe() 
-			throws FederateNotExecutionMember, NotConnected, 
-			AttributeNotDefined, ObjectClassNotDefined, SaveInProgress, 
-			RestoreInProgress, RTIinternalError, NameNotFound, 
-			InvalidObjectClassHandle {
-		// create an attribute handle set
-		AttributeHandleSet attributeHandleSet = rtiAmbassador
-				.getAttributeHandleSetFactory().create();
-		// add the initial input attribute
-		attributeHandleSet.add(rtiAmbassador.getAttributeHandle(
-				rtiAmbassador.getObjectClassHandle(managerClassName), 
-				initialInputAttributeName));
-		// add the target output attribute
-		attributeHandleSet.add(rtiAmbassador.getAttributeHandle(
-				rtiAmbassador.getObjectClassHandle(managerClassName), 
-				targetOutputAttributeName));
-		// add the output attribute
-		attributeHandleSet.add(rtiAmbassador.getAttributeHandle(
-				rtiAmbassador.getObjectClassHandle(managerClassName), 
-				outputAttributeName));
-		// add the active model attribute
-		attributeHandleSet.add(rtiAmbassador.getAttributeHandle(
-				rtiAmbassador.getObjectClassHandle(managerClassName), 
-				activeModelAttributeName));
-		// add the input indices attribute
-		attributeHandleSet.add(rtiAmbassador.getAttributeHandle(
-				rtiAmbassador.getObjectClassHandle(managerClassName), 
-				inputIndicesAttributeName));
-		// add the output indices attribute
-		attributeHandleSet.add(rtiAmbassador.getAttributeHandle(
-				rtiAmbassador.getObjectClassHandle(managerClassName), 
-				outputIndicesAttributeName));
-		// add the input labels indices attribute
-		attributeHandleSet.add(rtiAmbassador.getAttributeHandle(
-				rtiAmbassador.getObjectClassHandle(managerClassName), 
-				inputLabelsAttributeName));
-		// add the output labels attribute
-		attributeHandleSet.add(rtiAmbassador.getAttributeHandle(
-				rtiAmbassador.getObjectClassHandle(managerClassName), 
-				outputLabelsAttributeName));
-		// use the RTI service to subscribe to the defined attributes
-		rtiAmbassador.subscribeObjectClassAttributes(
-				rtiAmbassador.getObjectClassHandle(managerClassName), 
-				attributeHandleSet);
+	private void subscribeDesignerOutputs() throws TransportException {
+		transport.subscribeObjectClassAttributes(designerOutputClassName,
+				designerOutputAttributeNames, designerIndexDimensionName,
+				index.getValue(), index.getValue() + 1);
 	}
-	
+
 	/**
 	 * Update index attribute.
 	 *
 	 * @param indexValue the index value
-	 * @throws FederateNotExecutionMember the federate not execution member
-	 * @throws NotConnected the not connected
-	 * @throws NameNotFound the name not found
-	 * @throws InvalidObjectClassHandle the invalid object class handle
-	 * @throws RTIinternalError the RTI internal error
+	 * @throws TransportException the transport exception
 	 * @throws EncoderException the encoder exception
-	 * @throws AttributeNotOwned the attribute not owned
-	 * @throws AttributeNotDefined the attribute not defined
-	 * @throws ObjectInstanceNotKnown the object instance not known
-	 * @throws SaveInProgress the save in progress
-	 * @throws RestoreInProgress the restore in progress
 	 */
-	public void updateIndexAttribute(int indexValue) 
-			throws FederateNotExecutionMember, NotConnected, NameNotFound, 
-			InvalidObjectClassHandle, RTIinternalError, EncoderException, 
-			AttributeNotOwned, AttributeNotDefined, ObjectInstanceNotKnown, 
-			SaveInProgress, RestoreInProgress {
-		// create an attribute handle value map to store data
-		AttributeHandleValueMap attributes = rtiAmbassador
-				.getAttributeHandleValueMapFactory().create(1);
-		
+	public void updateIndexAttribute(int indexValue)
+			throws TransportException, EncoderException {
+		// create an attribute value map to store data
+		Map<String, byte[]> attributes = new HashMap<String, byte[]>();
+
 		// set HLA data element value and add to map
 		index.setValue(indexValue);
-		attributes.put(rtiAmbassador.getAttributeHandle(
-				rtiAmbassador.getObjectClassHandle(designerClassName), 
-				indexAttributeName), index.toByteArray());
-		System.out.println("Designer " + (index.getValue()+1) + 
+		attributes.put(indexAttributeName, index.toByteArray());
+		System.out.println("Designer " + (index.getValue()+1) +
 				" Log: setting index value to " + index.getValue());
-		
-		// use RTI service to update attribute values using map
-		rtiAmbassador.updateAttributeValues(
-				rtiAmbassador.getObjectInstanceHandle(objectInstanceName), 
+
+		// use transport service to update attribute values using map
+		transport.updateAttributeValues(objectInstanceName,
 				attributes, new byte[0]);
 	}
-	
+
 	/**
 	 * Update input attribute.
 	 *
 	 * @param outputVector the output vector
-	 * @throws FederateNotExecutionMember the federate not execution member
-	 * @throws NotConnected the not connected
-	 * @throws NameNotFound the name not found
-	 * @throws InvalidObjectClassHandle the invalid object class handle
-	 * @throws RTIinternalError the RTI internal error
+	 * @throws TransportException the transport exception
 	 * @throws EncoderException the encoder exception
-	 * @throws AttributeNotOwned the attribute not owned
-	 * @throws AttributeNotDefined the attribute not defined
-	 * @throws ObjectInstanceNotKnown the object instance not known
-	 * @throws SaveInProgress the save in progress
-	 * @throws RestoreInProgress the restore in progress
 	 */
-	public void updateInputAttribute(RealVector inputValue) 
-			throws FederateNotExecutionMember, NotConnected, NameNotFound, 
-			InvalidObjectClassHandle, RTIinternalError, EncoderException, 
-			AttributeNotOwned, AttributeNotDefined, ObjectInstanceNotKnown, 
-			SaveInProgress, RestoreInProgress {
-		// create an attribute handle value map to store data
-		AttributeHandleValueMap attributes = rtiAmbassador
-				.getAttributeHandleValueMapFactory().create(1);
-		
+	public void updateInputAttribute(RealVector inputValue)
+			throws TransportException, EncoderException {
+		// create an attribute value map to store data
+		Map<String, byte[]> attributes = new HashMap<String, byte[]>();
+
 		// set HLA data element value and add to map
 		input.setValue(inputValue);
-		attributes.put(rtiAmbassador.getAttributeHandle(
-				rtiAmbassador.getObjectClassHandle(designerClassName), 
-				inputAttributeName), input.toByteArray());
-		System.out.println("Designer " + (index.getValue()+1) + 
+		attributes.put(inputAttributeName, input.toByteArray());
+		System.out.println("Designer " + (index.getValue()+1) +
 				" Log: setting input value to " + input.getValue());
-		
-		// use RTI service to update attribute values using map
-		rtiAmbassador.updateAttributeValues(
-				rtiAmbassador.getObjectInstanceHandle(objectInstanceName), 
-				attributes, new byte[0]);
+
+		// use transport service to update attribute values using map and
+		// record the sequence number as the base of later input deltas
+		long sequence = inputSequence.incrementAndGet();
+		transport.updateAttributeValues(objectInstanceName,
+				attributes, SequenceFilter.encodeTag(sequence));
+		inputBaseSequence = sequence;
 	}
-	
+
+	/**
+	 * Update input attribute, sending only the changed entries as an input
+	 * delta interaction if enabled by the <code>inputDeltas</code> property.
+	 * The whole input attribute is sent instead if input deltas are disabled
+	 * or the input dimension has changed (i.e. for a new model).
+	 *
+	 * @param inputValue the input value
+	 * @param changedIndices the indices of the changed input entries
+	 * @throws TransportException the transport exception
+	 * @throws EncoderException the encoder exception
+	 */
+	public void updateInputAttribute(RealVector inputValue,
+			int[] changedIndices)
+			throws TransportException, EncoderException {
+		if(!inputDeltas || input.size() != inputValue.getDimension()) {
+			// send the whole input attribute
+			updateInputAttribute(inputValue);
+			return;
+		}
+
+		// keep the input attribute value current for later requests
+		input.setValue(inputValue);
+
+		// set HLA data element values for the changed entries
+		double[] changedValues = new double[changedIndices.length];
+		for(int i = 0; i < changedIndices.length; i++) {
+			changedValues[i] = inputValue.getEntry(changedIndices[i]);
+		}
+		deltaIndices.setValue(changedIndices);
+		deltaValues.setValue(changedValues, changedValues.length);
+		deltaSequence.setValue(inputSequence.incrementAndGet());
+		deltaBaseSequence.setValue(inputBaseSequence);
+
+		// create a parameter value map and add the parameters
+		Map<String, byte[]> parameters = new HashMap<String, byte[]>();
+		parameters.put(designerIndexParameterName, index.toByteArray());
+		parameters.put(inputIndicesParameterName, deltaIndices.toByteArray());
+		parameters.put(inputValuesParameterName, deltaValues.toByteArray());
+		parameters.put(sequenceParameterName, deltaSequence.toByteArray());
+		parameters.put(baseSequenceParameterName,
+				deltaBaseSequence.toByteArray());
+		System.out.println("Designer " + (index.getValue()+1) +
+				" Log: setting input values " + deltaValues + " at indices "
+				+ gson.toJson(changedIndices));
+
+		// use transport service to send the interaction
+		transport.sendInteraction(inputDeltaClassName,
+				parameters, new byte[0]);
+	}
+
 	/**
 	 * Update ready attribute.
 	 *
 	 * @param readyValue the ready value
-	 * @throws FederateNotExecutionMember the federate not execution member
-	 * @throws NotConnected the not connected
-	 * @throws NameNotFound the name not found
-	 * @throws InvalidObjectClassHandle the invalid object class handle
-	 * @throws RTIinternalError the RTI internal error
+	 * @throws TransportException the transport exception
 	 * @throws EncoderException the encoder exception
-	 * @throws AttributeNotOwned the attribute not owned
-	 * @throws AttributeNotDefined the attribute not defined
-	 * @throws ObjectInstanceNotKnown the object instance not known
-	 * @throws SaveInProgress the save in progress
-	 * @throws RestoreInProgress the restore in progress
 	 */
-	public void updateStateAttribute(boolean readyValue) 
-			throws FederateNotExecutionMember, NotConnected, NameNotFound, 
-			InvalidObjectClassHandle, RTIinternalError, EncoderException, 
-			AttributeNotOwned, AttributeNotDefined, ObjectInstanceNotKnown, 
-			SaveInProgress, RestoreInProgress {
-		// create an attribute handle value map to store data
-		AttributeHandleValueMap attributes = rtiAmbassador
-				.getAttributeHandleValueMapFactory().create(1);
-		
+	public void updateStateAttribute(boolean readyValue)
+			throws TransportException, EncoderException {
+		// create an attribute value map to store data
+		Map<String, byte[]> attributes = new HashMap<String, byte[]>();
+
 		// set HLA data element value and add to map
 		ready.setValue(readyValue);
-		attributes.put(rtiAmbassador.getAttributeHandle(
-				rtiAmbassador.getObjectClassHandle(designerClassName), 
-				readyAttributeName), ready.toByteArray());
-		System.out.println("Designer " + (index.getValue()+1) + 
+		attributes.put(readyAttributeName, ready.toByteArray());
+		System.out.println("Designer " + (index.getValue()+1) +
 				" Log: setting ready value to " + ready.getValue());
-		
-		// use RTI service to update attribute values using map
-		rtiAmbassador.updateAttributeValues(
-				rtiAmbassador.getObjectInstanceHandle(objectInstanceName), 
+
+		// use transport service to update attribute values using map
+		transport.updateAttributeValues(objectInstanceName,
 				attributes, new byte[0]);
 	}
+
+	/**
+	 * Writes the designer cache on the background thread after a delay. 
+	 * Writes requested while a write is pending are coalesced, unless an 
+	 * immediate write is requested.
+	 *
+	 * @param delay the delay (milliseconds)
+	 */
+	private void writeCache(long delay) {
+		if(cacheWritePending.compareAndSet(false, true) || delay == 0) {
+			cacheWriter.schedule(new Runnable() {
+				@Override
+				public void run() {
+					if(cacheWritePending.getAndSet(false)) {
+						try {
+							cache.write(cacheFile);
+						} catch (IOException ex) {
+							ex.printStackTrace();
+						}
+					}
+				}
+			}, delay, TimeUnit.MILLISECONDS);
+		}
+	}
 }
@@ -0,0 +1,221 @@
+package edu.mit.collab.designer;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.google.gson.Gson;
+
+import edu.mit.collab.util.ModelDictionary;
+
+/**
+ * The DesignerCache class persists the last model payloads received from
+ * each manager and the designer's own input state so a restarted designer
+ * can restore its interface immediately upon re-joining a session. Entries
+ * are keyed by manager instance name and model name; the model version
+ * published by the manager identifies whether cached payloads are current.
+ * Only the most recently stored managers and models are kept.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ */
+public class DesignerCache {
+	private static final Gson gson = new Gson();
+
+	// maximum number of cached managers and of cached models per manager
+	private static final int MAX_MANAGERS = 16;
+	private static final int MAX_MODELS = ModelDictionary.DEFAULT_CAPACITY;
+
+	private final Map<String, ManagerEntry> managers =
+			new LinkedHashMap<String, ManagerEntry>(); // mutable
+
+	/**
+	 * Reads a JSON-formatted cache from file.
+	 *
+	 * @param file the file
+	 * @return the cache, or a new empty cache if the file does not exist
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static DesignerCache read(File file) throws IOException {
+		if(!file.exists()) {
+			return new DesignerCache();
+		}
+		// create a string-builder to efficiently read in JSON data
+		StringBuilder jsonBuilder = new StringBuilder();
+		BufferedReader br = new BufferedReader(new FileReader(file));
+		try {
+			String line;
+			while((line = br.readLine()) != null) {
+				jsonBuilder.append(line);
+			}
+		} finally {
+			br.close();
+		}
+		DesignerCache cache = gson.fromJson(jsonBuilder.toString(),
+				DesignerCache.class);
+		return cache == null ? new DesignerCache() : cache;
+	}
+
+	/**
+	 * Removes the eldest entries of a map in insertion order until its size 
+	 * does not exceed a maximum size. Maps read from file are not 
+	 * self-evicting, so the size is bounded whenever an entry is stored.
+	 *
+	 * @param map the map
+	 * @param maxSize the maximum size
+	 */
+	private static void evictEldest(Map<String, ?> map, int maxSize) {
+		Iterator<String> iterator = map.keySet().iterator();
+		while(map.size() > maxSize && iterator.hasNext()) {
+			iterator.next();
+			iterator.remove();
+		}
+	}
+
+	/**
+	 * Gets the cached active model of a manager.
+	 *
+	 * @param managerName the manager instance name
+	 * @return the model entry, or null if none is cached
+	 */
+	public synchronized ModelEntry getActiveModel(String managerName) {
+		ManagerEntry manager = managers.get(managerName);
+		return manager == null ? null : manager.models.get(manager.activeModel);
+	}
+
+	/**
+	 * Gets the cached model version of a manager.
+	 *
+	 * @param managerName the manager instance name
+	 * @return the model version, or null if none is cached
+	 */
+	public synchronized Long getModelVersion(String managerName) {
+		ManagerEntry manager = managers.get(managerName);
+		return manager == null ? null : manager.modelVersion;
+	}
+
+	/**
+	 * Stores the designer's input for the active model of a manager.
+	 *
+	 * @param managerName the manager instance name
+	 * @param input the input values
+	 * @return true, if the input was stored
+	 */
+	public synchronized boolean putInput(String managerName, double[] input) {
+		ModelEntry model = getActiveModel(managerName);
+		if(model == null) {
+			return false;
+		}
+		model.input = input;
+		return true;
+	}
+
+	/**
+	 * Stores the model payloads of a manager and makes the model active.
+	 *
+	 * @param managerName the manager instance name
+	 * @param modelName the model name
+	 * @param modelVersion the model version (may be null)
+	 * @param attributes the encoded attribute values
+	 */
+	public synchronized void putModel(String managerName, String modelName,
+			Long modelVersion, Map<String, byte[]> attributes) {
+		// move the manager to the end of the cache order
+		ManagerEntry manager = managers.remove(managerName);
+		if(manager == null) {
+			manager = new ManagerEntry();
+		}
+		managers.put(managerName, manager);
+		evictEldest(managers, MAX_MANAGERS);
+		manager.activeModel = modelName;
+		manager.modelVersion = modelVersion;
+
+		// replace any previous payloads (and input) of the model
+		ModelEntry model = new ModelEntry();
+		for(Map.Entry<String, byte[]> entry : attributes.entrySet()) {
+			model.attributes.put(entry.getKey(),
+					Base64.getEncoder().encodeToString(entry.getValue()));
+		}
+		manager.models.remove(modelName);
+		manager.models.put(modelName, model);
+		evictEldest(manager.models, MAX_MODELS);
+	}
+
+	/**
+	 * Writes this cache to a JSON-formatted file. The cache is written to a
+	 * temporary file which then replaces the file so an interrupted write
+	 * does not corrupt the previous cache.
+	 *
+	 * @param file the file
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public void write(File file) throws IOException {
+		String json;
+		synchronized(this) {
+			json = gson.toJson(this);
+		}
+		if(file.getParentFile() != null) {
+			file.getParentFile().mkdirs();
+		}
+		File tempFile = new File(file.getPath() + ".tmp");
+		BufferedWriter bw = new BufferedWriter(new FileWriter(tempFile));
+		try {
+			bw.write(json);
+		} finally {
+			bw.close();
+		}
+		Files.move(tempFile.toPath(), file.toPath(),
+				StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	/**
+	 * The cached state of a manager.
+	 */
+	private static class ManagerEntry {
+		private String activeModel; // mutable
+		private Long modelVersion; // mutable
+		private final Map<String, ModelEntry> models =
+				new LinkedHashMap<String, ModelEntry>(); // mutable
+	}
+
+	/**
+	 * The cached payloads and designer input of a model.
+	 */
+	public static class ModelEntry {
+		private final Map<String, String> attributes =
+				new HashMap<String, String>(); // mutable
+		private double[] input; // mutable
+
+		/**
+		 * Gets the encoded attribute values.
+		 *
+		 * @return the attribute values
+		 */
+		public Map<String, byte[]> getAttributes() {
+			Map<String, byte[]> values = new HashMap<String, byte[]>();
+			for(Map.Entry<String, String> entry : attributes.entrySet()) {
+				values.put(entry.getKey(),
+						Base64.getDecoder().decode(entry.getValue()));
+			}
+			return values;
+		}
+
+		/**
+		 * Gets the designer input.
+		 *
+		 * @return the input values, or null if none was stored
+		 */
+		public double[] getInput() {
+			return input;
+		}
+	}
+}
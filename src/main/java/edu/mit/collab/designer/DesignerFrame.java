@@ -4,6 +4,7 @@ import java.awt.BorderLayout;
 import java.awt.Component;
 import java.awt.Dimension;
 import java.awt.DisplayMode;
+import java.awt.Frame;
 import java.awt.GraphicsEnvironment;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
@@ -12,6 +13,7 @@ import java.awt.event.ActionEvent;
 import java.awt.event.KeyEvent;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
+import java.util.concurrent.ExecutionException;
 
 import javax.swing.AbstractAction;
 import javax.swing.Action;
@@ -30,18 +32,21 @@ import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.KeyStroke;
 import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
 
 import org.apache.commons.math3.linear.ArrayRealVector;
 import org.apache.commons.math3.linear.RealVector;
 
+import edu.mit.collab.transport.FederateHost;
+import edu.mit.collab.transport.TransportException;
+import edu.mit.collab.util.BasicInputPanel;
+import edu.mit.collab.util.BasicOutputPanel;
 import edu.mit.collab.util.InputEvent;
 import edu.mit.collab.util.InputListener;
-import edu.mit.collab.util.InputPanel;
 import edu.mit.collab.util.InputPanelFactory;
-import edu.mit.collab.util.OutputPanel;
 import edu.mit.collab.util.OutputPanelFactory;
 import edu.mit.collab.util.Utilities;
-import hla.rti1516e.exceptions.RTIinternalError;
+import edu.mit.collab.util.VirtualPanelList;
 
 /**
  * This is the graphical user interface to the designer application. It 
@@ -62,14 +67,26 @@ public class DesignerFrame extends JFrame
 	
 	private final int designerIndex; // immutable
 	private final DesignerAmbassador designerAmbassador; // immutable
+	private final FederateHost host; // immutable
 	
 	private final JLabel activeModelLabel; // mutable
 	private final JPanel modelPanel; // mutable
-	private InputPanel[] inputPanels; // mutable
-	private OutputPanel[] outputPanels; // mutable
+	private final JScrollPane inputScrollPane, outputScrollPane; // mutable
+	
+	// input and output panels are only created for visible variables; the
+	// state of each variable is kept in the arrays below
+	private final VirtualPanelList<BasicInputPanel> inputPanels; // mutable
+	private final VirtualPanelList<BasicOutputPanel> outputPanels; // mutable
+	private double[] inputValues = new double[0]; // mutable
+	private String[] inputLabels = new String[0]; // mutable
+	private boolean inputsEnabled; // mutable
+	private RealVector targetOutput = new ArrayRealVector(); // mutable
+	private RealVector output = new ArrayRealVector(); // mutable
+	private String[] outputLabels = new String[0]; // mutable
 
 	private Mode mode; // mutable
 	private Manager manager; // mutable
+	private boolean connecting = true; // mutable
 	
 	// action to submit a design
 	private final Action submitAction = new AbstractAction("Submit", 
@@ -123,81 +140,63 @@ public class DesignerFrame extends JFrame
 				private static final long serialVersionUID = 1L;
 
 				public void actionPerformed(ActionEvent e) {
-					if(inputPanels.length > 0) {
-						inputPanels[0].requestFocus();
-					}
+					setInputFocus(0);
 				}
 			},
 			new AbstractAction() {
 				private static final long serialVersionUID = 1L;
 
 				public void actionPerformed(ActionEvent e) {
-					if(inputPanels.length > 1) {
-						inputPanels[1].requestFocus();
-					}
+					setInputFocus(1);
 				}
 			},
 			new AbstractAction() {
 				private static final long serialVersionUID = 1L;
 
 				public void actionPerformed(ActionEvent e) {
-					if(inputPanels.length > 2) {
-						inputPanels[2].requestFocus();
-					}
+					setInputFocus(2);
 				}
 			},
 			new AbstractAction() {
 				private static final long serialVersionUID = 1L;
 
 				public void actionPerformed(ActionEvent e) {
-					if(inputPanels.length > 3) {
-						inputPanels[3].requestFocus();
-					}
+					setInputFocus(3);
 				}
 			},
 			new AbstractAction() {
 				private static final long serialVersionUID = 1L;
 
 				public void actionPerformed(ActionEvent e) {
-					if(inputPanels.length > 4) {
-						inputPanels[4].requestFocus();
-					}
+					setInputFocus(4);
 				}
 			},
 			new AbstractAction() {
 				private static final long serialVersionUID = 1L;
 
 				public void actionPerformed(ActionEvent e) {
-					if(inputPanels.length > 5) {
-						inputPanels[5].requestFocus();
-					}
+					setInputFocus(5);
 				}
 			},
 			new AbstractAction() {
 				private static final long serialVersionUID = 1L;
 
 				public void actionPerformed(ActionEvent e) {
-					if(inputPanels.length > 6) {
-						inputPanels[6].requestFocus();
-					}
+					setInputFocus(6);
 				}
 			},
 			new AbstractAction() {
 				private static final long serialVersionUID = 1L;
 
 				public void actionPerformed(ActionEvent e) {
-					if(inputPanels.length > 7) {
-						inputPanels[7].requestFocus();
-					}
+					setInputFocus(7);
 				}
 			},
 			new AbstractAction() {
 				private static final long serialVersionUID = 1L;
 
 				public void actionPerformed(ActionEvent e) {
-					if(inputPanels.length > 8) {
-						inputPanels[8].requestFocus();
-					}
+					setInputFocus(8);
 				}
 			}
 	};
@@ -206,9 +205,24 @@ public class DesignerFrame extends JFrame
 	 * Instantiates a new designer frame.
 	 *
 	 * @param designerIndex the designer index
-	 * @throws RTIinternalError the RTI internal error
+	 * @throws TransportException the transport exception
 	 */
-	public DesignerFrame(int designerIndex) throws RTIinternalError {
+	public DesignerFrame(int designerIndex) throws TransportException {
+		this(designerIndex, null);
+	}
+
+	/**
+	 * Instantiates a new designer frame as a seat of a federate host. Closing
+	 * the frame of a seat only exits the application once no other windows
+	 * remain open.
+	 *
+	 * @param designerIndex the designer index
+	 * @param host the federate host (may be null to use a dedicated
+	 * transport)
+	 * @throws TransportException the transport exception
+	 */
+	public DesignerFrame(int designerIndex, FederateHost host)
+			throws TransportException {
 		// set title and icon image
 		super("Designer " + (designerIndex+1));
 		setIconImage(Utilities.getUserIcon(designerIndex).getImage());
@@ -217,32 +231,13 @@ public class DesignerFrame extends JFrame
 		// with number of inputs and outputs)
 		setMinimumSize(new Dimension(200,300));
 
-		// initialize federate ambassador and add the frame as a listener
+		// initialize federate ambassador and add the frame as a listener;
+		// the ambassador is started up by the startUp method
 		this.designerIndex = designerIndex;
-		designerAmbassador = new DesignerAmbassador(designerIndex);
+		this.host = host;
+		designerAmbassador = new DesignerAmbassador(designerIndex, host);
 		designerAmbassador.addManagerListener(this);
-
-		// try to start the federate ambassador
-		try {
-			designerAmbassador.startUp();
-			// immediately update index attribute (only time this is done)
-			designerAmbassador.updateIndexAttribute(designerIndex);
-			
-			if(designerAmbassador.getInstanceName().indexOf(
-					"HLAobjectRoot") >= 0) {
-				// format frame title for pRTI instance names, i.e. only use
-				// DesignerXYZ from HLAobjectRoot.DesignerXYZ
-				setTitle(designerAmbassador.getInstanceName().substring(
-						designerAmbassador.getInstanceName().indexOf('.') + 1, 
-						designerAmbassador.getInstanceName().length()));
-			} else {
-				// format title for other RTI implementations
-				setTitle(designerAmbassador.getInstanceName());
-			}
-		} catch (Exception e) {
-			e.printStackTrace();
-			showErrorDialog(e.getMessage());
-		}
+		setTitle("Designer " + (designerIndex+1) + " (Connecting...)");
 
 		// add a window listener to gracefully exit application
 		addWindowListener(new WindowAdapter() {
@@ -254,6 +249,55 @@ public class DesignerFrame extends JFrame
 
 		setJMenuBar(createMenuBar());
 		
+		// create lists of input and output panels
+		inputPanels = new VirtualPanelList<BasicInputPanel>(
+				BoxLayout.LINE_AXIS, 10, 
+				new VirtualPanelList.PanelBinder<BasicInputPanel>() {
+			@Override
+			public BasicInputPanel createPanel() {
+				BasicInputPanel panel = InputPanelFactory
+						.createBasicInputPanelWithoutSolution(
+								DesignerFrame.this.designerIndex, 0, 0, null);
+				panel.addInputListener(DesignerFrame.this);
+				// add a key listener to listen for numeric key presses
+				for(int k = 0; k < focusActions.length; k++) {
+					panel.bindKey(KeyStroke.getKeyStroke(
+							new Integer(k+1).toString()), 
+							"focus" + (k+1), focusActions[k]);
+				}
+				return panel;
+			}
+
+			@Override
+			public void bindPanel(BasicInputPanel panel, int index) {
+				panel.setVariable(DesignerFrame.this.designerIndex, index, 
+						inputValues[index], Double.MAX_VALUE, 
+						inputLabels[index]);
+				panel.setEnabled(inputsEnabled);
+			}
+		});
+		outputPanels = new VirtualPanelList<BasicOutputPanel>(
+				BoxLayout.PAGE_AXIS, 10, 
+				new VirtualPanelList.PanelBinder<BasicOutputPanel>() {
+			@Override
+			public BasicOutputPanel createPanel() {
+				return OutputPanelFactory.createBasicOutputPanel(
+						DesignerFrame.this.designerIndex, 0, 0, 0, null);
+			}
+
+			@Override
+			public void bindPanel(BasicOutputPanel panel, int index) {
+				panel.setVariable(DesignerFrame.this.designerIndex, index, 
+						targetOutput.getEntry(index), output.getEntry(index), 
+						outputLabels[index]);
+			}
+		});
+		
+		// create scroll panes for the lists of input and output panels,
+		// which are reused for each model
+		inputScrollPane = new JScrollPane(inputPanels);
+		outputScrollPane = new JScrollPane(outputPanels);
+		
 		// create designer panel
 		JPanel designerPanel = new JPanel();
 		designerPanel.setFocusable(true);
@@ -358,6 +402,15 @@ public class DesignerFrame extends JFrame
 			System.exit(1);
 		}
 		
+		// keep the application running for other seats of the host
+		if(host != null) {
+			for(Frame frame : Frame.getFrames()) {
+				if(frame.isDisplayable()) {
+					return;
+				}
+			}
+		}
+		
 		// exit the application
 		System.exit(0);
 	}
@@ -366,11 +419,13 @@ public class DesignerFrame extends JFrame
 	 * Initializes the window for a new model.
 	 */
 	private void initialize() {
-		// remove all existing components from the model panel
-		modelPanel.removeAll();
+		// the panels of the previous model are reused, so the layout only
+		// changes if the number of input or output panels changes
+		boolean layoutChanged;
 		
 		// set the active model text to an appropriate string
-		activeModelLabel.setText((manager == null ? "" 
+		activeModelLabel.setText((manager == null 
+				? (connecting ? "Connecting..." : "")
 				: "Task: " + manager.getActiveModel()));
 		
 		if(manager == null 
@@ -379,14 +434,18 @@ public class DesignerFrame extends JFrame
 			// if manager is not yet joined, does not have an experiment
 			// selected, or is ready to start experiment, display mostly
 			// blank panel and set ready mode
-			outputPanels = new OutputPanel[0];
-			inputPanels = new InputPanel[0];
+			setVariables(new double[0], new String[0], 
+					new ArrayRealVector(), new String[0]);
+			layoutChanged = modelPanel.getComponentCount() > 0;
+			modelPanel.removeAll();
 			mode = Mode.Ready;
 		} else if(manager.getActiveModel().equals("Complete!")) {
 			// if manager has completed experiment, display mostly blank
 			// panel and set complete mode
-			outputPanels = new OutputPanel[0];
-			inputPanels = new InputPanel[0];
+			setVariables(new double[0], new String[0], 
+					new ArrayRealVector(), new String[0]);
+			layoutChanged = modelPanel.getComponentCount() > 0;
+			modelPanel.removeAll();
 			mode = Mode.Complete;
 		} else {
 			// otherwise if manager has a model loaded, initialize the new
@@ -395,65 +454,46 @@ public class DesignerFrame extends JFrame
 			// set mode to initializing to prevent updates from being processed
 			mode = Mode.Initializing;
 			
-			JPanel outputPanel = new JPanel();
-			outputPanel.setLayout(new BoxLayout(outputPanel, 
-					BoxLayout.PAGE_AXIS));
-
-			// create default grid bag constraints
-			GridBagConstraints c = new GridBagConstraints();
-			c.insets = new Insets(5,5,5,5);
-			c.anchor = GridBagConstraints.CENTER;
-			c.fill = GridBagConstraints.BOTH;
-			c.gridx = 0;
-			c.gridy = 0;
-			c.weightx = 1;
-			c.weighty = 1;
-			
-			// create and lay out the output panels horizontally at the top
-			// of the panel
-			outputPanels = new OutputPanel[Math.min(manager.getTargetOutput(
-					designerIndex).getDimension(), manager.getOutput(
-							designerIndex).getDimension())];
-			for(int i = 0; i < outputPanels.length; i++) {
-				outputPanels[i] = OutputPanelFactory.createBasicOutputPanel(designerIndex, i, 
-						manager.getTargetOutput(designerIndex).getEntry(i), 
-						manager.getOutput(designerIndex).getEntry(i), 
-						manager.getOutputLabels(designerIndex)[i]);
-				outputPanel.add(outputPanels[i]);
+			// set the variables of the output and input panels
+			RealVector designerInput = manager.getDesignerInput(designerIndex);
+			double[] values = new double[designerInput.getDimension()];
+			for(int i = 0; i < values.length; i++) {
+				values[i] = BasicInputPanel.getSliderValue(
+						designerInput.getEntry(i));
 			}
-
-			modelPanel.add(new JScrollPane(outputPanel), c);
-			
-			// lay out input panels
-			
-			JPanel inputPanel = new JPanel();
-			inputPanel.setLayout(new BoxLayout(inputPanel, BoxLayout.LINE_AXIS));
+			layoutChanged = setVariables(values, 
+					manager.getInputLabels(designerIndex), 
+					manager.getTargetOutput(designerIndex), 
+					manager.getOutputLabels(designerIndex))
+					|| modelPanel.getComponentCount() == 0;
 			
-			// create and lay out the input panels vertically below the
-			// output panels
-			inputPanels = new InputPanel[manager.getInitialInput(
-					designerIndex).getDimension()];
-			for(int i = 0; i < inputPanels.length; i++) {
-				inputPanels[i] = InputPanelFactory.createBasicInputPanelWithoutSolution(
-						designerIndex, i, 
-						manager.getInitialInput(designerIndex).getEntry(i), 
-						manager.getInputLabels(designerIndex)[i]);
-				inputPanels[i].addInputListener(this);
-				// add a key listener to listen for numeric key presses
-				for(int k = 0; k < focusActions.length; k++) {
-					inputPanels[i].bindKey(KeyStroke.getKeyStroke(
-							new Integer(k+1).toString()), 
-							"focus" + (k+1), focusActions[k]);
-				}
-				inputPanel.add(inputPanels[i]);
+			if(layoutChanged) {
+				// remove all existing components from the model panel
+				modelPanel.removeAll();
+				
+				// create default grid bag constraints
+				GridBagConstraints c = new GridBagConstraints();
+				c.insets = new Insets(5,5,5,5);
+				c.anchor = GridBagConstraints.CENTER;
+				c.fill = GridBagConstraints.BOTH;
+				c.gridx = 0;
+				c.gridy = 0;
+				c.weightx = 1;
+				c.weighty = 1;
+				
+				// lay out the output panels horizontally at the top of the 
+				// panel
+				modelPanel.add(outputScrollPane, c);
+				
+				// lay out the input panels vertically below the output 
+				// panels
+				c.gridy++;
+				c.weightx = 1;
+				c.weighty = 1;
+				c.fill = GridBagConstraints.BOTH;
+				modelPanel.add(inputScrollPane, c);
 			}
 			
-			c.gridy++;
-			c.weightx = 1;
-			c.weighty = 1;
-			c.fill = GridBagConstraints.BOTH;
-			modelPanel.add(new JScrollPane(inputPanel), c);
-			
 			// set mode to initialized
 			mode = Mode.Initialized;
 			
@@ -461,22 +501,20 @@ public class DesignerFrame extends JFrame
 			setInputFocus(0);
 		}
 		
-
-		// finally, validate the layout and pack to re-size the window
-		// and repaint to force graphics to update
-		if(!isUndecorated()) {
-			// don't pack if in fullscreen mode
-			pack();
-		} else {
-			validate();
+		// finally, if the layout changed, validate the layout and pack to 
+		// re-size the window, and repaint to force graphics to update
+		if(layoutChanged) {
+			if(!isUndecorated()) {
+				// don't pack if in fullscreen mode
+				pack();
+			} else {
+				validate();
+			}
 		}
 		repaint();
 
 		// set input panels and actions based on current mode
-		for(int i = 0; i < inputPanels.length; i++) {
-			inputPanels[i].setEnabled(
-					mode == Mode.Initialized || mode == Mode.Running);
-		}
+		setInputsEnabled(mode == Mode.Initialized || mode == Mode.Running);
 		submitAction.setEnabled(
 				mode == Mode.Initialized || mode == Mode.Running);
 		cancelAction.setEnabled(mode == Mode.Waiting);
@@ -493,23 +531,25 @@ public class DesignerFrame extends JFrame
 			// if model panel is initialized or task running, set running mode
 			mode = Mode.Running;
 			
+			// store the new input value
+			inputValues[event.getInputIndex()] = event.getInputValue();
+			
 			if(constantFeedbackMode) {
 				lastFocusOwner = this.getFocusOwner();
-				for(int i = 0; i < inputPanels.length; i++) {
-					inputPanels[i].setEnabled(false);
-				}
+				setInputsEnabled(false);
 				mode = Mode.Waiting;
 			}
 			
-			// aggregate the input vector based on input panel values
-			RealVector inputVector = new ArrayRealVector(inputPanels.length);
-			for(int i = 0; i < inputPanels.length; i++) {
-				inputVector.setEntry(i, inputPanels[i].getValue());
-			}
+			// aggregate the input vector based on input values
+			RealVector inputVector = new ArrayRealVector(inputValues);
 			
 			// try to update the input attributes using the federate ambassador
 			try {
-				designerAmbassador.updateInputAttribute(inputVector);
+				designerAmbassador.updateInputAttribute(inputVector, 
+						new int[] {event.getInputIndex()});
+				
+				// store the input to restore it after a restart
+				designerAmbassador.cacheInput(manager, inputVector);
 			} catch(Exception ex) {
 				ex.printStackTrace();
 				showErrorDialog(ex.getMessage());
@@ -598,9 +638,7 @@ public class DesignerFrame extends JFrame
 		mode = ready ? Mode.Waiting : Mode.Running;
 		
 		// disable input panels and actions if waiting
-		for(int i = 0; i < inputPanels.length; i++) {
-			inputPanels[i].setEnabled(!ready);
-		}
+		setInputsEnabled(!ready);
 		submitAction.setEnabled(!ready);
 		cancelAction.setEnabled(ready);
 		
@@ -621,10 +659,48 @@ public class DesignerFrame extends JFrame
 	 * @param index the input panel 0-based index.
 	 */
 	private void setInputFocus(int index) {
-		if(inputPanels.length > index) {
-			inputPanels[index].requestFocus();
+		// scroll the panel into view so it is created
+		BasicInputPanel panel = inputPanels.scrollToPanel(index);
+		if(panel != null) {
+			panel.requestFocus();
 		}
 	}
+	
+	/**
+	 * Sets whether the input panels are enabled.
+	 *
+	 * @param enabled true, if the input panels are enabled
+	 */
+	private void setInputsEnabled(boolean enabled) {
+		inputsEnabled = enabled;
+		inputPanels.refresh();
+	}
+	
+	/**
+	 * Sets the variables shown by the input and output panels. The output
+	 * values are set from the manager, if any.
+	 *
+	 * @param inputValues the input values
+	 * @param inputLabels the input labels
+	 * @param targetOutput the target output
+	 * @param outputLabels the output labels
+	 * @return true, if the number of input or output panels changed
+	 */
+	private boolean setVariables(double[] inputValues, String[] inputLabels, 
+			RealVector targetOutput, String[] outputLabels) {
+		this.inputValues = inputValues;
+		this.inputLabels = inputLabels;
+		this.targetOutput = targetOutput;
+		this.output = manager == null ? new ArrayRealVector() 
+				: manager.getOutput(designerIndex);
+		this.outputLabels = outputLabels;
+		// reuse the existing panels if the number of panels is unchanged
+		boolean inputsChanged = inputPanels.updateItemCount(
+				inputValues.length);
+		boolean outputsChanged = outputPanels.updateItemCount(Math.min(
+				targetOutput.getDimension(), output.getDimension()));
+		return inputsChanged || outputsChanged;
+	}
 
 	/**
 	 * Show error dialog.
@@ -636,6 +712,65 @@ public class DesignerFrame extends JFrame
 				JOptionPane.ERROR_MESSAGE);
 	}
 
+	/**
+	 * Starts up the federate ambassador on a background thread so the
+	 * window remains responsive while connecting. Once started, the index
+	 * attribute is sent and the title shows the instance name.
+	 *
+	 * @return the worker, done once the federate ambassador has started up
+	 * with the start up time (milliseconds)
+	 */
+	public SwingWorker<Long, Void> startUp() {
+		SwingWorker<Long, Void> worker = new SwingWorker<Long, Void>() {
+			@Override
+			protected Long doInBackground() throws Exception {
+				long time = System.nanoTime();
+				designerAmbassador.startUp();
+				// immediately update index attribute (only time this is done)
+				designerAmbassador.updateIndexAttribute(designerIndex);
+				return (System.nanoTime() - time) / 1000000;
+			}
+
+			@Override
+			protected void done() {
+				connecting = false;
+				try {
+					long startUpTime = get();
+					System.out.println("Designer " + (designerIndex+1) 
+							+ " Log: started up in " + startUpTime + " ms");
+				} catch (ExecutionException e) {
+					setTitle("Designer " + (designerIndex+1) 
+							+ " (Not Connected)");
+					activeModelLabel.setText("");
+					e.getCause().printStackTrace();
+					showErrorDialog(e.getCause().getMessage());
+					return;
+				} catch (InterruptedException ignored) {
+					return;
+				}
+				
+				if(designerAmbassador.getInstanceName().indexOf(
+						"HLAobjectRoot") >= 0) {
+					// format frame title for pRTI instance names, i.e. only 
+					// use DesignerXYZ from HLAobjectRoot.DesignerXYZ
+					setTitle(designerAmbassador.getInstanceName().substring(
+							designerAmbassador.getInstanceName().indexOf('.') + 1, 
+							designerAmbassador.getInstanceName().length()));
+				} else {
+					// format title for other RTI implementations
+					setTitle(designerAmbassador.getInstanceName());
+				}
+				
+				// clear the connecting text if no manager has been added
+				if(manager == null) {
+					activeModelLabel.setText("");
+				}
+			}
+		};
+		worker.execute();
+		return worker;
+	}
+
 	/**
 	 * Toggles between fullscreen and windowed mode.
 	 */
@@ -672,10 +807,9 @@ public class DesignerFrame extends JFrame
 	 * Updates the output panels.
 	 */
 	private void updateOutputs() {
-		// update each output panel value base don manager outputs
-		for(int i = 0; i < manager.getOutput(designerIndex).getDimension(); i++) {
-			outputPanels[i].setValue(manager.getOutput(designerIndex).getEntry(i));
-		}
+		// update each output panel value based on manager outputs
+		output = manager.getOutput(designerIndex);
+		outputPanels.refresh();
 		// revert from waiting state (if necessary)
 		sendStateUpdate(false);
 		
@@ -694,9 +828,7 @@ public class DesignerFrame extends JFrame
 		}
 		
 		// disable input panels if solved
-		for(int i = 0; i < inputPanels.length; i++) {
-			inputPanels[i].setEnabled(mode != Mode.Solved);
-		}
+		setInputsEnabled(mode != Mode.Solved);
 		
 		// restore last focus owner
 		if(lastFocusOwner != null) {
@@ -19,11 +19,14 @@ public class Manager {
 	private String activeModel; // mutable
 	private RealVector initialInput; // mutable
 	private RealVector targetOutput; // mutable
-	private RealVector output; // mutable
+	private ArrayRealVector output; // mutable
 	private int[][] inputIndices; // mutable
 	private int[][] outputIndices; // mutable
 	private String[] inputLabels; // mutable
 	private String[] outputLabels; // mutable
+	private ArrayRealVector designerOutput; // mutable, if sent per designer
+	private Boolean solved; // mutable, if sent per designer
+	private RealVector designerInput; // mutable, if restored from a cache
 	
 	/**
 	 * Instantiates a new manager.
@@ -58,6 +61,23 @@ public class Manager {
 		return activeModel;
 	}
 	
+	/**
+	 * Gets the designer input to initialize the input panels, i.e. the input
+	 * restored from a previous session if its dimension matches the active
+	 * model or the initial input otherwise.
+	 *
+	 * @param designerIndex the designer index
+	 * @return the designer input
+	 */
+	public synchronized RealVector getDesignerInput(int designerIndex) {
+		RealVector initialInputs = getInitialInput(designerIndex);
+		if(designerInput != null 
+				&& designerInput.getDimension() == initialInputs.getDimension()) {
+			return designerInput.copy();
+		}
+		return initialInputs;
+	}
+	
 	/**
 	 * Gets the initial input.
 	 *
@@ -119,6 +139,12 @@ public class Manager {
 			return new ArrayRealVector();
 		}
 		
+		// if outputs were sent for this designer, return a copy
+		if(designerOutput != null && designerOutput.getDimension() 
+				== outputIndices[designerIndex].length) {
+			return designerOutput.copy();
+		}
+		
 		// create a new vector, set the entries, and return
 		RealVector outputs = new ArrayRealVector(
 				outputIndices[designerIndex].length);
@@ -183,6 +209,11 @@ public class Manager {
 	 * @return true, if is solved
 	 */
 	public synchronized boolean isSolved() { 
+		// use the solved state if outputs were sent per designer
+		if(solved != null) {
+			return solved;
+		}
+		
 		// task can only be solved if there is at least one output
 		boolean solved = targetOutput.getDimension() > 0;
 		
@@ -233,6 +264,21 @@ public class Manager {
 		this.inputLabels = inputLabels;
 	}
 	
+	/**
+	 * Sets the initial input, target output, indices and labels of the
+	 * active model from a model definition.
+	 *
+	 * @param definition the model definition
+	 */
+	public synchronized void setModelDefinition(ModelDefinition definition) {
+		setInitialInput(definition.getInitialInput());
+		setTargetOutput(definition.getTargetOutput());
+		setInputIndices(definition.getInputIndices());
+		setOutputIndices(definition.getOutputIndices());
+		setInputLabels(definition.getInputLabels());
+		setOutputLabels(definition.getOutputLabels());
+	}
+
 	/**
 	 * Sets the output.
 	 *
@@ -241,7 +287,62 @@ public class Manager {
 	public synchronized void setOutput(RealVector output) {
 		// set a copy of the output to protect
 		// against unexpected modification
-		this.output = output.copy();
+		this.output = new ArrayRealVector(output);
+	}
+	
+	/**
+	 * Sets the output from a primitive array. The existing output 
+	 * vector storage is re-used if the dimension is unchanged.
+	 *
+	 * @param output the new output
+	 * @param length the number of valid entries in the output
+	 */
+	public synchronized void setOutput(double[] output, int length) {
+		if(this.output.getDimension() == length) {
+			// copy into the existing vector storage
+			System.arraycopy(output, 0, this.output.getDataRef(), 0, length);
+		} else {
+			// dimension has changed; create a new vector
+			this.output = new ArrayRealVector(output, 0, length);
+		}
+	}
+
+	/**
+	 * Sets the designer input restored from a previous session.
+	 *
+	 * @param designerInput the designer input (may be null)
+	 */
+	public synchronized void setDesignerInput(RealVector designerInput) {
+		this.designerInput = designerInput;
+	}
+
+	/**
+	 * Sets the outputs sent for a single designer from a primitive array. 
+	 * The existing vector storage is re-used if the dimension is unchanged.
+	 *
+	 * @param designerOutput the designer outputs
+	 * @param length the number of valid entries in the designer outputs
+	 */
+	public synchronized void setDesignerOutput(double[] designerOutput, 
+			int length) {
+		if(this.designerOutput != null 
+				&& this.designerOutput.getDimension() == length) {
+			// copy into the existing vector storage
+			System.arraycopy(designerOutput, 0, 
+					this.designerOutput.getDataRef(), 0, length);
+		} else {
+			// dimension has changed; create a new vector
+			this.designerOutput = new ArrayRealVector(designerOutput, 0, length);
+		}
+	}
+
+	/**
+	 * Sets the solved state sent for a single designer.
+	 *
+	 * @param solved the new solved state
+	 */
+	public synchronized void setSolved(boolean solved) {
+		this.solved = solved;
 	}
 
 	/**
@@ -251,6 +352,10 @@ public class Manager {
 	 */
 	public synchronized void setOutputIndices(int[][] outputIndices) {
 		this.outputIndices = outputIndices;
+		
+		// outputs sent per designer are invalid for the new indices
+		designerOutput = null;
+		solved = null;
 	}
 
 	/**
@@ -0,0 +1,193 @@
+package edu.mit.collab.designer;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.linear.RealVector;
+
+/**
+ * The ModelDefinition class holds the decoded definition of a model
+ * received from a manager, i.e. its initial input, target output, input
+ * and output indices and labels, along with the encoded values to check
+ * whether a later update of the same model differs. Designers cache
+ * definitions by model name so the interface can be rebuilt as soon as the
+ * name of a model received before arrives.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ */
+public class ModelDefinition {
+	private final Map<String, byte[]> encodedValues =
+			new HashMap<String, byte[]>(); // mutable
+	private RealVector initialInput = new ArrayRealVector(); // mutable
+	private RealVector targetOutput = new ArrayRealVector(); // mutable
+	private int[][] inputIndices = new int[0][0]; // mutable
+	private int[][] outputIndices = new int[0][0]; // mutable
+	private String[] inputLabels = new String[0]; // mutable
+	private String[] outputLabels = new String[0]; // mutable
+
+	/**
+	 * Instantiates a new empty model definition.
+	 */
+	public ModelDefinition() { }
+
+	/**
+	 * Instantiates a new model definition with the values of another.
+	 *
+	 * @param definition the definition to copy
+	 */
+	public ModelDefinition(ModelDefinition definition) {
+		encodedValues.putAll(definition.encodedValues);
+		initialInput = definition.initialInput;
+		targetOutput = definition.targetOutput;
+		inputIndices = definition.inputIndices;
+		outputIndices = definition.outputIndices;
+		inputLabels = definition.inputLabels;
+		outputLabels = definition.outputLabels;
+	}
+
+	/**
+	 * Gets the initial input.
+	 *
+	 * @return the initial input
+	 */
+	public RealVector getInitialInput() {
+		return initialInput;
+	}
+
+	/**
+	 * Gets the input indices.
+	 *
+	 * @return the input indices
+	 */
+	public int[][] getInputIndices() {
+		return inputIndices;
+	}
+
+	/**
+	 * Gets the input labels.
+	 *
+	 * @return the input labels
+	 */
+	public String[] getInputLabels() {
+		return inputLabels;
+	}
+
+	/**
+	 * Gets the output indices.
+	 *
+	 * @return the output indices
+	 */
+	public int[][] getOutputIndices() {
+		return outputIndices;
+	}
+
+	/**
+	 * Gets the output labels.
+	 *
+	 * @return the output labels
+	 */
+	public String[] getOutputLabels() {
+		return outputLabels;
+	}
+
+	/**
+	 * Gets the target output.
+	 *
+	 * @return the target output
+	 */
+	public RealVector getTargetOutput() {
+		return targetOutput;
+	}
+
+	/**
+	 * Checks whether an encoded attribute value equals the value from which
+	 * this definition was decoded.
+	 *
+	 * @param attributeName the attribute name
+	 * @param value the encoded value
+	 * @return true, if the values are equal
+	 */
+	public boolean matches(String attributeName, byte[] value) {
+		return Arrays.equals(encodedValues.get(attributeName), value);
+	}
+
+	/**
+	 * Sets the initial input.
+	 *
+	 * @param initialInput the initial input
+	 * @param attributeName the attribute name
+	 * @param value the encoded value
+	 */
+	public void setInitialInput(RealVector initialInput,
+			String attributeName, byte[] value) {
+		this.initialInput = initialInput;
+		encodedValues.put(attributeName, value.clone());
+	}
+
+	/**
+	 * Sets the input indices.
+	 *
+	 * @param inputIndices the input indices
+	 * @param attributeName the attribute name
+	 * @param value the encoded value
+	 */
+	public void setInputIndices(int[][] inputIndices,
+			String attributeName, byte[] value) {
+		this.inputIndices = inputIndices;
+		encodedValues.put(attributeName, value.clone());
+	}
+
+	/**
+	 * Sets the input labels.
+	 *
+	 * @param inputLabels the input labels
+	 * @param attributeName the attribute name
+	 * @param value the encoded value
+	 */
+	public void setInputLabels(String[] inputLabels,
+			String attributeName, byte[] value) {
+		this.inputLabels = inputLabels;
+		encodedValues.put(attributeName, value.clone());
+	}
+
+	/**
+	 * Sets the output indices.
+	 *
+	 * @param outputIndices the output indices
+	 * @param attributeName the attribute name
+	 * @param value the encoded value
+	 */
+	public void setOutputIndices(int[][] outputIndices,
+			String attributeName, byte[] value) {
+		this.outputIndices = outputIndices;
+		encodedValues.put(attributeName, value.clone());
+	}
+
+	/**
+	 * Sets the output labels.
+	 *
+	 * @param outputLabels the output labels
+	 * @param attributeName the attribute name
+	 * @param value the encoded value
+	 */
+	public void setOutputLabels(String[] outputLabels,
+			String attributeName, byte[] value) {
+		this.outputLabels = outputLabels;
+		encodedValues.put(attributeName, value.clone());
+	}
+
+	/**
+	 * Sets the target output.
+	 *
+	 * @param targetOutput the target output
+	 * @param attributeName the attribute name
+	 * @param value the encoded value
+	 */
+	public void setTargetOutput(RealVector targetOutput,
+			String attributeName, byte[] value) {
+		this.targetOutput = targetOutput;
+		encodedValues.put(attributeName, value.clone());
+	}
+}
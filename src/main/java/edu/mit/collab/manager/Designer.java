@@ -1,5 +1,6 @@
 package edu.mit.collab.manager;
 
+import org.apache.commons.math3.linear.ArrayRealVector;
 import org.apache.commons.math3.linear.RealVector;
 
 /**
@@ -14,7 +15,7 @@ import org.apache.commons.math3.linear.RealVector;
 public class Designer {
 	private final String instanceName; // immutable
 	
-	private RealVector input; // mutable
+	private ArrayRealVector input; // mutable
 	private int index; // mutable, though should only be set once
 	private boolean ready; // mutable
 	
@@ -58,6 +59,16 @@ public class Designer {
 		return input.copy();
 	}
 	
+	/**
+	 * Gets a single entry of the input vector.
+	 *
+	 * @param index the index of the entry
+	 * @return the input value
+	 */
+	public synchronized double getInputEntry(int index) {
+		return input.getEntry(index);
+	}
+	
 	/**
 	 * Gets the instance name.
 	 *
@@ -103,7 +114,45 @@ public class Designer {
 	public synchronized void setInputVector(RealVector inputValue) {
 		// set a copy of the specified value to protect
 		// against unexpected modification
-		this.input = inputValue.copy();
+		this.input = new ArrayRealVector(inputValue);
+	}
+	
+	/**
+	 * Sets the input value from a primitive array. The existing input
+	 * vector storage is re-used if the dimension is unchanged.
+	 *
+	 * @param inputValue the new input value
+	 * @param length the number of valid entries in the input value
+	 */
+	public synchronized void setInputVector(double[] inputValue, int length) {
+		if(input != null && input.getDimension() == length) {
+			// copy into the existing vector storage
+			System.arraycopy(inputValue, 0, input.getDataRef(), 0, length);
+		} else {
+			// dimension has changed; create a new vector
+			input = new ArrayRealVector(inputValue, 0, length);
+		}
+	}
+	
+	/**
+	 * Sets selected entries of the input vector. Entries with indices outside
+	 * of the current input vector are ignored.
+	 *
+	 * @param inputIndices the indices of the entries to set
+	 * @param inputValues the new values of the entries
+	 * @param length the number of entries to set
+	 */
+	public synchronized void setInputEntries(int[] inputIndices, 
+			double[] inputValues, int length) {
+		if(input == null) {
+			return;
+		}
+		for(int i = 0; i < length; i++) {
+			if(inputIndices[i] >= 0 
+					&& inputIndices[i] < input.getDimension()) {
+				input.setEntry(inputIndices[i], inputValues[i]);
+			}
+		}
 	}
 	
 	/**
@@ -14,6 +14,7 @@ public class DesignerEvent extends EventObject {
 	private static final long serialVersionUID = -389874206436130676L;
 	
 	private final Designer designer;
+	private final int[] inputIndices;
 	
 	/**
 	 * Instantiates a new designer event.
@@ -22,8 +23,20 @@ public class DesignerEvent extends EventObject {
 	 * @param designer the designer
 	 */
 	public DesignerEvent(Object source, Designer designer) {
+		this(source, designer, null);
+	}
+	
+	/**
+	 * Instantiates a new designer event for a change of selected inputs.
+	 *
+	 * @param source the source
+	 * @param designer the designer
+	 * @param inputIndices the indices of the changed inputs
+	 */
+	public DesignerEvent(Object source, Designer designer, int[] inputIndices) {
 		super(source);
 		this.designer = designer;
+		this.inputIndices = inputIndices;
 	}
 	
 	/**
@@ -34,4 +47,13 @@ public class DesignerEvent extends EventObject {
 	public Designer getDesigner() {
 		return designer;
 	}
+	
+	/**
+	 * Gets the indices of the changed inputs.
+	 *
+	 * @return the input indices, or null if all inputs may have changed
+	 */
+	public int[] getInputIndices() {
+		return inputIndices;
+	}
 }
@@ -0,0 +1,103 @@
+package edu.mit.collab.manager;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import org.apache.commons.math3.linear.RealVector;
+
+/**
+ * The ExperimentLog class appends time-stamped entries for an experiment
+ * session to a log file, one line per entry with the time (milliseconds),
+ * a label, and the data. Entries may be logged from any thread.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ */
+public class ExperimentLog {
+	private final File logFile; // immutable
+
+	/**
+	 * Instantiates a new experiment log in a file named after the current
+	 * time in the working directory.
+	 */
+	public ExperimentLog() {
+		this(new File(new SimpleDateFormat("yyyy-MM-dd_HH-mm").format(
+				new Date()) + ".log"));
+	}
+
+	/**
+	 * Instantiates a new experiment log.
+	 *
+	 * @param logFile the log file
+	 */
+	public ExperimentLog(File logFile) {
+		this.logFile = logFile;
+
+		// create log file
+		if(!logFile.exists()) {
+			try {
+				logFile.createNewFile();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * Gets the log file.
+	 *
+	 * @return the log file
+	 */
+	public File getLogFile() {
+		return logFile;
+	}
+
+	/**
+	 * Logs an entry.
+	 *
+	 * @param label the label
+	 * @param data the data
+	 */
+	public synchronized void log(String label, String data) {
+		try {
+			// create writer objects
+			FileWriter fw = new FileWriter(logFile, true);
+			// write line with time, message, and newline
+			fw.write(System.currentTimeMillis() + "," + label + ","
+					+ data + System.getProperty("line.separator"));
+			// close the writer
+			fw.close();
+			System.out.println("Manager Log: " + data);
+		} catch(IOException ex) {
+			ex.printStackTrace();
+		}
+	}
+
+	/**
+	 * Formats a vector for logging.
+	 *
+	 * @param vector the vector
+	 * @param isInput true, if the vector is an input vector
+	 * @return the formatted vector
+	 */
+	public static String vectorToString(RealVector vector, boolean isInput) {
+		StringBuilder builder = new StringBuilder();
+		builder.append("{");
+		for(int i = 0; i < vector.getDimension(); i++) {
+			if(isInput) {
+				// format input vectors like 0.00
+				builder.append(String.format("%.2f",vector.getEntry(i)));
+			} else {
+				// format output/target vectors like 0.00000
+				builder.append(String.format("%.5f",vector.getEntry(i)));
+			}
+			if(i < vector.getDimension() - 1) {
+				builder.append("; ");
+			}
+		}
+		builder.append("}");
+		return builder.toString();
+	}
+}
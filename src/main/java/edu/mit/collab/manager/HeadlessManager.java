@@ -0,0 +1,306 @@
+package edu.mit.collab.manager;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import edu.mit.collab.transport.TransportException;
+
+/**
+ * The HeadlessManager class runs an experiment without a user interface,
+ * e.g. for batch runs with bot teams or on lab servers. It starts the
+ * experiment once all designers have joined and advances models
+ * automatically: after a model is solved (following an optional delay) and,
+ * if enabled, after a model times out. Training models are run once each
+ * before the experiment models. All events are logged to disk.
+ *
+ * The state of the manager is only accessed on a single manager thread;
+ * designer events and output snapshots are handed over to it.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ */
+public class HeadlessManager implements DesignerListener, OutputListener {
+	// configuration option to allow constant feedback from designers, i.e.
+	// not require each designer to confirm inputs to receive updates
+	private static final boolean constantFeedback = true;
+
+	private final Experiment experiment; // immutable
+	private final long modelTimeout; // immutable
+	private final long solvedDelay; // immutable
+	private final ExperimentLog log; // immutable
+	private final ManagerAmbassador managerAmbassador; // immutable
+	private final OutputPipeline outputPipeline; // immutable
+	private final ScheduledExecutorService managerExecutor; // immutable
+	private final CountDownLatch completeLatch =
+			new CountDownLatch(1); // immutable
+
+	// state confined to the manager thread
+	private final Set<Designer> designers = new HashSet<Designer>(); // mutable
+	private SystemModel model; // mutable
+	private SystemModel firstTrainingModel; // mutable
+	private ScheduledFuture<?> advanceFuture; // mutable
+	private boolean solved; // mutable
+	private boolean connected; // mutable
+
+	/**
+	 * Instantiates a new headless manager.
+	 *
+	 * @param experiment the experiment
+	 * @param modelTimeout the time (milliseconds) after which an unsolved
+	 * model is advanced, or 0 to wait until solved
+	 * @param solvedDelay the time (milliseconds) to wait before advancing a
+	 * solved model
+	 * @throws TransportException the transport exception
+	 */
+	public HeadlessManager(Experiment experiment, long modelTimeout,
+			long solvedDelay) throws TransportException {
+		this.experiment = experiment;
+		this.modelTimeout = modelTimeout;
+		this.solvedDelay = solvedDelay;
+
+		// create log file
+		log = new ExperimentLog();
+
+		// create the manager thread
+		managerExecutor = Executors.newSingleThreadScheduledExecutor(
+				new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				return new Thread(r, "Manager");
+			}
+		});
+
+		// initialize federate ambassador and add the manager as a listener;
+		// the ambassador is started up by the startUp method
+		managerAmbassador = new ManagerAmbassador();
+		managerAmbassador.addDesignerListener(this);
+
+		// initialize output pipeline to update inputs directly from the
+		// federate ambassador and deliver snapshots on the manager thread
+		outputPipeline = new OutputPipeline(managerAmbassador, log,
+				constantFeedback, managerExecutor);
+		managerAmbassador.addDesignerListener(outputPipeline);
+		outputPipeline.addOutputListener(this);
+	}
+
+	/**
+	 * Advances to the next model in the experiment. Training models are run
+	 * once each; the experiment mode starts once the training models
+	 * repeat. This method is only called on the manager thread.
+	 */
+	private void advanceModel() {
+		experiment.nextModel();
+		if(experiment.isTraining()) {
+			if(firstTrainingModel == null) {
+				// remember the first training model to detect repetition
+				firstTrainingModel = experiment.getActiveModel();
+			} else if(experiment.getActiveModel() == firstTrainingModel) {
+				// all training models have been run, end training
+				experiment.endTrainingMode();
+				experiment.nextModel();
+			}
+		}
+		initializeModel(experiment.getActiveModel());
+	}
+
+	/**
+	 * Waits until the experiment is complete.
+	 *
+	 * @throws InterruptedException the interrupted exception
+	 */
+	public void awaitComplete() throws InterruptedException {
+		completeLatch.await();
+	}
+
+	/**
+	 * Cancels a pending model advancement. This method is only called on
+	 * the manager thread.
+	 */
+	private void cancelAdvance() {
+		if(advanceFuture != null) {
+			advanceFuture.cancel(false);
+			advanceFuture = null;
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.manager.DesignerListener#designerAdded(edu.mit.collab.manager.DesignerEvent)
+	 */
+	@Override
+	public void designerAdded(final DesignerEvent e) {
+		// act on event in manager thread
+		managerExecutor.execute(new Runnable() {
+			@Override
+			public void run() {
+				// check for duplicate index values
+				for(Designer d : designers) {
+					if(d.getIndex() == e.getDesigner().getIndex()) {
+						// duplicate designer
+						log.log("rejected", e.getDesigner().getInstanceName()
+								+ " has a duplicate index ("
+								+ e.getDesigner().getIndex() + ")");
+						return;
+					}
+				}
+				// index is not a duplicate, add designer to the local set
+				// and the output pipeline
+				log.log("joined", e.getDesigner().getInstanceName()
+						+ " joined with index " + e.getDesigner().getIndex());
+				designers.add(e.getDesigner());
+				outputPipeline.addDesigner(e.getDesigner());
+
+				// start the experiment once all designers have joined
+				if(experiment.isReady() && designers.size()
+						== experiment.getNumberDesigners()) {
+					advanceModel();
+				}
+			}
+		});
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.manager.DesignerListener#designerInputModified(edu.mit.collab.manager.DesignerEvent)
+	 */
+	@Override
+	public void designerInputModified(DesignerEvent e) {
+		// inputs are updated by the output pipeline
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.manager.DesignerListener#designerRemoved(edu.mit.collab.manager.DesignerEvent)
+	 */
+	@Override
+	public void designerRemoved(final DesignerEvent e) {
+		// act on event in manager thread
+		managerExecutor.execute(new Runnable() {
+			@Override
+			public void run() {
+				// remove the designer from the local set and the output
+				// pipeline
+				if(designers.remove(e.getDesigner())) {
+					log.log("left", e.getDesigner().getInstanceName());
+				}
+				outputPipeline.removeDesigner(e.getDesigner());
+			}
+		});
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.manager.DesignerListener#designerStateModified(edu.mit.collab.manager.DesignerEvent)
+	 */
+	@Override
+	public void designerStateModified(DesignerEvent e) {
+		// ready states are evaluated by the output pipeline
+	}
+
+	/**
+	 * Initializes a new system model and schedules its timeout. Completes
+	 * the experiment if the model is null. This method is only called on the
+	 * manager thread.
+	 *
+	 * @param model the model
+	 */
+	private void initializeModel(SystemModel model) {
+		// reset the output pipeline to the new model first so no results of
+		// the previous model are logged afterwards
+		this.model = model;
+		solved = false;
+		cancelAdvance();
+		outputPipeline.setModel(model);
+
+		log.log("initialized", model==null? "null" :
+			"name=\"" + model.getName() + "\"; target="
+				+ ExperimentLog.vectorToString(model.getTargetVector(), false));
+
+		// tell the federate ambassador to update model attributes to reflect
+		// the newly-loaded system model (sent upon connection otherwise)
+		if(connected) {
+			try {
+				managerAmbassador.updateModelAttributes(experiment);
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+		}
+
+		if(model != null && modelTimeout > 0) {
+			// advance the model if not solved before the timeout
+			advanceFuture = managerExecutor.schedule(new Runnable() {
+				@Override
+				public void run() {
+					log.log("timeout", HeadlessManager.this.model.getName());
+					advanceModel();
+				}
+			}, modelTimeout, TimeUnit.MILLISECONDS);
+		} else if(experiment.isComplete()) {
+			// experiment is complete
+			log.log("complete", experiment.getName());
+			completeLatch.countDown();
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.manager.OutputListener#outputsUpdated(edu.mit.collab.manager.OutputSnapshot)
+	 */
+	@Override
+	public void outputsUpdated(OutputSnapshot snapshot) {
+		// ignore snapshots of previous models
+		if(snapshot.getModel() == null || snapshot.getModel() != model) {
+			return;
+		}
+
+		// if task is solved, advance the model after the delay
+		if(snapshot.isSolved() && !solved) {
+			solved = true;
+			cancelAdvance();
+			advanceFuture = managerExecutor.schedule(new Runnable() {
+				@Override
+				public void run() {
+					advanceModel();
+				}
+			}, solvedDelay, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Shuts down the federate ambassador and stops the manager thread.
+	 *
+	 * @throws TransportException the transport exception
+	 */
+	public void shutDown() throws TransportException {
+		outputPipeline.close();
+		managerExecutor.shutdownNow();
+		managerAmbassador.shutDown();
+	}
+
+	/**
+	 * Starts up the federate ambassador and sends the model attributes of
+	 * the experiment.
+	 *
+	 * @throws TransportException the transport exception
+	 */
+	public void startUp() throws TransportException {
+		long time = System.nanoTime();
+		managerAmbassador.startUp();
+		System.out.println("Manager Log: started up in "
+				+ (System.nanoTime() - time) / 1000000 + " ms");
+		log.log("opened", experiment.getName());
+
+		// send the model attributes of the experiment on the manager thread
+		managerExecutor.execute(new Runnable() {
+			@Override
+			public void run() {
+				connected = true;
+				try {
+					managerAmbassador.updateModelAttributes(experiment);
+				} catch (Exception e) {
+					e.printStackTrace();
+				}
+			}
+		});
+	}
+}
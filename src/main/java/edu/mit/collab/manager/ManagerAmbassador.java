@@ -2,88 +2,50 @@ package edu.mit.collab.manager;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.MalformedURLException;
-import java.net.URL;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
-import javax.swing.JOptionPane;
 import javax.swing.event.EventListenerList;
 
 import org.apache.commons.math3.linear.RealVector;
 
+import edu.mit.collab.transport.Transport;
+import edu.mit.collab.transport.TransportException;
+import edu.mit.collab.transport.TransportFactory;
+import edu.mit.collab.transport.TransportListener;
+import edu.mit.collab.util.ErrorReporter;
 import edu.mit.collab.util.HLAfloatVector;
+import edu.mit.collab.util.HLAintegerVector;
 import edu.mit.collab.util.HLAintegerMatrix;
 import edu.mit.collab.util.HLAstringVector;
+import edu.mit.collab.util.ModelDictionary;
+import edu.mit.collab.util.SequenceFilter;
 import edu.mit.collab.util.Utilities;
-import hla.rti1516e.AttributeHandleSet;
-import hla.rti1516e.AttributeHandleValueMap;
-import hla.rti1516e.CallbackModel;
-import hla.rti1516e.FederateHandle;
-import hla.rti1516e.LogicalTime;
-import hla.rti1516e.MessageRetractionHandle;
-import hla.rti1516e.NullFederateAmbassador;
-import hla.rti1516e.ObjectClassHandle;
-import hla.rti1516e.ObjectInstanceHandle;
-import hla.rti1516e.OrderType;
-import hla.rti1516e.RTIambassador;
-import hla.rti1516e.ResignAction;
-import hla.rti1516e.RtiFactory;
-import hla.rti1516e.RtiFactoryFactory;
-import hla.rti1516e.TransportationTypeHandle;
-import hla.rti1516e.encoding.ByteWrapper;
 import hla.rti1516e.encoding.EncoderException;
 import hla.rti1516e.encoding.EncoderFactory;
 import hla.rti1516e.encoding.HLAboolean;
 import hla.rti1516e.encoding.HLAinteger32BE;
+import hla.rti1516e.encoding.HLAinteger64BE;
 import hla.rti1516e.encoding.HLAunicodeString;
-import hla.rti1516e.exceptions.AlreadyConnected;
-import hla.rti1516e.exceptions.AttributeNotDefined;
-import hla.rti1516e.exceptions.AttributeNotOwned;
-import hla.rti1516e.exceptions.CallNotAllowedFromWithinCallback;
-import hla.rti1516e.exceptions.ConnectionFailed;
-import hla.rti1516e.exceptions.CouldNotCreateLogicalTimeFactory;
-import hla.rti1516e.exceptions.CouldNotOpenFDD;
-import hla.rti1516e.exceptions.ErrorReadingFDD;
-import hla.rti1516e.exceptions.FederateAlreadyExecutionMember;
-import hla.rti1516e.exceptions.FederateIsExecutionMember;
-import hla.rti1516e.exceptions.FederateNameAlreadyInUse;
-import hla.rti1516e.exceptions.FederateNotExecutionMember;
-import hla.rti1516e.exceptions.FederateOwnsAttributes;
-import hla.rti1516e.exceptions.FederatesCurrentlyJoined;
-import hla.rti1516e.exceptions.FederationExecutionAlreadyExists;
-import hla.rti1516e.exceptions.FederationExecutionDoesNotExist;
-import hla.rti1516e.exceptions.InconsistentFDD;
-import hla.rti1516e.exceptions.InvalidLocalSettingsDesignator;
-import hla.rti1516e.exceptions.InvalidObjectClassHandle;
-import hla.rti1516e.exceptions.InvalidResignAction;
-import hla.rti1516e.exceptions.NameNotFound;
-import hla.rti1516e.exceptions.NotConnected;
-import hla.rti1516e.exceptions.ObjectClassNotDefined;
-import hla.rti1516e.exceptions.ObjectClassNotPublished;
-import hla.rti1516e.exceptions.ObjectInstanceNotKnown;
-import hla.rti1516e.exceptions.OwnershipAcquisitionPending;
-import hla.rti1516e.exceptions.RTIinternalError;
-import hla.rti1516e.exceptions.RestoreInProgress;
-import hla.rti1516e.exceptions.SaveInProgress;
-import hla.rti1516e.exceptions.UnsupportedCallbackModel;
 
 /**
- * The federate ambassador interface to the RTI for the manager application.
- * This class handles all of the interactions with the RTI including setting up
- * the connection to a federation and receiving all messages from other
- * federates.
- * 
+ * The federate ambassador interface to the transport for the manager
+ * application. This class handles all of the interactions with the transport
+ * including setting up the connection to a federation and receiving all
+ * messages from other federates.
+ *
  * @author Paul T. Grogan, ptgrogan@mit.edu
  */
-public class ManagerAmbassador extends NullFederateAmbassador {
-	private static enum DesignerAction {ADD, INPUT_UPDATE, 
+public class ManagerAmbassador implements TransportListener {
+	private static enum DesignerAction {ADD, INPUT_UPDATE,
 		STATE_UPDATE, REMOVE};
-	
+
 	// the variables below define configuration strings for various
-	// commands issued to the RTI ambassador
+	// commands issued to the transport
 	private static final String federateType = "manager";
 	private static final String managerClassName = "HLAobjectRoot.Manager";
 	private static final String outputAttributeName = "Output";
@@ -94,34 +56,104 @@ public class ManagerAmbassador extends NullFederateAmbassador {
 	private static final String outputIndicesAttributeName = "OutputIndices";
 	private static final String inputLabelsAttributeName = "InputLabels";
 	private static final String outputLabelsAttributeName = "OutputLabels";
+	private static final String modelVersionAttributeName = "ModelVersion";
+	private static final String inputIndicesKeyAttributeName = "InputIndicesKey";
+	private static final String outputIndicesKeyAttributeName =
+			"OutputIndicesKey";
+	private static final String inputLabelsKeyAttributeName = "InputLabelsKey";
+	private static final String outputLabelsKeyAttributeName =
+			"OutputLabelsKey";
 	private static final String designerClassName = "HLAobjectRoot.Designer";
 	private static final String inputAttributeName = "Input";
 	private static final String indexAttributeName = "Index";
 	private static final String readyAttributeName = "Ready";
-	
-	private transient String objectInstanceName; // set upon connection to RTI
+	private static final String inputDeltaClassName =
+			"HLAinteractionRoot.InputDelta";
+	private static final String designerIndexParameterName = "DesignerIndex";
+	private static final String inputIndicesParameterName = "InputIndices";
+	private static final String inputValuesParameterName = "InputValues";
+	private static final String sequenceParameterName = "Sequence";
+	private static final String baseSequenceParameterName = "BaseSequence";
+	private static final String designerOutputClassName =
+			"HLAobjectRoot.DesignerOutput";
+	private static final String designerIndexAttributeName = "DesignerIndex";
+	private static final String managerAttributeName = "Manager";
+	private static final String solvedAttributeName = "Solved";
+	private static final String designerIndexDimensionName = "DesignerIndex";
+	private static final String[] designerOutputAttributeNames = new String[] {
+		designerIndexAttributeName, managerAttributeName,
+		outputAttributeName, solvedAttributeName};
+
+	private transient String objectInstanceName; // set upon connection
 
-	private final RTIambassador rtiAmbassador; // immutable
+	private final Transport transport; // immutable
 	private final EncoderFactory encoderFactory; // immutable
 
     private final Properties properties; // mutable
-	private final HLAfloatVector initialInput, targetOutput, outputs; // mutable
+	private final HLAfloatVector initialInput, targetOutput; // mutable
+	// updated by the output pipeline thread and encoded upon requests from
+	// the callback thread; only accessed while synchronized
+	private final HLAfloatVector outputs; // mutable
 	private final HLAintegerMatrix inputIndices, outputIndices; // mutable
 	private final HLAunicodeString activeModel; // mutable
 	private final HLAstringVector inputLabels, outputLabels; // mutable
+	private final HLAinteger64BE modelVersion; // mutable
 	private final EventListenerList listenerList = new EventListenerList(); // mutable
-	
+	private final ErrorReporter errorReporter =
+			new ErrorReporter("Manager"); // mutable
+
+	// sequence number sent with model and output updates and filter to drop
+	// stale input updates received over best-effort transportation
+	private final AtomicLong outputSequence = new AtomicLong(); // mutable
+	// generation of the model in the output pipeline; outputs computed for
+	// other generations are not sent
+	private long outputGeneration; // mutable
+	private final SequenceFilter<String> inputFilter =
+			new SequenceFilter<String>(); // mutable
+	// sequence number of the latest whole input received from each
+	// designer; input deltas only apply to the whole input they are based on
+	private final Map<String, Long> inputBaseSequences =
+			Collections.synchronizedMap(new HashMap<String, Long>());
+
+	// reusable data elements and buffers to decode reflected values without
+	// allocating new objects; only accessed from the callback thread
+	private final HLAinteger32BE indexDecoder; // mutable
+	private final HLAfloatVector inputDecoder; // mutable
+	private final HLAboolean readyDecoder; // mutable
+	private double[] inputBuffer = new double[0]; // mutable
+	private final HLAintegerVector deltaIndicesDecoder; // mutable
+	private final HLAinteger64BE sequenceDecoder; // mutable
+	private int[] deltaIndicesBuffer = new int[0]; // mutable
+
+	// per-designer output objects keyed by designer index, updated instead
+	// of the output attribute if enabled by the designerOutputs property
+	private final boolean designerOutputs; // immutable
+	private final Map<Integer, String> designerOutputInstances =
+			Collections.synchronizedMap(new HashMap<Integer, String>());
+	private final HLAfloatVector designerOutput; // mutable
+	private final HLAinteger32BE designerIndex; // mutable
+	private final HLAunicodeString managerName; // mutable
+	private final HLAboolean solved; // mutable
+	private int[][] designerOutputIndices = new int[0][0]; // mutable
+	private double[] designerOutputBuffer = new double[0]; // mutable
+
+	// dictionary of labels and index matrices sent to designers, which are
+	// then only referenced by key if enabled by the modelDictionary property
+	private final boolean modelDictionary; // immutable
+	private final ModelDictionary dictionary = new ModelDictionary(); // mutable
+	private RealVector lastOutput; // mutable
+	private boolean lastSolved; // mutable
+
 	// synchronized mutable map to support multi-threaded application
-	private final Map<ObjectInstanceHandle, Designer> designers = 
-			Collections.synchronizedMap(
-					new HashMap<ObjectInstanceHandle, Designer>());
-	
+	private final Map<String, Designer> designers =
+			Collections.synchronizedMap(new HashMap<String, Designer>());
+
 	/**
 	 * Instantiates a new manager ambassador.
 	 *
-	 * @throws RTIinternalError the RTI internal error
+	 * @throws TransportException the transport exception
 	 */
-	public ManagerAmbassador() throws RTIinternalError {	
+	public ManagerAmbassador() throws TransportException {
         properties = new Properties();
         try {
           InputStream in = getClass().getClassLoader().getResourceAsStream(
@@ -131,18 +163,16 @@ public class ManagerAmbassador extends NullFederateAmbassador {
         } catch (IOException e) {
           e.printStackTrace();
         }
-        String rtiName = properties.getProperty("rtiName", null);
-      
-		// create the RTI factory and store ambassador and encoder objects
-	    RtiFactory rtiFactory = null;
-	    if(rtiName == null) {
-	        rtiFactory = RtiFactoryFactory.getRtiFactory();
-	    } else {
-	        rtiFactory = RtiFactoryFactory.getRtiFactory(rtiName);
-	    }
-		rtiAmbassador = rtiFactory.getRtiAmbassador();
-		encoderFactory = rtiFactory.getEncoderFactory();
-		
+        designerOutputs = Boolean.parseBoolean(
+        		properties.getProperty("designerOutputs", "false"));
+        modelDictionary = Boolean.parseBoolean(
+        		properties.getProperty("modelDictionary", "false"));
+
+		// create the transport selected in the properties and store the
+        // encoder factory
+		transport = TransportFactory.createTransport(properties);
+		encoderFactory = transport.getEncoderFactory();
+
 		// create hla-compatible data elements for encoding/decoding values
 		initialInput = new HLAfloatVector(encoderFactory);
 		targetOutput = new HLAfloatVector(encoderFactory);
@@ -152,8 +182,26 @@ public class ManagerAmbassador extends NullFederateAmbassador {
 		outputIndices = new HLAintegerMatrix(encoderFactory);
 		inputLabels = new HLAstringVector(encoderFactory);
 		outputLabels = new HLAstringVector(encoderFactory);
+
+		// model versions start from the start time so versions cached by
+		// designers during a previous manager session are not matched
+		modelVersion = encoderFactory.createHLAinteger64BE(
+				System.currentTimeMillis());
+
+		// create reusable data elements for decoding values
+		indexDecoder = encoderFactory.createHLAinteger32BE();
+		inputDecoder = new HLAfloatVector(encoderFactory);
+		readyDecoder = encoderFactory.createHLAboolean();
+		deltaIndicesDecoder = new HLAintegerVector(encoderFactory);
+		sequenceDecoder = encoderFactory.createHLAinteger64BE();
+
+		// create data elements for per-designer outputs
+		designerOutput = new HLAfloatVector(encoderFactory);
+		designerIndex = encoderFactory.createHLAinteger32BE();
+		managerName = encoderFactory.createHLAunicodeString();
+		solved = encoderFactory.createHLAboolean();
 	}
-	
+
 	/**
 	 * Adds the designer listener.
 	 *
@@ -163,83 +211,54 @@ public class ManagerAmbassador extends NullFederateAmbassador {
 		// add listener to list
 		listenerList.add(DesignerListener.class, listener);
 	}
-	
-	/* (non-Javadoc)
-	 * @see hla.rti1516e.NullFederateAmbassador#discoverObjectInstance(hla.rti1516e.ObjectInstanceHandle, hla.rti1516e.ObjectClassHandle, java.lang.String)
-	 */
-	public void discoverObjectInstance(ObjectInstanceHandle theObject,
-			ObjectClassHandle theObjectClass, 
-			String objectName) {
-		// re-direct method to single method signature
-		discoverObjectInstance(theObject, theObjectClass, objectName, null);
-	}
-	
+
 	/* (non-Javadoc)
-	 * @see hla.rti1516e.NullFederateAmbassador#discoverObjectInstance(hla.rti1516e.ObjectInstanceHandle, hla.rti1516e.ObjectClassHandle, java.lang.String)
+	 * @see edu.mit.collab.transport.TransportListener#discoverObjectInstance(java.lang.String, java.lang.String)
 	 */
-	public void discoverObjectInstance(ObjectInstanceHandle theObject,
-			ObjectClassHandle theObjectClass,
-			String objectName,
-			FederateHandle producingFederate) {
-		// this method is called by the RTI when a new object is "discovered"
-		// in this case, we are only expecting designers which should be added
-		// to the list of discovered designers and request attribute updates
+	@Override
+	public void discoverObjectInstance(String instanceName, String className) {
+		// this method is called by the transport when a new object is
+		// "discovered" in this case, we are only expecting designers which
+		// should be added to the list of discovered designers and request
+		// attribute updates
 		try {
 			// check if object is a designer (shouldn't be anything else!)
-			if(theObjectClass.equals(
-					rtiAmbassador.getObjectClassHandle(designerClassName))) {
+			if(className.equals(designerClassName)) {
 				// create new designer object
-				Designer design = new Designer(objectName);
-				
-				// add object class handle and designer object to 
+				Designer design = new Designer(instanceName);
+
+				// add instance name and designer object to
 				// thread-safe map using a synchronized block
 				synchronized(designers) {
-					designers.put(theObject, design);
+					designers.put(instanceName, design);
 				}
-				
-				// create a new attribute handle set to request updates of the
-				// designer's attributes
-				AttributeHandleSet attributes = rtiAmbassador
-						.getAttributeHandleSetFactory().create();
-				// add index attribute
-				attributes.add(rtiAmbassador.getAttributeHandle(
-						rtiAmbassador.getObjectClassHandle(designerClassName),
-						indexAttributeName));
-				// add ready attribute
-				attributes.add(rtiAmbassador.getAttributeHandle(
-						rtiAmbassador.getObjectClassHandle(designerClassName),
-						readyAttributeName));
-				// add input attribute
-				attributes.add(rtiAmbassador.getAttributeHandle(
-						rtiAmbassador.getObjectClassHandle(designerClassName),
-						inputAttributeName));
-				// issue request attribute value update service call
-				rtiAmbassador.requestAttributeValueUpdate(theObject, 
-						attributes, new byte[0]);
+
+				// issue request attribute value update service call for the
+				// designer's index, ready and input attributes
+				transport.requestAttributeValueUpdate(instanceName,
+						indexAttributeName, readyAttributeName,
+						inputAttributeName);
 			}
 		} catch (Exception ex) {
 			// in the case of an exception (from the request attribute value
-			// update call), print stack trace and show error message
-			ex.printStackTrace();
-			JOptionPane.showMessageDialog(null, "An exception of type " + 
-					ex.getMessage() + " occurred while discovering an object. " +
-					"See stack trace for more information.", 
-					"Error", JOptionPane.ERROR_MESSAGE);
+			// update call), record the error without blocking
+			// the callback thread
+			errorReporter.report("discovering an object", instanceName, ex);
 		}
 	}
-	
+
 	/**
 	 * Fires a designer event corresponding to an observed action.
 	 *
 	 * @param action the action
 	 * @param event the event
 	 */
-	private void fireDesignerEvent(DesignerAction action, 
+	private void fireDesignerEvent(DesignerAction action,
 			DesignerEvent event) {
 		// get the list of designer listeners
 		DesignerListener[] listeners = listenerList.getListeners(
 				DesignerListener.class);
-		
+
 		// for each listener, notify using the appropriate method
 		for(int i = 0; i < listeners.length; i++) {
 			switch(action) {
@@ -257,311 +276,395 @@ public class ManagerAmbassador extends NullFederateAmbassador {
 			}
 		}
 	}
-	
+
+	/**
+	 * Gets the error reporter which records exceptions raised in callbacks.
+	 *
+	 * @return the error reporter
+	 */
+	public ErrorReporter getErrorReporter() {
+		return errorReporter;
+	}
+
 	/**
-	 * Gets the instance name issued by the RTI.
+	 * Gets the instance name issued by the transport.
 	 *
 	 * @return the instance name
 	 */
 	public String getInstanceName() {
 		return objectInstanceName;
 	}
-	
+
 	/* (non-Javadoc)
-	 * @see hla.rti1516e.NullFederateAmbassador#provideAttributeValueUpdate(hla.rti1516e.ObjectInstanceHandle, hla.rti1516e.AttributeHandleSet, byte[])
+	 * @see edu.mit.collab.transport.TransportListener#provideAttributeValueUpdate(java.lang.String, java.util.Set)
 	 */
-	public void provideAttributeValueUpdate(ObjectInstanceHandle theObject,
-			AttributeHandleSet theAttributes, 
-			byte[] userSuppliedTag) {
-		// this method is called by the RTI when this object attribute values
-		// owned by this federate are requested by another federate. in this
-		// case, this corresponds to a designer requesting attribute values
-		// of the manager
+	@Override
+	public void provideAttributeValueUpdate(String instanceName,
+			Set<String> attributeNames) {
+		// this method is called by the transport when this object attribute
+		// values owned by this federate are requested by another federate.
+		// in this case, this corresponds to a designer requesting attribute
+		// values of the manager
 		try {
 			// check to make sure that the object requested is this manager
-			if(theObject.equals(rtiAmbassador.getObjectInstanceHandle(
-					objectInstanceName))) {
-				// create an attribute handle value map to store data
-				AttributeHandleValueMap attributes = rtiAmbassador.
-						getAttributeHandleValueMapFactory().create(6);
+			if(instanceName.equals(objectInstanceName)) {
+				// create an attribute value map to store data
+				Map<String, byte[]> attributes = new HashMap<String, byte[]>();
 
 				// if the initial input is requested, add it to the map
-				if(theAttributes.contains(rtiAmbassador.getAttributeHandle(
-						rtiAmbassador.getObjectClassHandle(managerClassName), 
-						initialInputAttributeName))) {
-					attributes.put(rtiAmbassador.getAttributeHandle(
-							rtiAmbassador.getObjectClassHandle(managerClassName), 
-							initialInputAttributeName), 
+				if(attributeNames.contains(initialInputAttributeName)) {
+					attributes.put(initialInputAttributeName,
 							initialInput.toByteArray());
 				}
-				
+
 				// if the target output is requested, add it to the map
-				if(theAttributes.contains(rtiAmbassador.getAttributeHandle(
-						rtiAmbassador.getObjectClassHandle(managerClassName), 
-						targetOutputAttributeName))) {
-					attributes.put(rtiAmbassador.getAttributeHandle(
-							rtiAmbassador.getObjectClassHandle(managerClassName), 
-							targetOutputAttributeName), 
+				if(attributeNames.contains(targetOutputAttributeName)) {
+					attributes.put(targetOutputAttributeName,
 							targetOutput.toByteArray());
 				}
 
-				// if the outputs are requested, add it to the map
-				if(theAttributes.contains(rtiAmbassador.getAttributeHandle(
-						rtiAmbassador.getObjectClassHandle(managerClassName), 
-						outputAttributeName))) {
-					attributes.put(rtiAmbassador.getAttributeHandle(
-							rtiAmbassador.getObjectClassHandle(managerClassName), 
-							outputAttributeName), 
-							outputs.toByteArray());
+				// if the outputs are requested, add it to the map; the
+				// outputs are updated by the output pipeline thread
+				if(attributeNames.contains(outputAttributeName)) {
+					synchronized(this) {
+						attributes.put(outputAttributeName,
+								outputs.toByteArray());
+					}
 				}
 
 				// if the active model is requested, add it to the map
-				if(theAttributes.contains(rtiAmbassador.getAttributeHandle(
-						rtiAmbassador.getObjectClassHandle(managerClassName), 
-						activeModelAttributeName))) {
-					attributes.put(rtiAmbassador.getAttributeHandle(
-							rtiAmbassador.getObjectClassHandle(managerClassName), 
-							activeModelAttributeName), 
+				if(attributeNames.contains(activeModelAttributeName)) {
+					attributes.put(activeModelAttributeName,
 							activeModel.toByteArray());
 				}
 
-				// if the input indices are requested, add it to the map
-				if(theAttributes.contains(rtiAmbassador.getAttributeHandle(
-						rtiAmbassador.getObjectClassHandle(managerClassName), 
-						inputIndicesAttributeName))) {
-					attributes.put(rtiAmbassador.getAttributeHandle(
-							rtiAmbassador.getObjectClassHandle(managerClassName), 
-							inputIndicesAttributeName), 
-							inputIndices.toByteArray());
+				// if the input indices are requested, add them in full to
+				// the map (with their key, if enabled)
+				if(attributeNames.contains(inputIndicesAttributeName)) {
+					putDictionaryValue(attributes, inputIndicesAttributeName,
+							inputIndicesKeyAttributeName,
+							inputIndices.toByteArray(), true);
 				}
 
-				// if the output indices are requested, add it to the map
-				if(theAttributes.contains(rtiAmbassador.getAttributeHandle(
-						rtiAmbassador.getObjectClassHandle(managerClassName), 
-						outputIndicesAttributeName))) {
-					attributes.put(rtiAmbassador.getAttributeHandle(
-							rtiAmbassador.getObjectClassHandle(managerClassName), 
-							outputIndicesAttributeName), 
-							outputIndices.toByteArray());
+				// if the output indices are requested, add them in full to
+				// the map (with their key, if enabled)
+				if(attributeNames.contains(outputIndicesAttributeName)) {
+					putDictionaryValue(attributes, outputIndicesAttributeName,
+							outputIndicesKeyAttributeName,
+							outputIndices.toByteArray(), true);
 				}
 
-				// if the input labels are requested, add it to the map
-				if(theAttributes.contains(rtiAmbassador.getAttributeHandle(
-						rtiAmbassador.getObjectClassHandle(managerClassName), 
-						inputLabelsAttributeName))) {
-					attributes.put(rtiAmbassador.getAttributeHandle(
-							rtiAmbassador.getObjectClassHandle(managerClassName), 
-							inputLabelsAttributeName), 
-							inputLabels.toByteArray());
+				// if the input labels are requested, add them in full to
+				// the map (with their key, if enabled)
+				if(attributeNames.contains(inputLabelsAttributeName)) {
+					putDictionaryValue(attributes, inputLabelsAttributeName,
+							inputLabelsKeyAttributeName,
+							inputLabels.toByteArray(), true);
 				}
 
-				// if the output labels are requested, add it to the map
-				if(theAttributes.contains(rtiAmbassador.getAttributeHandle(
-						rtiAmbassador.getObjectClassHandle(managerClassName), 
-						outputLabelsAttributeName))) {
-					attributes.put(rtiAmbassador.getAttributeHandle(
-							rtiAmbassador.getObjectClassHandle(managerClassName), 
-							outputLabelsAttributeName), 
-							outputLabels.toByteArray());
+				// if the output labels are requested, add them in full to
+				// the map (with their key, if enabled)
+				if(attributeNames.contains(outputLabelsAttributeName)) {
+					putDictionaryValue(attributes, outputLabelsAttributeName,
+							outputLabelsKeyAttributeName,
+							outputLabels.toByteArray(), true);
+				}
+
+				// if the model version is requested, add it to the map
+				if(attributeNames.contains(modelVersionAttributeName)) {
+					attributes.put(modelVersionAttributeName,
+							modelVersion.toByteArray());
+				}
+
+				// use the transport's update attribute value service to
+				// issue updates
+				transport.updateAttributeValues(objectInstanceName,
+						attributes, SequenceFilter.encodeTag(
+								outputSequence.get()));
+			} else if(designerOutputs) {
+				// check whether the object requested is a designer output
+				Integer index = null;
+				synchronized(designerOutputInstances) {
+					for(Map.Entry<Integer, String> entry
+							: designerOutputInstances.entrySet()) {
+						if(entry.getValue().equals(instanceName)) {
+							index = entry.getKey();
+						}
+					}
+				}
+				if(index != null) {
+					// re-send the latest values for the designer
+					updateDesignerOutputAttributes(index,
+							SequenceFilter.encodeTag(outputSequence.get()));
 				}
-				
-				// use the rti's update attribute value service to issue updates
-				rtiAmbassador.updateAttributeValues(
-						rtiAmbassador.getObjectInstanceHandle(objectInstanceName), 
-						attributes, new byte[0]);
 			}
 		}  catch (Exception ex) {
 			// in the case of an exception (from the update attribute value
-			// call), print stack trace and show error message
-			ex.printStackTrace();
-			JOptionPane.showMessageDialog(null, "An exception of type " + 
-					ex.getMessage() + " occurred while providing attribute " +
-					"updates. See stack trace for more information.", 
-					"Error", JOptionPane.ERROR_MESSAGE);
+			// call), record the error without blocking
+			// the callback thread
+			errorReporter.report("providing attribute updates",
+					instanceName, ex);
 		}
 	}
 
+	/**
+	 * Gets the output object instance for a designer, registering a new
+	 * instance if required. Instances are registered with a region bounded
+	 * to the designer index so transports supporting regions only deliver
+	 * updates to that designer; otherwise, designers filter instances by
+	 * their designer index attribute.
+	 *
+	 * @param index the designer index
+	 * @return the object instance name
+	 * @throws TransportException the transport exception
+	 */
+	private String getDesignerOutputInstance(int index)
+			throws TransportException {
+		String instance = designerOutputInstances.get(index);
+		if(instance == null) {
+			instance = transport.registerObjectInstance(
+					designerOutputClassName, designerOutputAttributeNames,
+					designerIndexDimensionName, index, index + 1);
+			designerOutputInstances.put(index, instance);
+		}
+		return instance;
+	}
+
 	/**
 	 * Configures the published object class attributes.
 	 *
-	 * @throws FederateNotExecutionMember the federate not execution member
-	 * @throws NotConnected the not connected
-	 * @throws NameNotFound the name not found
-	 * @throws InvalidObjectClassHandle the invalid object class handle
-	 * @throws RTIinternalError the RTI internal error
-	 * @throws AttributeNotDefined the attribute not defined
-	 * @throws ObjectClassNotDefined the object class not defined
-	 * @throws SaveInProgress the save in progress
-	 * @throws RestoreInProgress the restore in progress
+	 * @throws TransportException the transport exception
+	 */
+	private void publish() throws TransportException {
+		// use the transport service to publish the outputs, initial input,
+		// target output, active model, input and output indices, and input
+		// and output labels, and model version (and the dictionary keys of
+		// the indices and labels, if enabled)
+		if(modelDictionary) {
+			transport.publishObjectClassAttributes(managerClassName,
+					outputAttributeName, initialInputAttributeName,
+					targetOutputAttributeName, activeModelAttributeName,
+					inputIndicesAttributeName, outputIndicesAttributeName,
+					inputLabelsAttributeName, outputLabelsAttributeName,
+					modelVersionAttributeName, inputIndicesKeyAttributeName,
+					outputIndicesKeyAttributeName, inputLabelsKeyAttributeName,
+					outputLabelsKeyAttributeName);
+		} else {
+			transport.publishObjectClassAttributes(managerClassName,
+					outputAttributeName, initialInputAttributeName,
+					targetOutputAttributeName, activeModelAttributeName,
+					inputIndicesAttributeName, outputIndicesAttributeName,
+					inputLabelsAttributeName, outputLabelsAttributeName,
+					modelVersionAttributeName);
+		}
+
+		if(designerOutputs) {
+			// use the transport service to publish designer output attributes
+			transport.publishObjectClassAttributes(designerOutputClassName,
+					designerOutputAttributeNames);
+		}
+	}
+
+	/**
+	 * Adds an encoded label or index value to an attribute value map. If
+	 * enabled by the <code>modelDictionary</code> property, the key of the
+	 * value is added and the value itself is only added if it has not been
+	 * sent before (or if requested in full); designers then resolve the key
+	 * from their dictionaries.
+	 *
+	 * @param attributes the attribute value map
+	 * @param attributeName the attribute name
+	 * @param keyAttributeName the key attribute name
+	 * @param value the encoded value
+	 * @param full true, if the value must be added in full
+	 * @throws EncoderException the encoder exception
 	 */
-	private void publish() 
-			throws FederateNotExecutionMember, NotConnected, 
-			NameNotFound, InvalidObjectClassHandle, RTIinternalError, 
-			AttributeNotDefined, ObjectClassNotDefined, SaveInProgress, 
-			RestoreInProgress {
-		// create a new attribute handle set to store attributes
-		AttributeHandleSet attributeHandleSet = rtiAmbassador
-				.getAttributeHandleSetFactory().create();
-		// add the outputs to the set
-		attributeHandleSet.add(rtiAmbassador.getAttributeHandle(
-				rtiAmbassador.getObjectClassHandle(managerClassName), 
-				outputAttributeName));
-		// add the initial input to the set
-		attributeHandleSet.add(rtiAmbassador.getAttributeHandle(
-				rtiAmbassador.getObjectClassHandle(managerClassName), 
-				initialInputAttributeName));
-		// add the target output to the set
-		attributeHandleSet.add(rtiAmbassador.getAttributeHandle(
-				rtiAmbassador.getObjectClassHandle(managerClassName), 
-				targetOutputAttributeName));
-		// add the active model to the set
-		attributeHandleSet.add(rtiAmbassador.getAttributeHandle(
-				rtiAmbassador.getObjectClassHandle(managerClassName), 
-				activeModelAttributeName));
-		// add the input indices to the set
-		attributeHandleSet.add(rtiAmbassador.getAttributeHandle(
-				rtiAmbassador.getObjectClassHandle(managerClassName), 
-				inputIndicesAttributeName));
-		// add the output indices to the set
-		attributeHandleSet.add(rtiAmbassador.getAttributeHandle(
-				rtiAmbassador.getObjectClassHandle(managerClassName), 
-				outputIndicesAttributeName));
-		// add the input labels to the set
-		attributeHandleSet.add(rtiAmbassador.getAttributeHandle(
-				rtiAmbassador.getObjectClassHandle(managerClassName), 
-				inputLabelsAttributeName));
-		// add the output labels to the set
-		attributeHandleSet.add(rtiAmbassador.getAttributeHandle(
-				rtiAmbassador.getObjectClassHandle(managerClassName), 
-				outputLabelsAttributeName));
-		// use the RTI service to publish object class attributes
-		rtiAmbassador.publishObjectClassAttributes(
-				rtiAmbassador.getObjectClassHandle(managerClassName),
-				attributeHandleSet);
+	private void putDictionaryValue(Map<String, byte[]> attributes,
+			String attributeName, String keyAttributeName, byte[] value,
+			boolean full) throws EncoderException {
+		if(!modelDictionary) {
+			attributes.put(attributeName, value);
+			return;
+		}
+		long key = ModelDictionary.hash(value);
+		attributes.put(keyAttributeName,
+				encoderFactory.createHLAinteger64BE(key).toByteArray());
+		if(dictionary.put(key, value) || full) {
+			attributes.put(attributeName, value);
+		}
 	}
-	
+
 	/* (non-Javadoc)
-	 * @see hla.rti1516e.NullFederateAmbassador#reflectAttributeValues(hla.rti1516e.ObjectInstanceHandle, hla.rti1516e.AttributeHandleValueMap, byte[], hla.rti1516e.OrderType, hla.rti1516e.TransportationTypeHandle, hla.rti1516e.LogicalTime, hla.rti1516e.OrderType, hla.rti1516e.MessageRetractionHandle, hla.rti1516e.FederateAmbassador.SupplementalReflectInfo)
+	 * @see edu.mit.collab.transport.TransportListener#receiveInteraction(java.lang.String, java.util.Map, byte[])
 	 */
-	public void reflectAttributeValues(ObjectInstanceHandle theObject,
-			AttributeHandleValueMap theAttributes,
-			byte[] userSuppliedTag,
-			OrderType sentOrdering,
-			TransportationTypeHandle theTransport,
-			LogicalTime theTime,
-			OrderType receivedOrdering,
-			MessageRetractionHandle retractionHandle,
-			SupplementalReflectInfo reflectInfo) {
-		// this method is called by the RTI when remote objects update their
-		// values. this method must update any local representations of the 
-		// remote objects to reflect the processed updates
+	@Override
+	public void receiveInteraction(String className,
+			Map<String, byte[]> parameters, byte[] tag) {
+		// this method is called by the transport when remote federates send
+		// interactions. input delta interactions carry only the changed
+		// entries of a designer's input vector
+		if(!className.equals(inputDeltaClassName)) {
+			return;
+		}
+		try {
+			// decode the designer index to find the corresponding designer
+			byte[] value = parameters.get(designerIndexParameterName);
+			if(value == null) {
+				return;
+			}
+			indexDecoder.decode(value);
+			String designerName = null;
+			Designer designer = null;
+			synchronized(designers) {
+				for(Map.Entry<String, Designer> entry : designers.entrySet()) {
+					if(entry.getValue().getIndex() == indexDecoder.getValue()) {
+						designerName = entry.getKey();
+						designer = entry.getValue();
+					}
+				}
+			}
+
+			// if designer has not been discovered, simply return
+			if(designer == null) {
+				return;
+			}
+
+			// only process the delta if the whole input it is based on has
+			// been received; otherwise, the whole input may have been lost
+			// so request it again
+			value = parameters.get(baseSequenceParameterName);
+			if(value != null) {
+				sequenceDecoder.decode(value);
+				Long baseSequence = inputBaseSequences.get(designerName);
+				if(baseSequence == null
+						|| baseSequence < sequenceDecoder.getValue()) {
+					transport.requestAttributeValueUpdate(designerName,
+							inputAttributeName);
+					return;
+				}
+			}
+
+			// only process the delta if it is not older than the latest
+			// input received from this designer
+			value = parameters.get(sequenceParameterName);
+			if(value != null) {
+				sequenceDecoder.decode(value);
+				if(!inputFilter.accept(designerName,
+						sequenceDecoder.getValue())) {
+					return;
+				}
+			}
+
+			// decode the changed input indices and values into the
+			// reusable data elements and buffers
+			value = parameters.get(inputIndicesParameterName);
+			if(value == null) {
+				return;
+			}
+			deltaIndicesDecoder.decode(value);
+			deltaIndicesBuffer = deltaIndicesDecoder.getValue(
+					deltaIndicesBuffer);
+			value = parameters.get(inputValuesParameterName);
+			if(value == null) {
+				return;
+			}
+			inputDecoder.decode(value);
+			inputBuffer = inputDecoder.getValue(inputBuffer);
+			int length = Math.min(deltaIndicesDecoder.size(),
+					inputDecoder.size());
+
+			// update changed input values and fire event to notify
+			// listeners of the changed indices
+			designer.setInputEntries(deltaIndicesBuffer, inputBuffer, length);
+			int[] changedIndices = new int[length];
+			System.arraycopy(deltaIndicesBuffer, 0, changedIndices, 0, length);
+			fireDesignerEvent(DesignerAction.INPUT_UPDATE,
+					new DesignerEvent(this, designer, changedIndices));
+		} catch (Exception ex) {
+			// in the case of an exception (from the various decode calls),
+			// record the error without blocking the callback thread
+			errorReporter.report("decoding an interaction", className, ex);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.TransportListener#reflectAttributeValues(java.lang.String, java.util.Map, byte[])
+	 */
+	@Override
+	public void reflectAttributeValues(String instanceName,
+			Map<String, byte[]> attributes, byte[] tag) {
+		// this method is called by the transport when remote objects update
+		// their values. this method must update any local representations
+		// of the remote objects to reflect the processed updates
 		try {
 			// check whether the object has been previously discovered
 			Designer designer = null;
 			synchronized(designers) {
-				designer = designers.get(theObject);
+				designer = designers.get(instanceName);
 			}
-			
+
 			if(designer != null) {
 				// get the data corresponding to the index attribute
-				ByteWrapper wrapper = theAttributes.getValueReference(
-						rtiAmbassador.getAttributeHandle(
-								rtiAmbassador.getObjectClassHandle(
-										designerClassName), 
-								indexAttributeName));
-				if(wrapper != null) {
-					// wrapper has data; decode into an HLA data element
-					HLAinteger32BE index = encoderFactory.createHLAinteger32BE();
-					index.decode(wrapper);
-					
+				byte[] value = attributes.get(indexAttributeName);
+				if(value != null) {
+					// value has data; decode into the reusable data element
+					indexDecoder.decode(value);
+
 					// designers can only update their index once; process
 					// update only if the current index is < 0 (uninitialized)
 					if(designer.getIndex() < 0) {
 						// update index value and fire event to notify
-						// listeners that a designer has been "added" 
+						// listeners that a designer has been "added"
 						// now that its index is defined
-						designer.setIndex(index.getValue());
-						fireDesignerEvent(DesignerAction.ADD, 
+						designer.setIndex(indexDecoder.getValue());
+						fireDesignerEvent(DesignerAction.ADD,
 								new DesignerEvent(this, designer));
 					}
 				}
-				
+
 				// get the data corresponding to the input attribute
-				wrapper = theAttributes.getValueReference(
-						rtiAmbassador.getAttributeHandle(
-								rtiAmbassador.getObjectClassHandle(
-										designerClassName), 
-								inputAttributeName));
-				if(wrapper != null) {
-					// wrapper has data; decode into an HLA data element
-					HLAfloatVector input = new HLAfloatVector(encoderFactory);
-					input.decode(wrapper);
-					
+				value = attributes.get(inputAttributeName);
+
+				// only process the input if it is not older than the latest
+				// input received from this designer
+				if(value != null && inputFilter.accept(instanceName, tag)) {
+					// value has data; decode into the reusable data element
+					// and copy into the reusable input buffer
+					inputDecoder.decode(value);
+					inputBuffer = inputDecoder.getValue(inputBuffer);
+
+					// record the sequence number as the base of later deltas
+					long sequence = SequenceFilter.decodeTag(tag);
+					if(sequence != SequenceFilter.NO_SEQUENCE) {
+						inputBaseSequences.put(instanceName, sequence);
+					}
+
 					// update input value and fire event to notify listeners
-					designer.setInputVector(input.getValue());
-					fireDesignerEvent(DesignerAction.INPUT_UPDATE, 
+					designer.setInputVector(inputBuffer, inputDecoder.size());
+					fireDesignerEvent(DesignerAction.INPUT_UPDATE,
 							new DesignerEvent(this, designer));
 				}
-				
+
 				// get the data corresponding to the ready attribute
-				wrapper = theAttributes.getValueReference(
-						rtiAmbassador.getAttributeHandle(
-								rtiAmbassador.getObjectClassHandle(
-										designerClassName), 
-								readyAttributeName));
-				if(wrapper != null) {
-					// wrapper has data; decode into an HLA data element
-					HLAboolean ready = encoderFactory.createHLAboolean();
-					ready.decode(wrapper);
-					
+				value = attributes.get(readyAttributeName);
+				if(value != null) {
+					// value has data; decode into the reusable data element
+					readyDecoder.decode(value);
+
 					// update ready value and fire event to notify listeners
-					designer.setReady(ready.getValue());
-					fireDesignerEvent(DesignerAction.STATE_UPDATE, 
+					designer.setReady(readyDecoder.getValue());
+					fireDesignerEvent(DesignerAction.STATE_UPDATE,
 							new DesignerEvent(this, designer));
 				}
-			} 
+			}
 		} catch (Exception ex) {
-			// in the case of an exception (from the various RTI calls), 
-			// print stack trace and show error message
-			ex.printStackTrace();
-			JOptionPane.showMessageDialog(null, "An exception of type " + 
-					ex.getMessage() + " occurred while decoding an " +
-					"attribute update. See stack trace for more information.", 
-					"Error", JOptionPane.ERROR_MESSAGE);
+			// in the case of an exception (from the various decode calls),
+			// record the error without blocking the callback thread
+			errorReporter.report("decoding an attribute update",
+					instanceName, ex);
 		}
 	}
 
-	/* (non-Javadoc)
-	 * @see hla.rti1516e.NullFederateAmbassador#reflectAttributeValues(hla.rti1516e.ObjectInstanceHandle, hla.rti1516e.AttributeHandleValueMap, byte[], hla.rti1516e.OrderType, hla.rti1516e.TransportationTypeHandle, hla.rti1516e.LogicalTime, hla.rti1516e.OrderType, hla.rti1516e.FederateAmbassador.SupplementalReflectInfo)
-	 */
-	public void reflectAttributeValues(ObjectInstanceHandle theObject,
-			AttributeHandleValueMap theAttributes,
-			byte[] userSuppliedTag,
-			OrderType sentOrdering,
-			TransportationTypeHandle theTransport,
-			LogicalTime theTime,
-			OrderType receivedOrdering,
-			SupplementalReflectInfo reflectInfo) {
-		// re-direct method to single method signature
-		reflectAttributeValues(theObject, theAttributes, userSuppliedTag, 
-				sentOrdering, theTransport, theTime, receivedOrdering, null, 
-				reflectInfo);
-	}
-
-	/* (non-Javadoc)
-	 * @see hla.rti1516e.NullFederateAmbassador#reflectAttributeValues(hla.rti1516e.ObjectInstanceHandle, hla.rti1516e.AttributeHandleValueMap, byte[], hla.rti1516e.OrderType, hla.rti1516e.TransportationTypeHandle, hla.rti1516e.FederateAmbassador.SupplementalReflectInfo)
-	 */
-	public void reflectAttributeValues(ObjectInstanceHandle theObject,
-			AttributeHandleValueMap theAttributes,
-			byte[] userSuppliedTag,
-			OrderType sentOrdering,
-			TransportationTypeHandle theTransport,
-			SupplementalReflectInfo reflectInfo) {
-		// re-direct method to single method signature
-		reflectAttributeValues(theObject, theAttributes, userSuppliedTag, 
-				sentOrdering, theTransport, null, null, reflectInfo);
-	}
-
 	/**
 	 * Removes the designer listener.
 	 *
@@ -573,286 +676,141 @@ public class ManagerAmbassador extends NullFederateAmbassador {
 	}
 
 	/* (non-Javadoc)
-	 * @see hla.rti1516e.NullFederateAmbassador#removeObjectInstance(hla.rti1516e.ObjectInstanceHandle, byte[], hla.rti1516e.OrderType, hla.rti1516e.LogicalTime, hla.rti1516e.OrderType, hla.rti1516e.MessageRetractionHandle, hla.rti1516e.FederateAmbassador.SupplementalRemoveInfo)
+	 * @see edu.mit.collab.transport.TransportListener#removeObjectInstance(java.lang.String)
 	 */
-	public void removeObjectInstance(ObjectInstanceHandle theObject,
-			byte[] userSuppliedTag,
-			OrderType sentOrdering,
-			LogicalTime theTime,
-			OrderType receivedOrdering,
-			MessageRetractionHandle retractionHandle,
-			SupplementalRemoveInfo removeInfo) {
+	@Override
+	public void removeObjectInstance(String instanceName) {
 		// try to remove designer from the designer map
 		Designer designer = null;
 		synchronized(designers) {
-			designer = designers.remove(theObject);
+			designer = designers.remove(instanceName);
 		}
+		inputFilter.remove(instanceName);
+		inputBaseSequences.remove(instanceName);
 		if(designer != null) {
 			// notify listeners that designer has been removed
-			fireDesignerEvent(DesignerAction.REMOVE, 
+			fireDesignerEvent(DesignerAction.REMOVE,
 					new DesignerEvent(this, designer));
 		}
 	}
 
-	/* (non-Javadoc)
-	 * @see hla.rti1516e.NullFederateAmbassador#removeObjectInstance(hla.rti1516e.ObjectInstanceHandle, byte[], hla.rti1516e.OrderType, hla.rti1516e.LogicalTime, hla.rti1516e.OrderType, hla.rti1516e.FederateAmbassador.SupplementalRemoveInfo)
-	 */
-	public void removeObjectInstance(ObjectInstanceHandle theObject,
-			byte[] userSuppliedTag,
-			OrderType sentOrdering,
-			LogicalTime theTime,
-			OrderType receivedOrdering,
-			SupplementalRemoveInfo removeInfo) {
-		// re-direct method to single method signature
-		removeObjectInstance(theObject, userSuppliedTag, sentOrdering, 
-				theTime, receivedOrdering, null, removeInfo);
-	}
-	
-	/* (non-Javadoc)
-	 * @see hla.rti1516e.NullFederateAmbassador#removeObjectInstance(hla.rti1516e.ObjectInstanceHandle, byte[], hla.rti1516e.OrderType, hla.rti1516e.FederateAmbassador.SupplementalRemoveInfo)
+	/**
+	 * Sets the generation of the model in the output pipeline. Outputs
+	 * computed for previous generations are no longer sent.
+	 *
+	 * @param generation the generation
 	 */
-	public void removeObjectInstance(ObjectInstanceHandle theObject,
-			byte[] userSuppliedTag,
-			OrderType sentOrdering,
-			SupplementalRemoveInfo removeInfo) {
-		// re-direct method to single method signature
-		removeObjectInstance(theObject, userSuppliedTag, sentOrdering, 
-				null, null, null, removeInfo);
+	public synchronized void setOutputGeneration(long generation) {
+		outputGeneration = generation;
 	}
-	
+
 	/**
-	 * Shuts down the application. Resigns from the federation execution, 
-	 * attempts to destroy federation execution, and disconnects from the RTI.
+	 * Shuts down the application. Resigns from the federation execution,
+	 * attempts to destroy federation execution, and disconnects from the
+	 * transport.
 	 *
-	 * @throws InvalidResignAction the invalid resign action
-	 * @throws OwnershipAcquisitionPending the ownership acquisition pending
-	 * @throws FederateOwnsAttributes the federate owns attributes
-	 * @throws CallNotAllowedFromWithinCallback the call not allowed from within callback
-	 * @throws RTIinternalError the RTI internal error
-	 * @throws FederateIsExecutionMember the federate is execution member
+	 * @throws TransportException the transport exception
 	 */
-	public void shutDown() 
-			throws InvalidResignAction, OwnershipAcquisitionPending, 
-			FederateOwnsAttributes, CallNotAllowedFromWithinCallback, 
-			RTIinternalError, FederateIsExecutionMember {
-		
-		// try to resign from the federation execution; ignore
-		// exceptions if already resigned or not connected
-		try {
-			rtiAmbassador.resignFederationExecution(
-					ResignAction.DELETE_OBJECTS_THEN_DIVEST);
-		} catch (FederateNotExecutionMember ignored) {
-		} catch (NotConnected ignored) { }
-		
-		// once resigned, try to destroy federation; ignore
-		// exceptions if other federates still joined, federation
-		// already destroyed, or not connected
-		try {
-			rtiAmbassador.destroyFederationExecution(
-			    properties.getProperty("federationName", "collab"));
-		} catch (FederatesCurrentlyJoined ignored) {
-		} catch (FederationExecutionDoesNotExist ignored) {
-		} catch (NotConnected ignored) {
-		}
-		
-		// disconnect from the rti
-		rtiAmbassador.disconnect();
+	public void shutDown() throws TransportException {
+		transport.disconnect();
 	}
-	
+
 	/**
-	 * Starts up the application. Connects to the RTI, creates/joins the 
-	 * federation execution, publishes and subscribes to appropriate object
-	 * attributes, and registers the manager object class instance.
+	 * Starts up the application. Connects to the transport, creates/joins
+	 * the federation execution, publishes and subscribes to appropriate
+	 * object attributes, and registers the manager object class instance.
 	 *
-	 * @throws ConnectionFailed the connection failed
-	 * @throws InvalidLocalSettingsDesignator the invalid local settings designator
-	 * @throws UnsupportedCallbackModel the unsupported callback model
-	 * @throws CallNotAllowedFromWithinCallback the call not allowed from within callback
-	 * @throws RTIinternalError the RTI internal error
-	 * @throws InconsistentFDD the inconsistent FDD
-	 * @throws ErrorReadingFDD the error reading FDD
-	 * @throws CouldNotOpenFDD the could not open FDD
-	 * @throws NotConnected the not connected
-	 * @throws MalformedURLException the malformed url exception
-	 * @throws CouldNotCreateLogicalTimeFactory the could not create logical time factory
-	 * @throws FederateNameAlreadyInUse the federate name already in use
-	 * @throws FederationExecutionDoesNotExist the federation execution does not exist
-	 * @throws SaveInProgress the save in progress
-	 * @throws RestoreInProgress the restore in progress
-	 * @throws FederateNotExecutionMember the federate not execution member
-	 * @throws NameNotFound the name not found
-	 * @throws InvalidObjectClassHandle the invalid object class handle
-	 * @throws AttributeNotDefined the attribute not defined
-	 * @throws ObjectClassNotDefined the object class not defined
-	 * @throws ObjectClassNotPublished 
-	 * @throws ObjectInstanceNotKnown 
+	 * @throws TransportException the transport exception
 	 */
-	public void startUp() 
-			throws ConnectionFailed, InvalidLocalSettingsDesignator, 
-			UnsupportedCallbackModel, CallNotAllowedFromWithinCallback, 
-			RTIinternalError, InconsistentFDD, ErrorReadingFDD, 
-			CouldNotOpenFDD, NotConnected, MalformedURLException, 
-			CouldNotCreateLogicalTimeFactory, FederateNameAlreadyInUse, 
-			FederationExecutionDoesNotExist, SaveInProgress, 
-			RestoreInProgress, FederateNotExecutionMember, NameNotFound, 
-			InvalidObjectClassHandle, AttributeNotDefined, 
-			ObjectClassNotDefined, ObjectInstanceNotKnown, 
-			ObjectClassNotPublished {
-		// try to connect to the RTI; ignore if already connected
-		try {
-			// use the HLA_Evoked model to require explicit callbacks
-			rtiAmbassador.connect(this, CallbackModel.HLA_IMMEDIATE);
-		} catch(AlreadyConnected ignored) { }
+	public void startUp() throws TransportException {
+		// connect to the transport and join the federation execution
+		transport.connect(null, federateType, this);
 
-		// try to create the federation execution using the FOM file;
-		// ignore if already exists
-		try {
-			rtiAmbassador.createFederationExecution(
-			    properties.getProperty("federationName", "collab"), 
-			    getClass().getClassLoader().getResource(
-			        properties.getProperty("fomPath", "resources/collab.xml")));
-		} catch(FederationExecutionAlreadyExists ignored) { }
-		
-		// try to join the federation execution; ignore if already joined
-		try {
-			rtiAmbassador.joinFederationExecution(
-					federateType, properties.getProperty("federationName", "collab"), 
-					new URL[0]);
-		} catch(FederateAlreadyExecutionMember ignored) { }
-		
 		// publish and subscribe to object class attributes
 		publish();
 		subscribe();
-		
+
 		// register the object instance name
-		objectInstanceName = rtiAmbassador.getObjectInstanceName(
-				rtiAmbassador.registerObjectInstance(
-						rtiAmbassador.getObjectClassHandle(
-								managerClassName)));
+		objectInstanceName = transport.registerObjectInstance(
+				managerClassName);
 	}
-	
+
 	/**
 	 * Subscribe to designer object class attributes.
 	 *
-	 * @throws FederateNotExecutionMember the federate not execution member
-	 * @throws NotConnected the not connected
-	 * @throws AttributeNotDefined the attribute not defined
-	 * @throws ObjectClassNotDefined the object class not defined
-	 * @throws SaveInProgress the save in progress
-	 * @throws RestoreInProgress the restore in progress
-	 * @throws RTIinternalError the RTI internal error
-	 * @throws NameNotFound the name not found
-	 * @throws InvalidObjectClassHandle the invalid object class handle
+	 * @throws TransportException the transport exception
 	 */
-	private void subscribe() 
-			throws FederateNotExecutionMember, NotConnected, 
-			AttributeNotDefined, ObjectClassNotDefined, 
-			SaveInProgress, RestoreInProgress, RTIinternalError, 
-			NameNotFound, InvalidObjectClassHandle {
-		// create an attribute handle set
-		AttributeHandleSet attributeHandleSet = rtiAmbassador
-				.getAttributeHandleSetFactory().create();
-		// add the input attribute
-		attributeHandleSet.add(rtiAmbassador.getAttributeHandle(
-				rtiAmbassador.getObjectClassHandle(designerClassName), 
-				inputAttributeName));
-		// add the index attribute
-		attributeHandleSet.add(rtiAmbassador.getAttributeHandle(
-				rtiAmbassador.getObjectClassHandle(designerClassName), 
-				indexAttributeName));
-		// add the ready attribute
-		attributeHandleSet.add(rtiAmbassador.getAttributeHandle(
-				rtiAmbassador.getObjectClassHandle(designerClassName), 
-				readyAttributeName));
-		// use the RTI service to subscribe to the defined attributes
-		rtiAmbassador.subscribeObjectClassAttributes(
-				rtiAmbassador.getObjectClassHandle(designerClassName), 
-				attributeHandleSet);
+	private void subscribe() throws TransportException {
+		// use the transport service to subscribe to the designer input,
+		// index and ready attributes
+		transport.subscribeObjectClassAttributes(designerClassName,
+				inputAttributeName, indexAttributeName, readyAttributeName);
+
+		// use the transport service to subscribe to input delta interactions
+		transport.subscribeInteractionClass(inputDeltaClassName);
 	}
-	
+
 	/**
 	 * Sends updates for a modified system model.
 	 *
 	 * @param systemModel the system model
-	 * @throws FederateNotExecutionMember the federate not execution member
-	 * @throws NotConnected the not connected
-	 * @throws NameNotFound the name not found
-	 * @throws InvalidObjectClassHandle the invalid object class handle
-	 * @throws RTIinternalError the RTI internal error
+	 * @throws TransportException the transport exception
 	 * @throws EncoderException the encoder exception
-	 * @throws AttributeNotOwned the attribute not owned
-	 * @throws AttributeNotDefined the attribute not defined
-	 * @throws ObjectInstanceNotKnown the object instance not known
-	 * @throws SaveInProgress the save in progress
-	 * @throws RestoreInProgress the restore in progress
 	 */
-	public void updateModelAttributes(Experiment experiment) 
-			throws FederateNotExecutionMember, NotConnected, NameNotFound, 
-			InvalidObjectClassHandle, RTIinternalError, EncoderException, 
-			AttributeNotOwned, AttributeNotDefined, ObjectInstanceNotKnown, 
-			SaveInProgress, RestoreInProgress {
+	public void updateModelAttributes(Experiment experiment)
+			throws TransportException, EncoderException {
 		// get the active model from the experiment
-		SystemModel model = experiment==null ? 
+		SystemModel model = experiment==null ?
 				null : experiment.getActiveModel();
-		// create an attribute handle value map to store data
-		AttributeHandleValueMap attributes = 
-				rtiAmbassador.getAttributeHandleValueMapFactory().create(6);
-		
+		// create an attribute value map to store data
+		Map<String, byte[]> attributes = new HashMap<String, byte[]>();
+
 		// initial input
 		if(model != null) {
 			// if model is not null, set initial input
 			initialInput.setValue(model.getInitialVector());
 		}
 		// add initial input to map
-		attributes.put(rtiAmbassador.getAttributeHandle(
-				rtiAmbassador.getObjectClassHandle(managerClassName), 
-				initialInputAttributeName), 
-				initialInput.toByteArray());
-		
+		attributes.put(initialInputAttributeName, initialInput.toByteArray());
+
 		// target output
 		if(model != null) {
 			// if model is not null, set target output
 			targetOutput.setValue(model.getTargetVector());
 		}
 		// add target output to map
-		attributes.put(rtiAmbassador.getAttributeHandle(
-				rtiAmbassador.getObjectClassHandle(managerClassName), 
-				targetOutputAttributeName), 
-				targetOutput.toByteArray());
-		
+		attributes.put(targetOutputAttributeName, targetOutput.toByteArray());
+
 		// output
-		if(model != null) {
-			// if model is not null, set output to output of initial inputs
-			outputs.setValue(model.getOutputVector(model.getInitialVector()));
+		synchronized(this) {
+			if(model != null) {
+				// if model is not null, set output to output of initial 
+				// inputs
+				outputs.setValue(model.getOutputVector(
+						model.getInitialVector()));
+			}
+			// add output to map
+			attributes.put(outputAttributeName, outputs.toByteArray());
 		}
-		// add output to map
-		attributes.put(rtiAmbassador.getAttributeHandle(
-				rtiAmbassador.getObjectClassHandle(managerClassName), 
-				outputAttributeName), 
-				outputs.toByteArray());
-		
+
 		// input labels
 		if(model != null) {
 			// if model is not null, set input labels
 			inputLabels.setValue(model.getInputLabels());
 		}
 		// add input labels to map
-		attributes.put(rtiAmbassador.getAttributeHandle(
-				rtiAmbassador.getObjectClassHandle(managerClassName), 
-				inputLabelsAttributeName), 
-				inputLabels.toByteArray());
-		
+		putDictionaryValue(attributes, inputLabelsAttributeName,
+				inputLabelsKeyAttributeName, inputLabels.toByteArray(), false);
+
 		// output labels
 		if(model != null) {
 			// if model is not null, set output labels
 			outputLabels.setValue(model.getOutputLabels());
 		}
 		// add output labels to map
-		attributes.put(rtiAmbassador.getAttributeHandle(
-				rtiAmbassador.getObjectClassHandle(managerClassName), 
-				outputLabelsAttributeName), 
-				outputLabels.toByteArray());
-		
+		putDictionaryValue(attributes, outputLabelsAttributeName,
+				outputLabelsKeyAttributeName, outputLabels.toByteArray(), false);
+
 		// active model
 		if(experiment == null) {
 			// if experiment is null, set active model to empty string
@@ -868,11 +826,8 @@ public class ManagerAmbassador extends NullFederateAmbassador {
 			activeModel.setValue(model.getName());
 		}
 		// add active model to map
-		attributes.put(rtiAmbassador.getAttributeHandle(
-				rtiAmbassador.getObjectClassHandle(managerClassName), 
-				activeModelAttributeName), 
-				activeModel.toByteArray());
-		
+		attributes.put(activeModelAttributeName, activeModel.toByteArray());
+
 		// input indices
 		if(experiment==null) {
 			// if experiment is null, use trivial input indices
@@ -885,11 +840,9 @@ public class ManagerAmbassador extends NullFederateAmbassador {
 			inputIndices.setValue(model.getInputIndices());
 		}
 		// add input indices to map
-		attributes.put(rtiAmbassador.getAttributeHandle(
-				rtiAmbassador.getObjectClassHandle(managerClassName), 
-				inputIndicesAttributeName), 
-				inputIndices.toByteArray());
-		
+		putDictionaryValue(attributes, inputIndicesAttributeName,
+				inputIndicesKeyAttributeName, inputIndices.toByteArray(), false);
+
 		// output indices
 		if(experiment==null) {
 			// if experiment is null, use trivial output indices
@@ -902,51 +855,140 @@ public class ManagerAmbassador extends NullFederateAmbassador {
 			outputIndices.setValue(model.getOutputIndices());
 		}
 		// add output indices to map
-		attributes.put(rtiAmbassador.getAttributeHandle(
-				rtiAmbassador.getObjectClassHandle(managerClassName), 
-				outputIndicesAttributeName), 
-				outputIndices.toByteArray());
-		
-		// use RTI service to update attribute values using map
-		rtiAmbassador.updateAttributeValues(
-				rtiAmbassador.getObjectInstanceHandle(objectInstanceName), 
-				attributes, new byte[0]);
+		putDictionaryValue(attributes, outputIndicesAttributeName,
+				outputIndicesKeyAttributeName, outputIndices.toByteArray(),
+				false);
+
+		// increment the model version and add to map
+		modelVersion.setValue(modelVersion.getValue() + 1);
+		attributes.put(modelVersionAttributeName, modelVersion.toByteArray());
+
+		// store output indices to slice per-designer outputs and clear the
+		// outputs of the previous model
+		synchronized(this) {
+			designerOutputIndices = outputIndices.getValue();
+			lastOutput = null;
+		}
+
+		// use transport service to update attribute values using map
+		transport.updateAttributeValues(objectInstanceName, attributes,
+				SequenceFilter.encodeTag(outputSequence.incrementAndGet()));
 	}
-	
+
 	/**
 	 * Updates the output attribute.
 	 *
 	 * @param outputVector the output vector
-	 * @throws FederateNotExecutionMember the federate not execution member
-	 * @throws NotConnected the not connected
-	 * @throws NameNotFound the name not found
-	 * @throws InvalidObjectClassHandle the invalid object class handle
-	 * @throws RTIinternalError the RTI internal error
+	 * @throws TransportException the transport exception
+	 * @throws EncoderException the encoder exception
+	 */
+	public void updateOutputAttributes(RealVector outputVector)
+			throws TransportException, EncoderException {
+		// create an attribute value map to store data
+		Map<String, byte[]> attributes = new HashMap<String, byte[]>();
+		synchronized(this) {
+			// set HLA data element to output value
+			outputs.setValue(outputVector);
+			// add outputs to map
+			attributes.put(outputAttributeName, outputs.toByteArray());
+		}
+		// use transport service to update attribute values using map
+		transport.updateAttributeValues(objectInstanceName, attributes,
+				SequenceFilter.encodeTag(outputSequence.incrementAndGet()));
+	}
+
+	/**
+	 * Updates the output attributes if computed for the current generation
+	 * of the model in the output pipeline. If enabled by the
+	 * <code>designerOutputs</code> property, each designer's outputs are sent
+	 * using a separate designer output object; otherwise, the whole output
+	 * attribute is sent.
+	 *
+	 * @param outputVector the output vector
+	 * @param solvedValue true, if the task is solved
+	 * @param generation the generation of the model
+	 * @return true, if the outputs were sent
+	 * @throws TransportException the transport exception
 	 * @throws EncoderException the encoder exception
-	 * @throws AttributeNotOwned the attribute not owned
-	 * @throws AttributeNotDefined the attribute not defined
-	 * @throws ObjectInstanceNotKnown the object instance not known
-	 * @throws SaveInProgress the save in progress
-	 * @throws RestoreInProgress the restore in progress
 	 */
-	public void updateOutputAttributes(RealVector outputVector) 
-			throws FederateNotExecutionMember, NotConnected, NameNotFound, 
-			InvalidObjectClassHandle, RTIinternalError, EncoderException, 
-			AttributeNotOwned, AttributeNotDefined, ObjectInstanceNotKnown, 
-			SaveInProgress, RestoreInProgress {
-		// create an attribute handle value map to store data
-		AttributeHandleValueMap attributes = 
-				rtiAmbassador.getAttributeHandleValueMapFactory().create(1);
-		// set HLA data element to output value
-		outputs.setValue(outputVector);
-		// add outputs to map
-		attributes.put(rtiAmbassador.getAttributeHandle(
-				rtiAmbassador.getObjectClassHandle(managerClassName), 
-				outputAttributeName), 
-				outputs.toByteArray());
-		// use HLA service to update attribute values using map
-		rtiAmbassador.updateAttributeValues(
-				rtiAmbassador.getObjectInstanceHandle(objectInstanceName), 
-				attributes, new byte[0]);
+	public boolean updateOutputAttributes(RealVector outputVector,
+			boolean solvedValue, long generation) 
+			throws TransportException, EncoderException {
+		Map<String, byte[]> attributes = new HashMap<String, byte[]>();
+		int numberDesigners;
+		byte[] tag;
+		synchronized(this) {
+			// drop outputs of a replaced model; the sequence number is
+			// taken while synchronized so outputs which pass this check are
+			// older than the attributes of the next model
+			if(generation != outputGeneration) {
+				return false;
+			}
+			tag = SequenceFilter.encodeTag(outputSequence.incrementAndGet());
+			if(!designerOutputs) {
+				// set HLA data element to output value and add to map
+				outputs.setValue(outputVector);
+				attributes.put(outputAttributeName, outputs.toByteArray());
+			} else {
+				// store the latest values to provide them upon request
+				lastOutput = outputVector.copy();
+				lastSolved = solvedValue;
+			}
+			numberDesigners = designerOutputIndices.length;
+		}
+
+		if(!designerOutputs) {
+			// send the whole output attribute
+			transport.updateAttributeValues(objectInstanceName, attributes, 
+					tag);
+		} else {
+			// send each designer's outputs with the same sequence number
+			for(int i = 0; i < numberDesigners; i++) {
+				updateDesignerOutputAttributes(i, tag);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Updates the designer output attributes for a designer using the latest
+	 * output values.
+	 *
+	 * @param index the designer index
+	 * @param tag the user-supplied tag
+	 * @throws TransportException the transport exception
+	 * @throws EncoderException the encoder exception
+	 */
+	private synchronized void updateDesignerOutputAttributes(int index,
+			byte[] tag) throws TransportException, EncoderException {
+		// create an attribute value map to store data
+		Map<String, byte[]> attributes = new HashMap<String, byte[]>();
+
+		// add designer index and manager name to map
+		designerIndex.setValue(index);
+		attributes.put(designerIndexAttributeName, designerIndex.toByteArray());
+		managerName.setValue(objectInstanceName);
+		attributes.put(managerAttributeName, managerName.toByteArray());
+
+		if(lastOutput != null && index < designerOutputIndices.length) {
+			// slice the designer's outputs from the output vector
+			int[] indices = designerOutputIndices[index];
+			if(designerOutputBuffer.length < indices.length) {
+				designerOutputBuffer = new double[indices.length];
+			}
+			for(int i = 0; i < indices.length; i++) {
+				designerOutputBuffer[i] = lastOutput.getEntry(indices[i]);
+			}
+
+			// add designer outputs and solved state to map
+			designerOutput.setValue(designerOutputBuffer, indices.length);
+			attributes.put(outputAttributeName, designerOutput.toByteArray());
+			solved.setValue(lastSolved);
+			attributes.put(solvedAttributeName, solved.toByteArray());
+		}
+
+		// use transport service to update attribute values using map
+		transport.updateAttributeValues(getDesignerOutputInstance(index),
+				attributes, tag);
 	}
 }
@@ -10,6 +10,7 @@ import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.Insets;
 import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
@@ -17,16 +18,15 @@ import java.awt.geom.Ellipse2D;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 
-import javax.sound.sampled.AudioInputStream;
-import javax.sound.sampled.AudioSystem;
-import javax.sound.sampled.Clip;
-import javax.sound.sampled.LineUnavailableException;
-import javax.sound.sampled.UnsupportedAudioFileException;
 import javax.swing.AbstractAction;
 import javax.swing.Action;
 import javax.swing.BorderFactory;
@@ -46,10 +46,10 @@ import javax.swing.JScrollPane;
 import javax.swing.JTextField;
 import javax.swing.KeyStroke;
 import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
 import javax.swing.filechooser.FileNameExtensionFilter;
 
-import org.apache.commons.math3.linear.ArrayRealVector;
-import org.apache.commons.math3.linear.RealVector;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartPanel;
 import org.jfree.chart.JFreeChart;
@@ -57,15 +57,17 @@ import org.jfree.chart.plot.PlotOrientation;
 import org.jfree.chart.plot.XYPlot;
 import org.jfree.chart.renderer.xy.StandardXYItemRenderer;
 import org.jfree.chart.renderer.xy.XYItemRenderer;
-import org.jfree.data.xy.XYSeries;
-import org.jfree.data.xy.XYSeriesCollection;
 
-import edu.mit.collab.util.InputPanel;
+import edu.mit.collab.transport.TransportException;
+import edu.mit.collab.util.BasicInputPanel;
+import edu.mit.collab.util.BasicOutputPanel;
+import edu.mit.collab.util.Downsampler;
 import edu.mit.collab.util.InputPanelFactory;
-import edu.mit.collab.util.OutputPanel;
 import edu.mit.collab.util.OutputPanelFactory;
+import edu.mit.collab.util.RingBufferXYDataset;
+import edu.mit.collab.util.SoundPlayer;
 import edu.mit.collab.util.Utilities;
-import hla.rti1516e.exceptions.RTIinternalError;
+import edu.mit.collab.util.VirtualPanelList;
 
 /**
  * This is the graphical user interface to the manager application. It 
@@ -76,34 +78,80 @@ import hla.rti1516e.exceptions.RTIinternalError;
  * and each of the designers' outputs is also visible. In the manager
  * application, the solution input values are also visible.
  * 
+ * Outputs are computed by an output pipeline off the Swing event thread;
+ * the frame only renders the snapshots it receives.
+ * 
  * @author Paul T. Grogan, ptgrogan@mit.edu
  */
-public class ManagerFrame extends JFrame implements DesignerListener {
+public class ManagerFrame extends JFrame 
+		implements DesignerListener, OutputListener {
 	private static enum Mode {Ready, Initialized, Running, Solved, Complete}
 	private static final long serialVersionUID = -4866808562296766482L;
 	
 	// configuration option to allow constant feedback from designers, i.e.
 	// not require each designer to press "update" button to receive updates
 	private static final boolean constantFeedback = true;
+	
+	// configuration option to limit the rate of chart updates, i.e. buffer
+	// chart data and add it to the charts at most this many times per second
+	private static final int maxChartUpdateRate = 10;
+	
+	// configuration option to limit the number of points displayed in each
+	// chart series; longer histories are downsampled for display
+	private static final int maxChartPoints = 500;
 
-	private final File logFile; // immutable
+	private final ExperimentLog log; // immutable
 	private final ManagerAmbassador managerAmbassador; // immutable
+	private final OutputPipeline outputPipeline; // immutable
 	
 	private Experiment experiment; // mutable
 	private final Set<Designer> designers = new HashSet<Designer>(); // mutable
+	
+	// latest ready state of each designer with a pending state update, 
+	// drained by a single task on the swing event thread; guarded by itself
+	private final Map<Designer, Boolean> pendingReadyStates = 
+			new LinkedHashMap<Designer, Boolean>(); // mutable
+	private boolean readyStatesScheduled; // mutable
+	
+	// task to drain the pending ready states on the swing event thread
+	private final Runnable readyStatesTask = new Runnable() {
+		@Override
+		public void run() {
+			drainReadyStates();
+		}
+	};
 	private final JPanel modelPanel; // mutable
 	private final JLabel activeModelLabel; // mutable
-	private InputPanel[] inputPanels; // mutable
-	private OutputPanel[] outputPanels; // mutable
-	private final XYSeriesCollection errorDataset; // mutable
-	private final XYSeries errorSeries; // mutable
-	private final XYSeriesCollection inputDataset; // mutable
-	private XYSeries[] inputSeries, solutionSeries; // mutable
+	
+	// input and output panels are only created for visible variables; the
+	// state of each variable is kept in the arrays below, where variables
+	// are identified by designer index and designer variable index
+	private final VirtualPanelList<BasicInputPanel> inputPanels; // mutable
+	private final VirtualPanelList<BasicOutputPanel> outputPanels; // mutable
+	private final JScrollPane inputScrollPane, outputScrollPane; // mutable
+	private final ChartPanel errorChartPanel, inputChartPanel; // mutable
+	private SystemModel model; // mutable
+	private int[][] inputVariables = new int[0][0]; // mutable
+	private double[] inputValues = new double[0]; // mutable
+	private boolean[] inputsReady = new boolean[0]; // mutable
+	private int[][] outputVariables = new int[0][0]; // mutable
+	private double[] outputValues = new double[0]; // mutable
+	private final RingBufferXYDataset errorDataset; // mutable
+	private final RingBufferXYDataset inputDataset; // mutable
+	private int numberChartInputs; // mutable
 	private final JFreeChart errorChart, inputChart; // mutable
+	private final List<double[]> pendingChartData = 
+			new ArrayList<double[]>(); // mutable
+	private final Timer chartTimer; // mutable
+	private final List<double[]> chartHistory = 
+			new ArrayList<double[]>(); // mutable
+	private final List<Downsampler> chartDownsamplers = 
+			new ArrayList<Downsampler>(); // mutable
 	private final JTextField logCommentText; // mutable
+	private final SoundPlayer soundPlayer; // immutable
 	
 	private Mode mode; // mutable
-	private long startTime; // mutable
+	private boolean connected; // mutable
 	
 	// action to log comments
 	private final Action logCommentAction = new AbstractAction("Log", 
@@ -114,7 +162,7 @@ public class ManagerFrame extends JFrame implements DesignerListener {
 		@Override
 		public void actionPerformed(ActionEvent e) {
 			if(!logCommentText.getText().isEmpty()) {
-				log("comment",logCommentText.getText());
+				log.log("comment",logCommentText.getText());
 				logCommentText.setText("");
 			}
 		}
@@ -150,6 +198,17 @@ public class ManagerFrame extends JFrame implements DesignerListener {
 		}
 	};
 	
+	// action to export the chart data of the active model
+	private final Action exportChartDataAction = new AbstractAction(
+			"Export Chart Data") {
+		private static final long serialVersionUID = -3318520839342471926L;
+		
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			exportChartData();
+		}
+	};
+	
 	// action to gracefully exit the application
 	private final Action exitAction = new AbstractAction("Exit") {
 		private static final long serialVersionUID = 5879052291158987588L;
@@ -206,9 +265,9 @@ public class ManagerFrame extends JFrame implements DesignerListener {
 	/**
 	 * Instantiates a new manager frame.
 	 *
-	 * @throws RTIinternalError the RTI internal error
+	 * @throws TransportException the transport exception
 	 */
-	public ManagerFrame() throws RTIinternalError {
+	public ManagerFrame() throws TransportException {
 		// set title and icon image
 		super("Manager");
 		setIconImage(new ImageIcon(getClass().getClassLoader()
@@ -218,28 +277,22 @@ public class ManagerFrame extends JFrame implements DesignerListener {
 		// with number of inputs and outputs)
 		setMinimumSize(new Dimension(800,600));
 		
-		// initialize federate ambassador and add the frame as a listener
+		// create log file
+		log = new ExperimentLog();
+		
+		// initialize federate ambassador and add the frame as a listener;
+		// the ambassador is started up by the startUp method
 		managerAmbassador = new ManagerAmbassador();
 		managerAmbassador.addDesignerListener(this);
-
-		// try to start the federate ambassador
-		try {
-			managerAmbassador.startUp();
-			if(managerAmbassador.getInstanceName().indexOf(
-					"HLAobjectRoot") >= 0) {
-				// format frame title for pRTI instance names, i.e. only use
-				// ManagerXYZ from HLAobjectRoot.ManagerXYZ
-				setTitle(managerAmbassador.getInstanceName().substring(
-						managerAmbassador.getInstanceName().indexOf('.') + 1, 
-						managerAmbassador.getInstanceName().length()));
-			} else {
-				// format title for other RTI implementations
-				setTitle(managerAmbassador.getInstanceName());
-			}
-		} catch (Exception e) {
-			e.printStackTrace();
-			showErrorDialog(e.getMessage());
-		}
+		
+		// initialize output pipeline to update inputs directly from the 
+		// federate ambassador and add the frame as a listener to render them
+		outputPipeline = new OutputPipeline(managerAmbassador, log, 
+				constantFeedback);
+		managerAmbassador.addDesignerListener(outputPipeline);
+		outputPipeline.addOutputListener(this);
+		
+		setTitle("Manager (Connecting...)");
 		
 		// add a window listener to gracefully exit application
 		addWindowListener(new WindowAdapter() {
@@ -253,9 +306,8 @@ public class ManagerFrame extends JFrame implements DesignerListener {
 		setJMenuBar(createMenuBar());
 
 		// create error plotting datasets and charts
-		errorDataset = new XYSeriesCollection();
-		errorSeries = new XYSeries(new Integer(0), false, false);
-		errorDataset.addSeries(errorSeries);
+		errorDataset = new RingBufferXYDataset(maxChartPoints);
+		errorDataset.addSeries(new Integer(0));
 		errorChart = ChartFactory.createXYLineChart("Output Error", 
 				null, 
 				null, 
@@ -277,7 +329,7 @@ public class ManagerFrame extends JFrame implements DesignerListener {
 		}
 		
 		// create input plotting datasets and charts
-		inputDataset = new XYSeriesCollection();
+		inputDataset = new RingBufferXYDataset(maxChartPoints);
 		inputChart = ChartFactory.createXYLineChart("Input Values", 
 				null, 
 				null, 
@@ -297,23 +349,75 @@ public class ManagerFrame extends JFrame implements DesignerListener {
 			xyPlot.setRenderer(renderer);
 		}
 
+		// create timer to add buffered data to the charts
+		chartTimer = new Timer(1000/maxChartUpdateRate, new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				flushChartData();
+			}
+		});
+		chartTimer.setRepeats(false);
+
+		// create lists of input and output panels
+		inputPanels = new VirtualPanelList<BasicInputPanel>(
+				BoxLayout.LINE_AXIS, 10, 
+				new VirtualPanelList.PanelBinder<BasicInputPanel>() {
+			@Override
+			public BasicInputPanel createPanel() {
+				return InputPanelFactory.createBasicInputPanelWithSolution(
+						0, 0, 0, 0, null);
+			}
+
+			@Override
+			public void bindPanel(BasicInputPanel panel, int index) {
+				panel.setVariable(inputVariables[index][0], 
+						inputVariables[index][1], inputValues[index], 
+						model.getSolutionVector().getEntry(index), 
+						model.getInputLabels()[index]);
+				panel.setReady(inputsReady[index]);
+			}
+		});
+		outputPanels = new VirtualPanelList<BasicOutputPanel>(
+				BoxLayout.PAGE_AXIS, 10, 
+				new VirtualPanelList.PanelBinder<BasicOutputPanel>() {
+			@Override
+			public BasicOutputPanel createPanel() {
+				return OutputPanelFactory.createBasicOutputPanel(
+						0, 0, 0, 0, null);
+			}
+
+			@Override
+			public void bindPanel(BasicOutputPanel panel, int index) {
+				panel.setVariable(outputVariables[index][0], 
+						outputVariables[index][1], 
+						model.getTargetVector().getEntry(index), 
+						outputValues[index], model.getOutputLabels()[index]);
+			}
+		});
+
+		// create scroll panes and chart panels, which are reused for each 
+		// model
+		inputScrollPane = new JScrollPane(inputPanels);
+		outputScrollPane = new JScrollPane(outputPanels);
+		errorChartPanel = new ChartPanel(errorChart);
+		errorChartPanel.setOpaque(false);
+		// set preferred size to prevent large plots from being displayed
+		errorChartPanel.setPreferredSize(new Dimension(300,200));
+		inputChartPanel = new ChartPanel(inputChart);
+		inputChartPanel.setOpaque(false);
+		// set preferred size to prevent large plots from being displayed
+		inputChartPanel.setPreferredSize(new Dimension(300,200));
+
+		// create sound player to play success sounds (loaded in background)
+		soundPlayer = new SoundPlayer("resources/success-1.wav", 
+				"resources/success-2.wav");
+
 		// create comment logging components
 		logCommentText = new JTextField(15);
 		logCommentText.getInputMap().put(
 				KeyStroke.getKeyStroke(KeyEvent.VK_ENTER, 0), "logComment");
 		logCommentText.getActionMap().put("logComment", logCommentAction);
 		
-		// create log file
-		logFile = new File(new SimpleDateFormat("yyyy-MM-dd_HH-mm").format(
-				new Date()) + ".log");
-		if(!logFile.exists()) {
-			try {
-				logFile.createNewFile();
-			} catch (IOException e) {
-				e.printStackTrace();
-			}
-		}
-		
 		// create manager panel
 		JPanel managerPanel = new JPanel();
 		managerPanel.setFocusable(true);
@@ -385,6 +489,9 @@ public class ManagerFrame extends JFrame implements DesignerListener {
 				KeyStroke.getKeyStroke(KeyEvent.VK_W, ActionEvent.CTRL_MASK));
 		closeAction.setEnabled(false);
 		fileMenu.add(new JMenuItem(closeAction));
+        fileMenu.addSeparator();
+		exportChartDataAction.putValue(Action.MNEMONIC_KEY, KeyEvent.VK_E);
+		fileMenu.add(new JMenuItem(exportChartDataAction));
         fileMenu.addSeparator();
 		fileMenu.add(new JMenuItem(exitAction));
 		menuBar.add(fileMenu);
@@ -443,8 +550,13 @@ public class ManagerFrame extends JFrame implements DesignerListener {
 				showInformationDialog(e.getDesigner().getInstanceName() + 
 						" joined with index " + e.getDesigner().getIndex() + 
 						".");
-				// add the designer to the local set
+				// add the designer to the local set and the output pipeline
 				designers.add(e.getDesigner());
+				outputPipeline.addDesigner(e.getDesigner());
+				
+				// show the current ready state, which may have been modified
+				// before the designer was added
+				setReadyState(e.getDesigner(), e.getDesigner().isReady());
 			}
 		});
 	}
@@ -454,30 +566,8 @@ public class ManagerFrame extends JFrame implements DesignerListener {
 	 */
 	@Override
 	public void designerInputModified(final DesignerEvent e) {
-		// act on event in swing event thread
-		SwingUtilities.invokeLater(new Runnable() {
-			@Override
-			public void run() {
-				// respond to input changes if model is initialized or running 
-				// and designer is in local set
-				if((mode == Mode.Initialized || mode == Mode.Running) 
-						&& designers.contains(e.getDesigner())) {
-					// determine which inputs designer has control of
-					int[] inputs = experiment.getActiveModel()
-							.getInputIndices()[e.getDesigner().getIndex()];
-					// update value of each corresponding input panel
-					for(int i = 0; i < inputs.length; i++) {
-						inputPanels[inputs[i]].setValue(
-								e.getDesigner().getInputVector().getEntry(i));
-					}
-					// if providing constant feedback, check whether to update 
-					// outputs after every input modification
-					if(constantFeedback) {
-						updateOutputs();
-					}
-				}
-			}
-		});
+		// inputs are updated by the output pipeline and rendered from its 
+		// snapshots
 	}
 
 	/* (non-Javadoc)
@@ -489,8 +579,10 @@ public class ManagerFrame extends JFrame implements DesignerListener {
 		SwingUtilities.invokeLater(new Runnable() {
 			@Override
 			public void run() {
-				// remove the designer from the local set
+				// remove the designer from the local set and the output 
+				// pipeline
 				designers.remove(e.getDesigner());
+				outputPipeline.removeDesigner(e.getDesigner());
 			}
 		});
 	}
@@ -500,36 +592,43 @@ public class ManagerFrame extends JFrame implements DesignerListener {
 	 */
 	@Override
 	public void designerStateModified(final DesignerEvent e) {
-		SwingUtilities.invokeLater(new Runnable() {
-			@Override
-			public void run() {
-				// respond to state changes if model is initialized or running
-				// and designer is in local set
-				if((mode == Mode.Initialized || mode == Mode.Running) 
-						&& designers.contains(e.getDesigner())) {
-					// determine which inputs designer has control of
-					int[] inputs = experiment.getActiveModel()
-							.getInputIndices()[e.getDesigner().getIndex()];
-					// update corresponding input panels
-					for(int i = 0; i < inputs.length; i++) {
-						inputPanels[inputs[i]].setReady(e.getDesigner().isReady());
-					}
-					// if NOT constant feedback, check whether to update 
-					// outputs after every state modification
-					if(!constantFeedback) {
-						updateOutputs();
-					}
-				}
+		// replace any pending state of the designer with the latest one and
+		// schedule a drain on the swing event thread unless one is pending
+		synchronized(pendingReadyStates) {
+			pendingReadyStates.put(e.getDesigner(), e.getDesigner().isReady());
+			if(!readyStatesScheduled) {
+				readyStatesScheduled = true;
+				SwingUtilities.invokeLater(readyStatesTask);
 			}
-		});
+		}
+	}
+	
+	/**
+	 * Shows the pending ready states of designers, i.e. at most one update 
+	 * per designer since the previous drain.
+	 */
+	private void drainReadyStates() {
+		Map<Designer, Boolean> readyStates;
+		synchronized(pendingReadyStates) {
+			readyStates = new LinkedHashMap<Designer, Boolean>(
+					pendingReadyStates);
+			pendingReadyStates.clear();
+			readyStatesScheduled = false;
+		}
+		for(Map.Entry<Designer, Boolean> entry : readyStates.entrySet()) {
+			setReadyState(entry.getKey(), entry.getValue());
+		}
 	}
 	
 	/**
 	 * Exits the application gracefully.
 	 */
 	private void exit() {
-		// dispose of the frame
+		// dispose of the frame, stop the output pipeline, and release the 
+		// sounds
 		dispose();
+		outputPipeline.close();
+		soundPlayer.close();
 		
 		// try to shut down the federate ambassador
 		try {
@@ -543,23 +642,82 @@ public class ManagerFrame extends JFrame implements DesignerListener {
 		System.exit(0);
 	}
 	
-	private String vectorToString(RealVector vector, boolean isInput) {
-		StringBuilder builder = new StringBuilder();
-		builder.append("{");
-		for(int i = 0; i < vector.getDimension(); i++) {
-			if(isInput) {
-				// format input vectors like 0.00
-				builder.append(String.format("%.2f",vector.getEntry(i)));
-			} else {
-				// format output/target vectors like 0.00000
-				builder.append(String.format("%.5f",vector.getEntry(i)));
+	/**
+	 * Adds the buffered data to the error and input charts. Notifications
+	 * are suspended while adding so each chart is redrawn once per flush
+	 * rather than once per data item.
+	 */
+	private void flushChartData() {
+		if(pendingChartData.isEmpty()) {
+			return;
+		}
+		
+		// suspend chart notifications
+		errorChart.setNotify(false);
+		inputChart.setNotify(false);
+		
+		// add buffered data to the full-resolution history and add the new
+		// points (downsampled once the history exceeds the maximum number 
+		// of chart points) to each series
+		chartHistory.addAll(pendingChartData);
+		pendingChartData.clear();
+		for(Downsampler downsampler : chartDownsamplers) {
+			downsampler.update(chartHistory);
+		}
+		
+		// notify the charts of the new data once and resume notifications 
+		// to redraw each chart once
+		errorDataset.flush();
+		inputDataset.flush();
+		errorChart.setNotify(true);
+		inputChart.setNotify(true);
+	}
+
+	/**
+	 * Exports the full-resolution chart data of the active model to a
+	 * comma-separated values file.
+	 */
+	private void exportChartData() {
+		// add any buffered data to the history first
+		flushChartData();
+		
+		JFileChooser fileChooser = new JFileChooser(".");
+		fileChooser.setFileFilter(
+				new FileNameExtensionFilter("CSV files","csv"));
+		if(JFileChooser.APPROVE_OPTION == fileChooser.showSaveDialog(this)) {
+			File file = fileChooser.getSelectedFile();
+			if(!file.getName().toLowerCase().endsWith(".csv")) {
+				file = new File(file.getParentFile(), file.getName() + ".csv");
 			}
-			if(i < vector.getDimension() - 1) {
-				builder.append("; ");
+			try {
+				FileWriter fw = new FileWriter(file);
+				String newLine = System.getProperty("line.separator");
+				// write header line with series names
+				StringBuilder builder = new StringBuilder("time,error");
+				for(int i = 0; i < numberChartInputs; i++) {
+					builder.append(",").append(
+							inputDataset.getSeriesKey(2*i + 0));
+				}
+				for(int i = 0; i < numberChartInputs; i++) {
+					builder.append(",").append(
+							inputDataset.getSeriesKey(2*i + 1));
+				}
+				fw.write(builder.append(newLine).toString());
+				// write one line per entry
+				for(double[] data : chartHistory) {
+					builder = new StringBuilder();
+					for(int j = 0; j < data.length; j++) {
+						builder.append(j > 0 ? "," : "").append(data[j]);
+					}
+					fw.write(builder.append(newLine).toString());
+				}
+				fw.close();
+				log.log("exported", file.getName());
+			} catch (IOException e) {
+				showErrorDialog(e.getMessage());
+				e.printStackTrace();
 			}
 		}
-		builder.append("}");
-		return builder.toString();
 	}
 
 	/**
@@ -568,12 +726,25 @@ public class ManagerFrame extends JFrame implements DesignerListener {
 	 * @param model the model
 	 */
 	private void initializeModel(SystemModel model) {
-		log("initialized", model==null? "null" : 
+		// reset the output pipeline to the new model first so no results of
+		// the previous model are logged afterwards
+		outputPipeline.setModel(model);
+		
+		log.log("initialized", model==null? "null" : 
 			"name=\"" + model.getName() + "\"; target=" 
-				+ vectorToString(model.getTargetVector(), false));
+				+ ExperimentLog.vectorToString(model.getTargetVector(), false));
+		
+		// discard chart data buffered for the previous model
+		chartTimer.stop();
+		pendingChartData.clear();
+		chartHistory.clear();
+		chartDownsamplers.clear();
+		errorDataset.clear(0);
+		errorDataset.flush();
 		
-		// remove all existing components from model panel
-		modelPanel.removeAll();
+		// the panels, chart series, and layout of the previous model are
+		// reused, so the layout only changes if the variables change
+		boolean layoutChanged;
 		
 		if(model == null) {
 			// a null model could mean that no experiment is loaded, an 
@@ -592,89 +763,100 @@ public class ManagerFrame extends JFrame implements DesignerListener {
 				activeModelLabel.setText("Complete!");
 				mode = Mode.Complete;
 			}
+			// remove all existing components from model panel
+			layoutChanged = modelPanel.getComponentCount() > 0;
+			modelPanel.removeAll();
+			
 			// define zero-length arrays for all other components
-			outputPanels = new OutputPanel[0];
-			inputPanels = new InputPanel[0];
-			inputSeries = new XYSeries[0];
-			solutionSeries = new XYSeries[0];
+			this.model = null;
+			inputVariables = new int[0][0];
+			inputValues = new double[0];
+			inputsReady = new boolean[0];
+			outputVariables = new int[0][0];
+			outputValues = new double[0];
+			inputPanels.setItemCount(0);
+			outputPanels.setItemCount(0);
+			numberChartInputs = 0;
 		} else {
 			// set model label
 			activeModelLabel.setText("Task: " + model.getName());
 			
-			JPanel outputPanel = new JPanel();
-			outputPanel.setLayout(new BoxLayout(outputPanel, 
-					BoxLayout.PAGE_AXIS));
-			
-			// create default grid bag constraints
-			GridBagConstraints c = new GridBagConstraints();
-			c.insets = new Insets(5,5,5,5);
-			c.anchor = GridBagConstraints.CENTER;
-			c.fill = GridBagConstraints.BOTH;
-			c.gridx = 0;
-			c.gridy = 0;
-			c.weightx = 1;
-			c.weighty = 1;
-			
-			// create and lay out output panels horizontally on the left
-			// side of the panel
-			outputPanels = new OutputPanel[model.getNumberOutputs()];
+			// set the output variables
+			this.model = model;
+			int[][] outputVariables = new int[model.getNumberOutputs()][];
+			outputValues = model.getOutputVector(
+					model.getInitialVector()).toArray();
 			for(int d = 0; d < model.getOutputIndices().length; d++) {
 				// for each designer: handle outputs
 				for(int d_o = 0; 
 						d_o < model.getOutputIndices()[d].length; d_o++) {
-					// for each designer output: create and add 
-					// corresponding output panel
+					// for each designer output: identify corresponding 
+					// output variable
 					int i = model.getOutputIndices()[d][d_o];
-					outputPanels[i] = OutputPanelFactory.createBasicOutputPanel(d, d_o, 
-							model.getTargetVector().getEntry(i),
-							model.getOutputVector(
-									model.getInitialVector()).getEntry(i),
-									model.getOutputLabels()[i]);
-					outputPanel.add(outputPanels[i]);
+					outputVariables[i] = new int[]{d, d_o};
 				}
 			}
 
-			// lay out output panels
-			modelPanel.add(new JScrollPane(outputPanel), c);
-
-			// lay out input panels
-			
-			JPanel inputPanel = new JPanel();
-			inputPanel.setLayout(new BoxLayout(inputPanel, BoxLayout.LINE_AXIS));
-
-			// create and lay out input panels vertically to the right of the
-			// output panels
-			inputPanels = new InputPanel[model.getNumberInputs()];
-			// clear out input dataset and other plotting data
-			inputDataset.removeAllSeries();
-			inputSeries = new XYSeries[model.getNumberInputs()];
-			solutionSeries = new XYSeries[model.getNumberInputs()];
-			errorSeries.clear();
-			XYPlot xyPlot = (XYPlot) inputChart.getPlot();
-			XYItemRenderer renderer = xyPlot.getRenderer();
+			// set the input variables
+			int[][] inputVariables = new int[model.getNumberInputs()][];
+			inputValues = new double[model.getNumberInputs()];
+			inputsReady = new boolean[model.getNumberInputs()];
 			for(int d = 0; d < model.getInputIndices().length; d++) {
 				// for each designer: handle inputs
 				for(int d_i = 0; 
 						d_i < model.getInputIndices()[d].length; d_i++) {
-					// for each designer input: create and add 
-					// corresponding input panel
+					// for each designer input: identify corresponding 
+					// input variable
 					int i = model.getInputIndices()[d][d_i];
-					inputPanels[i] = InputPanelFactory.createBasicInputPanelWithSolution(
-							d, d_i, 
-							model.getInitialVector().getEntry(i),
-							model.getSolutionVector().getEntry(i),
-							model.getInputLabels()[i]);
-					inputPanel.add(inputPanels[i]);
-					
-					// also create and add series for input and solutions
-					inputSeries[i] = new XYSeries(
-							"X_" + (d+1) + "," + (d_i+1), 
-							false, false);
-					solutionSeries[i] = new XYSeries(
-							"X_" + (d+1) + "," + (d_i+1) + "*", 
-							false, false);
-					inputDataset.addSeries(inputSeries[i]);
-					inputDataset.addSeries(solutionSeries[i]);
+					inputVariables[i] = new int[]{d, d_i};
+					inputValues[i] = BasicInputPanel.getSliderValue(
+							model.getInitialVector().getEntry(i));
+				}
+			}
+			
+			// panels are bound by designer and designer variable index, so
+			// the previous panels and chart series can be reused if each
+			// variable belongs to the same designer variable as before
+			layoutChanged = modelPanel.getComponentCount() == 0
+					|| !Arrays.deepEquals(outputVariables, 
+							this.outputVariables)
+					|| !Arrays.deepEquals(inputVariables, 
+							this.inputVariables);
+			this.outputVariables = outputVariables;
+			this.inputVariables = inputVariables;
+			
+			if(layoutChanged) {
+				// remove all existing components from model panel
+				modelPanel.removeAll();
+				
+				// create default grid bag constraints
+				GridBagConstraints c = new GridBagConstraints();
+				c.insets = new Insets(5,5,5,5);
+				c.anchor = GridBagConstraints.CENTER;
+				c.fill = GridBagConstraints.BOTH;
+				c.gridx = 0;
+				c.gridy = 0;
+				c.weightx = 1;
+				c.weighty = 1;
+				
+				// lay out output panels horizontally on the left side of the 
+				// panel
+				outputPanels.setItemCount(outputVariables.length);
+				modelPanel.add(outputScrollPane, c);
+
+				// clear out input dataset and other plotting data
+				inputDataset.removeAllSeries();
+				numberChartInputs = model.getNumberInputs();
+				String[] seriesKeys = new String[2*numberChartInputs];
+				XYPlot xyPlot = (XYPlot) inputChart.getPlot();
+				XYItemRenderer renderer = xyPlot.getRenderer();
+				for(int i = 0; i < inputVariables.length; i++) {
+					// for each input variable: name the series for input 
+					// and solutions
+					int d = inputVariables[i][0];
+					int d_i = inputVariables[i][1];
+					seriesKeys[2*i + 0] = "X_" + (d+1) + "," + (d_i+1);
+					seriesKeys[2*i + 1] = "X_" + (d+1) + "," + (d_i+1) + "*";
 					renderer.setSeriesShape(2*i + 0, 
 							Utilities.getSeriesShape(d_i));
 					renderer.setSeriesPaint(2*i + 0, 
@@ -693,73 +875,78 @@ public class ManagerFrame extends JFrame implements DesignerListener {
 									new float[]{5f, 10f}, 
 									0f));
 				}
-			}
+				
+				// add series for inputs and solutions in order of input 
+				// index
+				for(int i = 0; i < seriesKeys.length; i++) {
+					inputDataset.addSeries(seriesKeys[i]);
+				}
 
-			c.gridx++;
-			modelPanel.add(new JScrollPane(inputPanel), c);
+				// lay out input panels vertically to the right of the 
+				// output panels
+				inputPanels.setItemCount(inputVariables.length);
+				c.gridx++;
+				modelPanel.add(inputScrollPane, c);
 
-			// add error chart in new panel
-			ChartPanel distanceChartPanel = new ChartPanel(errorChart);
-			distanceChartPanel.setOpaque(false);
-			// set preferred size to prevent large plots from being displayed
-			distanceChartPanel.setPreferredSize(new Dimension(300,200));
-			c.gridy++;
-			c.gridx = 0;
-			modelPanel.add(distanceChartPanel, c);
-			// add input chart in new panel
-			ChartPanel inputChartPanel = new ChartPanel(inputChart);
-			inputChartPanel.setOpaque(false);
-			// set preferred size to prevent large plots from being displayed
-			inputChartPanel.setPreferredSize(new Dimension(300,200));
-			c.gridx++;
-			modelPanel.add(inputChartPanel, c);
+				// add error chart and input chart below the panels
+				c.gridy++;
+				c.gridx = 0;
+				modelPanel.add(errorChartPanel, c);
+				c.gridx++;
+				modelPanel.add(inputChartPanel, c);
+			} else {
+				// bind the existing panels to the new model
+				outputPanels.refresh();
+				inputPanels.refresh();
+				
+				// clear out the existing input series
+				for(int s = 0; s < inputDataset.getSeriesCount(); s++) {
+					inputDataset.clear(s);
+				}
+				inputDataset.flush();
+			}
+			
+			// create downsamplers to add the chart history to the error, 
+			// input, and solution series
+			chartDownsamplers.add(new Downsampler(errorDataset, 0, 0, 1));
+			for(int i = 0; i < numberChartInputs; i++) {
+				chartDownsamplers.add(new Downsampler(inputDataset, 
+						2*i + 0, 0, 2 + i));
+				chartDownsamplers.add(new Downsampler(inputDataset, 
+						2*i + 1, 0, 2 + numberChartInputs + i));
+			}
 			mode = Mode.Initialized;
 		}
 		
-		// finally, validate the layout and pack to re-size the window
-		// and repaint to force graphics to update
-		if(!isUndecorated()) {
-			// don't pack if in fullscreen mode
-			pack();
-		} else {
-			validate();
+		// finally, if the layout changed, validate the layout and pack to 
+		// re-size the window, and repaint to force graphics to update
+		if(layoutChanged) {
+			if(!isUndecorated()) {
+				// don't pack if in fullscreen mode
+				pack();
+			} else {
+				validate();
+			}
 		}
 		repaint();
 		
 		// set input components to be enabled/disabled
 		logCommentText.setEnabled(experiment != null);
 		logCommentAction.setEnabled(experiment != null);
+		exportChartDataAction.setEnabled(model != null);
 		nextModelAction.setEnabled(experiment != null);
 		endTrainingAction.setEnabled(experiment != null 
 				&& experiment.isTraining());
 		
 		// tell the federate ambassador to update model attributes to reflect
-		// the newly-loaded system model
-		try {
-			managerAmbassador.updateModelAttributes(experiment);
-		} catch (Exception e) {
-			showErrorDialog(e.getMessage());
-			e.printStackTrace();
-		}
-	}
-
-	/**
-	 * Logs a comment.
-	 *
-	 * @param message the message to log
-	 */
-	private void log(String label, String data) {
-		try {
-			// create writer objects
-			FileWriter fw = new FileWriter(logFile, true);
-			// write line with time, message, and newline
-			fw.write(System.currentTimeMillis() + "," + label + "," 
-					+ data + System.getProperty("line.separator"));
-			// close the writer
-			fw.close();
-			System.out.println("Manager Log: " + data);
-		} catch(IOException ex) {
-			ex.printStackTrace();
+		// the newly-loaded system model (sent upon connection otherwise)
+		if(connected) {
+			try {
+				managerAmbassador.updateModelAttributes(experiment);
+			} catch (Exception e) {
+				showErrorDialog(e.getMessage());
+				e.printStackTrace();
+			}
 		}
 	}
 
@@ -777,6 +964,48 @@ public class ManagerFrame extends JFrame implements DesignerListener {
 		}
 	}
 	
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.manager.OutputListener#outputsUpdated(edu.mit.collab.manager.OutputSnapshot)
+	 */
+	@Override
+	public void outputsUpdated(OutputSnapshot snapshot) {
+		// ignore snapshots of previous models
+		if(snapshot.getModel() == null || snapshot.getModel() != model) {
+			return;
+		}
+		
+		// update input and output panels
+		for(int i = 0; i < snapshot.getNumberInputs(); i++) {
+			if(inputValues[i] != snapshot.getInputValue(i)) {
+				setInputValue(i, snapshot.getInputValue(i));
+			}
+		}
+		for(int i = 0; i < snapshot.getNumberOutputs(); i++) {
+			outputValues[i] = snapshot.getOutputValue(i);
+		}
+		outputPanels.refresh();
+		
+		// buffer new entries and schedule them to be added to the charts
+		if(!snapshot.getChartData().isEmpty()) {
+			pendingChartData.addAll(snapshot.getChartData());
+			if(!chartTimer.isRunning()) {
+				chartTimer.start();
+			}
+		}
+		
+		// if in initialized mode and the pipeline started, make running
+		if(snapshot.isRunning() && mode == Mode.Initialized) {
+			mode = Mode.Running;
+		}
+		
+		// if task is solved, update state
+		if(snapshot.isSolved() && mode != Mode.Solved) {
+			// play one of the success sounds on the audio thread
+			soundPlayer.playRandom();
+			mode = Mode.Solved;
+		}
+	}
+	
 	/**
 	 * Open an experiment from file.
 	 */
@@ -794,7 +1023,7 @@ public class ManagerFrame extends JFrame implements DesignerListener {
 				try {
 					setExperiment(Utilities.readExperiment(
 							fileChooser.getSelectedFile()));
-					log("opened", experiment.getName());
+					log.log("opened", experiment.getName());
 				} catch (IOException e) {
 					showErrorDialog(e.getMessage());
 					e.printStackTrace();
@@ -831,6 +1060,41 @@ public class ManagerFrame extends JFrame implements DesignerListener {
 		}
 	}
 	
+	/**
+	 * Sets the value of an input variable as represented by an input slider.
+	 *
+	 * @param index the input index
+	 * @param value the value
+	 */
+	private void setInputValue(int index, double value) {
+		inputValues[index] = BasicInputPanel.getSliderValue(value);
+		inputPanels.refresh(index);
+	}
+	
+	/**
+	 * Sets the ready state of a designer as represented by its input panels.
+	 *
+	 * @param designer the designer
+	 * @param ready true, if the designer is ready
+	 */
+	private void setReadyState(Designer designer, boolean ready) {
+		// respond to state changes if model is initialized or running
+		// and designer is in local set
+		if((mode == Mode.Initialized || mode == Mode.Running) 
+				&& designers.contains(designer)
+				&& designer.getIndex() < model.getInputIndices().length) {
+			// determine which inputs designer has control of
+			int[] inputs = model.getInputIndices()[designer.getIndex()];
+			// update corresponding input panels
+			for(int i = 0; i < inputs.length; i++) {
+				if(inputsReady[inputs[i]] != ready) {
+					inputsReady[inputs[i]] = ready;
+					inputPanels.refresh(inputs[i]);
+				}
+			}
+		}
+	}
+	
 	/**
 	 * Show error dialog.
 	 *
@@ -851,6 +1115,65 @@ public class ManagerFrame extends JFrame implements DesignerListener {
 				JOptionPane.INFORMATION_MESSAGE);
 	}
 	
+	/**
+	 * Starts up the federate ambassador on a background thread so the
+	 * window remains responsive while connecting. Once started, the title
+	 * shows the instance name and the model attributes of the current
+	 * experiment are sent.
+	 *
+	 * @return the worker, done once the federate ambassador has started up
+	 * with the start up time (milliseconds)
+	 */
+	public SwingWorker<Long, Void> startUp() {
+		SwingWorker<Long, Void> worker = new SwingWorker<Long, Void>() {
+			@Override
+			protected Long doInBackground() throws Exception {
+				long time = System.nanoTime();
+				managerAmbassador.startUp();
+				return (System.nanoTime() - time) / 1000000;
+			}
+
+			@Override
+			protected void done() {
+				try {
+					long startUpTime = get();
+					System.out.println("Manager Log: started up in " 
+							+ startUpTime + " ms");
+				} catch (ExecutionException e) {
+					setTitle("Manager (Not Connected)");
+					e.getCause().printStackTrace();
+					showErrorDialog(e.getCause().getMessage());
+					return;
+				} catch (InterruptedException ignored) {
+					return;
+				}
+				
+				if(managerAmbassador.getInstanceName().indexOf(
+						"HLAobjectRoot") >= 0) {
+					// format frame title for pRTI instance names, i.e. only 
+					// use ManagerXYZ from HLAobjectRoot.ManagerXYZ
+					setTitle(managerAmbassador.getInstanceName().substring(
+							managerAmbassador.getInstanceName().indexOf('.') + 1, 
+							managerAmbassador.getInstanceName().length()));
+				} else {
+					// format title for other RTI implementations
+					setTitle(managerAmbassador.getInstanceName());
+				}
+				
+				// send the model attributes of the current experiment
+				connected = true;
+				try {
+					managerAmbassador.updateModelAttributes(experiment);
+				} catch (Exception e) {
+					showErrorDialog(e.getMessage());
+					e.printStackTrace();
+				}
+			}
+		};
+		worker.execute();
+		return worker;
+	}
+	
 	/**
 	 * Toggles between fullscreen and windowed mode.
 	 */
@@ -875,107 +1198,4 @@ public class ManagerFrame extends JFrame implements DesignerListener {
 			setVisible(true);
 		}
 	}
-	
-	/**
-	 * Updates outputs if the correct conditions are observed.
-	 */
-	private void updateOutputs() {
-		boolean sendUpdates = true;
-		// if not in constant feedback mode, only send updates 
-		// if all designers are ready
-		for(Designer designer : designers) {
-			sendUpdates = sendUpdates 
-					&& designer.isReady() || constantFeedback;
-		}
-		// if in initialized mode, take note of the start time and make running
-		if(sendUpdates && mode == Mode.Initialized) {
-			mode = Mode.Running;
-			startTime = new Date().getTime();
-		}
-		// if updates should be sent and in running mode:
-		if(sendUpdates && mode == Mode.Running) {
-			// aggregate all inputs from designers
-			RealVector inputVector = new ArrayRealVector(inputPanels.length);
-			for(int i = 0; i < inputPanels.length; i++) {
-				inputVector.setEntry(i, inputPanels[i].getValue());
-			}
-			
-			// calculate outputs
-			RealVector outputVector = experiment.getActiveModel().
-					getOutputVector(inputVector);
-			
-			// update output panels and determine if task is solved
-			boolean solved = true;
-			for(int i = 0; i < outputPanels.length; i++) {
-				outputPanels[i].setValue(outputVector.getEntry(i));
-				// task is solved if all outputs are within range
-				solved = solved && outputPanels[i].isWithinRange();
-			}
-			
-			double eventTime = (new Date().getTime()-startTime)/1000d;
-			
-			// add new entry to error series
-			errorSeries.addOrUpdate(eventTime, 
-					experiment.getActiveModel().getOutputError(inputVector));
-			for(int i = 0; 
-					i < experiment.getActiveModel().getNumberInputs(); 
-					i++) {
-				// add new entry to input series
-				inputSeries[i].addOrUpdate(eventTime, 
-						inputVector.getEntry(i));
-				// add new entry to solution series
-				solutionSeries[i].addOrUpdate(eventTime, 
-						experiment.getActiveModel().getSolutionVector()
-								.getEntry(i));
-			}
-			
-			log("updated", "input=" + vectorToString(inputVector, true) 
-					+ "; output=" + vectorToString(outputVector, false));
-			
-			// issue update call to federate ambassador
-			try {
-				managerAmbassador.updateOutputAttributes(outputVector);
-			} catch(Exception ex) {
-				ex.printStackTrace();
-			}
-			
-			// if task is solved, update state and enabled actions
-			if(solved) {
-				try {
-					final AudioInputStream inputStream;
-					if(Math.random() < 0.5) {
-						inputStream = AudioSystem.getAudioInputStream(
-								getClass().getClassLoader().getResourceAsStream(
-										"resources/success-1.wav"));
-					} else {
-						inputStream = AudioSystem.getAudioInputStream(
-								getClass().getClassLoader().getResourceAsStream(
-										"resources/success-2.wav"));
-					}
-					// run audio in separate thread
-					new Thread(new Runnable() {
-						@Override
-						public void run() {
-							try {
-								Clip clip = AudioSystem.getClip();
-								clip.open(inputStream);
-								clip.start();
-							} catch (LineUnavailableException e) {
-								e.printStackTrace();
-							} catch (IOException e) {
-								e.printStackTrace();
-							}
-						}
-					}).run();
-				} catch (IOException e) {
-					e.printStackTrace();
-				} catch (UnsupportedAudioFileException e) {
-					e.printStackTrace();
-				}
-				
-				log("solved", experiment.getActiveModel().getName());
-				mode = Mode.Solved;
-			}
-		}
-	}
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package edu.mit.collab.manager;
+
+import java.util.EventListener;
+
+/**
+ * The listener interface for receiving output snapshots from an output
+ * pipeline. Snapshots are delivered on the Swing event thread unless the
+ * pipeline is created with another executor.
+ *
+ * @see OutputSnapshot
+ */
+public interface OutputListener extends EventListener {
+
+	/**
+	 * Method to notify that the outputs of the active model have been
+	 * updated.
+	 *
+	 * @param snapshot the snapshot of the active model state
+	 */
+	public void outputsUpdated(OutputSnapshot snapshot);
+}
@@ -0,0 +1,424 @@
+package edu.mit.collab.manager;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.swing.SwingUtilities;
+import javax.swing.event.EventListenerList;
+
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.linear.RealVector;
+
+import edu.mit.collab.util.BasicInputPanel;
+import edu.mit.collab.util.OutputPanel;
+
+/**
+ * The OutputPipeline class keeps the authoritative input state of the active
+ * model and computes its outputs off the Swing event thread. Designer input
+ * events update the inputs directly from the federate ambassador's callback
+ * thread; a compute thread then evaluates the model, logs the result, and
+ * publishes the outputs via the federate ambassador. Each model is
+ * identified by a generation; results are only logged and published if
+ * the model was not replaced during evaluation, without holding the lock
+ * of this pipeline during logging or publishing. Output listeners
+ * receive immutable snapshots of the state on the Swing event thread (or
+ * another delivery thread), at most one pending snapshot at a time, so
+ * bursts of input events are rendered once.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ */
+public class OutputPipeline implements DesignerListener {
+	private final ManagerAmbassador managerAmbassador; // immutable
+	private final ExperimentLog log; // immutable
+	private final boolean constantFeedback; // immutable
+	private final EventListenerList listenerList =
+			new EventListenerList(); // mutable
+	private final Thread computeThread; // immutable
+	private final Executor snapshotExecutor; // immutable
+
+	// state guarded by this pipeline
+	private final Set<Designer> designers = new HashSet<Designer>(); // mutable
+	private SystemModel model; // mutable
+	private final AtomicLong generation = new AtomicLong(); // mutable
+	private double[] inputValues = new double[0]; // mutable
+	private double[] outputValues = new double[0]; // mutable
+	private boolean running, solved; // mutable
+	private boolean modified, closed; // mutable
+	private long startTime; // mutable
+	private final List<double[]> pendingChartData =
+			new ArrayList<double[]>(); // mutable
+	private boolean snapshotScheduled; // mutable
+
+	// task to deliver a snapshot on the delivery thread
+	private final Runnable snapshotTask = new Runnable() {
+		@Override
+		public void run() {
+			fireOutputsUpdated(createSnapshot());
+		}
+	};
+
+	/**
+	 * Instantiates a new output pipeline which delivers snapshots on the
+	 * Swing event thread and starts its compute thread.
+	 *
+	 * @param managerAmbassador the manager ambassador to publish outputs
+	 * @param log the experiment log
+	 * @param constantFeedback true, if outputs are updated after every input
+	 * modification; otherwise, outputs are only updated once all designers
+	 * are ready
+	 */
+	public OutputPipeline(ManagerAmbassador managerAmbassador,
+			ExperimentLog log, boolean constantFeedback) {
+		this(managerAmbassador, log, constantFeedback, new Executor() {
+			@Override
+			public void execute(Runnable command) {
+				SwingUtilities.invokeLater(command);
+			}
+		});
+	}
+
+	/**
+	 * Instantiates a new output pipeline and starts its compute thread.
+	 *
+	 * @param managerAmbassador the manager ambassador to publish outputs
+	 * @param log the experiment log
+	 * @param constantFeedback true, if outputs are updated after every input
+	 * modification; otherwise, outputs are only updated once all designers
+	 * are ready
+	 * @param snapshotExecutor the executor to deliver snapshots, which runs
+	 * tasks in order on a single thread
+	 */
+	public OutputPipeline(ManagerAmbassador managerAmbassador,
+			ExperimentLog log, boolean constantFeedback,
+			Executor snapshotExecutor) {
+		this.managerAmbassador = managerAmbassador;
+		this.log = log;
+		this.constantFeedback = constantFeedback;
+		this.snapshotExecutor = snapshotExecutor;
+
+		computeThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				compute();
+			}
+		}, "Output Pipeline");
+		computeThread.setDaemon(true);
+		computeThread.start();
+	}
+
+	/**
+	 * Adds a designer whose inputs contribute to the active model.
+	 *
+	 * @param designer the designer
+	 */
+	public synchronized void addDesigner(Designer designer) {
+		designers.add(designer);
+	}
+
+	/**
+	 * Adds an output listener.
+	 *
+	 * @param listener the listener
+	 */
+	public void addOutputListener(OutputListener listener) {
+		listenerList.add(OutputListener.class, listener);
+	}
+
+	/**
+	 * Stops the compute thread.
+	 */
+	public synchronized void close() {
+		closed = true;
+		notifyAll();
+	}
+
+	/**
+	 * Evaluates the model whenever the inputs are modified until closed.
+	 * This method is only called on the compute thread.
+	 */
+	private void compute() {
+		while(true) {
+			SystemModel model;
+			RealVector inputVector;
+			long startTime, generation;
+			synchronized(this) {
+				// wait for modified inputs
+				while(!modified && !closed) {
+					try {
+						wait();
+					} catch (InterruptedException ignored) { }
+				}
+				if(closed) {
+					return;
+				}
+				modified = false;
+
+				// if not in constant feedback mode, only send updates
+				// if all designers are ready
+				boolean sendUpdates = true;
+				for(Designer designer : designers) {
+					sendUpdates = sendUpdates
+							&& designer.isReady() || constantFeedback;
+				}
+				if(!sendUpdates || this.model == null || this.solved) {
+					// render the modified inputs without updating outputs
+					scheduleSnapshot();
+					continue;
+				}
+
+				// if not yet running, take note of the start time
+				if(!running) {
+					running = true;
+					this.startTime = System.currentTimeMillis();
+				}
+				model = this.model;
+				inputVector = new ArrayRealVector(inputValues);
+				startTime = this.startTime;
+				generation = this.generation.get();
+			}
+
+			// calculate outputs and determine if task is solved, i.e. if
+			// all outputs are within range
+			RealVector outputVector = model.getOutputVector(inputVector);
+			boolean solved = true;
+			for(int i = 0; i < outputVector.getDimension(); i++) {
+				solved = solved && Math.abs(outputVector.getEntry(i)
+						- model.getTargetVector().getEntry(i))
+						< OutputPanel.ERROR_ALLOWED;
+			}
+
+			// create new entry for the error, input, and solution series,
+			// i.e. time, error, inputs, and solutions
+			int numberInputs = model.getNumberInputs();
+			double[] chartData = new double[2 + 2*numberInputs];
+			chartData[0] = (System.currentTimeMillis() - startTime)/1000d;
+			chartData[1] = model.getOutputError(inputVector);
+			for(int i = 0; i < numberInputs; i++) {
+				chartData[2 + i] = inputVector.getEntry(i);
+				chartData[2 + numberInputs + i] =
+						model.getSolutionVector().getEntry(i);
+			}
+
+			// log the results unless the model changed in the meantime; the
+			// generation is checked and changed while synchronized on the
+			// log so no results of a replaced model are logged afterwards
+			synchronized(log) {
+				if(generation == this.generation.get()) {
+					log.log("updated", "input="
+							+ ExperimentLog.vectorToString(inputVector, true)
+							+ "; output="
+							+ ExperimentLog.vectorToString(outputVector, 
+									false));
+					if(solved) {
+						log.log("solved", model.getName());
+					}
+				}
+			}
+
+			// issue update call to federate ambassador, which drops the
+			// outputs if the model changed in the meantime
+			try {
+				managerAmbassador.updateOutputAttributes(outputVector, 
+						solved, generation);
+			} catch(Exception ex) {
+				ex.printStackTrace();
+			}
+
+			synchronized(this) {
+				// store results unless the model changed in the meantime
+				if(generation == this.generation.get()) {
+					outputValues = outputVector.toArray();
+					this.solved = solved;
+					pendingChartData.add(chartData);
+				}
+				scheduleSnapshot();
+			}
+		}
+	}
+
+	/**
+	 * Creates a snapshot of the current state and clears the pending chart
+	 * entries.
+	 *
+	 * @return the snapshot
+	 */
+	private synchronized OutputSnapshot createSnapshot() {
+		snapshotScheduled = false;
+		OutputSnapshot snapshot = new OutputSnapshot(model, inputValues,
+				outputValues, running, solved,
+				new ArrayList<double[]>(pendingChartData));
+		pendingChartData.clear();
+		return snapshot;
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.manager.DesignerListener#designerAdded(edu.mit.collab.manager.DesignerEvent)
+	 */
+	@Override
+	public void designerAdded(DesignerEvent e) {
+		// designers are added once accepted by the manager
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.manager.DesignerListener#designerInputModified(edu.mit.collab.manager.DesignerEvent)
+	 */
+	@Override
+	public synchronized void designerInputModified(DesignerEvent e) {
+		// respond to input changes if a model is active and not yet solved
+		// and designer has been added
+		Designer designer = e.getDesigner();
+		if(model == null || solved || !designers.contains(designer)
+				|| designer.getIndex() < 0
+				|| designer.getIndex() >= model.getInputIndices().length) {
+			return;
+		}
+
+		// determine which inputs designer has control of
+		int[] inputs = model.getInputIndices()[designer.getIndex()];
+		int[] changed = e.getInputIndices();
+		if(changed == null) {
+			// update value of each corresponding input
+			RealVector inputVector = designer.getInputVector();
+			for(int i = 0; i < inputs.length
+					&& i < inputVector.getDimension(); i++) {
+				inputValues[inputs[i]] = BasicInputPanel.getSliderValue(
+						inputVector.getEntry(i));
+			}
+		} else {
+			// update value of only the changed inputs, ignoring indices
+			// outside of the inputs the designer controls
+			RealVector inputVector = designer.getInputVector();
+			for(int i = 0; i < changed.length; i++) {
+				if(changed[i] >= 0 && changed[i] < inputs.length
+						&& changed[i] < inputVector.getDimension()) {
+					inputValues[inputs[changed[i]]] =
+							BasicInputPanel.getSliderValue(
+									inputVector.getEntry(changed[i]));
+				}
+			}
+		}
+
+		// if providing constant feedback, update outputs after every input
+		// modification; otherwise, only render the inputs
+		if(constantFeedback) {
+			modified = true;
+			notifyAll();
+		} else {
+			scheduleSnapshot();
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.manager.DesignerListener#designerRemoved(edu.mit.collab.manager.DesignerEvent)
+	 */
+	@Override
+	public void designerRemoved(DesignerEvent e) {
+		// designers are removed by the manager
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.manager.DesignerListener#designerStateModified(edu.mit.collab.manager.DesignerEvent)
+	 */
+	@Override
+	public synchronized void designerStateModified(DesignerEvent e) {
+		// if NOT constant feedback, check whether to update outputs after
+		// every state modification
+		if(!constantFeedback && model != null && !solved
+				&& designers.contains(e.getDesigner())) {
+			modified = true;
+			notifyAll();
+		}
+	}
+
+	/**
+	 * Fires an outputs updated event.
+	 *
+	 * @param snapshot the snapshot
+	 */
+	private void fireOutputsUpdated(OutputSnapshot snapshot) {
+		OutputListener[] listeners = listenerList.getListeners(
+				OutputListener.class);
+		for(int i = 0; i < listeners.length; i++) {
+			listeners[i].outputsUpdated(snapshot);
+		}
+	}
+
+	/**
+	 * Removes a designer.
+	 *
+	 * @param designer the designer
+	 */
+	public synchronized void removeDesigner(Designer designer) {
+		designers.remove(designer);
+	}
+
+	/**
+	 * Removes an output listener.
+	 *
+	 * @param listener the listener
+	 */
+	public void removeOutputListener(OutputListener listener) {
+		listenerList.remove(OutputListener.class, listener);
+	}
+
+	/**
+	 * Resets the inputs and outputs to the initial state of a model. Callers 
+	 * must hold the lock of this pipeline.
+	 *
+	 * @param model the model, or null if no model is active
+	 */
+	private void resetModel(SystemModel model) {
+		this.model = model;
+		if(model == null) {
+			inputValues = new double[0];
+			outputValues = new double[0];
+		} else {
+			inputValues = new double[model.getNumberInputs()];
+			for(int i = 0; i < inputValues.length; i++) {
+				inputValues[i] = BasicInputPanel.getSliderValue(
+						model.getInitialVector().getEntry(i));
+			}
+			outputValues = model.getOutputVector(
+					model.getInitialVector()).toArray();
+		}
+		running = false;
+		solved = false;
+		modified = false;
+		pendingChartData.clear();
+	}
+
+	/**
+	 * Schedules a snapshot to be delivered by the snapshot executor unless
+	 * one is already pending. Callers must hold the lock of this pipeline.
+	 */
+	private void scheduleSnapshot() {
+		if(!snapshotScheduled) {
+			snapshotScheduled = true;
+			snapshotExecutor.execute(snapshotTask);
+		}
+	}
+
+	/**
+	 * Sets the active model and resets the inputs and outputs to its initial
+	 * state. Outputs computed for a previous model are discarded; once this
+	 * method returns, no further outputs of a previous model are logged or
+	 * published.
+	 *
+	 * @param model the model, or null if no model is active
+	 */
+	public void setModel(SystemModel model) {
+		// start a new generation, which waits for results of the previous
+		// generation being logged but not for results being published
+		synchronized(log) {
+			synchronized(this) {
+				managerAmbassador.setOutputGeneration(
+						generation.incrementAndGet());
+				resetModel(model);
+			}
+		}
+	}
+}
@@ -0,0 +1,117 @@
+package edu.mit.collab.manager;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The OutputSnapshot class is an immutable view of the state of the active
+ * model computed by an output pipeline, i.e. the latest inputs and outputs
+ * and the chart entries computed since the previous snapshot.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ */
+public class OutputSnapshot {
+	private final SystemModel model; // immutable
+	private final double[] inputValues; // immutable
+	private final double[] outputValues; // immutable
+	private final boolean running; // immutable
+	private final boolean solved; // immutable
+	private final List<double[]> chartData; // immutable
+
+	/**
+	 * Instantiates a new output snapshot.
+	 *
+	 * @param model the model
+	 * @param inputValues the input values
+	 * @param outputValues the output values
+	 * @param running true, if the task is running
+	 * @param solved true, if the task is solved
+	 * @param chartData the chart entries computed since the previous
+	 * snapshot, i.e. time, error, inputs, and solutions
+	 */
+	public OutputSnapshot(SystemModel model, double[] inputValues,
+			double[] outputValues, boolean running, boolean solved,
+			List<double[]> chartData) {
+		this.model = model;
+		this.inputValues = inputValues.clone();
+		this.outputValues = outputValues.clone();
+		this.running = running;
+		this.solved = solved;
+		this.chartData = Collections.unmodifiableList(chartData);
+	}
+
+	/**
+	 * Gets the chart entries computed since the previous snapshot. The
+	 * entries must not be modified.
+	 *
+	 * @return the chart entries
+	 */
+	public List<double[]> getChartData() {
+		return chartData;
+	}
+
+	/**
+	 * Gets an input value.
+	 *
+	 * @param index the input index
+	 * @return the input value
+	 */
+	public double getInputValue(int index) {
+		return inputValues[index];
+	}
+
+	/**
+	 * Gets the model.
+	 *
+	 * @return the model
+	 */
+	public SystemModel getModel() {
+		return model;
+	}
+
+	/**
+	 * Gets the number of inputs.
+	 *
+	 * @return the number of inputs
+	 */
+	public int getNumberInputs() {
+		return inputValues.length;
+	}
+
+	/**
+	 * Gets the number of outputs.
+	 *
+	 * @return the number of outputs
+	 */
+	public int getNumberOutputs() {
+		return outputValues.length;
+	}
+
+	/**
+	 * Gets an output value.
+	 *
+	 * @param index the output index
+	 * @return the output value
+	 */
+	public double getOutputValue(int index) {
+		return outputValues[index];
+	}
+
+	/**
+	 * Checks if the task is running.
+	 *
+	 * @return true, if is running
+	 */
+	public boolean isRunning() {
+		return running;
+	}
+
+	/**
+	 * Checks if the task is solved.
+	 *
+	 * @return true, if is solved
+	 */
+	public boolean isSolved() {
+		return solved;
+	}
+}
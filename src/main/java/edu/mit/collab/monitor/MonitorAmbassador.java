@@ -0,0 +1,506 @@
+package edu.mit.collab.monitor;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.apache.commons.math3.linear.RealVector;
+
+import edu.mit.collab.transport.Transport;
+import edu.mit.collab.transport.TransportException;
+import edu.mit.collab.transport.TransportFactory;
+import edu.mit.collab.transport.TransportListener;
+import edu.mit.collab.util.ErrorReporter;
+import edu.mit.collab.util.HLAfloatVector;
+import edu.mit.collab.util.HLAintegerMatrix;
+import edu.mit.collab.util.ModelDictionary;
+import edu.mit.collab.util.OutputPanel;
+import edu.mit.collab.util.SequenceFilter;
+import hla.rti1516e.encoding.DecoderException;
+import hla.rti1516e.encoding.EncoderFactory;
+import hla.rti1516e.encoding.HLAboolean;
+import hla.rti1516e.encoding.HLAinteger32BE;
+import hla.rti1516e.encoding.HLAinteger64BE;
+import hla.rti1516e.encoding.HLAunicodeString;
+
+/**
+ * The federate ambassador interface to the transport for monitoring one
+ * team. The monitor joins the team's federation read-only: it only
+ * subscribes to the few manager attributes needed to summarize the team
+ * (active model, target output and output) and neither publishes nor
+ * registers any objects.
+ *
+ * Reflections only store the latest encoded value of each attribute; values
+ * are decoded when the status is requested, so bursts of output updates
+ * cost one decode per status request regardless of the update rate. The
+ * transports have no low-rate subscription, so the monitor still receives
+ * every output update at the full rate; only decoding is deferred.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ */
+public class MonitorAmbassador implements TransportListener {
+	// the variables below define configuration strings for various
+	// commands issued to the transport
+	private static final String federateType = "monitor";
+	private static final String managerClassName = "HLAobjectRoot.Manager";
+	private static final String outputAttributeName = "Output";
+	private static final String targetOutputAttributeName = "TargetOutput";
+	private static final String activeModelAttributeName = "ActiveModel";
+	private static final String outputIndicesAttributeName = "OutputIndices";
+	private static final String outputIndicesKeyAttributeName =
+			"OutputIndicesKey";
+	private static final String designerOutputClassName =
+			"HLAobjectRoot.DesignerOutput";
+	private static final String designerIndexAttributeName = "DesignerIndex";
+	private static final String managerAttributeName = "Manager";
+	private static final String solvedAttributeName = "Solved";
+	private static final String[] managerAttributeNames = new String[] {
+		activeModelAttributeName, targetOutputAttributeName,
+		outputAttributeName};
+	private static final String[] designerOutputManagerAttributeNames =
+			new String[] {activeModelAttributeName, targetOutputAttributeName,
+		outputAttributeName, outputIndicesAttributeName,
+		outputIndicesKeyAttributeName};
+	private static final String[] designerOutputAttributeNames = new String[] {
+		designerIndexAttributeName, managerAttributeName,
+		outputAttributeName, solvedAttributeName};
+
+	private final String federationName; // immutable
+	private final Transport transport; // immutable
+	private final ErrorReporter errorReporter; // mutable
+
+	// per-designer output objects, subscribed in addition to the manager
+	// attributes if enabled by the designerOutputs property, in which case
+	// the manager only sends the whole output upon activating a model
+	private final boolean designerOutputs; // immutable
+
+	// latest encoded values received from the manager, kept without copying
+	// since transports do not modify reflected values; guarded by this
+	// ambassador
+	private String managerName; // mutable
+	private byte[] activeModelValue, targetOutputValue, outputValue; // mutable
+	private byte[] outputIndicesValue; // mutable
+	private final Map<String, Integer> designerOutputInstances =
+			new HashMap<String, Integer>(); // mutable
+	private final Map<Integer, byte[]> designerOutputValues =
+			new HashMap<Integer, byte[]>(); // mutable
+	private final Map<Integer, byte[]> designerSolvedValues =
+			new HashMap<Integer, byte[]>(); // mutable
+	private long modelStartTime, outputTime; // mutable
+	private boolean modified; // mutable
+	private final SequenceFilter<String> outputFilter =
+			new SequenceFilter<String>(); // mutable
+	private final ModelDictionary dictionary = new ModelDictionary(); // mutable
+
+	// decoded status, updated upon request if values were modified;
+	// guarded by this ambassador
+	private final HLAunicodeString stringDecoder; // mutable
+	private final HLAfloatVector vectorDecoder; // mutable
+	private final HLAintegerMatrix matrixDecoder; // mutable
+	private final HLAinteger32BE indexDecoder; // mutable
+	private final HLAinteger64BE keyDecoder; // mutable
+	private final HLAboolean solvedDecoder; // mutable
+	private String activeModel; // mutable
+	private double errorNorm = Double.NaN; // mutable
+	private boolean solved; // mutable
+	private long solvedTime; // mutable
+
+	/**
+	 * Instantiates a new monitor ambassador.
+	 *
+	 * @param properties the configuration properties of the team, including
+	 * its <code>federationName</code>
+	 * @throws TransportException the transport exception
+	 */
+	public MonitorAmbassador(Properties properties) throws TransportException {
+		federationName = properties.getProperty("federationName", "collab");
+		designerOutputs = Boolean.parseBoolean(
+				properties.getProperty("designerOutputs", "false"));
+		errorReporter = new ErrorReporter("Monitor " + federationName);
+
+		// create the transport selected in the properties
+		transport = TransportFactory.createTransport(properties);
+
+		// create reusable data elements for decoding values
+		EncoderFactory encoderFactory = transport.getEncoderFactory();
+		stringDecoder = encoderFactory.createHLAunicodeString();
+		vectorDecoder = new HLAfloatVector(encoderFactory);
+		matrixDecoder = new HLAintegerMatrix(encoderFactory);
+		indexDecoder = encoderFactory.createHLAinteger32BE();
+		keyDecoder = encoderFactory.createHLAinteger64BE();
+		solvedDecoder = encoderFactory.createHLAboolean();
+	}
+
+	/**
+	 * Decodes the latest values into the status. This method is only called
+	 * while synchronized.
+	 *
+	 * @throws DecoderException the decoder exception
+	 */
+	private void decodeStatus() throws DecoderException {
+		modified = false;
+
+		// decode the active model
+		activeModel = null;
+		if(activeModelValue != null) {
+			stringDecoder.decode(activeModelValue);
+			activeModel = stringDecoder.getValue();
+		}
+
+		// decode the target output
+		errorNorm = Double.NaN;
+		boolean solved = false;
+		if(targetOutputValue == null) {
+			this.solved = false;
+			return;
+		}
+		vectorDecoder.decode(targetOutputValue);
+		RealVector target = vectorDecoder.getValue();
+
+		if(designerOutputs && !designerOutputValues.isEmpty()
+				&& outputIndicesValue != null) {
+			// sum the squared errors of each designer's outputs; the error
+			// is only known once the outputs of all designers are received
+			matrixDecoder.decode(outputIndicesValue);
+			int[][] indices = matrixDecoder.getValue();
+			double sum = 0;
+			int count = 0;
+			for(Map.Entry<Integer, byte[]> entry
+					: designerOutputValues.entrySet()) {
+				int index = entry.getKey();
+				vectorDecoder.decode(entry.getValue());
+				RealVector output = vectorDecoder.getValue();
+				if(index < 0 || index >= indices.length
+						|| output.getDimension() != indices[index].length) {
+					continue;
+				}
+				for(int i = 0; i < indices[index].length; i++) {
+					double error = output.getEntry(i)
+							- target.getEntry(indices[index][i]);
+					sum += error*error;
+				}
+				count++;
+			}
+			if(count == indices.length) {
+				errorNorm = Math.sqrt(sum);
+			}
+
+			// the team is solved if any designer was told so
+			for(byte[] value : designerSolvedValues.values()) {
+				solvedDecoder.decode(value);
+				solved = solved || solvedDecoder.getValue();
+			}
+		} else if(outputValue != null) {
+			// compare the whole output with the target output
+			vectorDecoder.decode(outputValue);
+			RealVector output = vectorDecoder.getValue();
+			if(output.getDimension() == target.getDimension()) {
+				errorNorm = target.getDistance(output);
+
+				// task is solved if all outputs are within range
+				solved = output.getDimension() > 0;
+				for(int i = 0; i < output.getDimension(); i++) {
+					solved = solved && Math.abs(output.getEntry(i)
+							- target.getEntry(i)) < OutputPanel.ERROR_ALLOWED;
+				}
+			}
+		}
+
+		// stop the time on task when the output solving the task arrived
+		if(solved && !this.solved) {
+			solvedTime = outputTime;
+		}
+		this.solved = solved;
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.TransportListener#discoverObjectInstance(java.lang.String, java.lang.String)
+	 */
+	@Override
+	public void discoverObjectInstance(String instanceName, String className) {
+		try {
+			if(className.equals(managerClassName)) {
+				// monitor the first manager discovered and request its
+				// attributes
+				synchronized(this) {
+					if(managerName != null) {
+						return;
+					}
+					managerName = instanceName;
+				}
+				transport.requestAttributeValueUpdate(instanceName,
+						designerOutputs ? designerOutputManagerAttributeNames
+								: managerAttributeNames);
+			} else if(className.equals(designerOutputClassName)) {
+				// request the designer outputs
+				transport.requestAttributeValueUpdate(instanceName,
+						designerOutputAttributeNames);
+			}
+		} catch (Exception ex) {
+			// in the case of an exception (from the request attribute value
+			// update call), record the error without blocking
+			// the callback thread
+			errorReporter.report("discovering an object", instanceName, ex);
+		}
+	}
+
+	/**
+	 * Gets the error reporter which records exceptions raised in callbacks.
+	 *
+	 * @return the error reporter
+	 */
+	public ErrorReporter getErrorReporter() {
+		return errorReporter;
+	}
+
+	/**
+	 * Gets the federation name.
+	 *
+	 * @return the federation name
+	 */
+	public String getFederationName() {
+		return federationName;
+	}
+
+	/**
+	 * Gets the current status of the team. Values received since the
+	 * previous request are decoded first.
+	 *
+	 * @return the status
+	 */
+	public synchronized TeamStatus getStatus() {
+		if(modified) {
+			try {
+				decodeStatus();
+			} catch (DecoderException ex) {
+				errorReporter.report("decoding the status", managerName, ex);
+			}
+		}
+		if(managerName == null || activeModel == null) {
+			return new TeamStatus(federationName, null, Double.NaN, 0, false);
+		}
+		long time = (solved ? solvedTime : System.currentTimeMillis())
+				- modelStartTime;
+		return new TeamStatus(federationName, activeModel, errorNorm,
+				Math.max(0, time), solved);
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.TransportListener#provideAttributeValueUpdate(java.lang.String, java.util.Set)
+	 */
+	@Override
+	public void provideAttributeValueUpdate(String instanceName,
+			Set<String> attributeNames) {
+		// the monitor does not register any objects
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.TransportListener#receiveInteraction(java.lang.String, java.util.Map, byte[])
+	 */
+	@Override
+	public void receiveInteraction(String className,
+			Map<String, byte[]> parameters, byte[] tag) {
+		// the monitor does not subscribe to any interactions
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.TransportListener#reflectAttributeValues(java.lang.String, java.util.Map, byte[])
+	 */
+	@Override
+	public void reflectAttributeValues(String instanceName,
+			Map<String, byte[]> attributes, byte[] tag) {
+		try {
+			String requestName = null;
+			synchronized(this) {
+				if(instanceName.equals(managerName)) {
+					requestName = reflectManagerValues(attributes, tag);
+				} else if(designerOutputs && managerName != null) {
+					reflectDesignerOutputValues(instanceName, attributes, tag);
+				}
+			}
+
+			// request the output indices in full if their key is unknown
+			if(requestName != null) {
+				transport.requestAttributeValueUpdate(requestName,
+						outputIndicesAttributeName,
+						outputIndicesKeyAttributeName);
+			}
+		} catch (Exception ex) {
+			// in the case of an exception (from the various decode calls),
+			// record the error without blocking the callback thread
+			errorReporter.report("decoding an attribute update",
+					instanceName, ex);
+		}
+	}
+
+	/**
+	 * Stores the values of a designer output object. This method is only
+	 * called while synchronized.
+	 *
+	 * @param instanceName the designer output instance name
+	 * @param attributes the attributes
+	 * @param tag the user supplied tag
+	 * @throws DecoderException the decoder exception
+	 */
+	private void reflectDesignerOutputValues(String instanceName,
+			Map<String, byte[]> attributes, byte[] tag)
+			throws DecoderException {
+		// map the instance to its designer index if it is an output of the
+		// monitored manager
+		byte[] value = attributes.get(managerAttributeName);
+		if(value != null) {
+			stringDecoder.decode(value);
+			value = attributes.get(designerIndexAttributeName);
+			if(stringDecoder.getValue().equals(managerName)
+					&& value != null) {
+				indexDecoder.decode(value);
+				designerOutputInstances.put(instanceName,
+						indexDecoder.getValue());
+			}
+		}
+		Integer index = designerOutputInstances.get(instanceName);
+
+		// drop outputs older than the latest update from the manager
+		if(index == null || !outputFilter.accept(managerName, tag)) {
+			return;
+		}
+
+		// store the outputs and solved state
+		value = attributes.get(outputAttributeName);
+		if(value != null) {
+			designerOutputValues.put(index, value);
+			outputTime = System.currentTimeMillis();
+			modified = true;
+		}
+		value = attributes.get(solvedAttributeName);
+		if(value != null) {
+			designerSolvedValues.put(index, value);
+			modified = true;
+		}
+	}
+
+	/**
+	 * Stores the values of the manager. This method is only called while
+	 * synchronized.
+	 *
+	 * @param attributes the attributes
+	 * @param tag the user supplied tag
+	 * @return the manager instance name if the output indices must be
+	 * requested, otherwise null
+	 * @throws DecoderException the decoder exception
+	 */
+	private String reflectManagerValues(Map<String, byte[]> attributes,
+			byte[] tag) throws DecoderException {
+		// model attributes are always processed but stale outputs are
+		// dropped
+		boolean current = outputFilter.accept(managerName, tag);
+		long time = System.currentTimeMillis();
+
+		byte[] value = attributes.get(activeModelAttributeName);
+		if(value != null && !Arrays.equals(value, activeModelValue)) {
+			// active model has changed: restart the time on task and
+			// discard the designer outputs of the previous model
+			activeModelValue = value;
+			modelStartTime = time;
+			solved = false;
+			designerOutputValues.clear();
+			designerSolvedValues.clear();
+			modified = true;
+		}
+		value = attributes.get(targetOutputAttributeName);
+		if(value != null) {
+			targetOutputValue = value;
+			modified = true;
+		}
+		value = attributes.get(outputAttributeName);
+		if(value != null && current) {
+			outputValue = value;
+			outputTime = time;
+			modified = true;
+		}
+
+		// resolve the output indices, which may be sent by key
+		String requestName = null;
+		value = attributes.get(outputIndicesAttributeName);
+		byte[] key = attributes.get(outputIndicesKeyAttributeName);
+		if(key != null) {
+			keyDecoder.decode(key);
+			if(value != null) {
+				// value sent in full; store in the dictionary
+				dictionary.put(keyDecoder.getValue(), value);
+			} else {
+				value = dictionary.get(keyDecoder.getValue());
+				if(value == null) {
+					requestName = managerName;
+				}
+			}
+		}
+		if(value != null) {
+			outputIndicesValue = value;
+			modified = true;
+		}
+		return requestName;
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.TransportListener#removeObjectInstance(java.lang.String)
+	 */
+	@Override
+	public synchronized void removeObjectInstance(String instanceName) {
+		if(instanceName.equals(managerName)) {
+			// forget the manager and its values
+			managerName = null;
+			activeModelValue = null;
+			targetOutputValue = null;
+			outputValue = null;
+			outputIndicesValue = null;
+			designerOutputInstances.clear();
+			designerOutputValues.clear();
+			designerSolvedValues.clear();
+			outputFilter.remove(instanceName);
+			modified = true;
+		} else {
+			Integer index = designerOutputInstances.remove(instanceName);
+			if(index != null) {
+				designerOutputValues.remove(index);
+				designerSolvedValues.remove(index);
+				modified = true;
+			}
+		}
+	}
+
+	/**
+	 * Shuts down the monitor. Resigns from the federation execution and
+	 * disconnects from the transport.
+	 *
+	 * @throws TransportException the transport exception
+	 */
+	public void shutDown() throws TransportException {
+		transport.disconnect();
+	}
+
+	/**
+	 * Starts up the monitor. Connects to the transport, joins the federation
+	 * execution and subscribes to the manager attributes.
+	 *
+	 * @throws TransportException the transport exception
+	 */
+	public void startUp() throws TransportException {
+		// connect to the transport and join the federation execution
+		transport.connect(null, federateType, this);
+
+		// use the transport service to subscribe to the manager attributes
+		// needed for the status
+		if(designerOutputs) {
+			transport.subscribeObjectClassAttributes(managerClassName,
+					designerOutputManagerAttributeNames);
+			transport.subscribeObjectClassAttributes(designerOutputClassName,
+					designerOutputAttributeNames);
+		} else {
+			transport.subscribeObjectClassAttributes(managerClassName,
+					managerAttributeNames);
+		}
+	}
+}
@@ -0,0 +1,283 @@
+package edu.mit.collab.monitor;
+
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+
+import javax.swing.BorderFactory;
+import javax.swing.ImageIcon;
+import javax.swing.JFrame;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
+import javax.swing.table.AbstractTableModel;
+
+import edu.mit.collab.transport.TransportException;
+
+/**
+ * This is the graphical user interface to the monitor application. It
+ * supervises several teams, each playing in its own federation, and shows
+ * a compact status per team: the active model, the error norm of the
+ * outputs, the time on task, and whether the task is solved.
+ *
+ * The monitor is read-only. The status of all teams is refreshed together
+ * at a low, fixed rate rather than upon each update from a manager.
+ *
+ * Configuration properties of a team can be overridden by properties
+ * prefixed with its federation name, e.g. <code>room2.nioPort</code>.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ */
+public class MonitorFrame extends JFrame {
+	private static final long serialVersionUID = 2417853140290148718L;
+
+	// configuration option to set the interval (milliseconds) between
+	// refreshes of the team status
+	private static final int refreshInterval = 1000;
+
+	private static final String[] columnNames = new String[] {
+		"Team", "Task", "Error", "Time", "Solved"};
+
+	private final List<MonitorAmbassador> monitorAmbassadors =
+			new ArrayList<MonitorAmbassador>(); // immutable
+	private final List<String> connectionStates =
+			new ArrayList<String>(); // mutable
+	private final boolean[] connected; // mutable
+	private final List<TeamStatus> teamStatus =
+			new ArrayList<TeamStatus>(); // mutable
+	private final AbstractTableModel tableModel; // mutable
+	private final Timer refreshTimer; // mutable
+
+	/**
+	 * Instantiates a new monitor frame.
+	 *
+	 * @param properties the configuration properties
+	 * @param federationNames the federation names of the teams
+	 * @throws TransportException the transport exception
+	 */
+	public MonitorFrame(Properties properties, String... federationNames)
+			throws TransportException {
+		// set title and icon image
+		super("Monitor");
+		setIconImage(new ImageIcon(getClass().getClassLoader()
+				.getResource("resources/group.png")).getImage());
+
+		// create a monitor ambassador for each team; the ambassadors are
+		// started up by the startUp method
+		connected = new boolean[federationNames.length];
+		for(String federationName : federationNames) {
+			monitorAmbassadors.add(new MonitorAmbassador(
+					createTeamProperties(properties, federationName)));
+			connectionStates.add("Connecting...");
+			teamStatus.add(new TeamStatus(federationName, null,
+					Double.NaN, 0, false));
+		}
+
+		// add a window listener to gracefully exit application
+		setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE);
+		addWindowListener(new WindowAdapter() {
+			@Override
+			public void windowClosing(WindowEvent e) {
+				exit();
+			}
+		});
+
+		// create table model to show one row per team
+		tableModel = new AbstractTableModel() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public Class<?> getColumnClass(int column) {
+				return column == 4 ? Boolean.class : String.class;
+			}
+
+			@Override
+			public int getColumnCount() {
+				return columnNames.length;
+			}
+
+			@Override
+			public String getColumnName(int column) {
+				return columnNames[column];
+			}
+
+			@Override
+			public int getRowCount() {
+				return teamStatus.size();
+			}
+
+			@Override
+			public Object getValueAt(int row, int column) {
+				TeamStatus status = teamStatus.get(row);
+				switch(column) {
+				case 0:
+					return status.getFederationName();
+				case 1:
+					return status.getActiveModel() == null ?
+							"(" + connectionStates.get(row) + ")"
+							: status.getActiveModel();
+				case 2:
+					return Double.isNaN(status.getErrorNorm()) ? "" :
+						String.format("%.3f", status.getErrorNorm());
+				case 3:
+					return status.getActiveModel() == null ? "" :
+						String.format("%d:%02d",
+								status.getTimeOnTask()/60000,
+								status.getTimeOnTask()/1000 % 60);
+				default:
+					return status.isSolved();
+				}
+			}
+		};
+		JTable table = new JTable(tableModel);
+		table.setFillsViewportHeight(true);
+		table.setPreferredScrollableViewportSize(new Dimension(500,
+				Math.max(5, Math.min(20, teamStatus.size()))
+				* table.getRowHeight()));
+
+		// create timer to refresh the team status
+		refreshTimer = new Timer(refreshInterval, new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				refreshStatus();
+			}
+		});
+
+		// create monitor panel with the table
+		JPanel monitorPanel = new JPanel();
+		monitorPanel.setBorder(BorderFactory.createEmptyBorder(5,5,5,5));
+		monitorPanel.setLayout(new BorderLayout());
+		monitorPanel.add(new JScrollPane(table), BorderLayout.CENTER);
+
+		// set content pane of this frame to be the monitor panel
+		setContentPane(monitorPanel);
+	}
+
+	/**
+	 * Creates the configuration properties of a team. Properties prefixed
+	 * with the federation name override the shared properties.
+	 *
+	 * @param properties the shared configuration properties
+	 * @param federationName the federation name of the team
+	 * @return the configuration properties of the team
+	 */
+	private static Properties createTeamProperties(Properties properties,
+			String federationName) {
+		Properties teamProperties = new Properties();
+		teamProperties.putAll(properties);
+		teamProperties.setProperty("federationName", federationName);
+		String prefix = federationName + ".";
+		for(Map.Entry<Object, Object> entry : properties.entrySet()) {
+			String key = entry.getKey().toString();
+			if(key.startsWith(prefix) && key.length() > prefix.length()) {
+				teamProperties.put(key.substring(prefix.length()),
+						entry.getValue());
+			}
+		}
+		return teamProperties;
+	}
+
+	/**
+	 * Exits the application gracefully.
+	 */
+	private void exit() {
+		// dispose of the frame and stop refreshing
+		refreshTimer.stop();
+		dispose();
+
+		// try to shut down the monitor ambassadors
+		int status = 0;
+		for(int i = 0; i < monitorAmbassadors.size(); i++) {
+			if(connected[i]) {
+				try {
+					monitorAmbassadors.get(i).shutDown();
+				} catch (Exception e) {
+					e.printStackTrace();
+					status = 1;
+				}
+			}
+		}
+
+		// exit the application
+		System.exit(status);
+	}
+
+	/**
+	 * Checks whether the displayed status of a team has changed.
+	 *
+	 * @param previous the previous status
+	 * @param status the status
+	 * @return true, if the status has changed
+	 */
+	private static boolean hasChanged(TeamStatus previous, TeamStatus status) {
+		return (previous.getActiveModel() == null ?
+				status.getActiveModel() != null :
+				!previous.getActiveModel().equals(status.getActiveModel()))
+				|| Double.compare(previous.getErrorNorm(),
+						status.getErrorNorm()) != 0
+				|| previous.getTimeOnTask()/1000 != status.getTimeOnTask()/1000
+				|| previous.isSolved() != status.isSolved();
+	}
+
+	/**
+	 * Refreshes the status of all teams and updates the rows which changed.
+	 */
+	private void refreshStatus() {
+		for(int i = 0; i < monitorAmbassadors.size(); i++) {
+			TeamStatus status = monitorAmbassadors.get(i).getStatus();
+			if(hasChanged(teamStatus.get(i), status)) {
+				teamStatus.set(i, status);
+				tableModel.fireTableRowsUpdated(i, i);
+			}
+		}
+	}
+
+	/**
+	 * Starts up the monitor ambassadors on background threads so the window
+	 * remains responsive while connecting, and starts refreshing the team
+	 * status.
+	 */
+	public void startUp() {
+		for(int i = 0; i < monitorAmbassadors.size(); i++) {
+			final int index = i;
+			new SwingWorker<Long, Void>() {
+				@Override
+				protected Long doInBackground() throws Exception {
+					long time = System.nanoTime();
+					monitorAmbassadors.get(index).startUp();
+					return (System.nanoTime() - time) / 1000000;
+				}
+
+				@Override
+				protected void done() {
+					try {
+						long startUpTime = get();
+						System.out.println("Monitor Log: "
+								+ monitorAmbassadors.get(index)
+								.getFederationName()
+								+ " started up in " + startUpTime + " ms");
+						connected[index] = true;
+						connectionStates.set(index, "No Manager");
+					} catch (ExecutionException e) {
+						e.getCause().printStackTrace();
+						connectionStates.set(index, "Not Connected");
+					} catch (InterruptedException ignored) {
+						return;
+					}
+					tableModel.fireTableRowsUpdated(index, index);
+				}
+			}.execute();
+		}
+		refreshTimer.start();
+	}
+}
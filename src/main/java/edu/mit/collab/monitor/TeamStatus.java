@@ -0,0 +1,84 @@
+package edu.mit.collab.monitor;
+
+/**
+ * The TeamStatus class is an immutable summary of the state of one team,
+ * i.e. the manager of one federation, as observed by a monitor.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ */
+public class TeamStatus {
+	private final String federationName; // immutable
+	private final String activeModel; // immutable
+	private final double errorNorm; // immutable
+	private final long timeOnTask; // immutable
+	private final boolean solved; // immutable
+
+	/**
+	 * Instantiates a new team status.
+	 *
+	 * @param federationName the federation name
+	 * @param activeModel the active model name, or null if no manager has
+	 * been discovered
+	 * @param errorNorm the distance between the outputs and the target
+	 * outputs, or NaN if unknown
+	 * @param timeOnTask the time (milliseconds) since the active model was
+	 * activated until it was solved
+	 * @param solved true, if the active model is solved
+	 */
+	public TeamStatus(String federationName, String activeModel,
+			double errorNorm, long timeOnTask, boolean solved) {
+		this.federationName = federationName;
+		this.activeModel = activeModel;
+		this.errorNorm = errorNorm;
+		this.timeOnTask = timeOnTask;
+		this.solved = solved;
+	}
+
+	/**
+	 * Gets the active model name.
+	 *
+	 * @return the active model name, or null if no manager has been
+	 * discovered
+	 */
+	public String getActiveModel() {
+		return activeModel;
+	}
+
+	/**
+	 * Gets the error norm, i.e. the distance between the outputs and the
+	 * target outputs.
+	 *
+	 * @return the error norm, or NaN if unknown
+	 */
+	public double getErrorNorm() {
+		return errorNorm;
+	}
+
+	/**
+	 * Gets the federation name.
+	 *
+	 * @return the federation name
+	 */
+	public String getFederationName() {
+		return federationName;
+	}
+
+	/**
+	 * Gets the time on task.
+	 *
+	 * @return the time (milliseconds) since the active model was activated
+	 * until it was solved
+	 */
+	public long getTimeOnTask() {
+		return timeOnTask;
+	}
+
+	/**
+	 * Checks if the active model is solved.
+	 *
+	 * @return true, if is solved
+	 */
+	public boolean isSolved() {
+		return solved;
+	}
+}
@@ -0,0 +1,735 @@
+package edu.mit.collab.transport;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import hla.rti1516e.encoding.EncoderFactory;
+
+/**
+ * A federate host multiplexes many seats, e.g. the designers of a
+ * multi-seat kiosk, onto a single federate joined with one transport.
+ * Seats share the transport's connection, its encoder factory and the
+ * configuration properties, and each seat is used as a <code>Transport</code>
+ * by its own ambassador.
+ *
+ * The host joins the federation when the first seat connects and resigns
+ * once the last seat disconnects. Publications and subscriptions are the
+ * union of those of the connected seats. Callbacks are demultiplexed by
+ * object instance: discoveries, reflections and removals are delivered to
+ * the seats subscribed to the instance's class, attribute value requests to
+ * the seat which registered the instance, and interactions to the seats
+ * subscribed to the interaction class. Instances discovered before a seat
+ * subscribes are discovered to the seat upon subscription. Since all seats
+ * form a single federate, seats do not discover each other's instances nor
+ * receive each other's interactions.
+ *
+ * @see Transport
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ */
+public class FederateHost implements TransportListener {
+	private final Properties properties; // immutable
+	private final Transport transport; // immutable
+
+	// serializes joining and resigning without blocking callbacks
+	private final Object connectionLock = new Object(); // immutable
+
+	// state of the shared federate; only accessed while synchronized
+	private final List<Seat> seats = new ArrayList<Seat>(); // mutable
+	private final Map<String, Set<String>> publishedAttributes =
+			new HashMap<String, Set<String>>(); // mutable
+	private final Set<String> publishedInteractions =
+			new HashSet<String>(); // mutable
+	private final Map<String, Set<String>> subscribedAttributes =
+			new HashMap<String, Set<String>>(); // mutable
+	private final Map<String, Region> subscribedRegions =
+			new HashMap<String, Region>(); // mutable
+	private final Set<String> subscribedInteractions =
+			new HashSet<String>(); // mutable
+
+	// object instances discovered by the shared federate (keyed by name
+	// with their class names) and instances registered by each seat
+	private final Map<String, String> discoveredInstances =
+			new LinkedHashMap<String, String>(); // mutable
+	private final Map<String, Seat> instanceOwners =
+			new HashMap<String, Seat>(); // mutable
+
+	/**
+	 * Instantiates a new federate host using the transport selected in the
+	 * configuration properties.
+	 *
+	 * @param properties the configuration properties
+	 * @throws TransportException the transport exception
+	 */
+	public FederateHost(Properties properties) throws TransportException {
+		this(properties, TransportFactory.createTransport(properties));
+	}
+
+	/**
+	 * Instantiates a new federate host using a transport.
+	 *
+	 * @param properties the configuration properties
+	 * @param transport the transport
+	 */
+	public FederateHost(Properties properties, Transport transport) {
+		this.properties = properties;
+		this.transport = transport;
+	}
+
+	/**
+	 * Connects a seat, joining the federation if it is the first seat.
+	 *
+	 * @param seat the seat
+	 * @param federateType the federate type
+	 * @throws TransportException the transport exception
+	 */
+	private void connect(Seat seat, String federateType)
+			throws TransportException {
+		synchronized(connectionLock) {
+			if(getSeats().isEmpty()) {
+				// the host federate name is issued by the transport
+				transport.connect(null, federateType, this);
+			}
+			synchronized(this) {
+				seats.add(seat);
+			}
+		}
+	}
+
+	/**
+	 * Creates a new seat. Each seat is used as the transport of one
+	 * ambassador.
+	 *
+	 * @return the seat
+	 */
+	public Transport createSeat() {
+		return new Seat();
+	}
+
+	/**
+	 * Disconnects a seat, deleting its object instances, and resigns from
+	 * the federation if it is the last seat.
+	 *
+	 * @param seat the seat
+	 * @throws TransportException the transport exception
+	 */
+	private void disconnect(Seat seat) throws TransportException {
+		synchronized(connectionLock) {
+			synchronized(this) {
+				if(!seats.remove(seat)) {
+					return;
+				}
+				Set<String> classNames = new HashSet<String>(
+						seat.subscribedAttributes.keySet());
+				seat.subscribedAttributes.clear();
+				seat.subscribedRegions.clear();
+				if(!seats.isEmpty()) {
+					// delete the instances registered by the seat
+					List<String> ownedInstances = new ArrayList<String>();
+					for(Map.Entry<String, Seat> entry
+							: instanceOwners.entrySet()) {
+						if(entry.getValue() == seat) {
+							ownedInstances.add(entry.getKey());
+						}
+					}
+					for(String instanceName : ownedInstances) {
+						instanceOwners.remove(instanceName);
+						transport.deleteObjectInstance(instanceName);
+					}
+
+					// reduce the subscriptions to those of the remaining seats
+					for(String className : classNames) {
+						updateSubscription(className);
+					}
+					return;
+				}
+
+				// clear the state of the shared federate
+				publishedAttributes.clear();
+				publishedInteractions.clear();
+				subscribedAttributes.clear();
+				subscribedRegions.clear();
+				subscribedInteractions.clear();
+				discoveredInstances.clear();
+				instanceOwners.clear();
+			}
+
+			// resigning deletes all remaining object instances; the
+			// transport is disconnected without holding the host's lock so
+			// pending callbacks can complete
+			transport.disconnect();
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.TransportListener#discoverObjectInstance(java.lang.String, java.lang.String)
+	 */
+	@Override
+	public void discoverObjectInstance(String instanceName, String className) {
+		synchronized(this) {
+			discoveredInstances.put(instanceName, className);
+		}
+		for(Seat seat : getSeats()) {
+			seat.discover(instanceName, className);
+		}
+	}
+
+	/**
+	 * Gets the configuration properties shared by all seats.
+	 *
+	 * @return the properties
+	 */
+	public Properties getProperties() {
+		return properties;
+	}
+
+	/**
+	 * Gets a copy of the connected seats to deliver callbacks without
+	 * holding the host's lock.
+	 *
+	 * @return the seats
+	 */
+	private synchronized List<Seat> getSeats() {
+		return new ArrayList<Seat>(seats);
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.TransportListener#provideAttributeValueUpdate(java.lang.String, java.util.Set)
+	 */
+	@Override
+	public void provideAttributeValueUpdate(String instanceName,
+			Set<String> attributeNames) {
+		Seat owner;
+		synchronized(this) {
+			owner = instanceOwners.get(instanceName);
+		}
+		if(owner != null) {
+			owner.provide(instanceName, attributeNames);
+		}
+	}
+
+	/**
+	 * Publishes object class attributes of a seat, extending the host's
+	 * publication if required.
+	 *
+	 * @param className the object class name
+	 * @param attributeNames the attribute names
+	 * @throws TransportException the transport exception
+	 */
+	private synchronized void publishObjectClassAttributes(String className,
+			String[] attributeNames) throws TransportException {
+		Set<String> published = publishedAttributes.get(className);
+		if(published == null) {
+			published = new HashSet<String>();
+		}
+		if(published.containsAll(Arrays.asList(attributeNames))) {
+			return;
+		}
+		Set<String> union = new HashSet<String>(published);
+		union.addAll(Arrays.asList(attributeNames));
+		transport.publishObjectClassAttributes(className,
+				union.toArray(new String[union.size()]));
+		publishedAttributes.put(className, union);
+	}
+
+	/**
+	 * Publishes an interaction class of a seat unless already published.
+	 *
+	 * @param className the interaction class name
+	 * @throws TransportException the transport exception
+	 */
+	private synchronized void publishInteractionClass(String className)
+			throws TransportException {
+		if(!publishedInteractions.contains(className)) {
+			transport.publishInteractionClass(className);
+			publishedInteractions.add(className);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.TransportListener#receiveInteraction(java.lang.String, java.util.Map, byte[])
+	 */
+	@Override
+	public void receiveInteraction(String className,
+			Map<String, byte[]> parameters, byte[] tag) {
+		for(Seat seat : getSeats()) {
+			seat.receive(className, parameters, tag);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.TransportListener#reflectAttributeValues(java.lang.String, java.util.Map, byte[])
+	 */
+	@Override
+	public void reflectAttributeValues(String instanceName,
+			Map<String, byte[]> attributes, byte[] tag) {
+		for(Seat seat : getSeats()) {
+			seat.reflect(instanceName, attributes, tag);
+		}
+	}
+
+	/**
+	 * Registers a new object instance owned by a seat.
+	 *
+	 * @param seat the seat
+	 * @param className the object class name
+	 * @param region the region (may be null)
+	 * @return the object instance name
+	 * @throws TransportException the transport exception
+	 */
+	private synchronized String registerObjectInstance(Seat seat,
+			String className, Region region) throws TransportException {
+		String instanceName;
+		if(region == null) {
+			instanceName = transport.registerObjectInstance(className);
+		} else {
+			Set<String> published = publishedAttributes.get(className);
+			instanceName = transport.registerObjectInstance(className,
+					published == null ? new String[0]
+							: published.toArray(new String[published.size()]),
+					region.dimensionName, region.lowerBound,
+					region.upperBound);
+		}
+		instanceOwners.put(instanceName, seat);
+		return instanceName;
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.TransportListener#removeObjectInstance(java.lang.String)
+	 */
+	@Override
+	public void removeObjectInstance(String instanceName) {
+		synchronized(this) {
+			discoveredInstances.remove(instanceName);
+		}
+		for(Seat seat : getSeats()) {
+			seat.remove(instanceName);
+		}
+	}
+
+	/**
+	 * Subscribes to an interaction class of a seat unless already
+	 * subscribed.
+	 *
+	 * @param className the interaction class name
+	 * @throws TransportException the transport exception
+	 */
+	private synchronized void subscribeInteractionClass(String className)
+			throws TransportException {
+		if(!subscribedInteractions.contains(className)) {
+			transport.subscribeInteractionClass(className);
+			subscribedInteractions.add(className);
+		}
+	}
+
+	/**
+	 * Updates the host's subscription to an object class to span the
+	 * attributes and regions subscribed by all seats. The host subscribes
+	 * without a region if any seat does, or if seats subscribe regions of
+	 * different dimensions; otherwise, the region spans all seat regions.
+	 *
+	 * @param className the object class name
+	 * @return the object instances of the class discovered so far, keyed by
+	 * name with their class names
+	 * @throws TransportException the transport exception
+	 */
+	private synchronized Map<String, String> updateSubscription(
+			String className) throws TransportException {
+		Set<String> union = new HashSet<String>();
+		Region region = null;
+		boolean allRegions = true;
+		for(Seat seat : seats) {
+			Set<String> attributeNames = seat.subscribedAttributes.get(
+					className);
+			if(attributeNames == null) {
+				continue;
+			}
+			union.addAll(attributeNames);
+			Region seatRegion = seat.subscribedRegions.get(className);
+			if(seatRegion == null || (region != null
+					&& !region.dimensionName.equals(seatRegion.dimensionName))) {
+				allRegions = false;
+			} else if(region == null) {
+				region = seatRegion;
+			} else {
+				region = new Region(region.dimensionName,
+						Math.min(region.lowerBound, seatRegion.lowerBound),
+						Math.max(region.upperBound, seatRegion.upperBound));
+			}
+		}
+		if(!allRegions) {
+			region = null;
+		}
+
+		// subscribe if the attributes or region have changed
+		Set<String> subscribed = subscribedAttributes.get(className);
+		Region subscribedRegion = subscribedRegions.get(className);
+		if(!union.isEmpty() && (!union.equals(subscribed)
+				|| !equals(region, subscribedRegion))) {
+			String[] attributeNames = union.toArray(new String[union.size()]);
+			if(region == null) {
+				transport.subscribeObjectClassAttributes(className,
+						attributeNames);
+			} else {
+				transport.subscribeObjectClassAttributes(className,
+						attributeNames, region.dimensionName,
+						region.lowerBound, region.upperBound);
+			}
+			subscribedAttributes.put(className, union);
+			if(region == null) {
+				subscribedRegions.remove(className);
+			} else {
+				subscribedRegions.put(className, region);
+			}
+		}
+
+		// collect the instances already discovered by the host
+		Map<String, String> instances = new LinkedHashMap<String, String>();
+		for(Map.Entry<String, String> entry
+				: discoveredInstances.entrySet()) {
+			if(entry.getValue().equals(className)) {
+				instances.put(entry.getKey(), entry.getValue());
+			}
+		}
+		return instances;
+	}
+
+	/**
+	 * Checks whether two regions (which may be null) are equal.
+	 *
+	 * @param a the first region
+	 * @param b the second region
+	 * @return true, if the regions are equal
+	 */
+	private static boolean equals(Region a, Region b) {
+		if(a == null || b == null) {
+			return a == b;
+		}
+		return a.dimensionName.equals(b.dimensionName)
+				&& a.lowerBound == b.lowerBound
+				&& a.upperBound == b.upperBound;
+	}
+
+	/**
+	 * A seat of the host, used as the transport of one ambassador. Callbacks
+	 * are delivered to the seat's listener while synchronized on the seat so
+	 * discoveries upon subscription are serialized with those delivered by
+	 * the transport.
+	 */
+	private class Seat implements Transport {
+		private transient TransportListener listener; // set upon connection
+
+		// subscriptions and discovered instances of this seat; subscribed
+		// attributes and regions are only accessed while synchronized on
+		// the host, others while synchronized on the seat
+		private final Map<String, Set<String>> subscribedAttributes =
+				new HashMap<String, Set<String>>(); // mutable
+		private final Map<String, Region> subscribedRegions =
+				new HashMap<String, Region>(); // mutable
+		private final Set<String> subscribedClasses =
+				new HashSet<String>(); // mutable
+		private final Set<String> subscribedInteractions =
+				new HashSet<String>(); // mutable
+		private final Set<String> discoveredInstances =
+				new HashSet<String>(); // mutable
+
+		/**
+		 * Checks this seat is connected.
+		 *
+		 * @throws TransportException the transport exception
+		 */
+		private void checkConnected() throws TransportException {
+			if(listener == null) {
+				throw new TransportException("Seat not connected.");
+			}
+		}
+
+		/* (non-Javadoc)
+		 * @see edu.mit.collab.transport.Transport#connect(java.lang.String, java.lang.String, edu.mit.collab.transport.TransportListener)
+		 */
+		@Override
+		public void connect(String federateName, String federateType,
+				TransportListener listener) throws TransportException {
+			synchronized(this) {
+				if(this.listener != null) {
+					// already connected
+					return;
+				}
+				this.listener = listener;
+			}
+			try {
+				FederateHost.this.connect(this, federateType);
+			} catch (TransportException ex) {
+				synchronized(this) {
+					this.listener = null;
+				}
+				throw ex;
+			}
+		}
+
+		/* (non-Javadoc)
+		 * @see edu.mit.collab.transport.Transport#deleteObjectInstance(java.lang.String)
+		 */
+		@Override
+		public void deleteObjectInstance(String instanceName)
+				throws TransportException {
+			checkConnected();
+			synchronized(FederateHost.this) {
+				if(instanceOwners.get(instanceName) != this) {
+					throw new TransportException("Object instance "
+							+ instanceName + " not owned.");
+				}
+				instanceOwners.remove(instanceName);
+				transport.deleteObjectInstance(instanceName);
+			}
+		}
+
+		/**
+		 * Discovers an object instance to this seat if subscribed to the
+		 * instance's class and not yet discovered.
+		 *
+		 * @param instanceName the object instance name
+		 * @param className the object class name
+		 */
+		private synchronized void discover(String instanceName,
+				String className) {
+			if(listener != null && subscribedClasses.contains(className)
+					&& discoveredInstances.add(instanceName)) {
+				listener.discoverObjectInstance(instanceName, className);
+			}
+		}
+
+		/* (non-Javadoc)
+		 * @see edu.mit.collab.transport.Transport#disconnect()
+		 */
+		@Override
+		public void disconnect() throws TransportException {
+			checkConnected();
+			FederateHost.this.disconnect(this);
+			synchronized(this) {
+				listener = null;
+				subscribedClasses.clear();
+				subscribedInteractions.clear();
+				discoveredInstances.clear();
+			}
+		}
+
+		/* (non-Javadoc)
+		 * @see edu.mit.collab.transport.Transport#getEncoderFactory()
+		 */
+		@Override
+		public EncoderFactory getEncoderFactory() {
+			return transport.getEncoderFactory();
+		}
+
+		/**
+		 * Asks this seat to provide attribute values of an instance it
+		 * registered.
+		 *
+		 * @param instanceName the object instance name
+		 * @param attributeNames the attribute names
+		 */
+		private synchronized void provide(String instanceName,
+				Set<String> attributeNames) {
+			if(listener != null) {
+				listener.provideAttributeValueUpdate(instanceName,
+						attributeNames);
+			}
+		}
+
+		/* (non-Javadoc)
+		 * @see edu.mit.collab.transport.Transport#publishInteractionClass(java.lang.String)
+		 */
+		@Override
+		public void publishInteractionClass(String className)
+				throws TransportException {
+			checkConnected();
+			FederateHost.this.publishInteractionClass(className);
+		}
+
+		/* (non-Javadoc)
+		 * @see edu.mit.collab.transport.Transport#publishObjectClassAttributes(java.lang.String, java.lang.String[])
+		 */
+		@Override
+		public void publishObjectClassAttributes(String className,
+				String... attributeNames) throws TransportException {
+			checkConnected();
+			FederateHost.this.publishObjectClassAttributes(className,
+					attributeNames);
+		}
+
+		/**
+		 * Delivers a received interaction to this seat if subscribed.
+		 *
+		 * @param className the interaction class name
+		 * @param parameters the parameters
+		 * @param tag the user-supplied tag
+		 */
+		private synchronized void receive(String className,
+				Map<String, byte[]> parameters, byte[] tag) {
+			if(listener != null && subscribedInteractions.contains(className)) {
+				listener.receiveInteraction(className, parameters, tag);
+			}
+		}
+
+		/**
+		 * Delivers reflected attribute values to this seat if it has
+		 * discovered the instance.
+		 *
+		 * @param instanceName the object instance name
+		 * @param attributes the attributes
+		 * @param tag the user-supplied tag
+		 */
+		private synchronized void reflect(String instanceName,
+				Map<String, byte[]> attributes, byte[] tag) {
+			if(listener != null && discoveredInstances.contains(instanceName)) {
+				listener.reflectAttributeValues(instanceName, attributes, tag);
+			}
+		}
+
+		/* (non-Javadoc)
+		 * @see edu.mit.collab.transport.Transport#registerObjectInstance(java.lang.String)
+		 */
+		@Override
+		public String registerObjectInstance(String className)
+				throws TransportException {
+			checkConnected();
+			return FederateHost.this.registerObjectInstance(this,
+					className, null);
+		}
+
+		/* (non-Javadoc)
+		 * @see edu.mit.collab.transport.Transport#registerObjectInstance(java.lang.String, java.lang.String[], java.lang.String, long, long)
+		 */
+		@Override
+		public String registerObjectInstance(String className,
+				String[] attributeNames, String dimensionName,
+				long lowerBound, long upperBound) throws TransportException {
+			checkConnected();
+			return FederateHost.this.registerObjectInstance(this, className,
+					new Region(dimensionName, lowerBound, upperBound));
+		}
+
+		/**
+		 * Removes an object instance from this seat if discovered.
+		 *
+		 * @param instanceName the object instance name
+		 */
+		private synchronized void remove(String instanceName) {
+			if(listener != null && discoveredInstances.remove(instanceName)) {
+				listener.removeObjectInstance(instanceName);
+			}
+		}
+
+		/* (non-Javadoc)
+		 * @see edu.mit.collab.transport.Transport#requestAttributeValueUpdate(java.lang.String, java.lang.String[])
+		 */
+		@Override
+		public void requestAttributeValueUpdate(String instanceName,
+				String... attributeNames) throws TransportException {
+			checkConnected();
+			transport.requestAttributeValueUpdate(instanceName,
+					attributeNames);
+		}
+
+		/* (non-Javadoc)
+		 * @see edu.mit.collab.transport.Transport#sendInteraction(java.lang.String, java.util.Map, byte[])
+		 */
+		@Override
+		public void sendInteraction(String className,
+				Map<String, byte[]> parameters, byte[] tag)
+				throws TransportException {
+			checkConnected();
+			transport.sendInteraction(className, parameters, tag);
+		}
+
+		/* (non-Javadoc)
+		 * @see edu.mit.collab.transport.Transport#subscribeInteractionClass(java.lang.String)
+		 */
+		@Override
+		public void subscribeInteractionClass(String className)
+				throws TransportException {
+			checkConnected();
+			FederateHost.this.subscribeInteractionClass(className);
+			synchronized(this) {
+				subscribedInteractions.add(className);
+			}
+		}
+
+		/* (non-Javadoc)
+		 * @see edu.mit.collab.transport.Transport#subscribeObjectClassAttributes(java.lang.String, java.lang.String[])
+		 */
+		@Override
+		public void subscribeObjectClassAttributes(String className,
+				String... attributeNames) throws TransportException {
+			subscribeObjectClassAttributes(className, attributeNames, null);
+		}
+
+		/**
+		 * Subscribes to object class attributes and discovers the instances
+		 * of the class already discovered by the host.
+		 *
+		 * @param className the object class name
+		 * @param attributeNames the attribute names
+		 * @param region the region (may be null)
+		 * @throws TransportException the transport exception
+		 */
+		private void subscribeObjectClassAttributes(String className,
+				String[] attributeNames, Region region)
+				throws TransportException {
+			checkConnected();
+			Map<String, String> instances;
+			synchronized(FederateHost.this) {
+				subscribedAttributes.put(className,
+						new HashSet<String>(Arrays.asList(attributeNames)));
+				if(region == null) {
+					subscribedRegions.remove(className);
+				} else {
+					subscribedRegions.put(className, region);
+				}
+				instances = updateSubscription(className);
+			}
+			synchronized(this) {
+				subscribedClasses.add(className);
+			}
+			for(Map.Entry<String, String> entry : instances.entrySet()) {
+				discover(entry.getKey(), entry.getValue());
+			}
+		}
+
+		/* (non-Javadoc)
+		 * @see edu.mit.collab.transport.Transport#subscribeObjectClassAttributes(java.lang.String, java.lang.String[], java.lang.String, long, long)
+		 */
+		@Override
+		public void subscribeObjectClassAttributes(String className,
+				String[] attributeNames, String dimensionName,
+				long lowerBound, long upperBound) throws TransportException {
+			subscribeObjectClassAttributes(className, attributeNames,
+					new Region(dimensionName, lowerBound, upperBound));
+		}
+
+		/* (non-Javadoc)
+		 * @see edu.mit.collab.transport.Transport#updateAttributeValues(java.lang.String, java.util.Map, byte[])
+		 */
+		@Override
+		public void updateAttributeValues(String instanceName,
+				Map<String, byte[]> attributes, byte[] tag)
+				throws TransportException {
+			checkConnected();
+			synchronized(FederateHost.this) {
+				if(instanceOwners.get(instanceName) != this) {
+					throw new TransportException("Object instance "
+							+ instanceName + " not owned.");
+				}
+			}
+			transport.updateAttributeValues(instanceName, attributes, tag);
+		}
+	}
+}
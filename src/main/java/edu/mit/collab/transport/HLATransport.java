@@ -0,0 +1,948 @@
+package edu.mit.collab.transport;
+
+import java.net.URL;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import edu.mit.collab.util.ErrorReporter;
+import hla.rti1516e.AttributeHandle;
+import hla.rti1516e.AttributeHandleSet;
+import hla.rti1516e.AttributeHandleValueMap;
+import hla.rti1516e.AttributeRegionAssociation;
+import hla.rti1516e.AttributeSetRegionSetPairList;
+import hla.rti1516e.CallbackModel;
+import hla.rti1516e.DimensionHandle;
+import hla.rti1516e.DimensionHandleSet;
+import hla.rti1516e.FederateHandle;
+import hla.rti1516e.InteractionClassHandle;
+import hla.rti1516e.LogicalTime;
+import hla.rti1516e.MessageRetractionHandle;
+import hla.rti1516e.NullFederateAmbassador;
+import hla.rti1516e.ObjectClassHandle;
+import hla.rti1516e.ObjectInstanceHandle;
+import hla.rti1516e.OrderType;
+import hla.rti1516e.ParameterHandle;
+import hla.rti1516e.ParameterHandleValueMap;
+import hla.rti1516e.RTIambassador;
+import hla.rti1516e.RangeBounds;
+import hla.rti1516e.RegionHandle;
+import hla.rti1516e.RegionHandleSet;
+import hla.rti1516e.ResignAction;
+import hla.rti1516e.RtiFactory;
+import hla.rti1516e.RtiFactoryFactory;
+import hla.rti1516e.TransportationTypeHandle;
+import hla.rti1516e.encoding.EncoderFactory;
+import hla.rti1516e.exceptions.AlreadyConnected;
+import hla.rti1516e.exceptions.FederateAlreadyExecutionMember;
+import hla.rti1516e.exceptions.FederateNotExecutionMember;
+import hla.rti1516e.exceptions.FederatesCurrentlyJoined;
+import hla.rti1516e.exceptions.FederationExecutionAlreadyExists;
+import hla.rti1516e.exceptions.FederationExecutionDoesNotExist;
+import hla.rti1516e.exceptions.InvalidDimensionHandle;
+import hla.rti1516e.exceptions.InvalidRegion;
+import hla.rti1516e.exceptions.InvalidRegionContext;
+import hla.rti1516e.exceptions.NameNotFound;
+import hla.rti1516e.exceptions.NotConnected;
+import hla.rti1516e.exceptions.RTIexception;
+import hla.rti1516e.exceptions.RTIinternalError;
+import hla.rti1516e.exceptions.RegionDoesNotContainSpecifiedDimension;
+import hla.rti1516e.exceptions.RegionNotCreatedByThisFederate;
+
+/**
+ * The transport implementation using an IEEE 1516-2010 RTI. The RTI is
+ * selected with the <code>rtiName</code> property, the federation with the
+ * <code>federationName</code> property, and the federation object model
+ * with the <code>fomPath</code> property.
+ *
+ * Handles for object classes, attributes, interactions and parameters are
+ * resolved once and cached along with the reverse mappings used to
+ * translate callbacks to names. Reflected and received values are passed
+ * to the listener as provided by the RTI without copying. Regions are
+ * supported using data distribution management if provided by the RTI; if
+ * the RTI does not support it or the dimension is not defined in the
+ * federation object model, subscriptions and registrations fall back to
+ * the whole class and the fallback is reported once.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ */
+public class HLATransport extends NullFederateAmbassador implements Transport {
+	private final Properties properties; // immutable
+	private final RTIambassador rtiAmbassador; // immutable
+	private final EncoderFactory encoderFactory; // immutable
+	private transient TransportListener listener; // set upon connection
+	private final ErrorReporter errorReporter =
+			new ErrorReporter("HLA"); // mutable
+	private final AtomicBoolean regionFallbackReported =
+			new AtomicBoolean(); // mutable
+
+	// handles resolved by name and reverse mappings to names for callbacks;
+	// only accessed in synchronized methods
+	private final Map<String, ObjectClassHandle> objectClassHandles =
+			new HashMap<String, ObjectClassHandle>(); // mutable
+	private final Map<ObjectClassHandle, String> objectClassNames =
+			new HashMap<ObjectClassHandle, String>(); // mutable
+	private final Map<ObjectClassHandle, Map<String, AttributeHandle>>
+			attributeHandles = new HashMap<ObjectClassHandle,
+			Map<String, AttributeHandle>>(); // mutable
+	private final Map<ObjectClassHandle, Map<AttributeHandle, String>>
+			attributeNames = new HashMap<ObjectClassHandle,
+			Map<AttributeHandle, String>>(); // mutable
+	private final Map<String, InteractionClassHandle> interactionClassHandles =
+			new HashMap<String, InteractionClassHandle>(); // mutable
+	private final Map<InteractionClassHandle, String> interactionClassNames =
+			new HashMap<InteractionClassHandle, String>(); // mutable
+	private final Map<InteractionClassHandle, Map<String, ParameterHandle>>
+			parameterHandles = new HashMap<InteractionClassHandle,
+			Map<String, ParameterHandle>>(); // mutable
+	private final Map<InteractionClassHandle, Map<ParameterHandle, String>>
+			parameterNames = new HashMap<InteractionClassHandle,
+			Map<ParameterHandle, String>>(); // mutable
+
+	// object instances registered or discovered by this federate
+	private final Map<String, ObjectInstanceHandle> instanceHandles =
+			new HashMap<String, ObjectInstanceHandle>(); // mutable
+	private final Map<ObjectInstanceHandle, String> instanceNames =
+			new HashMap<ObjectInstanceHandle, String>(); // mutable
+	private final Map<ObjectInstanceHandle, ObjectClassHandle> instanceClasses =
+			new HashMap<ObjectInstanceHandle, ObjectClassHandle>(); // mutable
+
+	// reusable collections passed to the listener during callbacks; only
+	// accessed from the RTI callback thread
+	private final Map<String, byte[]> reflectedValues =
+			new HashMap<String, byte[]>(); // mutable
+	private final Map<String, byte[]> receivedValues =
+			new HashMap<String, byte[]>(); // mutable
+	private final Set<String> requestedNames = new HashSet<String>(); // mutable
+
+	/**
+	 * Instantiates a new HLA transport.
+	 *
+	 * @param properties the configuration properties
+	 * @throws TransportException the transport exception
+	 */
+	public HLATransport(Properties properties) throws TransportException {
+		this.properties = properties;
+		String rtiName = properties.getProperty("rtiName", null);
+
+		// create the RTI factory and store ambassador and encoder objects
+		try {
+			RtiFactory rtiFactory;
+			if(rtiName == null) {
+				rtiFactory = RtiFactoryFactory.getRtiFactory();
+			} else {
+				rtiFactory = RtiFactoryFactory.getRtiFactory(rtiName);
+			}
+			rtiAmbassador = rtiFactory.getRtiAmbassador();
+			encoderFactory = rtiFactory.getEncoderFactory();
+		} catch (RTIexception ex) {
+			throw new TransportException(ex);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#connect(java.lang.String, java.lang.String, edu.mit.collab.transport.TransportListener)
+	 */
+	@Override
+	public void connect(String federateName, String federateType,
+			TransportListener listener) throws TransportException {
+		this.listener = listener;
+		String federationName = properties.getProperty(
+				"federationName", "collab");
+		try {
+			// try to connect to the RTI; ignore if already connected
+			try {
+				rtiAmbassador.connect(this, CallbackModel.HLA_IMMEDIATE);
+			} catch(AlreadyConnected ignored) { }
+
+			// try to create the federation execution using the FOM file;
+			// ignore if already exists
+			try {
+				rtiAmbassador.createFederationExecution(federationName,
+						getClass().getClassLoader().getResource(
+								properties.getProperty("fomPath",
+										"resources/collab.xml")));
+			} catch(FederationExecutionAlreadyExists ignored) { }
+
+			// try to join the federation execution; ignore if already joined
+			try {
+				if(federateName == null) {
+					rtiAmbassador.joinFederationExecution(federateType,
+							federationName, new URL[0]);
+				} else {
+					rtiAmbassador.joinFederationExecution(federateName,
+							federateType, federationName);
+				}
+			} catch(FederateAlreadyExecutionMember ignored) { }
+		} catch (RTIexception ex) {
+			throw new TransportException(ex);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#disconnect()
+	 */
+	@Override
+	public void disconnect() throws TransportException {
+		try {
+			// try to resign from the federation execution; ignore
+			// exceptions if already resigned or not connected
+			try {
+				rtiAmbassador.resignFederationExecution(
+						ResignAction.DELETE_OBJECTS_THEN_DIVEST);
+			} catch (FederateNotExecutionMember ignored) {
+			} catch (NotConnected ignored) { }
+
+			// once resigned, try to destroy federation; ignore
+			// exceptions if other federates still joined, federation
+			// already destroyed, or not connected
+			try {
+				rtiAmbassador.destroyFederationExecution(
+						properties.getProperty("federationName", "collab"));
+			} catch (FederatesCurrentlyJoined ignored) {
+			} catch (FederationExecutionDoesNotExist ignored) {
+			} catch (NotConnected ignored) {
+			}
+
+			// disconnect from the rti
+			rtiAmbassador.disconnect();
+		} catch (RTIexception ex) {
+			throw new TransportException(ex);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#getEncoderFactory()
+	 */
+	@Override
+	public EncoderFactory getEncoderFactory() {
+		return encoderFactory;
+	}
+
+	/**
+	 * Gets the object class handle, resolving it once per name.
+	 *
+	 * @param className the object class name
+	 * @return the object class handle
+	 * @throws RTIexception the RTI exception
+	 */
+	private synchronized ObjectClassHandle getObjectClassHandle(
+			String className) throws RTIexception {
+		ObjectClassHandle classHandle = objectClassHandles.get(className);
+		if(classHandle == null) {
+			classHandle = rtiAmbassador.getObjectClassHandle(className);
+			objectClassHandles.put(className, classHandle);
+			objectClassNames.put(classHandle, className);
+			attributeHandles.put(classHandle,
+					new HashMap<String, AttributeHandle>());
+			attributeNames.put(classHandle,
+					new HashMap<AttributeHandle, String>());
+		}
+		return classHandle;
+	}
+
+	/**
+	 * Gets the attribute handle, resolving it once per name.
+	 *
+	 * @param classHandle the object class handle
+	 * @param attributeName the attribute name
+	 * @return the attribute handle
+	 * @throws RTIexception the RTI exception
+	 */
+	private synchronized AttributeHandle getAttributeHandle(
+			ObjectClassHandle classHandle, String attributeName)
+					throws RTIexception {
+		AttributeHandle attributeHandle = attributeHandles.get(
+				classHandle).get(attributeName);
+		if(attributeHandle == null) {
+			attributeHandle = rtiAmbassador.getAttributeHandle(
+					classHandle, attributeName);
+			attributeHandles.get(classHandle).put(
+					attributeName, attributeHandle);
+			attributeNames.get(classHandle).put(
+					attributeHandle, attributeName);
+		}
+		return attributeHandle;
+	}
+
+	/**
+	 * Gets an attribute handle set for the named attributes.
+	 *
+	 * @param classHandle the object class handle
+	 * @param attributeNames the attribute names
+	 * @return the attribute handle set
+	 * @throws RTIexception the RTI exception
+	 */
+	private AttributeHandleSet getAttributeHandleSet(
+			ObjectClassHandle classHandle, String[] attributeNames)
+					throws RTIexception {
+		AttributeHandleSet attributeHandleSet = rtiAmbassador
+				.getAttributeHandleSetFactory().create();
+		for(String attributeName : attributeNames) {
+			attributeHandleSet.add(getAttributeHandle(
+					classHandle, attributeName));
+		}
+		return attributeHandleSet;
+	}
+
+	/**
+	 * Gets the interaction class handle, resolving it once per name.
+	 *
+	 * @param className the interaction class name
+	 * @return the interaction class handle
+	 * @throws RTIexception the RTI exception
+	 */
+	private synchronized InteractionClassHandle getInteractionClassHandle(
+			String className) throws RTIexception {
+		InteractionClassHandle classHandle =
+				interactionClassHandles.get(className);
+		if(classHandle == null) {
+			classHandle = rtiAmbassador.getInteractionClassHandle(className);
+			interactionClassHandles.put(className, classHandle);
+			interactionClassNames.put(classHandle, className);
+			parameterHandles.put(classHandle,
+					new HashMap<String, ParameterHandle>());
+			parameterNames.put(classHandle,
+					new HashMap<ParameterHandle, String>());
+		}
+		return classHandle;
+	}
+
+	/**
+	 * Gets the parameter handle, resolving it once per name.
+	 *
+	 * @param classHandle the interaction class handle
+	 * @param parameterName the parameter name
+	 * @return the parameter handle
+	 * @throws RTIexception the RTI exception
+	 */
+	private synchronized ParameterHandle getParameterHandle(
+			InteractionClassHandle classHandle, String parameterName)
+					throws RTIexception {
+		ParameterHandle parameterHandle = parameterHandles.get(
+				classHandle).get(parameterName);
+		if(parameterHandle == null) {
+			parameterHandle = rtiAmbassador.getParameterHandle(
+					classHandle, parameterName);
+			parameterHandles.get(classHandle).put(
+					parameterName, parameterHandle);
+			parameterNames.get(classHandle).put(
+					parameterHandle, parameterName);
+		}
+		return parameterHandle;
+	}
+
+	/**
+	 * Gets the parameter name, resolving it once per handle. Parameters are 
+	 * only resolved by name when sending, so subscribed interactions resolve 
+	 * names upon receipt.
+	 *
+	 * @param classHandle the interaction class handle
+	 * @param parameterHandle the parameter handle
+	 * @return the parameter name, or null if it cannot be resolved
+	 */
+	private synchronized String getParameterName(
+			InteractionClassHandle classHandle, 
+			ParameterHandle parameterHandle) {
+		String parameterName = parameterNames.get(
+				classHandle).get(parameterHandle);
+		if(parameterName == null) {
+			try {
+				parameterName = rtiAmbassador.getParameterName(
+						classHandle, parameterHandle);
+				parameterHandles.get(classHandle).put(
+						parameterName, parameterHandle);
+				parameterNames.get(classHandle).put(
+						parameterHandle, parameterName);
+			} catch (RTIexception ignored) {
+				// parameter is not defined; ignore it
+			}
+		}
+		return parameterName;
+	}
+
+	/**
+	 * Gets the handle of a known object instance.
+	 *
+	 * @param instanceName the object instance name
+	 * @return the object instance handle
+	 * @throws TransportException the transport exception
+	 */
+	private synchronized ObjectInstanceHandle getObjectInstanceHandle(
+			String instanceName) throws TransportException {
+		ObjectInstanceHandle instanceHandle = instanceHandles.get(instanceName);
+		if(instanceHandle == null) {
+			throw new TransportException("Unknown object instance "
+					+ instanceName + ".");
+		}
+		return instanceHandle;
+	}
+
+	/**
+	 * Adds a registered or discovered object instance.
+	 *
+	 * @param instanceHandle the object instance handle
+	 * @param classHandle the object class handle
+	 * @param instanceName the object instance name
+	 */
+	private synchronized void addObjectInstance(
+			ObjectInstanceHandle instanceHandle,
+			ObjectClassHandle classHandle, String instanceName) {
+		instanceHandles.put(instanceName, instanceHandle);
+		instanceNames.put(instanceHandle, instanceName);
+		instanceClasses.put(instanceHandle, classHandle);
+	}
+
+	/**
+	 * Removes a registered or discovered object instance.
+	 *
+	 * @param instanceHandle the object instance handle
+	 * @return the object instance name, or null if the instance is unknown
+	 */
+	private synchronized String removeInstance(
+			ObjectInstanceHandle instanceHandle) {
+		String instanceName = instanceNames.remove(instanceHandle);
+		instanceClasses.remove(instanceHandle);
+		if(instanceName != null) {
+			instanceHandles.remove(instanceName);
+		}
+		return instanceName;
+	}
+
+	/**
+	 * Creates a committed region spanning [lowerBound, upperBound) of a
+	 * single dimension.
+	 *
+	 * @param dimensionName the dimension name
+	 * @param lowerBound the lower bound
+	 * @param upperBound the upper bound
+	 * @return the region handle set containing the region
+	 * @throws RTIexception the RTI exception
+	 */
+	private RegionHandleSet createRegion(String dimensionName,
+			long lowerBound, long upperBound) throws RTIexception {
+		DimensionHandle dimension = rtiAmbassador.getDimensionHandle(
+				dimensionName);
+		DimensionHandleSet dimensions = rtiAmbassador
+				.getDimensionHandleSetFactory().create();
+		dimensions.add(dimension);
+		RegionHandle region = rtiAmbassador.createRegion(dimensions);
+		rtiAmbassador.setRangeBounds(region, dimension,
+				new RangeBounds(lowerBound, upperBound));
+		RegionHandleSet regions = rtiAmbassador
+				.getRegionHandleSetFactory().create();
+		regions.add(region);
+		rtiAmbassador.commitRegionModifications(regions);
+		return regions;
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#publishObjectClassAttributes(java.lang.String, java.lang.String[])
+	 */
+	@Override
+	public void publishObjectClassAttributes(String className,
+			String... attributeNames) throws TransportException {
+		try {
+			ObjectClassHandle classHandle = getObjectClassHandle(className);
+			rtiAmbassador.publishObjectClassAttributes(classHandle,
+					getAttributeHandleSet(classHandle, attributeNames));
+		} catch (RTIexception ex) {
+			throw new TransportException(ex);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#subscribeObjectClassAttributes(java.lang.String, java.lang.String[])
+	 */
+	@Override
+	public void subscribeObjectClassAttributes(String className,
+			String... attributeNames) throws TransportException {
+		try {
+			ObjectClassHandle classHandle = getObjectClassHandle(className);
+			rtiAmbassador.subscribeObjectClassAttributes(classHandle,
+					getAttributeHandleSet(classHandle, attributeNames));
+		} catch (RTIexception ex) {
+			throw new TransportException(ex);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#subscribeObjectClassAttributes(java.lang.String, java.lang.String[], java.lang.String, long, long)
+	 */
+	@Override
+	public void subscribeObjectClassAttributes(String className,
+			String[] attributeNames, String dimensionName,
+			long lowerBound, long upperBound) throws TransportException {
+		try {
+			ObjectClassHandle classHandle = getObjectClassHandle(className);
+			AttributeHandleSet attributeHandleSet =
+					getAttributeHandleSet(classHandle, attributeNames);
+			try {
+				// use the RTI service to subscribe within the region
+				AttributeSetRegionSetPairList attributeRegions = rtiAmbassador
+						.getAttributeSetRegionSetPairListFactory().create(1);
+				attributeRegions.add(new AttributeRegionAssociation(
+						attributeHandleSet, createRegion(dimensionName,
+								lowerBound, upperBound)));
+				rtiAmbassador.subscribeObjectClassAttributesWithRegions(
+						classHandle, attributeRegions);
+			} catch(InvalidDimensionHandle | InvalidRegion
+					| InvalidRegionContext | NameNotFound
+					| RegionDoesNotContainSpecifiedDimension
+					| RegionNotCreatedByThisFederate | RTIinternalError ex) {
+				// the RTI does not support the region; subscribe without
+				// regions instead
+				reportRegionFallback("subscribing with regions", className, ex);
+				rtiAmbassador.subscribeObjectClassAttributes(
+						classHandle, attributeHandleSet);
+			}
+		} catch (RTIexception ex) {
+			throw new TransportException(ex);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#publishInteractionClass(java.lang.String)
+	 */
+	@Override
+	public void publishInteractionClass(String className)
+			throws TransportException {
+		try {
+			rtiAmbassador.publishInteractionClass(
+					getInteractionClassHandle(className));
+		} catch (RTIexception ex) {
+			throw new TransportException(ex);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#subscribeInteractionClass(java.lang.String)
+	 */
+	@Override
+	public void subscribeInteractionClass(String className)
+			throws TransportException {
+		try {
+			rtiAmbassador.subscribeInteractionClass(
+					getInteractionClassHandle(className));
+		} catch (RTIexception ex) {
+			throw new TransportException(ex);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#registerObjectInstance(java.lang.String)
+	 */
+	@Override
+	public String registerObjectInstance(String className)
+			throws TransportException {
+		try {
+			ObjectClassHandle classHandle = getObjectClassHandle(className);
+			ObjectInstanceHandle instanceHandle =
+					rtiAmbassador.registerObjectInstance(classHandle);
+			String instanceName = rtiAmbassador.getObjectInstanceName(
+					instanceHandle);
+			addObjectInstance(instanceHandle, classHandle, instanceName);
+			return instanceName;
+		} catch (RTIexception ex) {
+			throw new TransportException(ex);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#registerObjectInstance(java.lang.String, java.lang.String[], java.lang.String, long, long)
+	 */
+	@Override
+	public String registerObjectInstance(String className,
+			String[] attributeNames, String dimensionName,
+			long lowerBound, long upperBound) throws TransportException {
+		try {
+			ObjectClassHandle classHandle = getObjectClassHandle(className);
+			AttributeHandleSet attributeHandleSet =
+					getAttributeHandleSet(classHandle, attributeNames);
+			ObjectInstanceHandle instanceHandle;
+			try {
+				// register the instance with all attributes in the region
+				AttributeSetRegionSetPairList attributeRegions = rtiAmbassador
+						.getAttributeSetRegionSetPairListFactory().create(1);
+				attributeRegions.add(new AttributeRegionAssociation(
+						attributeHandleSet, createRegion(dimensionName,
+								lowerBound, upperBound)));
+				instanceHandle = rtiAmbassador.registerObjectInstanceWithRegions(
+						classHandle, attributeRegions);
+			} catch(InvalidDimensionHandle | InvalidRegion
+					| InvalidRegionContext | NameNotFound
+					| RegionDoesNotContainSpecifiedDimension
+					| RegionNotCreatedByThisFederate | RTIinternalError ex) {
+				// the RTI does not support the region; register the instance
+				// without regions instead
+				reportRegionFallback("registering with regions", className, ex);
+				instanceHandle = rtiAmbassador.registerObjectInstance(
+						classHandle);
+			}
+			String instanceName = rtiAmbassador.getObjectInstanceName(
+					instanceHandle);
+			addObjectInstance(instanceHandle, classHandle, instanceName);
+			return instanceName;
+		} catch (RTIexception ex) {
+			throw new TransportException(ex);
+		}
+	}
+
+	/**
+	 * Reports the first fallback from regions to whole-class subscriptions
+	 * and registrations, which is then used without further reports.
+	 *
+	 * @param action the action which failed
+	 * @param className the object class name
+	 * @param ex the RTI exception
+	 */
+	private void reportRegionFallback(String action, String className,
+			RTIexception ex) {
+		if(regionFallbackReported.compareAndSet(false, true)) {
+			errorReporter.report(action, className, ex);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#deleteObjectInstance(java.lang.String)
+	 */
+	@Override
+	public void deleteObjectInstance(String instanceName)
+			throws TransportException {
+		try {
+			ObjectInstanceHandle instanceHandle =
+					getObjectInstanceHandle(instanceName);
+
+			// use the RTI service to delete the object instance
+			rtiAmbassador.deleteObjectInstance(instanceHandle, new byte[0]);
+			removeInstance(instanceHandle);
+		} catch (RTIexception ex) {
+			throw new TransportException(ex);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#updateAttributeValues(java.lang.String, java.util.Map, byte[])
+	 */
+	@Override
+	public void updateAttributeValues(String instanceName,
+			Map<String, byte[]> attributes, byte[] tag)
+					throws TransportException {
+		try {
+			ObjectInstanceHandle instanceHandle =
+					getObjectInstanceHandle(instanceName);
+			ObjectClassHandle classHandle;
+			synchronized(this) {
+				classHandle = instanceClasses.get(instanceHandle);
+			}
+
+			// create an attribute handle value map and add the values
+			AttributeHandleValueMap values = rtiAmbassador
+					.getAttributeHandleValueMapFactory().create(
+							attributes.size());
+			for(Map.Entry<String, byte[]> entry : attributes.entrySet()) {
+				values.put(getAttributeHandle(classHandle, entry.getKey()),
+						entry.getValue());
+			}
+
+			// use the RTI service to update attribute values
+			rtiAmbassador.updateAttributeValues(instanceHandle, values, tag);
+		} catch (RTIexception ex) {
+			throw new TransportException(ex);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#requestAttributeValueUpdate(java.lang.String, java.lang.String[])
+	 */
+	@Override
+	public void requestAttributeValueUpdate(String instanceName,
+			String... attributeNames) throws TransportException {
+		try {
+			ObjectInstanceHandle instanceHandle =
+					getObjectInstanceHandle(instanceName);
+			ObjectClassHandle classHandle;
+			synchronized(this) {
+				classHandle = instanceClasses.get(instanceHandle);
+			}
+
+			// use the RTI service to request attribute values
+			rtiAmbassador.requestAttributeValueUpdate(instanceHandle,
+					getAttributeHandleSet(classHandle, attributeNames),
+					new byte[0]);
+		} catch (RTIexception ex) {
+			throw new TransportException(ex);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#sendInteraction(java.lang.String, java.util.Map, byte[])
+	 */
+	@Override
+	public void sendInteraction(String className,
+			Map<String, byte[]> parameters, byte[] tag)
+					throws TransportException {
+		try {
+			InteractionClassHandle classHandle =
+					getInteractionClassHandle(className);
+
+			// create a parameter handle value map and add the values
+			ParameterHandleValueMap values = rtiAmbassador
+					.getParameterHandleValueMapFactory().create(
+							parameters.size());
+			for(Map.Entry<String, byte[]> entry : parameters.entrySet()) {
+				values.put(getParameterHandle(classHandle, entry.getKey()),
+						entry.getValue());
+			}
+
+			// use the RTI service to send the interaction
+			rtiAmbassador.sendInteraction(classHandle, values, tag);
+		} catch (RTIexception ex) {
+			throw new TransportException(ex);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see hla.rti1516e.NullFederateAmbassador#discoverObjectInstance(hla.rti1516e.ObjectInstanceHandle, hla.rti1516e.ObjectClassHandle, java.lang.String)
+	 */
+	@Override
+	public void discoverObjectInstance(ObjectInstanceHandle theObject,
+			ObjectClassHandle theObjectClass,
+			String objectName) {
+		// re-direct method to single method signature
+		discoverObjectInstance(theObject, theObjectClass, objectName, null);
+	}
+
+	/* (non-Javadoc)
+	 * @see hla.rti1516e.NullFederateAmbassador#discoverObjectInstance(hla.rti1516e.ObjectInstanceHandle, hla.rti1516e.ObjectClassHandle, java.lang.String, hla.rti1516e.FederateHandle)
+	 */
+	@Override
+	public void discoverObjectInstance(ObjectInstanceHandle theObject,
+			ObjectClassHandle theObjectClass,
+			String objectName,
+			FederateHandle producingFederate) {
+		String className;
+		synchronized(this) {
+			className = objectClassNames.get(theObjectClass);
+		}
+
+		// only notify the listener of subscribed object classes
+		if(className != null) {
+			addObjectInstance(theObject, theObjectClass, objectName);
+			listener.discoverObjectInstance(objectName, className);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see hla.rti1516e.NullFederateAmbassador#provideAttributeValueUpdate(hla.rti1516e.ObjectInstanceHandle, hla.rti1516e.AttributeHandleSet, byte[])
+	 */
+	@Override
+	public void provideAttributeValueUpdate(ObjectInstanceHandle theObject,
+			AttributeHandleSet theAttributes,
+			byte[] userSuppliedTag) {
+		String instanceName;
+		requestedNames.clear();
+		synchronized(this) {
+			instanceName = instanceNames.get(theObject);
+			if(instanceName == null) {
+				return;
+			}
+
+			// translate the requested attribute handles to names
+			Map<AttributeHandle, String> names = attributeNames.get(
+					instanceClasses.get(theObject));
+			for(AttributeHandle attributeHandle : theAttributes) {
+				String attributeName = names.get(attributeHandle);
+				if(attributeName != null) {
+					requestedNames.add(attributeName);
+				}
+			}
+		}
+		listener.provideAttributeValueUpdate(instanceName, requestedNames);
+	}
+
+	/* (non-Javadoc)
+	 * @see hla.rti1516e.NullFederateAmbassador#receiveInteraction(hla.rti1516e.InteractionClassHandle, hla.rti1516e.ParameterHandleValueMap, byte[], hla.rti1516e.OrderType, hla.rti1516e.TransportationTypeHandle, hla.rti1516e.LogicalTime, hla.rti1516e.OrderType, hla.rti1516e.MessageRetractionHandle, hla.rti1516e.FederateAmbassador.SupplementalReceiveInfo)
+	 */
+	@Override
+	public void receiveInteraction(InteractionClassHandle interactionClass,
+			ParameterHandleValueMap theParameters,
+			byte[] userSuppliedTag,
+			OrderType sentOrdering,
+			TransportationTypeHandle theTransport,
+			LogicalTime theTime,
+			OrderType receivedOrdering,
+			MessageRetractionHandle retractionHandle,
+			SupplementalReceiveInfo receiveInfo) {
+		String className;
+		receivedValues.clear();
+		synchronized(this) {
+			className = interactionClassNames.get(interactionClass);
+			if(className == null) {
+				return;
+			}
+
+			// translate the parameter handles to names
+			for(Map.Entry<ParameterHandle, byte[]> entry
+					: theParameters.entrySet()) {
+				String parameterName = getParameterName(
+						interactionClass, entry.getKey());
+				if(parameterName != null) {
+					receivedValues.put(parameterName, entry.getValue());
+				}
+			}
+		}
+		listener.receiveInteraction(className, receivedValues,
+				userSuppliedTag);
+	}
+
+	/* (non-Javadoc)
+	 * @see hla.rti1516e.NullFederateAmbassador#receiveInteraction(hla.rti1516e.InteractionClassHandle, hla.rti1516e.ParameterHandleValueMap, byte[], hla.rti1516e.OrderType, hla.rti1516e.TransportationTypeHandle, hla.rti1516e.LogicalTime, hla.rti1516e.OrderType, hla.rti1516e.FederateAmbassador.SupplementalReceiveInfo)
+	 */
+	@Override
+	public void receiveInteraction(InteractionClassHandle interactionClass,
+			ParameterHandleValueMap theParameters,
+			byte[] userSuppliedTag,
+			OrderType sentOrdering,
+			TransportationTypeHandle theTransport,
+			LogicalTime theTime,
+			OrderType receivedOrdering,
+			SupplementalReceiveInfo receiveInfo) {
+		// re-direct method to single method signature
+		receiveInteraction(interactionClass, theParameters, userSuppliedTag,
+				sentOrdering, theTransport, theTime, receivedOrdering,
+				null, receiveInfo);
+	}
+
+	/* (non-Javadoc)
+	 * @see hla.rti1516e.NullFederateAmbassador#receiveInteraction(hla.rti1516e.InteractionClassHandle, hla.rti1516e.ParameterHandleValueMap, byte[], hla.rti1516e.OrderType, hla.rti1516e.TransportationTypeHandle, hla.rti1516e.FederateAmbassador.SupplementalReceiveInfo)
+	 */
+	@Override
+	public void receiveInteraction(InteractionClassHandle interactionClass,
+			ParameterHandleValueMap theParameters,
+			byte[] userSuppliedTag,
+			OrderType sentOrdering,
+			TransportationTypeHandle theTransport,
+			SupplementalReceiveInfo receiveInfo) {
+		// re-direct method to single method signature
+		receiveInteraction(interactionClass, theParameters, userSuppliedTag,
+				sentOrdering, theTransport, null, null, receiveInfo);
+	}
+
+	/* (non-Javadoc)
+	 * @see hla.rti1516e.NullFederateAmbassador#reflectAttributeValues(hla.rti1516e.ObjectInstanceHandle, hla.rti1516e.AttributeHandleValueMap, byte[], hla.rti1516e.OrderType, hla.rti1516e.TransportationTypeHandle, hla.rti1516e.LogicalTime, hla.rti1516e.OrderType, hla.rti1516e.MessageRetractionHandle, hla.rti1516e.FederateAmbassador.SupplementalReflectInfo)
+	 */
+	@Override
+	public void reflectAttributeValues(ObjectInstanceHandle theObject,
+			AttributeHandleValueMap theAttributes,
+			byte[] userSuppliedTag,
+			OrderType sentOrdering,
+			TransportationTypeHandle theTransport,
+			LogicalTime theTime,
+			OrderType receivedOrdering,
+			MessageRetractionHandle retractionHandle,
+			SupplementalReflectInfo reflectInfo) {
+		String instanceName;
+		reflectedValues.clear();
+		synchronized(this) {
+			instanceName = instanceNames.get(theObject);
+			if(instanceName == null) {
+				return;
+			}
+
+			// translate the attribute handles to names
+			Map<AttributeHandle, String> names = attributeNames.get(
+					instanceClasses.get(theObject));
+			for(Map.Entry<AttributeHandle, byte[]> entry
+					: theAttributes.entrySet()) {
+				String attributeName = names.get(entry.getKey());
+				if(attributeName != null) {
+					reflectedValues.put(attributeName, entry.getValue());
+				}
+			}
+		}
+		listener.reflectAttributeValues(instanceName, reflectedValues,
+				userSuppliedTag);
+	}
+
+	/* (non-Javadoc)
+	 * @see hla.rti1516e.NullFederateAmbassador#reflectAttributeValues(hla.rti1516e.ObjectInstanceHandle, hla.rti1516e.AttributeHandleValueMap, byte[], hla.rti1516e.OrderType, hla.rti1516e.TransportationTypeHandle, hla.rti1516e.LogicalTime, hla.rti1516e.OrderType, hla.rti1516e.FederateAmbassador.SupplementalReflectInfo)
+	 */
+	@Override
+	public void reflectAttributeValues(ObjectInstanceHandle theObject,
+			AttributeHandleValueMap theAttributes,
+			byte[] userSuppliedTag,
+			OrderType sentOrdering,
+			TransportationTypeHandle theTransport,
+			LogicalTime theTime,
+			OrderType receivedOrdering,
+			SupplementalReflectInfo reflectInfo) {
+		// re-direct method to single method signature
+		reflectAttributeValues(theObject, theAttributes, userSuppliedTag,
+				sentOrdering, theTransport, theTime, receivedOrdering,
+				null, reflectInfo);
+	}
+
+	/* (non-Javadoc)
+	 * @see hla.rti1516e.NullFederateAmbassador#reflectAttributeValues(hla.rti1516e.ObjectInstanceHandle, hla.rti1516e.AttributeHandleValueMap, byte[], hla.rti1516e.OrderType, hla.rti1516e.TransportationTypeHandle, hla.rti1516e.FederateAmbassador.SupplementalReflectInfo)
+	 */
+	@Override
+	public void reflectAttributeValues(ObjectInstanceHandle theObject,
+			AttributeHandleValueMap theAttributes,
+			byte[] userSuppliedTag,
+			OrderType sentOrdering,
+			TransportationTypeHandle theTransport,
+			SupplementalReflectInfo reflectInfo) {
+		// re-direct method to single method signature
+		reflectAttributeValues(theObject, theAttributes, userSuppliedTag,
+				sentOrdering, theTransport, null, null, reflectInfo);
+	}
+
+	/* (non-Javadoc)
+	 * @see hla.rti1516e.NullFederateAmbassador#removeObjectInstance(hla.rti1516e.ObjectInstanceHandle, byte[], hla.rti1516e.OrderType, hla.rti1516e.LogicalTime, hla.rti1516e.OrderType, hla.rti1516e.MessageRetractionHandle, hla.rti1516e.FederateAmbassador.SupplementalRemoveInfo)
+	 */
+	@Override
+	public void removeObjectInstance(ObjectInstanceHandle theObject,
+			byte[] userSuppliedTag,
+			OrderType sentOrdering,
+			LogicalTime theTime,
+			OrderType receivedOrdering,
+			MessageRetractionHandle retractionHandle,
+			SupplementalRemoveInfo removeInfo) {
+		String instanceName = removeInstance(theObject);
+		if(instanceName != null) {
+			listener.removeObjectInstance(instanceName);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see hla.rti1516e.NullFederateAmbassador#removeObjectInstance(hla.rti1516e.ObjectInstanceHandle, byte[], hla.rti1516e.OrderType, hla.rti1516e.LogicalTime, hla.rti1516e.OrderType, hla.rti1516e.FederateAmbassador.SupplementalRemoveInfo)
+	 */
+	@Override
+	public void removeObjectInstance(ObjectInstanceHandle theObject,
+			byte[] userSuppliedTag,
+			OrderType sentOrdering,
+			LogicalTime theTime,
+			OrderType receivedOrdering,
+			SupplementalRemoveInfo removeInfo) {
+		// re-direct method to single method signature
+		removeObjectInstance(theObject, userSuppliedTag, sentOrdering,
+				theTime, receivedOrdering, null, removeInfo);
+	}
+
+	/* (non-Javadoc)
+	 * @see hla.rti1516e.NullFederateAmbassador#removeObjectInstance(hla.rti1516e.ObjectInstanceHandle, byte[], hla.rti1516e.OrderType, hla.rti1516e.FederateAmbassador.SupplementalRemoveInfo)
+	 */
+	@Override
+	public void removeObjectInstance(ObjectInstanceHandle theObject,
+			byte[] userSuppliedTag,
+			OrderType sentOrdering,
+			SupplementalRemoveInfo removeInfo) {
+		// re-direct method to single method signature
+		removeObjectInstance(theObject, userSuppliedTag, sentOrdering,
+				null, null, null, removeInfo);
+	}
+}
@@ -0,0 +1,623 @@
+package edu.mit.collab.transport;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import hla.rti1516e.encoding.EncoderFactory;
+
+/**
+ * The transport implementation exchanging state between federates within a
+ * single JVM without an RTI, e.g. for headless tests and benchmarks. All
+ * federates joined to a federation with the same <code>federationName</code>
+ * property share an in-memory federation.
+ *
+ * Callbacks are delivered to listeners by a single thread per federation in
+ * the order services were invoked, so a session with the same sequence of
+ * service calls always produces the same sequence of callbacks. The
+ * <code>inProcessLatency</code> property (milliseconds, default 0) delays
+ * each callback to emulate network latency.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ */
+public class InProcessTransport implements Transport {
+	// shared federations keyed by federation name
+	private static final Map<String, Federation> federations =
+			new HashMap<String, Federation>(); // mutable
+
+	private final Properties properties; // immutable
+	private final EncoderFactory encoderFactory; // immutable
+	private final long latency; // immutable
+
+	private transient Federation federation; // set upon connection
+	private transient String federateName; // set upon connection
+	private transient TransportListener listener; // set upon connection
+
+	// published and subscribed classes of this federate; only accessed
+	// while synchronized on the federation
+	private final Map<String, Set<String>> publishedAttributes =
+			new HashMap<String, Set<String>>(); // mutable
+	private final Map<String, Set<String>> subscribedAttributes =
+			new HashMap<String, Set<String>>(); // mutable
+	private final Map<String, Region> subscribedRegions =
+			new HashMap<String, Region>(); // mutable
+	private final Set<String> publishedInteractions =
+			new HashSet<String>(); // mutable
+	private final Set<String> subscribedInteractions =
+			new HashSet<String>(); // mutable
+	private final Set<String> discoveredInstances =
+			new HashSet<String>(); // mutable
+
+	/**
+	 * Instantiates a new in-process transport.
+	 *
+	 * @param properties the configuration properties
+	 * @throws TransportException the transport exception
+	 */
+	public InProcessTransport(Properties properties)
+			throws TransportException {
+		this.properties = properties;
+		encoderFactory = TransportFactory.createEncoderFactory(properties);
+		try {
+			latency = Long.parseLong(properties.getProperty(
+					"inProcessLatency", "0"));
+		} catch (NumberFormatException ex) {
+			throw new TransportException("Invalid in-process latency.", ex);
+		}
+	}
+
+	/**
+	 * Waits until all callbacks resulting from services invoked before this
+	 * call have been delivered. Must not be called from a callback.
+	 *
+	 * @throws TransportException the transport exception
+	 */
+	public void awaitDelivery() throws TransportException {
+		Federation federation = getFederation();
+		try {
+			federation.dispatcher.schedule(new Runnable() {
+				@Override
+				public void run() { }
+			}, latency, TimeUnit.MILLISECONDS).get();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new TransportException(ex);
+		} catch (ExecutionException ex) {
+			throw new TransportException(ex.getCause());
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#connect(java.lang.String, java.lang.String, edu.mit.collab.transport.TransportListener)
+	 */
+	@Override
+	public void connect(String federateName, String federateType,
+			TransportListener listener) throws TransportException {
+		if(federation != null) {
+			// already joined
+			return;
+		}
+		String federationName = properties.getProperty(
+				"federationName", "collab");
+
+		// create the federation if it does not yet exist
+		Federation federation;
+		synchronized(federations) {
+			federation = federations.get(federationName);
+			if(federation == null) {
+				federation = new Federation(federationName);
+				federations.put(federationName, federation);
+			}
+		}
+
+		// join the federation with a unique federate name
+		synchronized(federation) {
+			if(federateName == null) {
+				federateName = federateType + "-" + (++federation.federateCount);
+			} else if(federation.federates.containsKey(federateName)) {
+				throw new TransportException("Federate name "
+						+ federateName + " already in use.");
+			}
+			federation.federates.put(federateName, this);
+			this.federateName = federateName;
+			this.listener = listener;
+			this.federation = federation;
+		}
+	}
+
+	/**
+	 * Delivers a callback to this federate after the configured latency.
+	 *
+	 * @param callback the callback
+	 */
+	private void deliver(final Callback callback) {
+		final Federation federation = this.federation;
+		federation.dispatcher.schedule(new Runnable() {
+			@Override
+			public void run() {
+				// drop callbacks for federates which have since resigned
+				synchronized(federation) {
+					if(federation.federates.get(federateName)
+							!= InProcessTransport.this) {
+						return;
+					}
+				}
+				try {
+					callback.invoke(listener);
+				} catch (RuntimeException ex) {
+					// keep delivering to other federates
+					ex.printStackTrace();
+				}
+			}
+		}, latency, TimeUnit.MILLISECONDS);
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#disconnect()
+	 */
+	@Override
+	public void disconnect() throws TransportException {
+		Federation federation = getFederation();
+		synchronized(federation) {
+			// delete all object instances registered by this federate
+			List<String> ownedInstances = new ArrayList<String>();
+			for(Instance instance : federation.instances.values()) {
+				if(instance.owner == this) {
+					ownedInstances.add(instance.name);
+				}
+			}
+			for(String instanceName : ownedInstances) {
+				removeInstance(federation, instanceName);
+			}
+
+			// resign from the federation
+			federation.federates.remove(federateName);
+			publishedAttributes.clear();
+			subscribedAttributes.clear();
+			subscribedRegions.clear();
+			publishedInteractions.clear();
+			subscribedInteractions.clear();
+			discoveredInstances.clear();
+			this.federation = null;
+		}
+
+		// destroy the federation once the last federate has resigned
+		synchronized(federations) {
+			synchronized(federation) {
+				if(federation.federates.isEmpty()
+						&& federations.get(federation.name) == federation) {
+					federations.remove(federation.name);
+					federation.dispatcher.shutdown();
+				}
+			}
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#deleteObjectInstance(java.lang.String)
+	 */
+	@Override
+	public void deleteObjectInstance(String instanceName)
+			throws TransportException {
+		Federation federation = getFederation();
+		synchronized(federation) {
+			if(getInstance(federation, instanceName).owner != this) {
+				throw new TransportException("Object instance "
+						+ instanceName + " not owned.");
+			}
+			removeInstance(federation, instanceName);
+		}
+	}
+
+	/**
+	 * Discovers an object instance to this federate if it is subscribed to
+	 * the instance's class and region. Must be called while synchronized on
+	 * the federation.
+	 *
+	 * @param instance the object instance
+	 */
+	private void discover(final Instance instance) {
+		if(instance.owner == this
+				|| discoveredInstances.contains(instance.name)
+				|| !subscribedAttributes.containsKey(instance.className)
+				|| !Region.overlaps(subscribedRegions.get(instance.className),
+						instance.region)) {
+			return;
+		}
+		discoveredInstances.add(instance.name);
+		deliver(new Callback() {
+			@Override
+			public void invoke(TransportListener listener) {
+				listener.discoverObjectInstance(instance.name,
+						instance.className);
+			}
+		});
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#getEncoderFactory()
+	 */
+	@Override
+	public EncoderFactory getEncoderFactory() {
+		return encoderFactory;
+	}
+
+	/**
+	 * Gets the joined federation.
+	 *
+	 * @return the federation
+	 * @throws TransportException the transport exception
+	 */
+	private Federation getFederation() throws TransportException {
+		Federation federation = this.federation;
+		if(federation == null) {
+			throw new TransportException("Federate not execution member.");
+		}
+		return federation;
+	}
+
+	/**
+	 * Gets an object instance registered in the federation. Must be called
+	 * while synchronized on the federation.
+	 *
+	 * @param federation the federation
+	 * @param instanceName the object instance name
+	 * @return the object instance
+	 * @throws TransportException the transport exception
+	 */
+	private Instance getInstance(Federation federation, String instanceName)
+			throws TransportException {
+		Instance instance = federation.instances.get(instanceName);
+		if(instance == null) {
+			throw new TransportException("Unknown object instance "
+					+ instanceName + ".");
+		}
+		return instance;
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#publishInteractionClass(java.lang.String)
+	 */
+	@Override
+	public void publishInteractionClass(String className)
+			throws TransportException {
+		synchronized(getFederation()) {
+			publishedInteractions.add(className);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#publishObjectClassAttributes(java.lang.String, java.lang.String[])
+	 */
+	@Override
+	public void publishObjectClassAttributes(String className,
+			String... attributeNames) throws TransportException {
+		synchronized(getFederation()) {
+			publishedAttributes.put(className,
+					new HashSet<String>(Arrays.asList(attributeNames)));
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#registerObjectInstance(java.lang.String)
+	 */
+	@Override
+	public String registerObjectInstance(String className)
+			throws TransportException {
+		return registerObjectInstance(className, null);
+	}
+
+	/**
+	 * Registers a new object instance and discovers it to subscribed
+	 * federates.
+	 *
+	 * @param className the object class name
+	 * @param region the region (may be null)
+	 * @return the object instance name
+	 * @throws TransportException the transport exception
+	 */
+	private String registerObjectInstance(String className, Region region)
+			throws TransportException {
+		Federation federation = getFederation();
+		synchronized(federation) {
+			if(!publishedAttributes.containsKey(className)) {
+				throw new TransportException("Object class "
+						+ className + " not published.");
+			}
+
+			// create a unique instance name from the class name
+			String instanceName = "HLAobject"
+					+ className.substring(className.lastIndexOf('.') + 1)
+					+ (++federation.instanceCount);
+			Instance instance = new Instance(instanceName, className,
+					this, region);
+			federation.instances.put(instanceName, instance);
+
+			// discover the new instance to subscribed federates
+			for(InProcessTransport federate : federation.federates.values()) {
+				federate.discover(instance);
+			}
+			return instanceName;
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#registerObjectInstance(java.lang.String, java.lang.String[], java.lang.String, long, long)
+	 */
+	@Override
+	public String registerObjectInstance(String className,
+			String[] attributeNames, String dimensionName,
+			long lowerBound, long upperBound) throws TransportException {
+		return registerObjectInstance(className,
+				new Region(dimensionName, lowerBound, upperBound));
+	}
+
+	/**
+	 * Removes an object instance from the federation and notifies federates
+	 * which have discovered it. Must be called while synchronized on the
+	 * federation.
+	 *
+	 * @param federation the federation
+	 * @param instanceName the object instance name
+	 */
+	private static void removeInstance(Federation federation,
+			final String instanceName) {
+		federation.instances.remove(instanceName);
+		for(InProcessTransport federate : federation.federates.values()) {
+			if(federate.discoveredInstances.remove(instanceName)) {
+				federate.deliver(new Callback() {
+					@Override
+					public void invoke(TransportListener listener) {
+						listener.removeObjectInstance(instanceName);
+					}
+				});
+			}
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#requestAttributeValueUpdate(java.lang.String, java.lang.String[])
+	 */
+	@Override
+	public void requestAttributeValueUpdate(final String instanceName,
+			String... attributeNames) throws TransportException {
+		Federation federation = getFederation();
+		synchronized(federation) {
+			// ask the owner of the instance to provide the values
+			Instance instance = getInstance(federation, instanceName);
+			final Set<String> requestedNames = Collections.unmodifiableSet(
+					new HashSet<String>(Arrays.asList(attributeNames)));
+			instance.owner.deliver(new Callback() {
+				@Override
+				public void invoke(TransportListener listener) {
+					listener.provideAttributeValueUpdate(instanceName,
+							requestedNames);
+				}
+			});
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#sendInteraction(java.lang.String, java.util.Map, byte[])
+	 */
+	@Override
+	public void sendInteraction(final String className,
+			Map<String, byte[]> parameters, final byte[] tag)
+			throws TransportException {
+		Federation federation = getFederation();
+		synchronized(federation) {
+			if(!publishedInteractions.contains(className)) {
+				throw new TransportException("Interaction class "
+						+ className + " not published.");
+			}
+
+			// copy the parameters as the caller may re-use the map
+			final Map<String, byte[]> receivedValues =
+					Collections.unmodifiableMap(
+							new HashMap<String, byte[]>(parameters));
+			for(InProcessTransport federate : federation.federates.values()) {
+				if(federate != this && federate.subscribedInteractions
+						.contains(className)) {
+					federate.deliver(new Callback() {
+						@Override
+						public void invoke(TransportListener listener) {
+							listener.receiveInteraction(className,
+									receivedValues, tag);
+						}
+					});
+				}
+			}
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#subscribeInteractionClass(java.lang.String)
+	 */
+	@Override
+	public void subscribeInteractionClass(String className)
+			throws TransportException {
+		synchronized(getFederation()) {
+			subscribedInteractions.add(className);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#subscribeObjectClassAttributes(java.lang.String, java.lang.String[])
+	 */
+	@Override
+	public void subscribeObjectClassAttributes(String className,
+			String... attributeNames) throws TransportException {
+		subscribeObjectClassAttributes(className, attributeNames, null);
+	}
+
+	/**
+	 * Subscribes to object class attributes and discovers existing object
+	 * instances of the class.
+	 *
+	 * @param className the object class name
+	 * @param attributeNames the attribute names
+	 * @param region the region (may be null)
+	 * @throws TransportException the transport exception
+	 */
+	private void subscribeObjectClassAttributes(String className,
+			String[] attributeNames, Region region)
+			throws TransportException {
+		Federation federation = getFederation();
+		synchronized(federation) {
+			subscribedAttributes.put(className,
+					new HashSet<String>(Arrays.asList(attributeNames)));
+			if(region == null) {
+				subscribedRegions.remove(className);
+			} else {
+				subscribedRegions.put(className, region);
+			}
+
+			// discover existing instances of the class
+			for(Instance instance : federation.instances.values()) {
+				if(instance.className.equals(className)) {
+					discover(instance);
+				}
+			}
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#subscribeObjectClassAttributes(java.lang.String, java.lang.String[], java.lang.String, long, long)
+	 */
+	@Override
+	public void subscribeObjectClassAttributes(String className,
+			String[] attributeNames, String dimensionName,
+			long lowerBound, long upperBound) throws TransportException {
+		subscribeObjectClassAttributes(className, attributeNames,
+				new Region(dimensionName, lowerBound, upperBound));
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#updateAttributeValues(java.lang.String, java.util.Map, byte[])
+	 */
+	@Override
+	public void updateAttributeValues(final String instanceName,
+			Map<String, byte[]> attributes, final byte[] tag)
+			throws TransportException {
+		Federation federation = getFederation();
+		synchronized(federation) {
+			Instance instance = getInstance(federation, instanceName);
+			if(instance.owner != this) {
+				throw new TransportException("Object instance "
+						+ instanceName + " not owned.");
+			}
+
+			// reflect the subscribed attributes to each federate which has
+			// discovered the instance
+			for(InProcessTransport federate : federation.federates.values()) {
+				if(!federate.discoveredInstances.contains(instanceName)) {
+					continue;
+				}
+				Set<String> subscribedNames = federate.subscribedAttributes
+						.get(instance.className);
+				final Map<String, byte[]> reflectedValues =
+						new HashMap<String, byte[]>();
+				for(Map.Entry<String, byte[]> entry : attributes.entrySet()) {
+					if(subscribedNames.contains(entry.getKey())) {
+						reflectedValues.put(entry.getKey(), entry.getValue());
+					}
+				}
+				if(!reflectedValues.isEmpty()) {
+					federate.deliver(new Callback() {
+						@Override
+						public void invoke(TransportListener listener) {
+							listener.reflectAttributeValues(instanceName,
+									Collections.unmodifiableMap(
+											reflectedValues), tag);
+						}
+					});
+				}
+			}
+		}
+	}
+
+	/**
+	 * A callback to be delivered to a listener.
+	 */
+	private static interface Callback {
+
+		/**
+		 * Invokes the callback.
+		 *
+		 * @param listener the listener
+		 */
+		public void invoke(TransportListener listener);
+	}
+
+	/**
+	 * An in-memory federation shared by the federates joined to it.
+	 */
+	private static class Federation {
+		private final String name; // immutable
+		private final ScheduledExecutorService dispatcher; // immutable
+		private final Map<String, InProcessTransport> federates =
+				new LinkedHashMap<String, InProcessTransport>(); // mutable
+		private final Map<String, Instance> instances =
+				new LinkedHashMap<String, Instance>(); // mutable
+		private int federateCount, instanceCount; // mutable
+
+		/**
+		 * Instantiates a new federation.
+		 *
+		 * @param name the federation name
+		 */
+		public Federation(final String name) {
+			this.name = name;
+
+			// a single thread delivers callbacks in order of invocation
+			dispatcher = Executors.newSingleThreadScheduledExecutor(
+					new ThreadFactory() {
+						@Override
+						public Thread newThread(Runnable runnable) {
+							Thread thread = new Thread(runnable,
+									"InProcess " + name);
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+		}
+	}
+
+	/**
+	 * An object instance registered in a federation.
+	 */
+	private static class Instance {
+		private final String name; // immutable
+		private final String className; // immutable
+		private final InProcessTransport owner; // immutable
+		private final Region region; // immutable
+
+		/**
+		 * Instantiates a new instance.
+		 *
+		 * @param name the object instance name
+		 * @param className the object class name
+		 * @param owner the owning federate
+		 * @param region the region (may be null)
+		 */
+		public Instance(String name, String className,
+				InProcessTransport owner, Region region) {
+			this.name = name;
+			this.className = className;
+			this.owner = owner;
+			this.region = region;
+		}
+	}
+}
@@ -0,0 +1,158 @@
+package edu.mit.collab.transport;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * A non-blocking connection exchanging length-prefixed frames over a
+ * socket channel. Frames may be sent from any thread and are queued until
+ * the selector thread flushes them; all frames queued since the last flush
+ * are written with a single gathering write to batch bursts of updates.
+ *
+ * @see NIOFrame
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ */
+class NIOConnection {
+	private static final int MAX_FRAME_LENGTH = 64*1024*1024;
+
+	private final SocketChannel channel; // immutable
+	private final SelectionKey key; // immutable
+	private final Queue<NIOConnection> flushQueue; // immutable
+	private ByteBuffer readBuffer = ByteBuffer.allocate(8*1024); // mutable
+
+	// frames waiting to be written; only accessed while synchronized
+	private final List<ByteBuffer> writeQueue = new ArrayList<ByteBuffer>(); // mutable
+
+	/**
+	 * Instantiates a new connection registered with a selector.
+	 *
+	 * @param channel the non-blocking channel
+	 * @param key the selection key
+	 * @param flushQueue the queue of connections to be flushed by the
+	 * selector thread
+	 */
+	NIOConnection(SocketChannel channel, SelectionKey key,
+			Queue<NIOConnection> flushQueue) {
+		this.channel = channel;
+		this.key = key;
+		this.flushQueue = flushQueue;
+		key.attach(this);
+	}
+
+	/**
+	 * Closes the connection.
+	 */
+	void close() {
+		key.cancel();
+		try {
+			channel.close();
+		} catch (IOException ignored) { }
+	}
+
+	/**
+	 * Writes queued frames to the channel. If the channel cannot accept all
+	 * frames, the connection waits for the channel to become writable.
+	 * Must only be called by the selector thread.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	void flush() throws IOException {
+		synchronized(writeQueue) {
+			if(!writeQueue.isEmpty()) {
+				// write all queued frames in a single gathering write
+				ByteBuffer[] buffers = writeQueue.toArray(
+						new ByteBuffer[writeQueue.size()]);
+				channel.write(buffers);
+
+				// remove frames which were completely written
+				int written = 0;
+				while(written < buffers.length
+						&& !buffers[written].hasRemaining()) {
+					written++;
+				}
+				writeQueue.subList(0, written).clear();
+			}
+			if(key.isValid()) {
+				key.interestOps(writeQueue.isEmpty() ? SelectionKey.OP_READ
+						: SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+			}
+		}
+	}
+
+	/**
+	 * Checks whether frames are waiting to be written.
+	 *
+	 * @return true, if frames are waiting to be written
+	 */
+	boolean hasPending() {
+		synchronized(writeQueue) {
+			return !writeQueue.isEmpty();
+		}
+	}
+
+	/**
+	 * Reads available bytes from the channel and adds complete frames to a
+	 * list. Must only be called by the selector thread.
+	 *
+	 * @param frames the list of frames to add to
+	 * @return false, if the channel has reached end-of-stream
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	boolean read(List<NIOFrame> frames) throws IOException {
+		int count = channel.read(readBuffer);
+		readBuffer.flip();
+
+		// split complete frames from the buffer
+		while(readBuffer.remaining() >= 4) {
+			int length = readBuffer.getInt(readBuffer.position());
+			if(length <= 0 || length > MAX_FRAME_LENGTH) {
+				throw new IOException("Invalid frame length " + length + ".");
+			}
+			if(readBuffer.remaining() < 4 + length) {
+				break;
+			}
+
+			// copy the payload so the read buffer can be re-used
+			byte[] payload = new byte[length];
+			readBuffer.position(readBuffer.position() + 4);
+			readBuffer.get(payload);
+			frames.add(new NIOFrame(ByteBuffer.wrap(payload)));
+		}
+
+		// keep a partial frame, growing the buffer if it cannot fit
+		readBuffer.compact();
+		if(!readBuffer.hasRemaining()) {
+			ByteBuffer buffer = ByteBuffer.allocate(2*readBuffer.capacity());
+			readBuffer.flip();
+			buffer.put(readBuffer);
+			readBuffer = buffer;
+		}
+		return count >= 0;
+	}
+
+	/**
+	 * Queues a frame to be written by the selector thread.
+	 *
+	 * @param frame the frame
+	 */
+	void send(NIOFrame frame) {
+		ByteBuffer buffer = frame.toByteBuffer();
+		boolean wasEmpty;
+		synchronized(writeQueue) {
+			wasEmpty = writeQueue.isEmpty();
+			writeQueue.add(buffer);
+		}
+		if(wasEmpty) {
+			// frames queued until the selector thread wakes up are
+			// written together
+			flushQueue.add(this);
+			key.selector().wakeup();
+		}
+	}
+}
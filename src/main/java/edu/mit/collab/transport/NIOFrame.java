@@ -0,0 +1,296 @@
+package edu.mit.collab.transport;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A binary frame exchanged by the NIO transport. Each frame is prefixed by
+ * its length (4 bytes) followed by a type code (1 byte) and the fields of
+ * the frame's type. Strings are encoded as UTF-8 prefixed by their length
+ * and byte arrays are prefixed by their length.
+ *
+ * A frame is either created with a type to write fields, or wraps a
+ * received payload to read fields in the order they were written. Lengths
+ * read from a payload are checked against the remaining bytes so a corrupt
+ * frame fails with a runtime exception rather than a large allocation.
+ *
+ * @see NIOTransport
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ */
+class NIOFrame {
+	// frame types sent by federates to the hub
+	static final byte JOIN = 1;
+	static final byte RESIGN = 2;
+	static final byte SUBSCRIBE_OBJECT = 3;
+	static final byte SUBSCRIBE_INTERACTION = 4;
+	static final byte REGISTER = 5;
+	static final byte UPDATE = 6;
+	static final byte REQUEST = 7;
+	static final byte SEND = 8;
+	static final byte DELETE = 9;
+
+	// frame types sent by the hub to federates
+	static final byte JOINED = 16;
+	static final byte ERROR = 17;
+	static final byte DISCOVER = 18;
+	static final byte REFLECT = 19;
+	static final byte PROVIDE = 20;
+	static final byte REMOVE = 21;
+	static final byte RECEIVE = 22;
+
+	private final byte type; // immutable
+	private final ByteArrayOutputStream bytes; // mutable
+	private final DataOutputStream out; // mutable
+	private final ByteBuffer in; // mutable
+
+	/**
+	 * Instantiates a new frame to write fields.
+	 *
+	 * @param type the frame type
+	 */
+	NIOFrame(byte type) {
+		this.type = type;
+		bytes = new ByteArrayOutputStream(64);
+		out = new DataOutputStream(bytes);
+		in = null;
+		try {
+			// reserve space for the length prefix
+			out.writeInt(0);
+			out.writeByte(type);
+		} catch (IOException ignored) {
+			// byte array streams do not throw exceptions
+		}
+	}
+
+	/**
+	 * Instantiates a new frame to read fields of a received payload.
+	 *
+	 * @param payload the payload (excluding the length prefix)
+	 */
+	NIOFrame(ByteBuffer payload) {
+		in = payload;
+		type = in.get();
+		bytes = null;
+		out = null;
+	}
+
+	/**
+	 * Gets the frame type.
+	 *
+	 * @return the type
+	 */
+	byte getType() {
+		return type;
+	}
+
+	/**
+	 * Reads a byte array.
+	 *
+	 * @return the byte array
+	 */
+	byte[] readBytes() {
+		byte[] value = new byte[readLength(1)];
+		in.get(value);
+		return value;
+	}
+
+	/**
+	 * Reads a length and checks the remaining bytes can hold that many
+	 * elements.
+	 *
+	 * @param elementSize the minimum encoded size of each element
+	 * @return the length
+	 */
+	private int readLength(int elementSize) {
+		int length = in.getInt();
+		if(length < 0 || length > in.remaining() / elementSize) {
+			throw new IllegalArgumentException("Invalid length " + length
+					+ " with " + in.remaining() + " bytes remaining.");
+		}
+		return length;
+	}
+
+	/**
+	 * Reads an optional region.
+	 *
+	 * @return the region, or null if none was written
+	 */
+	Region readRegion() {
+		if(in.get() == 0) {
+			return null;
+		}
+		String dimensionName = readString();
+		long lowerBound = in.getLong();
+		return new Region(dimensionName, lowerBound, in.getLong());
+	}
+
+	/**
+	 * Reads a string.
+	 *
+	 * @return the string
+	 */
+	String readString() {
+		int length = in.getInt();
+		if(length < 0) {
+			return null;
+		} else if(length > in.remaining()) {
+			throw new IllegalArgumentException("Invalid length " + length
+					+ " with " + in.remaining() + " bytes remaining.");
+		}
+		String value = new String(in.array(), in.arrayOffset() + in.position(),
+				length, StandardCharsets.UTF_8);
+		in.position(in.position() + length);
+		return value;
+	}
+
+	/**
+	 * Reads a set of strings.
+	 *
+	 * @return the set of strings
+	 */
+	Set<String> readStringSet() {
+		// each string has at least a length prefix
+		int size = readLength(4);
+		Set<String> values = new HashSet<String>(2*size);
+		for(int i = 0; i < size; i++) {
+			values.add(readString());
+		}
+		return values;
+	}
+
+	/**
+	 * Reads an array of strings.
+	 *
+	 * @return the array of strings
+	 */
+	String[] readStrings() {
+		// each string has at least a length prefix
+		String[] values = new String[readLength(4)];
+		for(int i = 0; i < values.length; i++) {
+			values[i] = readString();
+		}
+		return values;
+	}
+
+	/**
+	 * Reads encoded values keyed by name.
+	 *
+	 * @return the values
+	 */
+	Map<String, byte[]> readValues() {
+		// each value has at least the length prefixes of its name and bytes
+		int size = readLength(8);
+		Map<String, byte[]> values = new HashMap<String, byte[]>(2*size);
+		for(int i = 0; i < size; i++) {
+			String name = readString();
+			values.put(name, readBytes());
+		}
+		return values;
+	}
+
+	/**
+	 * Gets the length-prefixed frame ready to be written to a channel.
+	 *
+	 * @return the byte buffer
+	 */
+	ByteBuffer toByteBuffer() {
+		ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+		buffer.putInt(0, buffer.limit() - 4);
+		return buffer;
+	}
+
+	/**
+	 * Writes a byte array.
+	 *
+	 * @param value the byte array
+	 * @return this frame
+	 */
+	NIOFrame writeBytes(byte[] value) {
+		try {
+			out.writeInt(value.length);
+			out.write(value);
+		} catch (IOException ignored) { }
+		return this;
+	}
+
+	/**
+	 * Writes an optional region.
+	 *
+	 * @param region the region (may be null)
+	 * @return this frame
+	 */
+	NIOFrame writeRegion(Region region) {
+		try {
+			if(region == null) {
+				out.writeByte(0);
+			} else {
+				out.writeByte(1);
+				writeString(region.dimensionName);
+				out.writeLong(region.lowerBound);
+				out.writeLong(region.upperBound);
+			}
+		} catch (IOException ignored) { }
+		return this;
+	}
+
+	/**
+	 * Writes a string.
+	 *
+	 * @param value the string (may be null)
+	 * @return this frame
+	 */
+	NIOFrame writeString(String value) {
+		try {
+			if(value == null) {
+				out.writeInt(-1);
+			} else {
+				byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+				out.writeInt(encoded.length);
+				out.write(encoded);
+			}
+		} catch (IOException ignored) { }
+		return this;
+	}
+
+	/**
+	 * Writes a collection of strings.
+	 *
+	 * @param values the strings
+	 * @return this frame
+	 */
+	NIOFrame writeStrings(Collection<String> values) {
+		try {
+			out.writeInt(values.size());
+		} catch (IOException ignored) { }
+		for(String value : values) {
+			writeString(value);
+		}
+		return this;
+	}
+
+	/**
+	 * Writes encoded values keyed by name.
+	 *
+	 * @param values the values
+	 * @return this frame
+	 */
+	NIOFrame writeValues(Map<String, byte[]> values) {
+		try {
+			out.writeInt(values.size());
+		} catch (IOException ignored) { }
+		for(Map.Entry<String, byte[]> entry : values.entrySet()) {
+			writeString(entry.getKey());
+			writeBytes(entry.getValue());
+		}
+		return this;
+	}
+}
@@ -0,0 +1,599 @@
+package edu.mit.collab.transport;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * The hub of the NIO transport. The hub accepts connections from remote
+ * federates, keeps the subscriptions and object instances of all federates,
+ * and routes updates, requests and interactions to the federates which
+ * should receive them. The federate hosting the hub is joined locally and
+ * receives its callbacks on a dedicated thread.
+ *
+ * A single selector thread reads frames from and writes frames to all
+ * connections; frames sent to a connection are batched until the selector
+ * thread flushes them.
+ *
+ * @see NIOTransport
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ */
+class NIOHub implements Runnable {
+	private final ServerSocketChannel server; // immutable
+	private final Selector selector; // immutable
+	private final Queue<NIOConnection> flushQueue =
+			new ConcurrentLinkedQueue<NIOConnection>(); // mutable
+	private final ExecutorService callbacks; // immutable
+	private volatile boolean running = true; // mutable
+
+	// federates and object instances; only accessed while synchronized
+	private final Map<String, Peer> peers =
+			new LinkedHashMap<String, Peer>(); // mutable
+	private final Map<NIOConnection, Peer> connectionPeers =
+			new HashMap<NIOConnection, Peer>(); // mutable
+	private final Map<String, Instance> instances =
+			new LinkedHashMap<String, Instance>(); // mutable
+	private int federateCount; // mutable
+
+	/**
+	 * Instantiates a new hub listening on a socket address and starts the
+	 * selector thread.
+	 *
+	 * @param address the socket address
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	NIOHub(InetSocketAddress address) throws IOException {
+		selector = Selector.open();
+		server = ServerSocketChannel.open();
+		server.socket().setReuseAddress(true);
+		server.bind(address);
+		server.configureBlocking(false);
+		server.register(selector, SelectionKey.OP_ACCEPT);
+
+		// a single thread delivers callbacks to the local federate
+		callbacks = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "NIO hub callbacks");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+
+		Thread thread = new Thread(this, "NIO hub");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Accepts a new connection from a remote federate.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	private void accept() throws IOException {
+		SocketChannel channel = server.accept();
+		if(channel == null) {
+			return;
+		}
+		channel.configureBlocking(false);
+		channel.socket().setTcpNoDelay(true);
+		new NIOConnection(channel, channel.register(selector,
+				SelectionKey.OP_READ), flushQueue);
+	}
+
+	/**
+	 * Discovers an object instance to a federate if it is subscribed to the
+	 * instance's class and region.
+	 *
+	 * @param peer the federate
+	 * @param instance the object instance
+	 */
+	private void discover(Peer peer, Instance instance) {
+		if(instance.owner == peer
+				|| peer.discoveredInstances.contains(instance.name)
+				|| !peer.subscribedAttributes.containsKey(instance.className)
+				|| !Region.overlaps(peer.subscribedRegions.get(
+						instance.className), instance.region)) {
+			return;
+		}
+		peer.discoveredInstances.add(instance.name);
+		peer.deliver(new NIOFrame(NIOFrame.DISCOVER)
+				.writeString(instance.name).writeString(instance.className));
+	}
+
+	/**
+	 * Closes a connection and resigns its federate.
+	 *
+	 * @param connection the connection
+	 */
+	private synchronized void drop(NIOConnection connection) {
+		Peer peer = connectionPeers.remove(connection);
+		if(peer != null) {
+			resign(peer);
+		}
+		connection.close();
+	}
+
+	/**
+	 * Deletes an object instance and removes it from federates which have
+	 * discovered it. Instances owned by other federates are ignored.
+	 *
+	 * @param peer the owning federate
+	 * @param instanceName the object instance name
+	 */
+	synchronized void deleteObjectInstance(Peer peer, String instanceName) {
+		Instance instance = instances.get(instanceName);
+		if(instance == null || instance.owner != peer) {
+			return;
+		}
+		instances.remove(instanceName);
+		for(Peer other : peers.values()) {
+			if(other.discoveredInstances.remove(instanceName)) {
+				other.deliver(new NIOFrame(NIOFrame.REMOVE)
+						.writeString(instanceName));
+			}
+		}
+	}
+
+	/**
+	 * Handles a frame received from a remote federate.
+	 *
+	 * @param connection the connection
+	 * @param frame the frame
+	 */
+	private synchronized void handle(NIOConnection connection,
+			NIOFrame frame) {
+		if(frame.getType() == NIOFrame.JOIN) {
+			String federateName = frame.readString();
+			String federateType = frame.readString();
+			try {
+				Peer peer = join(federateName, federateType, null, connection);
+				connectionPeers.put(connection, peer);
+				connection.send(new NIOFrame(NIOFrame.JOINED)
+						.writeString(peer.name));
+			} catch (TransportException ex) {
+				connection.send(new NIOFrame(NIOFrame.ERROR)
+						.writeString(ex.getMessage()));
+			}
+			return;
+		}
+
+		// all other frames require a joined federate
+		Peer peer = connectionPeers.get(connection);
+		if(peer == null) {
+			return;
+		}
+		switch(frame.getType()) {
+		case NIOFrame.RESIGN:
+			connectionPeers.remove(connection);
+			resign(peer);
+			break;
+		case NIOFrame.SUBSCRIBE_OBJECT:
+			subscribeObjectClassAttributes(peer, frame.readString(),
+					frame.readStrings(), frame.readRegion());
+			break;
+		case NIOFrame.SUBSCRIBE_INTERACTION:
+			subscribeInteractionClass(peer, frame.readString());
+			break;
+		case NIOFrame.REGISTER:
+			registerObjectInstance(peer, frame.readString(),
+					frame.readString(), frame.readRegion());
+			break;
+		case NIOFrame.DELETE:
+			deleteObjectInstance(peer, frame.readString());
+			break;
+		case NIOFrame.UPDATE:
+			updateAttributeValues(peer, frame.readString(),
+					frame.readValues(), frame.readBytes());
+			break;
+		case NIOFrame.REQUEST:
+			requestAttributeValueUpdate(peer, frame.readString(),
+					frame.readStrings());
+			break;
+		case NIOFrame.SEND:
+			sendInteraction(peer, frame.readString(),
+					frame.readValues(), frame.readBytes());
+			break;
+		}
+	}
+
+	/**
+	 * Joins a federate to the hub.
+	 *
+	 * @param federateName the federate name (may be null)
+	 * @param federateType the federate type
+	 * @param listener the listener for a local federate
+	 * @param connection the connection for a remote federate
+	 * @return the federate
+	 * @throws TransportException the transport exception
+	 */
+	synchronized Peer join(String federateName, String federateType,
+			TransportListener listener, NIOConnection connection)
+			throws TransportException {
+		if(federateName == null) {
+			federateName = federateType + "-" + (++federateCount);
+		} else if(peers.containsKey(federateName)) {
+			throw new TransportException("Federate name "
+					+ federateName + " already in use.");
+		}
+		Peer peer = new Peer(federateName, listener, connection);
+		peers.put(federateName, peer);
+		return peer;
+	}
+
+	/**
+	 * Registers a new object instance and discovers it to subscribed
+	 * federates.
+	 *
+	 * @param peer the owning federate
+	 * @param instanceName the object instance name
+	 * @param className the object class name
+	 * @param region the region (may be null)
+	 */
+	synchronized void registerObjectInstance(Peer peer, String instanceName,
+			String className, Region region) {
+		Instance instance = new Instance(instanceName, className,
+				peer, region);
+		instances.put(instanceName, instance);
+		for(Peer other : peers.values()) {
+			discover(other, instance);
+		}
+	}
+
+	/**
+	 * Asks the owner of an object instance to provide attribute values.
+	 *
+	 * @param peer the requesting federate
+	 * @param instanceName the object instance name
+	 * @param attributeNames the attribute names
+	 */
+	synchronized void requestAttributeValueUpdate(Peer peer,
+			String instanceName, String[] attributeNames) {
+		Instance instance = instances.get(instanceName);
+		if(instance != null) {
+			instance.owner.deliver(new NIOFrame(NIOFrame.PROVIDE)
+					.writeString(instanceName)
+					.writeStrings(Arrays.asList(attributeNames)));
+		}
+	}
+
+	/**
+	 * Resigns a federate, removing all of its object instances.
+	 *
+	 * @param peer the federate
+	 */
+	synchronized void resign(Peer peer) {
+		List<String> ownedInstances = new ArrayList<String>();
+		for(Instance instance : instances.values()) {
+			if(instance.owner == peer) {
+				ownedInstances.add(instance.name);
+			}
+		}
+		for(String instanceName : ownedInstances) {
+			deleteObjectInstance(peer, instanceName);
+		}
+		peers.remove(peer.name);
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.Runnable#run()
+	 */
+	@Override
+	public void run() {
+		List<NIOFrame> frames = new ArrayList<NIOFrame>();
+		while(running) {
+			try {
+				selector.select();
+			} catch (IOException ex) {
+				ex.printStackTrace();
+				break;
+			}
+
+			// write frames queued since the last iteration
+			NIOConnection connection;
+			while((connection = flushQueue.poll()) != null) {
+				try {
+					connection.flush();
+				} catch (IOException ex) {
+					drop(connection);
+				} catch (RuntimeException ex) {
+					ex.printStackTrace();
+					drop(connection);
+				}
+			}
+
+			// accept new connections and read and write existing ones
+			Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+			while(keys.hasNext()) {
+				SelectionKey key = keys.next();
+				keys.remove();
+				if(!key.isValid()) {
+					continue;
+				}
+				if(key.isAcceptable()) {
+					try {
+						accept();
+					} catch (IOException ex) {
+						ex.printStackTrace();
+					}
+					continue;
+				}
+				connection = (NIOConnection) key.attachment();
+				try {
+					if(key.isReadable()) {
+						frames.clear();
+						boolean open = connection.read(frames);
+						for(NIOFrame frame : frames) {
+							handle(connection, frame);
+						}
+						if(!open) {
+							drop(connection);
+							continue;
+						}
+					}
+					if(key.isValid() && key.isWritable()) {
+						connection.flush();
+					}
+				} catch (IOException ex) {
+					drop(connection);
+				} catch (RuntimeException ex) {
+					// drop only the connection which sent a corrupt frame
+					ex.printStackTrace();
+					drop(connection);
+				}
+			}
+		}
+
+		// once stopped, try to write remaining frames (e.g. removals of
+		// the hub's instances) and close all connections
+		NIOConnection connection;
+		while((connection = flushQueue.poll()) != null) {
+			try {
+				connection.flush();
+			} catch (IOException ignored) { }
+		}
+		for(SelectionKey key : selector.keys()) {
+			if(key.attachment() instanceof NIOConnection) {
+				((NIOConnection) key.attachment()).close();
+			}
+		}
+		try {
+			server.close();
+			selector.close();
+		} catch (IOException ignored) { }
+	}
+
+	/**
+	 * Sends an interaction to subscribed federates.
+	 *
+	 * @param peer the sending federate
+	 * @param className the interaction class name
+	 * @param parameters the parameter values
+	 * @param tag the user-supplied tag
+	 */
+	synchronized void sendInteraction(Peer peer, String className,
+			Map<String, byte[]> parameters, byte[] tag) {
+		NIOFrame frame = null;
+		for(Peer other : peers.values()) {
+			if(other != peer && other.subscribedInteractions
+					.contains(className)) {
+				if(frame == null) {
+					frame = new NIOFrame(NIOFrame.RECEIVE)
+							.writeString(className).writeValues(parameters)
+							.writeBytes(tag);
+				}
+				other.deliver(frame);
+			}
+		}
+	}
+
+	/**
+	 * Stops the hub. Remaining frames are written and all connections are
+	 * closed by the selector thread.
+	 */
+	synchronized void stop() {
+		running = false;
+		callbacks.shutdown();
+
+		// the selector thread closes all connections once it wakes up
+		selector.wakeup();
+	}
+
+	/**
+	 * Subscribes a federate to an interaction class.
+	 *
+	 * @param peer the federate
+	 * @param className the interaction class name
+	 */
+	synchronized void subscribeInteractionClass(Peer peer, String className) {
+		peer.subscribedInteractions.add(className);
+	}
+
+	/**
+	 * Subscribes a federate to object class attributes and discovers
+	 * existing object instances of the class.
+	 *
+	 * @param peer the federate
+	 * @param className the object class name
+	 * @param attributeNames the attribute names
+	 * @param region the region (may be null)
+	 */
+	synchronized void subscribeObjectClassAttributes(Peer peer,
+			String className, String[] attributeNames, Region region) {
+		peer.subscribedAttributes.put(className,
+				new HashSet<String>(Arrays.asList(attributeNames)));
+		if(region == null) {
+			peer.subscribedRegions.remove(className);
+		} else {
+			peer.subscribedRegions.put(className, region);
+		}
+		for(Instance instance : instances.values()) {
+			if(instance.className.equals(className)) {
+				discover(peer, instance);
+			}
+		}
+	}
+
+	/**
+	 * Reflects updated attribute values to each federate which has
+	 * discovered the object instance.
+	 *
+	 * @param peer the owning federate
+	 * @param instanceName the object instance name
+	 * @param attributes the attribute values
+	 * @param tag the user-supplied tag
+	 */
+	synchronized void updateAttributeValues(Peer peer, String instanceName,
+			Map<String, byte[]> attributes, byte[] tag) {
+		Instance instance = instances.get(instanceName);
+		if(instance == null || instance.owner != peer) {
+			return;
+		}
+		NIOFrame allValues = null;
+		for(Peer other : peers.values()) {
+			if(!other.discoveredInstances.contains(instanceName)) {
+				continue;
+			}
+
+			// send only subscribed attributes, sharing the frame among
+			// federates subscribed to all of the updated attributes
+			Set<String> subscribedNames = other.subscribedAttributes
+					.get(instance.className);
+			if(subscribedNames.containsAll(attributes.keySet())) {
+				if(allValues == null) {
+					allValues = new NIOFrame(NIOFrame.REFLECT)
+							.writeString(instanceName)
+							.writeValues(attributes).writeBytes(tag);
+				}
+				other.deliver(allValues);
+			} else {
+				Map<String, byte[]> values = new HashMap<String, byte[]>();
+				for(Map.Entry<String, byte[]> entry : attributes.entrySet()) {
+					if(subscribedNames.contains(entry.getKey())) {
+						values.put(entry.getKey(), entry.getValue());
+					}
+				}
+				if(!values.isEmpty()) {
+					other.deliver(new NIOFrame(NIOFrame.REFLECT)
+							.writeString(instanceName)
+							.writeValues(values).writeBytes(tag));
+				}
+			}
+		}
+	}
+
+	/**
+	 * An object instance registered with the hub.
+	 */
+	private static class Instance {
+		private final String name; // immutable
+		private final String className; // immutable
+		private final Peer owner; // immutable
+		private final Region region; // immutable
+
+		/**
+		 * Instantiates a new instance.
+		 *
+		 * @param name the object instance name
+		 * @param className the object class name
+		 * @param owner the owning federate
+		 * @param region the region (may be null)
+		 */
+		public Instance(String name, String className, Peer owner,
+				Region region) {
+			this.name = name;
+			this.className = className;
+			this.owner = owner;
+			this.region = region;
+		}
+	}
+
+	/**
+	 * A federate joined to the hub, either locally or over a connection.
+	 */
+	class Peer {
+		private final String name; // immutable
+		private final TransportListener listener; // immutable
+		private final NIOConnection connection; // immutable
+
+		// subscriptions and discovered instances; only accessed while
+		// synchronized on the hub
+		private final Map<String, Set<String>> subscribedAttributes =
+				new HashMap<String, Set<String>>(); // mutable
+		private final Map<String, Region> subscribedRegions =
+				new HashMap<String, Region>(); // mutable
+		private final Set<String> subscribedInteractions =
+				new HashSet<String>(); // mutable
+		private final Set<String> discoveredInstances =
+				new HashSet<String>(); // mutable
+
+		/**
+		 * Instantiates a new peer.
+		 *
+		 * @param name the federate name
+		 * @param listener the listener for a local federate
+		 * @param connection the connection for a remote federate
+		 */
+		private Peer(String name, TransportListener listener,
+				NIOConnection connection) {
+			this.name = name;
+			this.listener = listener;
+			this.connection = connection;
+		}
+
+		/**
+		 * Delivers a callback frame to this federate.
+		 *
+		 * @param frame the frame
+		 */
+		private void deliver(NIOFrame frame) {
+			if(connection != null) {
+				connection.send(frame);
+				return;
+			}
+
+			// re-read the frame on the callback thread of the local federate
+			ByteBuffer buffer = frame.toByteBuffer();
+			buffer.position(4);
+			final NIOFrame callback = new NIOFrame(buffer.slice());
+			callbacks.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						NIOTransport.dispatch(callback, listener);
+					} catch (RuntimeException ex) {
+						ex.printStackTrace();
+					}
+				}
+			});
+		}
+
+		/**
+		 * Gets the federate name.
+		 *
+		 * @return the federate name
+		 */
+		String getName() {
+			return name;
+		}
+	}
+}
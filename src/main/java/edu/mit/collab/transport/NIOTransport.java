@@ -0,0 +1,534 @@
+package edu.mit.collab.transport;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import hla.rti1516e.encoding.EncoderFactory;
+
+/**
+ * The transport implementation exchanging length-prefixed binary frames
+ * over TCP using non-blocking I/O, e.g. for lab deployments where each
+ * federate runs on its own workstation. The federate with the type given
+ * by the <code>nioHubType</code> property (default <code>manager</code>)
+ * hosts the hub on the <code>nioPort</code> property (default 5816); all
+ * other federates connect to the hub at the <code>nioHost</code> property
+ * (default <code>localhost</code>).
+ *
+ * The hub routes all updates, so a designer's update reaches the manager
+ * in a single hop. Sockets disable Nagle's algorithm and frames queued
+ * while the selector thread is busy are written together. Callbacks are
+ * delivered by the selector thread of remote federates and by a dedicated
+ * thread for the hub's federate.
+ *
+ * @see NIOHub
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ */
+public class NIOTransport implements Transport, Runnable {
+	private static final long JOIN_TIMEOUT = 10000;
+
+	private final Properties properties; // immutable
+	private final EncoderFactory encoderFactory; // immutable
+
+	private transient String federateName; // set upon connection
+	private transient TransportListener listener; // set upon connection
+
+	// hub and local federate if this federate hosts the hub
+	private transient NIOHub hub; // set upon connection
+	private transient NIOHub.Peer peer; // set upon connection
+
+	// connection and selector thread if this federate connects to the hub
+	private transient Selector selector; // set upon connection
+	private transient NIOConnection connection; // set upon connection
+	private transient Thread thread; // set upon connection
+	private final Queue<NIOConnection> flushQueue =
+			new ConcurrentLinkedQueue<NIOConnection>(); // mutable
+	private volatile boolean running; // mutable
+	private String joinedName, joinError; // mutable
+
+	// published classes and registered instances of this federate; only
+	// accessed while synchronized
+	private final Map<String, Set<String>> publishedAttributes =
+			new HashMap<String, Set<String>>(); // mutable
+	private final Set<String> publishedInteractions =
+			new HashSet<String>(); // mutable
+	private final Set<String> ownedInstances = new HashSet<String>(); // mutable
+	private int instanceCount; // mutable
+
+	/**
+	 * Instantiates a new NIO transport.
+	 *
+	 * @param properties the configuration properties
+	 * @throws TransportException the transport exception
+	 */
+	public NIOTransport(Properties properties) throws TransportException {
+		this.properties = properties;
+		encoderFactory = TransportFactory.createEncoderFactory(properties);
+	}
+
+	/**
+	 * Dispatches a callback frame to a listener.
+	 *
+	 * @param frame the frame
+	 * @param listener the listener
+	 */
+	static void dispatch(NIOFrame frame, TransportListener listener) {
+		switch(frame.getType()) {
+		case NIOFrame.DISCOVER:
+			listener.discoverObjectInstance(frame.readString(),
+					frame.readString());
+			break;
+		case NIOFrame.REFLECT:
+			listener.reflectAttributeValues(frame.readString(),
+					frame.readValues(), frame.readBytes());
+			break;
+		case NIOFrame.PROVIDE:
+			listener.provideAttributeValueUpdate(frame.readString(),
+					frame.readStringSet());
+			break;
+		case NIOFrame.REMOVE:
+			listener.removeObjectInstance(frame.readString());
+			break;
+		case NIOFrame.RECEIVE:
+			listener.receiveInteraction(frame.readString(),
+					frame.readValues(), frame.readBytes());
+			break;
+		}
+	}
+
+	/**
+	 * Checks this federate has joined.
+	 *
+	 * @throws TransportException the transport exception
+	 */
+	private void checkJoined() throws TransportException {
+		if(federateName == null) {
+			throw new TransportException("Federate not execution member.");
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#connect(java.lang.String, java.lang.String, edu.mit.collab.transport.TransportListener)
+	 */
+	@Override
+	public synchronized void connect(String federateName,
+			String federateType, TransportListener listener)
+			throws TransportException {
+		if(this.federateName != null) {
+			// already joined
+			return;
+		}
+		this.listener = listener;
+		joinedName = null;
+		joinError = null;
+		String host = properties.getProperty("nioHost", "localhost");
+		int port = Integer.parseInt(properties.getProperty("nioPort", "5816"));
+
+		if(federateType.equals(properties.getProperty(
+				"nioHubType", "manager"))) {
+			// host the hub and join locally
+			try {
+				hub = new NIOHub(new InetSocketAddress(port));
+			} catch (IOException ex) {
+				throw new TransportException("Could not open hub on port "
+						+ port + ".", ex);
+			}
+			peer = hub.join(federateName, federateType, listener, null);
+			this.federateName = peer.getName();
+			return;
+		}
+
+		// connect to the hub and start the selector thread
+		try {
+			SocketChannel channel = SocketChannel.open(
+					new InetSocketAddress(host, port));
+			channel.socket().setTcpNoDelay(true);
+			channel.configureBlocking(false);
+			selector = Selector.open();
+			connection = new NIOConnection(channel, channel.register(
+					selector, SelectionKey.OP_READ), flushQueue);
+		} catch (IOException ex) {
+			throw new TransportException("Could not connect to hub at "
+					+ host + ":" + port + ".", ex);
+		}
+		running = true;
+		thread = new Thread(this, "NIO " + federateType);
+		thread.setDaemon(true);
+		thread.start();
+
+		// join and wait for the hub to confirm the federate name
+		connection.send(new NIOFrame(NIOFrame.JOIN)
+				.writeString(federateName).writeString(federateType));
+		long timeout = System.currentTimeMillis() + JOIN_TIMEOUT;
+		try {
+			while(joinedName == null && joinError == null && running
+					&& System.currentTimeMillis() < timeout) {
+				wait(Math.max(1, timeout - System.currentTimeMillis()));
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+		if(joinedName == null) {
+			stopThread();
+			throw new TransportException(joinError == null
+					? "Could not join hub at " + host + ":" + port + "."
+					: joinError);
+		}
+		this.federateName = joinedName;
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#deleteObjectInstance(java.lang.String)
+	 */
+	@Override
+	public synchronized void deleteObjectInstance(String instanceName)
+			throws TransportException {
+		checkJoined();
+		if(!ownedInstances.remove(instanceName)) {
+			throw new TransportException("Object instance "
+					+ instanceName + " not owned.");
+		}
+		if(hub != null) {
+			hub.deleteObjectInstance(peer, instanceName);
+		} else {
+			connection.send(new NIOFrame(NIOFrame.DELETE)
+					.writeString(instanceName));
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#disconnect()
+	 */
+	@Override
+	public synchronized void disconnect() throws TransportException {
+		checkJoined();
+		if(hub != null) {
+			// resign the local federate and stop the hub
+			hub.resign(peer);
+			hub.stop();
+			hub = null;
+			peer = null;
+		} else {
+			// resign and stop the selector thread once the frame is written
+			connection.send(new NIOFrame(NIOFrame.RESIGN));
+			stopThread();
+		}
+		federateName = null;
+		publishedAttributes.clear();
+		publishedInteractions.clear();
+		ownedInstances.clear();
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#getEncoderFactory()
+	 */
+	@Override
+	public EncoderFactory getEncoderFactory() {
+		return encoderFactory;
+	}
+
+	/**
+	 * Handles a frame received from the hub.
+	 *
+	 * @param frame the frame
+	 */
+	private void handle(NIOFrame frame) {
+		if(frame.getType() == NIOFrame.JOINED
+				|| frame.getType() == NIOFrame.ERROR) {
+			// notify the thread waiting to join
+			synchronized(this) {
+				if(frame.getType() == NIOFrame.JOINED) {
+					joinedName = frame.readString();
+				} else {
+					joinError = frame.readString();
+				}
+				notifyAll();
+			}
+			return;
+		}
+		try {
+			dispatch(frame, listener);
+		} catch (RuntimeException ex) {
+			// keep reading frames
+			ex.printStackTrace();
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#publishInteractionClass(java.lang.String)
+	 */
+	@Override
+	public synchronized void publishInteractionClass(String className)
+			throws TransportException {
+		checkJoined();
+		publishedInteractions.add(className);
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#publishObjectClassAttributes(java.lang.String, java.lang.String[])
+	 */
+	@Override
+	public synchronized void publishObjectClassAttributes(String className,
+			String... attributeNames) throws TransportException {
+		checkJoined();
+		publishedAttributes.put(className,
+				new HashSet<String>(Arrays.asList(attributeNames)));
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#registerObjectInstance(java.lang.String)
+	 */
+	@Override
+	public String registerObjectInstance(String className)
+			throws TransportException {
+		return registerObjectInstance(className, (Region) null);
+	}
+
+	/**
+	 * Registers a new object instance. Instance names are unique as they
+	 * are prefixed by the federate name.
+	 *
+	 * @param className the object class name
+	 * @param region the region (may be null)
+	 * @return the object instance name
+	 * @throws TransportException the transport exception
+	 */
+	private synchronized String registerObjectInstance(String className,
+			Region region) throws TransportException {
+		checkJoined();
+		if(!publishedAttributes.containsKey(className)) {
+			throw new TransportException("Object class "
+					+ className + " not published.");
+		}
+		String instanceName = federateName + "."
+				+ className.substring(className.lastIndexOf('.') + 1)
+				+ (++instanceCount);
+		ownedInstances.add(instanceName);
+		if(hub != null) {
+			hub.registerObjectInstance(peer, instanceName, className, region);
+		} else {
+			connection.send(new NIOFrame(NIOFrame.REGISTER)
+					.writeString(instanceName).writeString(className)
+					.writeRegion(region));
+		}
+		return instanceName;
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#registerObjectInstance(java.lang.String, java.lang.String[], java.lang.String, long, long)
+	 */
+	@Override
+	public String registerObjectInstance(String className,
+			String[] attributeNames, String dimensionName,
+			long lowerBound, long upperBound) throws TransportException {
+		return registerObjectInstance(className,
+				new Region(dimensionName, lowerBound, upperBound));
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#requestAttributeValueUpdate(java.lang.String, java.lang.String[])
+	 */
+	@Override
+	public synchronized void requestAttributeValueUpdate(String instanceName,
+			String... attributeNames) throws TransportException {
+		checkJoined();
+		if(hub != null) {
+			hub.requestAttributeValueUpdate(peer, instanceName,
+					attributeNames);
+		} else {
+			connection.send(new NIOFrame(NIOFrame.REQUEST)
+					.writeString(instanceName)
+					.writeStrings(Arrays.asList(attributeNames)));
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.Runnable#run()
+	 */
+	@Override
+	public void run() {
+		List<NIOFrame> frames = new ArrayList<NIOFrame>();
+		while(running || connection.hasPending()) {
+			try {
+				selector.select();
+
+				// write frames queued since the last iteration
+				NIOConnection queued;
+				while((queued = flushQueue.poll()) != null) {
+					queued.flush();
+				}
+
+				// read frames and write remaining frames
+				Iterator<SelectionKey> keys = selector.selectedKeys()
+						.iterator();
+				while(keys.hasNext()) {
+					SelectionKey key = keys.next();
+					keys.remove();
+					if(key.isValid() && key.isReadable()) {
+						frames.clear();
+						boolean open = connection.read(frames);
+						for(NIOFrame frame : frames) {
+							handle(frame);
+						}
+						if(!open) {
+							throw new IOException("Connection closed by hub.");
+						}
+					}
+					if(key.isValid() && key.isWritable()) {
+						connection.flush();
+					}
+				}
+			} catch (IOException ex) {
+				if(running) {
+					ex.printStackTrace();
+				}
+				break;
+			}
+		}
+
+		// close the connection and notify any thread waiting to join
+		connection.close();
+		try {
+			selector.close();
+		} catch (IOException ignored) { }
+		synchronized(this) {
+			running = false;
+			notifyAll();
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#sendInteraction(java.lang.String, java.util.Map, byte[])
+	 */
+	@Override
+	public synchronized void sendInteraction(String className,
+			Map<String, byte[]> parameters, byte[] tag)
+			throws TransportException {
+		checkJoined();
+		if(!publishedInteractions.contains(className)) {
+			throw new TransportException("Interaction class "
+					+ className + " not published.");
+		}
+		if(hub != null) {
+			hub.sendInteraction(peer, className, parameters, tag);
+		} else {
+			connection.send(new NIOFrame(NIOFrame.SEND)
+					.writeString(className).writeValues(parameters)
+					.writeBytes(tag));
+		}
+	}
+
+	/**
+	 * Stops the selector thread once queued frames are written and waits
+	 * for it to finish. Must be called while synchronized.
+	 */
+	private void stopThread() {
+		running = false;
+		selector.wakeup();
+		if(Thread.currentThread() == thread) {
+			return;
+		}
+		long timeout = System.currentTimeMillis() + JOIN_TIMEOUT;
+		try {
+			// release the monitor while waiting
+			while(thread.isAlive() && System.currentTimeMillis() < timeout) {
+				wait(Math.max(1, timeout - System.currentTimeMillis()));
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#subscribeInteractionClass(java.lang.String)
+	 */
+	@Override
+	public synchronized void subscribeInteractionClass(String className)
+			throws TransportException {
+		checkJoined();
+		if(hub != null) {
+			hub.subscribeInteractionClass(peer, className);
+		} else {
+			connection.send(new NIOFrame(NIOFrame.SUBSCRIBE_INTERACTION)
+					.writeString(className));
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#subscribeObjectClassAttributes(java.lang.String, java.lang.String[])
+	 */
+	@Override
+	public void subscribeObjectClassAttributes(String className,
+			String... attributeNames) throws TransportException {
+		subscribeObjectClassAttributes(className, attributeNames, null);
+	}
+
+	/**
+	 * Subscribes to object class attributes.
+	 *
+	 * @param className the object class name
+	 * @param attributeNames the attribute names
+	 * @param region the region (may be null)
+	 * @throws TransportException the transport exception
+	 */
+	private synchronized void subscribeObjectClassAttributes(String className,
+			String[] attributeNames, Region region)
+			throws TransportException {
+		checkJoined();
+		if(hub != null) {
+			hub.subscribeObjectClassAttributes(peer, className,
+					attributeNames, region);
+		} else {
+			connection.send(new NIOFrame(NIOFrame.SUBSCRIBE_OBJECT)
+					.writeString(className)
+					.writeStrings(Arrays.asList(attributeNames))
+					.writeRegion(region));
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#subscribeObjectClassAttributes(java.lang.String, java.lang.String[], java.lang.String, long, long)
+	 */
+	@Override
+	public void subscribeObjectClassAttributes(String className,
+			String[] attributeNames, String dimensionName,
+			long lowerBound, long upperBound) throws TransportException {
+		subscribeObjectClassAttributes(className, attributeNames,
+				new Region(dimensionName, lowerBound, upperBound));
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#updateAttributeValues(java.lang.String, java.util.Map, byte[])
+	 */
+	@Override
+	public synchronized void updateAttributeValues(String instanceName,
+			Map<String, byte[]> attributes, byte[] tag)
+			throws TransportException {
+		checkJoined();
+		if(!ownedInstances.contains(instanceName)) {
+			throw new TransportException("Object instance "
+					+ instanceName + " not owned.");
+		}
+		if(hub != null) {
+			hub.updateAttributeValues(peer, instanceName, attributes, tag);
+		} else {
+			connection.send(new NIOFrame(NIOFrame.UPDATE)
+					.writeString(instanceName).writeValues(attributes)
+					.writeBytes(tag));
+		}
+	}
+}
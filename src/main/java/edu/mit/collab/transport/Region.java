@@ -0,0 +1,42 @@
+package edu.mit.collab.transport;
+
+/**
+ * A region spanning [lowerBound, upperBound) of a single dimension, used by
+ * transports which route updates themselves to emulate data distribution
+ * management.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ */
+class Region {
+	final String dimensionName; // immutable
+	final long lowerBound, upperBound; // immutable
+
+	/**
+	 * Checks whether two regions overlap. A missing region spans all
+	 * dimensions, as do regions of different dimensions.
+	 *
+	 * @param a the first region (may be null)
+	 * @param b the second region (may be null)
+	 * @return true, if the regions overlap
+	 */
+	static boolean overlaps(Region a, Region b) {
+		if(a == null || b == null
+				|| !a.dimensionName.equals(b.dimensionName)) {
+			return true;
+		}
+		return a.lowerBound < b.upperBound && b.lowerBound < a.upperBound;
+	}
+
+	/**
+	 * Instantiates a new region.
+	 *
+	 * @param dimensionName the dimension name
+	 * @param lowerBound the lower bound (inclusive)
+	 * @param upperBound the upper bound (exclusive)
+	 */
+	Region(String dimensionName, long lowerBound, long upperBound) {
+		this.dimensionName = dimensionName;
+		this.lowerBound = lowerBound;
+		this.upperBound = upperBound;
+	}
+}
@@ -0,0 +1,1235 @@
+package edu.mit.collab.transport;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.LockSupport;
+
+import edu.mit.collab.util.ErrorReporter;
+import hla.rti1516e.encoding.EncoderFactory;
+import sun.misc.Unsafe;
+
+/**
+ * The transport implementation exchanging state between co-located
+ * federates through a memory-mapped file, e.g. for the manager and
+ * designers launched by <code>DebugMain</code> or kiosk setups on a single
+ * host. The file is given by the <code>shmPath</code> property (default
+ * <code>collab-</code><i>federationName</i><code>.shm</code> in the
+ * temporary directory).
+ *
+ * The file holds a directory of federate and object instance slots, each
+ * published with a sequence lock, followed by one ring buffer per federate.
+ * Each federate is the single writer of its ring and appends updates,
+ * requests and interactions as binary frames; a polling thread in each
+ * federate reads the rings of all other federates and delivers the frames
+ * addressed to it. Directory changes are serialized with a file lock.
+ *
+ * If a writer overruns a reader, the reader skips the lost frames and
+ * requests updates of all attributes of the instances owned by the writer
+ * to resynchronize their state.
+ *
+ * A federate whose heartbeat is stale may have its slot reclaimed by a
+ * joining federate. The polling thread and writes check the generation of
+ * the slot, and a federate which lost its slot stops polling and fails
+ * further writes rather than writing a ring owned by another federate.
+ *
+ * @see NIOFrame
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ */
+public class SharedMemoryTransport implements Transport, Runnable {
+	private static final int MAGIC = 0x434F4C4C;
+
+	// header layout
+	private static final int HEADER_SIZE = 64;
+	private static final int MAX_FEDERATES_OFFSET = 4;
+	private static final int MAX_INSTANCES_OFFSET = 8;
+	private static final int RING_SIZE_OFFSET = 12;
+	private static final int VERSION_OFFSET = 16;
+	private static final int GENERATION_OFFSET = 24;
+
+	// federate slot layout
+	private static final int FEDERATE_SLOT_SIZE = 256;
+	private static final int STATE_OFFSET = 8;
+	private static final int FEDERATE_GENERATION_OFFSET = 16;
+	private static final int HEARTBEAT_OFFSET = 24;
+	private static final int START_POSITION_OFFSET = 32;
+	private static final int WRITE_POSITION_OFFSET = 40;
+	private static final int FEDERATE_NAME_OFFSET = 48;
+	private static final int FEDERATE_NAME_SIZE = 200;
+
+	// instance slot layout
+	private static final int INSTANCE_SLOT_SIZE = 512;
+	private static final int OWNER_OFFSET = 12;
+	private static final int OWNER_GENERATION_OFFSET = 16;
+	private static final int LOWER_BOUND_OFFSET = 24;
+	private static final int UPPER_BOUND_OFFSET = 32;
+	private static final int CLASS_NAME_OFFSET = 48;
+	private static final int INSTANCE_NAME_OFFSET = 200;
+	private static final int DIMENSION_NAME_OFFSET = 352;
+	private static final int NAME_SIZE = 152;
+
+	private static final long HEARTBEAT_INTERVAL = 1000;
+	private static final long STALE_TIMEOUT = 5000;
+	private static final int SPIN_COUNT = 1000;
+	private static final long PARK_NANOS = 20000;
+
+	// mapped segments shared by all federates of this JVM, keyed by path
+	private static final Map<String, Segment> segments =
+			new HashMap<String, Segment>(); // mutable
+
+	// memory fences ordering plain accesses of the mapped buffer, which
+	// volatile fields of this process do not order for other processes
+	private static final Unsafe unsafe = getUnsafe(); // immutable
+
+	private final Properties properties; // immutable
+	private final EncoderFactory encoderFactory; // immutable
+	private final ErrorReporter errorReporter = 
+			new ErrorReporter("Shared Memory"); // mutable
+
+	private transient Segment segment; // set upon connection
+	private transient String federateName; // set upon connection
+	private transient TransportListener listener; // set upon connection
+	private transient int slot; // set upon connection
+	private transient long generation; // set upon connection
+	private transient Thread thread; // set upon connection
+	private volatile boolean running; // mutable
+	private volatile boolean reclaimed; // mutable
+
+	// writer state of this federate's ring; only accessed while
+	// synchronized on the writer
+	private ByteBuffer writer; // mutable
+	private long writePosition; // mutable
+
+	// reader state of all rings; only accessed by the polling thread
+	private ByteBuffer reader; // mutable
+	private long[] readPositions, readGenerations; // mutable
+	private long directoryVersion = -1; // mutable
+	private final Map<String, String> discoveredInstances =
+			new HashMap<String, String>(); // mutable
+	private final Map<String, Integer> instanceOwners =
+			new HashMap<String, Integer>(); // mutable
+
+	// published and subscribed classes and owned instances of this federate
+	private final Map<String, Set<String>> publishedAttributes =
+			new ConcurrentHashMap<String, Set<String>>(); // mutable
+	private final Map<String, Set<String>> subscribedAttributes =
+			new ConcurrentHashMap<String, Set<String>>(); // mutable
+	private final Map<String, Region> subscribedRegions =
+			new ConcurrentHashMap<String, Region>(); // mutable
+	private final Set<String> publishedInteractions =
+			Collections.newSetFromMap(
+					new ConcurrentHashMap<String, Boolean>()); // mutable
+	private final Set<String> subscribedInteractions =
+			Collections.newSetFromMap(
+					new ConcurrentHashMap<String, Boolean>()); // mutable
+	private final Map<String, Integer> ownedInstances =
+			new ConcurrentHashMap<String, Integer>(); // mutable
+	private volatile boolean subscriptionsChanged; // mutable
+	private int instanceCount; // mutable
+
+	/**
+	 * Instantiates a new shared memory transport.
+	 *
+	 * @param properties the configuration properties
+	 * @throws TransportException the transport exception
+	 */
+	public SharedMemoryTransport(Properties properties)
+			throws TransportException {
+		if(unsafe == null) {
+			throw new TransportException("Memory fences not supported.");
+		}
+		this.properties = properties;
+		encoderFactory = TransportFactory.createEncoderFactory(properties);
+	}
+
+	/**
+	 * Checks this federate has joined.
+	 *
+	 * @throws TransportException the transport exception
+	 */
+	private void checkJoined() throws TransportException {
+		if(federateName == null) {
+			throw new TransportException("Federate not execution member.");
+		}
+	}
+
+	/**
+	 * Checks this federate still owns its slot.
+	 *
+	 * @throws TransportException the transport exception
+	 */
+	private void checkSlotOwned() throws TransportException {
+		if(reclaimed || !isSlotOwned()) {
+			reclaimed = true;
+			throw new TransportException("Federate slot " + slot
+					+ " reclaimed by another federate.");
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#connect(java.lang.String, java.lang.String, edu.mit.collab.transport.TransportListener)
+	 */
+	@Override
+	public synchronized void connect(String federateName,
+			String federateType, TransportListener listener)
+			throws TransportException {
+		if(this.federateName != null) {
+			// already joined
+			return;
+		}
+		String federationName = properties.getProperty(
+				"federationName", "collab");
+		String path = properties.getProperty("shmPath", new File(
+				System.getProperty("java.io.tmpdir"), "collab-"
+						+ federationName + ".shm").getPath());
+		segment = Segment.open(path, properties);
+		readPositions = new long[segment.maxFederates];
+		readGenerations = new long[segment.maxFederates];
+
+		synchronized(segment) {
+			FileLock lock = segment.lock();
+			try {
+				ByteBuffer buffer = segment.buffer;
+
+				// release slots of federates which stopped without resigning
+				long now = System.currentTimeMillis();
+				for(int i = 0; i < segment.maxFederates; i++) {
+					int offset = segment.federateOffset(i);
+					if(buffer.getInt(offset + STATE_OFFSET) != 0
+							&& now - buffer.getLong(offset + HEARTBEAT_OFFSET)
+							> STALE_TIMEOUT) {
+						releaseFederate(i);
+					}
+				}
+
+				// check the federate name is unique and find a free slot
+				slot = -1;
+				for(int i = 0; i < segment.maxFederates; i++) {
+					int offset = segment.federateOffset(i);
+					if(buffer.getInt(offset + STATE_OFFSET) == 0) {
+						if(slot < 0) {
+							slot = i;
+						}
+					} else if(federateName != null && federateName.equals(
+							getString(buffer, offset + FEDERATE_NAME_OFFSET))) {
+						throw new TransportException("Federate name "
+								+ federateName + " already in use.");
+					}
+				}
+				if(slot < 0) {
+					throw new TransportException("No free federate slot in "
+							+ path + ".");
+				}
+
+				// read the rings of joined federates from their current
+				// positions rather than replaying earlier frames
+				for(int i = 0; i < segment.maxFederates; i++) {
+					int offset = segment.federateOffset(i);
+					if(buffer.getInt(offset + STATE_OFFSET) != 0) {
+						readGenerations[i] = buffer.getLong(offset
+								+ FEDERATE_GENERATION_OFFSET);
+						readPositions[i] = buffer.getLong(offset
+								+ WRITE_POSITION_OFFSET);
+					}
+				}
+				if(federateName == null) {
+					federateName = federateType + "-" + slot;
+				}
+
+				// publish the federate slot, continuing the ring position
+				int offset = segment.federateOffset(slot);
+				generation = buffer.getLong(GENERATION_OFFSET) + 1;
+				buffer.putLong(GENERATION_OFFSET, generation);
+				writePosition = buffer.getLong(offset + WRITE_POSITION_OFFSET);
+				long sequence = beginWrite(buffer, offset);
+				buffer.putInt(offset + STATE_OFFSET, 1);
+				buffer.putLong(offset + FEDERATE_GENERATION_OFFSET, generation);
+				buffer.putLong(offset + HEARTBEAT_OFFSET, now);
+				buffer.putLong(offset + START_POSITION_OFFSET, writePosition);
+				putString(buffer, offset + FEDERATE_NAME_OFFSET,
+						FEDERATE_NAME_SIZE, federateName);
+				endWrite(buffer, offset, sequence);
+				incrementVersion(buffer);
+			} catch (TransportException ex) {
+				Segment.close(segment);
+				segment = null;
+				throw ex;
+			} finally {
+				Segment.release(lock);
+			}
+		}
+
+		this.federateName = federateName;
+		this.listener = listener;
+		writer = segment.buffer.duplicate();
+		reader = segment.buffer.duplicate();
+		directoryVersion = -1;
+		reclaimed = false;
+		running = true;
+		thread = new Thread(this, "Shared memory " + federateName);
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Begins a sequence-locked write of a slot.
+	 *
+	 * @param buffer the buffer
+	 * @param offset the slot offset
+	 * @return the odd sequence number marking the write in progress
+	 */
+	private static long beginWrite(ByteBuffer buffer, int offset) {
+		// skip past an odd sequence left by a process stopped mid-write
+		long sequence = (buffer.getLong(offset) | 1) + 2;
+		buffer.putLong(offset, sequence);
+		storeFence();
+		return sequence;
+	}
+
+	/**
+	 * Ends a sequence-locked write of a slot.
+	 *
+	 * @param buffer the buffer
+	 * @param offset the slot offset
+	 * @param sequence the sequence number returned when beginning the write
+	 */
+	private static void endWrite(ByteBuffer buffer, int offset,
+			long sequence) {
+		storeFence();
+		buffer.putLong(offset, sequence + 1);
+	}
+
+	/**
+	 * Increments the directory version to notify readers of a change.
+	 *
+	 * @param buffer the buffer
+	 */
+	private static void incrementVersion(ByteBuffer buffer) {
+		storeFence();
+		buffer.putLong(VERSION_OFFSET, buffer.getLong(VERSION_OFFSET) + 1);
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#deleteObjectInstance(java.lang.String)
+	 */
+	@Override
+	public synchronized void deleteObjectInstance(String instanceName)
+			throws TransportException {
+		checkJoined();
+		Integer index = ownedInstances.remove(instanceName);
+		if(index == null) {
+			throw new TransportException("Object instance "
+					+ instanceName + " not owned.");
+		}
+
+		// release the instance slot unless it has since been reclaimed
+		synchronized(segment) {
+			FileLock lock = segment.lock();
+			try {
+				ByteBuffer buffer = segment.buffer;
+				int offset = segment.instanceOffset(index);
+				if(buffer.getInt(offset + STATE_OFFSET) != 0
+						&& buffer.getInt(offset + OWNER_OFFSET) == slot
+						&& buffer.getLong(offset + OWNER_GENERATION_OFFSET)
+						== generation) {
+					long sequence = beginWrite(buffer, offset);
+					buffer.putInt(offset + STATE_OFFSET, 0);
+					endWrite(buffer, offset, sequence);
+					incrementVersion(buffer);
+				}
+			} finally {
+				Segment.release(lock);
+			}
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#disconnect()
+	 */
+	@Override
+	public void disconnect() throws TransportException {
+		checkJoined();
+
+		// stop the polling thread without holding locks its callbacks need
+		running = false;
+		if(Thread.currentThread() != thread) {
+			try {
+				thread.join(STALE_TIMEOUT);
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		synchronized(this) {
+			releaseSlots();
+		}
+	}
+
+	/**
+	 * Releases the slots of this federate and its instances and unmaps the
+	 * file once no other federates of this JVM use it.
+	 *
+	 * @throws TransportException the transport exception
+	 */
+	private void releaseSlots() throws TransportException {
+		checkJoined();
+		synchronized(segment) {
+			FileLock lock = segment.lock();
+			try {
+				if(segment.buffer.getLong(segment.federateOffset(slot)
+						+ FEDERATE_GENERATION_OFFSET) == generation) {
+					releaseFederate(slot);
+				}
+			} finally {
+				Segment.release(lock);
+			}
+		}
+		Segment.close(segment);
+		segment = null;
+		federateName = null;
+		publishedAttributes.clear();
+		subscribedAttributes.clear();
+		subscribedRegions.clear();
+		publishedInteractions.clear();
+		subscribedInteractions.clear();
+		ownedInstances.clear();
+		discoveredInstances.clear();
+		instanceOwners.clear();
+	}
+
+	/**
+	 * Dispatches a frame read from the ring of another federate if this
+	 * federate should receive it.
+	 *
+	 * @param frame the frame
+	 */
+	private void dispatch(NIOFrame frame) {
+		switch(frame.getType()) {
+		case NIOFrame.UPDATE:
+			String instanceName = frame.readString();
+			String className = discoveredInstances.get(instanceName);
+			if(className == null && directoryVersion != segment.buffer
+					.getLong(VERSION_OFFSET)) {
+				// the instance may have been registered since the last scan
+				scanDirectory();
+				className = discoveredInstances.get(instanceName);
+			}
+			Set<String> subscribedNames = className == null ? null
+					: subscribedAttributes.get(className);
+			if(subscribedNames == null) {
+				return;
+			}
+			Map<String, byte[]> values = frame.readValues();
+			values.keySet().retainAll(subscribedNames);
+			if(!values.isEmpty()) {
+				listener.reflectAttributeValues(instanceName, values,
+						frame.readBytes());
+			}
+			break;
+		case NIOFrame.REQUEST:
+			instanceName = frame.readString();
+			if(ownedInstances.containsKey(instanceName)) {
+				listener.provideAttributeValueUpdate(instanceName,
+						frame.readStringSet());
+			}
+			break;
+		case NIOFrame.SEND:
+			className = frame.readString();
+			if(subscribedInteractions.contains(className)) {
+				listener.receiveInteraction(className, frame.readValues(),
+						frame.readBytes());
+			}
+			break;
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#getEncoderFactory()
+	 */
+	@Override
+	public EncoderFactory getEncoderFactory() {
+		return encoderFactory;
+	}
+
+	/**
+	 * Gets a length-prefixed string stored in a buffer.
+	 *
+	 * @param buffer the buffer
+	 * @param offset the offset
+	 * @return the string
+	 */
+	private static String getString(ByteBuffer buffer, int offset) {
+		int length = buffer.getInt(offset);
+		if(length < 0 || length > FEDERATE_NAME_SIZE) {
+			throw new IllegalStateException("Invalid name length "
+					+ length + ".");
+		}
+		byte[] bytes = new byte[length];
+		for(int i = 0; i < bytes.length; i++) {
+			bytes[i] = buffer.get(offset + 4 + i);
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Gets the unsafe instance providing memory fences.
+	 *
+	 * @return the unsafe instance, or null if not available
+	 */
+	private static Unsafe getUnsafe() {
+		try {
+			Field field = Unsafe.class.getDeclaredField("theUnsafe");
+			field.setAccessible(true);
+			return (Unsafe) field.get(null);
+		} catch (Exception ex) {
+			ex.printStackTrace();
+			return null;
+		}
+	}
+
+	/**
+	 * Checks if this federate still owns its slot, i.e. the slot has not
+	 * been reclaimed after a stale heartbeat.
+	 *
+	 * @return true, if the slot is owned
+	 */
+	private boolean isSlotOwned() {
+		return segment.buffer.getLong(segment.federateOffset(slot)
+				+ FEDERATE_GENERATION_OFFSET) == generation;
+	}
+
+	/**
+	 * Orders buffer reads after a preceding read of a published position
+	 * or sequence number.
+	 */
+	private static void loadFence() {
+		unsafe.loadFence();
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#publishInteractionClass(java.lang.String)
+	 */
+	@Override
+	public void publishInteractionClass(String className)
+			throws TransportException {
+		checkJoined();
+		publishedInteractions.add(className);
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#publishObjectClassAttributes(java.lang.String, java.lang.String[])
+	 */
+	@Override
+	public void publishObjectClassAttributes(String className,
+			String... attributeNames) throws TransportException {
+		checkJoined();
+		publishedAttributes.put(className,
+				new HashSet<String>(Arrays.asList(attributeNames)));
+	}
+
+	/**
+	 * Stores a length-prefixed string in a buffer.
+	 *
+	 * @param buffer the buffer
+	 * @param offset the offset
+	 * @param size the maximum size including the length prefix
+	 * @param value the string
+	 * @throws TransportException the transport exception
+	 */
+	private static void putString(ByteBuffer buffer, int offset, int size,
+			String value) throws TransportException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		if(bytes.length > size - 4) {
+			throw new TransportException("Name " + value + " too long.");
+		}
+		buffer.putInt(offset, bytes.length);
+		for(int i = 0; i < bytes.length; i++) {
+			buffer.put(offset + 4 + i, bytes[i]);
+		}
+	}
+
+	/**
+	 * Reads bytes from a ring buffer, wrapping at the end of the ring.
+	 *
+	 * @param ringOffset the ring offset
+	 * @param position the position in the ring
+	 * @param bytes the destination array
+	 */
+	private void readRing(int ringOffset, long position, byte[] bytes) {
+		int index = (int) (position % segment.ringSize);
+		int first = Math.min(bytes.length, segment.ringSize - index);
+		reader.position(ringOffset + index);
+		reader.get(bytes, 0, first);
+		if(first < bytes.length) {
+			reader.position(ringOffset);
+			reader.get(bytes, first, bytes.length - first);
+		}
+	}
+
+	/**
+	 * Reads and dispatches new frames from the ring of another federate.
+	 *
+	 * @param index the federate slot index
+	 * @return true, if any frames were read
+	 */
+	private boolean readFederate(int index) {
+		ByteBuffer buffer = segment.buffer;
+		int offset = segment.federateOffset(index);
+		int ringOffset = segment.ringOffset(index);
+
+		// check the slot is joined and start reading a new federate's ring
+		// from its position upon joining
+		long sequence = buffer.getLong(offset);
+		loadFence();
+		if((sequence & 1) != 0
+				|| buffer.getInt(offset + STATE_OFFSET) == 0) {
+			return false;
+		}
+		long slotGeneration = buffer.getLong(offset
+				+ FEDERATE_GENERATION_OFFSET);
+		long startPosition = buffer.getLong(offset + START_POSITION_OFFSET);
+		loadFence();
+		if(buffer.getLong(offset) != sequence) {
+			return false;
+		}
+		if(slotGeneration != readGenerations[index]) {
+			readGenerations[index] = slotGeneration;
+			readPositions[index] = startPosition;
+		}
+
+		long position = buffer.getLong(offset + WRITE_POSITION_OFFSET);
+		loadFence();
+		boolean read = false;
+		byte[] length = new byte[4];
+		while(readPositions[index] < position) {
+			// copy the frame out of the ring before decoding
+			int frameLength = -1;
+			byte[] payload = null;
+			if(position - readPositions[index] <= segment.ringSize) {
+				readRing(ringOffset, readPositions[index], length);
+				frameLength = ByteBuffer.wrap(length).getInt();
+				if(frameLength > 0 && frameLength < segment.ringSize) {
+					payload = new byte[frameLength];
+					readRing(ringOffset, readPositions[index] + 4, payload);
+				}
+				loadFence();
+			}
+			if(payload == null || buffer.getLong(offset
+					+ WRITE_POSITION_OFFSET) - readPositions[index]
+					> segment.ringSize) {
+				// the writer overran this reader; skip the lost frames and
+				// request the state they may have carried
+				errorReporter.report("reading shared memory", 
+						"federate slot " + index, new TransportException(
+								"Writer overran reader; frames dropped."));
+				readPositions[index] = buffer.getLong(offset
+						+ WRITE_POSITION_OFFSET);
+				loadFence();
+				resynchronizeFederate(index);
+				return true;
+			}
+			readPositions[index] += 4 + payload.length;
+			read = true;
+			try {
+				dispatch(new NIOFrame(ByteBuffer.wrap(payload)));
+			} catch (RuntimeException ex) {
+				// keep reading frames
+				errorReporter.report("dispatching a frame", 
+						"federate slot " + index, ex);
+			}
+		}
+		return read;
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#registerObjectInstance(java.lang.String)
+	 */
+	@Override
+	public String registerObjectInstance(String className)
+			throws TransportException {
+		return registerObjectInstance(className, (Region) null);
+	}
+
+	/**
+	 * Registers a new object instance in a free instance slot.
+	 *
+	 * @param className the object class name
+	 * @param region the region (may be null)
+	 * @return the object instance name
+	 * @throws TransportException the transport exception
+	 */
+	private synchronized String registerObjectInstance(String className,
+			Region region) throws TransportException {
+		checkJoined();
+		if(!publishedAttributes.containsKey(className)) {
+			throw new TransportException("Object class "
+					+ className + " not published.");
+		}
+		String instanceName = federateName + "."
+				+ className.substring(className.lastIndexOf('.') + 1)
+				+ (++instanceCount);
+
+		synchronized(segment) {
+			FileLock lock = segment.lock();
+			try {
+				checkSlotOwned();
+				ByteBuffer buffer = segment.buffer;
+				for(int i = 0; i < segment.maxInstances; i++) {
+					int offset = segment.instanceOffset(i);
+					if(buffer.getInt(offset + STATE_OFFSET) != 0) {
+						continue;
+					}
+
+					// publish the instance slot
+					long sequence = beginWrite(buffer, offset);
+					buffer.putInt(offset + STATE_OFFSET, region == null ? 1 : 2);
+					buffer.putInt(offset + OWNER_OFFSET, slot);
+					buffer.putLong(offset + OWNER_GENERATION_OFFSET, generation);
+					putString(buffer, offset + CLASS_NAME_OFFSET,
+							NAME_SIZE, className);
+					putString(buffer, offset + INSTANCE_NAME_OFFSET,
+							NAME_SIZE, instanceName);
+					if(region != null) {
+						putString(buffer, offset + DIMENSION_NAME_OFFSET,
+								NAME_SIZE, region.dimensionName);
+						buffer.putLong(offset + LOWER_BOUND_OFFSET,
+								region.lowerBound);
+						buffer.putLong(offset + UPPER_BOUND_OFFSET,
+								region.upperBound);
+					}
+					endWrite(buffer, offset, sequence);
+					incrementVersion(buffer);
+					ownedInstances.put(instanceName, i);
+					return instanceName;
+				}
+			} finally {
+				Segment.release(lock);
+			}
+		}
+		throw new TransportException("No free instance slot.");
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#registerObjectInstance(java.lang.String, java.lang.String[], java.lang.String, long, long)
+	 */
+	@Override
+	public String registerObjectInstance(String className,
+			String[] attributeNames, String dimensionName,
+			long lowerBound, long upperBound) throws TransportException {
+		return registerObjectInstance(className,
+				new Region(dimensionName, lowerBound, upperBound));
+	}
+
+	/**
+	 * Releases a federate slot and the instance slots it owns. Must be
+	 * called while holding the segment lock.
+	 *
+	 * @param index the federate slot index
+	 */
+	private void releaseFederate(int index) {
+		ByteBuffer buffer = segment.buffer;
+		int offset = segment.federateOffset(index);
+		long ownerGeneration = buffer.getLong(offset
+				+ FEDERATE_GENERATION_OFFSET);
+		for(int i = 0; i < segment.maxInstances; i++) {
+			int instanceOffset = segment.instanceOffset(i);
+			if(buffer.getInt(instanceOffset + STATE_OFFSET) != 0
+					&& buffer.getInt(instanceOffset + OWNER_OFFSET) == index
+					&& buffer.getLong(instanceOffset + OWNER_GENERATION_OFFSET)
+					== ownerGeneration) {
+				long sequence = beginWrite(buffer, instanceOffset);
+				buffer.putInt(instanceOffset + STATE_OFFSET, 0);
+				endWrite(buffer, instanceOffset, sequence);
+			}
+		}
+		long sequence = beginWrite(buffer, offset);
+		buffer.putInt(offset + STATE_OFFSET, 0);
+		endWrite(buffer, offset, sequence);
+		incrementVersion(buffer);
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#requestAttributeValueUpdate(java.lang.String, java.lang.String[])
+	 */
+	@Override
+	public void requestAttributeValueUpdate(String instanceName,
+			String... attributeNames) throws TransportException {
+		checkJoined();
+		write(new NIOFrame(NIOFrame.REQUEST).writeString(instanceName)
+				.writeStrings(Arrays.asList(attributeNames)));
+	}
+
+	/**
+	 * Requests updates of all subscribed attributes of the instances owned
+	 * by another federate, e.g. after frames from its ring were lost. Only
+	 * called by the polling thread.
+	 *
+	 * @param index the federate slot index
+	 */
+	private void resynchronizeFederate(int index) {
+		for(Map.Entry<String, Integer> entry : instanceOwners.entrySet()) {
+			if(entry.getValue() != index) {
+				continue;
+			}
+			Set<String> attributeNames = subscribedAttributes.get(
+					discoveredInstances.get(entry.getKey()));
+			if(attributeNames == null) {
+				continue;
+			}
+			try {
+				requestAttributeValueUpdate(entry.getKey(), 
+						attributeNames.toArray(new String[0]));
+			} catch (TransportException ex) {
+				errorReporter.report("requesting attribute updates", 
+						entry.getKey(), ex);
+			}
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.Runnable#run()
+	 */
+	@Override
+	public void run() {
+		int idle = 0;
+		long heartbeat = 0;
+		while(running) {
+			// stop if the slot was reclaimed while this federate was stalled
+			if(!isSlotOwned()) {
+				reclaimed = true;
+				running = false;
+				errorReporter.report("polling shared memory", federateName,
+						new TransportException("Federate slot " + slot
+								+ " reclaimed by another federate."));
+				break;
+			}
+
+			// publish a heartbeat so stopped federates can be detected
+			long now = System.currentTimeMillis();
+			if(now - heartbeat > HEARTBEAT_INTERVAL) {
+				segment.buffer.putLong(segment.federateOffset(slot)
+						+ HEARTBEAT_OFFSET, now);
+				heartbeat = now;
+			}
+
+			// discover and remove instances if the directory has changed
+			if(subscriptionsChanged || directoryVersion
+					!= segment.buffer.getLong(VERSION_OFFSET)) {
+				subscriptionsChanged = false;
+				scanDirectory();
+			}
+
+			// read the rings of all other federates
+			boolean read = false;
+			for(int i = 0; i < segment.maxFederates; i++) {
+				if(i != slot) {
+					read |= readFederate(i);
+				}
+			}
+
+			// spin briefly before parking when idle
+			if(read) {
+				idle = 0;
+			} else if(++idle > SPIN_COUNT) {
+				LockSupport.parkNanos(PARK_NANOS);
+			}
+		}
+	}
+
+	/**
+	 * Scans the instance slots to discover new instances of subscribed
+	 * classes and remove instances which are no longer registered. Only
+	 * called by the polling thread.
+	 */
+	private void scanDirectory() {
+		ByteBuffer buffer = segment.buffer;
+		long version = buffer.getLong(VERSION_OFFSET);
+		loadFence();
+
+		// read the registered instances of subscribed classes and their 
+		// owners
+		Map<String, String> instances = new HashMap<String, String>();
+		Map<String, Integer> owners = new HashMap<String, Integer>();
+		for(int i = 0; i < segment.maxInstances; i++) {
+			int offset = segment.instanceOffset(i);
+			for(int attempt = 0; attempt < SPIN_COUNT; attempt++) {
+				long sequence = buffer.getLong(offset);
+				if((sequence & 1) != 0) {
+					// a write is in progress
+					Thread.yield();
+					continue;
+				}
+				loadFence();
+				int state = buffer.getInt(offset + STATE_OFFSET);
+				String instanceName = null, className = null;
+				Region region = null;
+				int owner = buffer.getInt(offset + OWNER_OFFSET);
+				if(state != 0 && owner != slot) {
+					try {
+						className = getString(buffer, offset
+								+ CLASS_NAME_OFFSET);
+						instanceName = getString(buffer, offset
+								+ INSTANCE_NAME_OFFSET);
+						if(state == 2) {
+							region = new Region(getString(buffer, offset
+									+ DIMENSION_NAME_OFFSET),
+									buffer.getLong(offset + LOWER_BOUND_OFFSET),
+									buffer.getLong(offset + UPPER_BOUND_OFFSET));
+						}
+					} catch (RuntimeException ex) {
+						// torn read of a slot being written; retry
+					}
+				}
+				loadFence();
+				if(buffer.getLong(offset) != sequence) {
+					continue;
+				}
+				if(instanceName != null
+						&& subscribedAttributes.containsKey(className)
+						&& Region.overlaps(subscribedRegions.get(className),
+								region)) {
+					instances.put(instanceName, className);
+					owners.put(instanceName, owner);
+				}
+				break;
+			}
+		}
+		directoryVersion = version;
+		instanceOwners.clear();
+		instanceOwners.putAll(owners);
+
+		// remove instances which are no longer registered
+		Iterator<Map.Entry<String, String>> iterator =
+				discoveredInstances.entrySet().iterator();
+		while(iterator.hasNext()) {
+			String instanceName = iterator.next().getKey();
+			if(!instances.containsKey(instanceName)) {
+				iterator.remove();
+				listener.removeObjectInstance(instanceName);
+			}
+		}
+
+		// discover new instances
+		for(Map.Entry<String, String> entry : instances.entrySet()) {
+			if(!discoveredInstances.containsKey(entry.getKey())) {
+				discoveredInstances.put(entry.getKey(), entry.getValue());
+				listener.discoverObjectInstance(entry.getKey(),
+						entry.getValue());
+			}
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#sendInteraction(java.lang.String, java.util.Map, byte[])
+	 */
+	@Override
+	public void sendInteraction(String className,
+			Map<String, byte[]> parameters, byte[] tag)
+			throws TransportException {
+		checkJoined();
+		if(!publishedInteractions.contains(className)) {
+			throw new TransportException("Interaction class "
+					+ className + " not published.");
+		}
+		write(new NIOFrame(NIOFrame.SEND).writeString(className)
+				.writeValues(parameters).writeBytes(tag));
+	}
+
+	/**
+	 * Orders preceding buffer writes before a following write publishing a
+	 * position or sequence number.
+	 */
+	private static void storeFence() {
+		unsafe.storeFence();
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#subscribeInteractionClass(java.lang.String)
+	 */
+	@Override
+	public void subscribeInteractionClass(String className)
+			throws TransportException {
+		checkJoined();
+		subscribedInteractions.add(className);
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#subscribeObjectClassAttributes(java.lang.String, java.lang.String[])
+	 */
+	@Override
+	public void subscribeObjectClassAttributes(String className,
+			String... attributeNames) throws TransportException {
+		subscribeObjectClassAttributes(className, attributeNames, null);
+	}
+
+	/**
+	 * Subscribes to object class attributes. Existing instances are
+	 * discovered by the polling thread.
+	 *
+	 * @param className the object class name
+	 * @param attributeNames the attribute names
+	 * @param region the region (may be null)
+	 * @throws TransportException the transport exception
+	 */
+	private void subscribeObjectClassAttributes(String className,
+			String[] attributeNames, Region region)
+			throws TransportException {
+		checkJoined();
+		if(region == null) {
+			subscribedRegions.remove(className);
+		} else {
+			subscribedRegions.put(className, region);
+		}
+		subscribedAttributes.put(className,
+				new HashSet<String>(Arrays.asList(attributeNames)));
+		subscriptionsChanged = true;
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#subscribeObjectClassAttributes(java.lang.String, java.lang.String[], java.lang.String, long, long)
+	 */
+	@Override
+	public void subscribeObjectClassAttributes(String className,
+			String[] attributeNames, String dimensionName,
+			long lowerBound, long upperBound) throws TransportException {
+		subscribeObjectClassAttributes(className, attributeNames,
+				new Region(dimensionName, lowerBound, upperBound));
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.collab.transport.Transport#updateAttributeValues(java.lang.String, java.util.Map, byte[])
+	 */
+	@Override
+	public void updateAttributeValues(String instanceName,
+			Map<String, byte[]> attributes, byte[] tag)
+			throws TransportException {
+		checkJoined();
+		if(!ownedInstances.containsKey(instanceName)) {
+			throw new TransportException("Object instance "
+					+ instanceName + " not owned.");
+		}
+		write(new NIOFrame(NIOFrame.UPDATE).writeString(instanceName)
+				.writeValues(attributes).writeBytes(tag));
+	}
+
+	/**
+	 * Appends a frame to this federate's ring and publishes the new write
+	 * position once the frame is completely written.
+	 *
+	 * @param frame the frame
+	 * @throws TransportException the transport exception
+	 */
+	private void write(NIOFrame frame) throws TransportException {
+		ByteBuffer bytes = frame.toByteBuffer();
+		int ringSize = segment.ringSize;
+		if(bytes.remaining() > ringSize) {
+			throw new TransportException("Frame exceeds ring size.");
+		}
+		synchronized(writer) {
+			checkSlotOwned();
+			writeRing(bytes);
+		}
+	}
+
+	/**
+	 * Copies a frame into this federate's ring. Must be called while
+	 * synchronized on the writer.
+	 *
+	 * @param bytes the length-prefixed frame
+	 */
+	private void writeRing(ByteBuffer bytes) {
+		int ringSize = segment.ringSize;
+
+		// copy the frame into the ring, wrapping at the end
+		int ringOffset = segment.ringOffset(slot);
+		int index = (int) (writePosition % ringSize);
+		int first = Math.min(bytes.remaining(), ringSize - index);
+		int length = bytes.remaining();
+		writer.position(ringOffset + index);
+		bytes.limit(first);
+		writer.put(bytes);
+		if(first < length) {
+			bytes.limit(length);
+			writer.position(ringOffset);
+			writer.put(bytes);
+		}
+
+		// publish the write position after the frame
+		writePosition += length;
+		storeFence();
+		segment.buffer.putLong(segment.federateOffset(slot)
+				+ WRITE_POSITION_OFFSET, writePosition);
+	}
+
+	/**
+	 * A memory-mapped file shared by the federates of this JVM.
+	 */
+	private static class Segment {
+		private final String path; // immutable
+		private final RandomAccessFile file; // immutable
+		private final FileChannel channel; // immutable
+		private final MappedByteBuffer buffer; // immutable
+		private final int maxFederates, maxInstances, ringSize; // immutable
+		private int references; // mutable
+
+		/**
+		 * Opens a segment, mapping the file if not already mapped by this
+		 * JVM and initializing the header of a new file.
+		 *
+		 * @param path the file path
+		 * @param properties the configuration properties
+		 * @return the segment
+		 * @throws TransportException the transport exception
+		 */
+		public static Segment open(String path, Properties properties)
+				throws TransportException {
+			synchronized(segments) {
+				Segment segment = segments.get(path);
+				if(segment == null) {
+					try {
+						segment = new Segment(path, properties);
+					} catch (IOException ex) {
+						throw new TransportException("Could not map "
+								+ path + ".", ex);
+					}
+					segments.put(path, segment);
+				}
+				segment.references++;
+				return segment;
+			}
+		}
+
+		/**
+		 * Closes a segment, unmapping the file once no federates of this
+		 * JVM use it.
+		 *
+		 * @param segment the segment
+		 */
+		public static void close(Segment segment) {
+			synchronized(segments) {
+				if(--segment.references == 0) {
+					segments.remove(segment.path);
+					try {
+						segment.file.close();
+					} catch (IOException ignored) { }
+				}
+			}
+		}
+
+		/**
+		 * Releases a file lock.
+		 *
+		 * @param lock the lock
+		 */
+		public static void release(FileLock lock) {
+			try {
+				lock.release();
+			} catch (IOException ignored) { }
+		}
+
+		/**
+		 * Instantiates a new segment.
+		 *
+		 * @param path the file path
+		 * @param properties the configuration properties
+		 * @throws IOException Signals that an I/O exception has occurred.
+		 */
+		private Segment(String path, Properties properties)
+				throws IOException {
+			this.path = path;
+			file = new RandomAccessFile(path, "rw");
+			channel = file.getChannel();
+
+			FileLock lock = channel.lock();
+			try {
+				// use the geometry of an existing file or initialize a new one
+				ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+				channel.read(header, 0);
+				if(header.getInt(0) == MAGIC) {
+					maxFederates = header.getInt(MAX_FEDERATES_OFFSET);
+					maxInstances = header.getInt(MAX_INSTANCES_OFFSET);
+					ringSize = header.getInt(RING_SIZE_OFFSET);
+				} else {
+					maxFederates = Integer.parseInt(properties.getProperty(
+							"shmFederates", "16"));
+					maxInstances = Integer.parseInt(properties.getProperty(
+							"shmInstances", "256"));
+					ringSize = Integer.parseInt(properties.getProperty(
+							"shmRingSize", "1048576"));
+					header.clear();
+					header.putInt(0, MAGIC);
+					header.putInt(MAX_FEDERATES_OFFSET, maxFederates);
+					header.putInt(MAX_INSTANCES_OFFSET, maxInstances);
+					header.putInt(RING_SIZE_OFFSET, ringSize);
+					channel.truncate(0);
+					channel.write(header, 0);
+				}
+				buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+						ringOffset(maxFederates));
+			} finally {
+				lock.release();
+			}
+		}
+
+		/**
+		 * Gets the offset of a federate slot.
+		 *
+		 * @param index the federate slot index
+		 * @return the offset
+		 */
+		public int federateOffset(int index) {
+			return HEADER_SIZE + index*FEDERATE_SLOT_SIZE;
+		}
+
+		/**
+		 * Gets the offset of an instance slot.
+		 *
+		 * @param index the instance slot index
+		 * @return the offset
+		 */
+		public int instanceOffset(int index) {
+			return federateOffset(maxFederates) + index*INSTANCE_SLOT_SIZE;
+		}
+
+		/**
+		 * Locks the file to serialize directory changes between processes.
+		 * Must be called while synchronized on this segment.
+		 *
+		 * @return the lock
+		 * @throws TransportException the transport exception
+		 */
+		public FileLock lock() throws TransportException {
+			try {
+				return channel.lock();
+			} catch (IOException ex) {
+				throw new TransportException("Could not lock " + path + ".", ex);
+			}
+		}
+
+		/**
+		 * Gets the offset of a federate's ring buffer.
+		 *
+		 * @param index the federate slot index
+		 * @return the offset
+		 */
+		public int ringOffset(int index) {
+			return instanceOffset(maxInstances) + index*ringSize;
+		}
+	}
+}
@@ -0,0 +1,183 @@
+package edu.mit.collab.transport;
+
+import java.util.Map;
+
+import hla.rti1516e.encoding.EncoderFactory;
+
+/**
+ * The service provider interface for exchanging manager and designer state
+ * between federates. It covers the subset of RTI services used by the
+ * ambassadors: joining a federation, publishing and subscribing to object
+ * class attributes and interactions, registering, updating and removing
+ * object instances, and requesting attribute values. Object classes,
+ * attributes, interactions and parameters are identified by their names in
+ * the federation object model and object instances by their instance names.
+ *
+ * Implementations are selected with the <code>transport</code> property
+ * using the <code>TransportFactory</code>. Callbacks are delivered to the
+ * <code>TransportListener</code> passed upon connection.
+ *
+ * @see TransportListener
+ * @see TransportFactory
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ */
+public interface Transport {
+
+	/**
+	 * Connects to the transport and joins the federation, creating the
+	 * federation if it does not yet exist.
+	 *
+	 * @param federateName the federate name (may be null)
+	 * @param federateType the federate type
+	 * @param listener the listener to receive callbacks
+	 * @throws TransportException the transport exception
+	 */
+	public void connect(String federateName, String federateType,
+			TransportListener listener) throws TransportException;
+
+	/**
+	 * Resigns from the federation, deleting all object instances registered
+	 * by this federate, and disconnects from the transport. The federation is
+	 * destroyed if no other federates remain joined.
+	 *
+	 * @throws TransportException the transport exception
+	 */
+	public void disconnect() throws TransportException;
+
+	/**
+	 * Gets the encoder factory used to create data elements for encoding
+	 * and decoding attribute and parameter values.
+	 *
+	 * @return the encoder factory
+	 */
+	public EncoderFactory getEncoderFactory();
+
+	/**
+	 * Publishes object class attributes.
+	 *
+	 * @param className the object class name
+	 * @param attributeNames the attribute names
+	 * @throws TransportException the transport exception
+	 */
+	public void publishObjectClassAttributes(String className,
+			String... attributeNames) throws TransportException;
+
+	/**
+	 * Subscribes to object class attributes.
+	 *
+	 * @param className the object class name
+	 * @param attributeNames the attribute names
+	 * @throws TransportException the transport exception
+	 */
+	public void subscribeObjectClassAttributes(String className,
+			String... attributeNames) throws TransportException;
+
+	/**
+	 * Subscribes to object class attributes within a region spanning
+	 * [lowerBound, upperBound) of a single dimension. Transports which do
+	 * not support regions subscribe to all instances instead, so listeners
+	 * must not rely on the region to filter updates.
+	 *
+	 * @param className the object class name
+	 * @param attributeNames the attribute names
+	 * @param dimensionName the dimension name
+	 * @param lowerBound the lower bound (inclusive)
+	 * @param upperBound the upper bound (exclusive)
+	 * @throws TransportException the transport exception
+	 */
+	public void subscribeObjectClassAttributes(String className,
+			String[] attributeNames, String dimensionName,
+			long lowerBound, long upperBound) throws TransportException;
+
+	/**
+	 * Publishes an interaction class.
+	 *
+	 * @param className the interaction class name
+	 * @throws TransportException the transport exception
+	 */
+	public void publishInteractionClass(String className)
+			throws TransportException;
+
+	/**
+	 * Subscribes to an interaction class.
+	 *
+	 * @param className the interaction class name
+	 * @throws TransportException the transport exception
+	 */
+	public void subscribeInteractionClass(String className)
+			throws TransportException;
+
+	/**
+	 * Registers a new object instance.
+	 *
+	 * @param className the object class name
+	 * @return the object instance name
+	 * @throws TransportException the transport exception
+	 */
+	public String registerObjectInstance(String className)
+			throws TransportException;
+
+	/**
+	 * Registers a new object instance with all published attributes in a
+	 * region spanning [lowerBound, upperBound) of a single dimension.
+	 * Transports which do not support regions register the instance without
+	 * a region instead.
+	 *
+	 * @param className the object class name
+	 * @param attributeNames the attribute names
+	 * @param dimensionName the dimension name
+	 * @param lowerBound the lower bound (inclusive)
+	 * @param upperBound the upper bound (exclusive)
+	 * @return the object instance name
+	 * @throws TransportException the transport exception
+	 */
+	public String registerObjectInstance(String className,
+			String[] attributeNames, String dimensionName,
+			long lowerBound, long upperBound) throws TransportException;
+
+	/**
+	 * Deletes an object instance registered by this federate, removing it
+	 * from federates which have discovered it.
+	 *
+	 * @param instanceName the object instance name
+	 * @throws TransportException the transport exception
+	 */
+	public void deleteObjectInstance(String instanceName)
+			throws TransportException;
+
+	/**
+	 * Updates attribute values of an object instance registered by this
+	 * federate.
+	 *
+	 * @param instanceName the object instance name
+	 * @param attributes the encoded attribute values keyed by attribute name
+	 * @param tag the user-supplied tag
+	 * @throws TransportException the transport exception
+	 */
+	public void updateAttributeValues(String instanceName,
+			Map<String, byte[]> attributes, byte[] tag)
+			throws TransportException;
+
+	/**
+	 * Requests the owner of an object instance to provide attribute values.
+	 *
+	 * @param instanceName the object instance name
+	 * @param attributeNames the attribute names
+	 * @throws TransportException the transport exception
+	 */
+	public void requestAttributeValueUpdate(String instanceName,
+			String... attributeNames) throws TransportException;
+
+	/**
+	 * Sends an interaction.
+	 *
+	 * @param className the interaction class name
+	 * @param parameters the encoded parameter values keyed by parameter name
+	 * @param tag the user-supplied tag
+	 * @throws TransportException the transport exception
+	 */
+	public void sendInteraction(String className,
+			Map<String, byte[]> parameters, byte[] tag)
+			throws TransportException;
+}
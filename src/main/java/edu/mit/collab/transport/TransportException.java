@@ -0,0 +1,41 @@
+package edu.mit.collab.transport;
+
+/**
+ * <code>TransportException</code> signals a failure of a transport service,
+ * wrapping any implementation-specific cause (e.g. an RTI exception).
+ *
+ * @see Transport
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ */
+public class TransportException extends Exception {
+	private static final long serialVersionUID = 4126735096913640871L;
+
+	/**
+	 * Instantiates a new transport exception.
+	 *
+	 * @param message the message
+	 */
+	public TransportException(String message) {
+		super(message);
+	}
+
+	/**
+	 * Instantiates a new transport exception.
+	 *
+	 * @param cause the cause
+	 */
+	public TransportException(Throwable cause) {
+		super(cause);
+	}
+
+	/**
+	 * Instantiates a new transport exception.
+	 *
+	 * @param message the message
+	 * @param cause the cause
+	 */
+	public TransportException(String message, Throwable cause) {
+		super(message, cause);
+	}
+}
@@ -0,0 +1,89 @@
+package edu.mit.collab.transport;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Properties;
+
+import hla.rti1516e.RtiFactoryFactory;
+import hla.rti1516e.encoding.EncoderFactory;
+import hla.rti1516e.exceptions.RTIexception;
+
+/**
+ * A factory for creating Transport objects. The implementation is selected
+ * by the <code>transport</code> property: <code>hla</code> (the default)
+ * uses an IEEE 1516-2010 RTI, <code>inprocess</code> exchanges state
+ * between federates within a single JVM, <code>nio</code> exchanges
+ * binary frames over TCP and <code>shm</code> exchanges binary frames
+ * through a memory-mapped file between federates on one host; otherwise,
+ * the property is interpreted as the fully-qualified name of a class
+ * implementing <code>Transport</code> with a public constructor accepting
+ * the configuration properties.
+ *
+ * @see Transport
+ */
+public abstract class TransportFactory {
+
+	/**
+	 * Creates a new Transport object.
+	 *
+	 * @param properties the configuration properties
+	 * @return the transport
+	 * @throws TransportException the transport exception
+	 */
+	public static Transport createTransport(Properties properties)
+			throws TransportException {
+		String transportName = properties.getProperty("transport", "hla");
+		if(transportName.equalsIgnoreCase("hla")) {
+			return new HLATransport(properties);
+		} else if(transportName.equalsIgnoreCase("inprocess")) {
+			return new InProcessTransport(properties);
+		} else if(transportName.equalsIgnoreCase("nio")) {
+			return new NIOTransport(properties);
+		} else if(transportName.equalsIgnoreCase("shm")) {
+			return new SharedMemoryTransport(properties);
+		}
+
+		// otherwise, try to instantiate the named transport class
+		try {
+			return Class.forName(transportName).asSubclass(Transport.class)
+					.getConstructor(Properties.class).newInstance(properties);
+		} catch (InvocationTargetException ex) {
+			throw new TransportException("Could not create transport "
+					+ transportName + ".", ex.getCause());
+		} catch (ReflectiveOperationException ex) {
+			throw new TransportException("Unknown transport "
+					+ transportName + ".", ex);
+		} catch (ClassCastException ex) {
+			throw new TransportException("Class " + transportName
+					+ " is not a transport.", ex);
+		}
+	}
+
+	/**
+	 * Creates a new encoder factory for transports which do not use an RTI.
+	 * The factory of the RTI selected by the <code>rtiName</code> property is
+	 * used so values are encoded identically on all transports; only the
+	 * RTI's classes are required, not a running RTI. Transports without an
+	 * RTI therefore still require the RTI's classes (e.g. Portico's
+	 * <code>portico.jar</code>) on the class path.
+	 *
+	 * @param properties the configuration properties
+	 * @return the encoder factory
+	 * @throws TransportException the transport exception
+	 */
+	public static EncoderFactory createEncoderFactory(Properties properties)
+			throws TransportException {
+		String rtiName = properties.getProperty("rtiName", null);
+		try {
+			if(rtiName == null) {
+				return RtiFactoryFactory.getRtiFactory().getEncoderFactory();
+			} else {
+				return RtiFactoryFactory.getRtiFactory(rtiName)
+						.getEncoderFactory();
+			}
+		} catch (RTIexception | NoClassDefFoundError ex) {
+			throw new TransportException("Could not create the encoder "
+					+ "factory of an RTI; the RTI's classes are required "
+					+ "by all transports.", ex);
+		}
+	}
+}
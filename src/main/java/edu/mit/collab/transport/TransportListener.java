@@ -0,0 +1,68 @@
+package edu.mit.collab.transport;
+
+import java.util.EventListener;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The listener interface for receiving transport callbacks. The class that
+ * is interested in state exchanged by other federates implements this
+ * interface, and the object created with that class is passed to the
+ * transport's <code>connect</code> method.
+ *
+ * Attribute and parameter maps passed to callbacks may be re-used by the
+ * transport and are only valid for the duration of the callback. The
+ * encoded values and tags in them are passed without copying (e.g. as
+ * provided by the RTI) and are not modified by the transport afterwards,
+ * so listeners may keep them without copying but must not modify them.
+ *
+ * @see Transport
+ */
+public interface TransportListener extends EventListener {
+
+	/**
+	 * Method to notify that a remote object instance has been discovered.
+	 *
+	 * @param instanceName the object instance name
+	 * @param className the object class name
+	 */
+	public void discoverObjectInstance(String instanceName, String className);
+
+	/**
+	 * Method to notify that a remote object instance has updated attribute
+	 * values.
+	 *
+	 * @param instanceName the object instance name
+	 * @param attributes the encoded attribute values keyed by attribute name
+	 * @param tag the user-supplied tag
+	 */
+	public void reflectAttributeValues(String instanceName,
+			Map<String, byte[]> attributes, byte[] tag);
+
+	/**
+	 * Method to request attribute values of an object instance registered
+	 * by this federate.
+	 *
+	 * @param instanceName the object instance name
+	 * @param attributeNames the requested attribute names
+	 */
+	public void provideAttributeValueUpdate(String instanceName,
+			Set<String> attributeNames);
+
+	/**
+	 * Method to notify that a remote object instance has been removed.
+	 *
+	 * @param instanceName the object instance name
+	 */
+	public void removeObjectInstance(String instanceName);
+
+	/**
+	 * Method to notify that an interaction has been received.
+	 *
+	 * @param className the interaction class name
+	 * @param parameters the encoded parameter values keyed by parameter name
+	 * @param tag the user-supplied tag
+	 */
+	public void receiveInteraction(String className,
+			Map<String, byte[]> parameters, byte[] tag);
+}
@@ -26,10 +26,13 @@ public class BasicInputPanel extends InputPanel {
 			BasicInputPanel.class.getClassLoader().getResource(
 					"resources/star.png"));
 	
-	private final int designerIndex, inputIndex; // immutable
+	private int designerIndex, inputIndex; // mutable
+	private double solutionValue; // mutable
 	private final JSlider inputSlider; // mutable
+	private final JLabel variableLabel; // mutable
 	private final JLabel readyLabel; // mutable
 	private boolean ready; // mutable
+	private boolean notifying = true; // mutable
 	
 	/**
 	 * Instantiates a new basic input panel.
@@ -43,6 +46,7 @@ public class BasicInputPanel extends InputPanel {
 			double solutionValue, String label) {
 		this.designerIndex = designerIndex;
 		this.inputIndex = inputIndex;
+		this.solutionValue = solutionValue;
 		
 		// set layout
 		setLayout(new BorderLayout());
@@ -53,11 +57,11 @@ public class BasicInputPanel extends InputPanel {
 				BorderFactory.createEmptyBorder(5, 5, 5, 5)));
 		
 		// create and add input slider to center
-		inputSlider = createSlider(solutionValue);
+		inputSlider = createSlider();
 		inputSlider.addChangeListener(new ChangeListener() {
 			@Override
 			public void stateChanged(ChangeEvent e) {
-				if(!inputSlider.getValueIsAdjusting()) {
+				if(notifying && !inputSlider.getValueIsAdjusting()) {
 					inputChanged();
 				}
 			}
@@ -69,12 +73,9 @@ public class BasicInputPanel extends InputPanel {
 		add(inputSlider, BorderLayout.CENTER);
 		
 		// create and add variable label to top
-		if(label == null) {
-			label = "<html>X<sub>" + (designerIndex+1) + ","
-					+ (inputIndex+1) + "</sub></html>";
-		}
-		add(new JLabel(label, Utilities.getUserIcon(designerIndex), 
-				JLabel.CENTER), BorderLayout.NORTH);
+		variableLabel = new JLabel("", JLabel.CENTER);
+		setLabel(label);
+		add(variableLabel, BorderLayout.NORTH);
 		
 		// create and add ready label to bottom
 		readyLabel = new JLabel();
@@ -86,22 +87,22 @@ public class BasicInputPanel extends InputPanel {
 	}
 	
 	/**
-	 * Creates the slider.
+	 * Creates the slider, which marks the solution value if it is within
+	 * the range of the slider.
 	 *
-	 * @param solutionValue the solution value
 	 * @return the j slider
 	 */
-	private static JSlider createSlider(final double solutionValue) {
-		if(Math.abs(solutionValue) <= 1) {
-			return new JSlider((int)(sliderTicksPerUnit*minValue), 
-					(int)(sliderTicksPerUnit*maxValue)) {
-				private static final long serialVersionUID = -1430242296899154851L;
-	
-				/* (non-Javadoc)
-				 * @see javax.swing.JComponent#paintComponent(java.awt.Graphics)
-				 */
-				@Override
-				public void paintComponent(Graphics g) {
+	private JSlider createSlider() {
+		return new JSlider((int)(sliderTicksPerUnit*minValue), 
+				(int)(sliderTicksPerUnit*maxValue)) {
+			private static final long serialVersionUID = -1430242296899154851L;
+
+			/* (non-Javadoc)
+			 * @see javax.swing.JComponent#paintComponent(java.awt.Graphics)
+			 */
+			@Override
+			public void paintComponent(Graphics g) {
+				if(Math.abs(solutionValue) <= 1) {
 					Graphics g2 = g.create();
 					g2.setColor(Color.green);
 					// subtract padding to left and right of slider bar, estimated at 10px
@@ -111,13 +112,24 @@ public class BasicInputPanel extends InputPanel {
 					int goalHeight = 2;
 					g2.fillRect(0, getHeight()/2 - targetOffset - goalHeight/2, getWidth(), goalHeight);
 					g2.dispose();
-					super.paintComponent(g);
 				}
-			};
-		} else {
-			return new JSlider((int)(sliderTicksPerUnit*minValue), 
-					(int)(sliderTicksPerUnit*maxValue));
-		}
+				super.paintComponent(g);
+			}
+		};
+	}
+	
+	/**
+	 * Gets the value represented by an input slider, i.e. the value limited
+	 * to the slider range and rounded down to the slider resolution.
+	 *
+	 * @param value the value
+	 * @return the slider value
+	 */
+	public static double getSliderValue(double value) {
+		int ticks = (int)(sliderTicksPerUnit*value);
+		ticks = Math.max((int)(sliderTicksPerUnit*minValue), 
+				Math.min((int)(sliderTicksPerUnit*maxValue), ticks));
+		return ticks/((double)sliderTicksPerUnit);
 	}
 
 	/* (non-Javadoc)
@@ -181,6 +193,20 @@ public class BasicInputPanel extends InputPanel {
 		inputSlider.setEnabled(enabled);
 	}
 
+	/**
+	 * Sets the variable label.
+	 *
+	 * @param label the label, or null to label the variable by its indices
+	 */
+	private void setLabel(String label) {
+		if(label == null) {
+			label = "<html>X<sub>" + (designerIndex+1) + ","
+					+ (inputIndex+1) + "</sub></html>";
+		}
+		variableLabel.setText(label);
+		variableLabel.setIcon(Utilities.getUserIcon(designerIndex));
+	}
+
 	/* (non-Javadoc)
 	 * @see edu.mit.collab.util.InputPanel#setReady(boolean)
 	 */
@@ -197,4 +223,27 @@ public class BasicInputPanel extends InputPanel {
 	public void setValue(double value) {
 		inputSlider.setValue((int)(sliderTicksPerUnit*value));
 	}
+	
+	/**
+	 * Sets the variable represented by this panel, e.g. to reuse the panel
+	 * for another variable. Input listeners are not notified of the new 
+	 * value.
+	 *
+	 * @param designerIndex the designer index
+	 * @param inputIndex the input index
+	 * @param value the value
+	 * @param solutionValue the solution value
+	 * @param label the label
+	 */
+	public void setVariable(int designerIndex, int inputIndex, double value, 
+			double solutionValue, String label) {
+		this.designerIndex = designerIndex;
+		this.inputIndex = inputIndex;
+		this.solutionValue = solutionValue;
+		setLabel(label);
+		notifying = false;
+		setValue(value);
+		notifying = true;
+		inputSlider.repaint();
+	}
 }
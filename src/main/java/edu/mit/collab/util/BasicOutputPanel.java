@@ -23,8 +23,9 @@ public class BasicOutputPanel extends OutputPanel {
 					BasicOutputPanel.class.getClassLoader().getResource(
 							"resources/cross.png"));
 	
-	private final double targetOutput; // immutable
+	private double targetOutput; // mutable
 	private final JSlider outputSlider; // mutable
+	private final JLabel variableLabel; // mutable
 	private final JLabel signalLabel; // mutable
 	private boolean withinTargetRange; // mutable
 	
@@ -37,7 +38,7 @@ public class BasicOutputPanel extends OutputPanel {
 	 * @param outputValue the output value
 	 */
 	public BasicOutputPanel(int designerIndex, int outputIndex, 
-			final double targetOutput, double outputValue, String label) {
+			double targetOutput, double outputValue, String label) {
 		this.targetOutput = targetOutput;
 		
 		// set layout
@@ -57,7 +58,7 @@ public class BasicOutputPanel extends OutputPanel {
 				g2.setColor(Color.green);
 				// subtract padding to left and right of slider bar, estimated at 6px
 				double pixelsPerSliderTick = (getWidth() - 2*6d)/(getMaximum()-getMinimum());
-				double targetOffset = targetOutput*sliderTicksPerUnit*pixelsPerSliderTick;
+				double targetOffset = BasicOutputPanel.this.targetOutput*sliderTicksPerUnit*pixelsPerSliderTick;
 				double targetWidth = 2*ERROR_ALLOWED*sliderTicksPerUnit*pixelsPerSliderTick;
 				g2.fillRect((int) (getWidth()/2d + targetOffset - targetWidth/2d), 0, (int) targetWidth, getHeight());
 				g2.dispose();
@@ -70,12 +71,9 @@ public class BasicOutputPanel extends OutputPanel {
 		add(outputSlider, BorderLayout.CENTER);
 		
 		// create and add variable label to the left side
-		if(label==null) {
-			label = "<html>Y<sub>" + (designerIndex+1) + "," 
-					+ (outputIndex+1) + "</sub></html>";
-		}
-		add(new JLabel(label, Utilities.getUserIcon(designerIndex), 
-				JLabel.CENTER), BorderLayout.WEST);
+		variableLabel = new JLabel("", JLabel.CENTER);
+		setLabel(designerIndex, outputIndex, label);
+		add(variableLabel, BorderLayout.WEST);
 		
 		// create and add signal label to the right side
 		signalLabel = new JLabel();
@@ -85,6 +83,22 @@ public class BasicOutputPanel extends OutputPanel {
 		setValue(outputValue);
 	}
 	
+	/**
+	 * Sets the variable label.
+	 *
+	 * @param designerIndex the designer index
+	 * @param outputIndex the output index
+	 * @param label the label, or null to label the variable by its indices
+	 */
+	private void setLabel(int designerIndex, int outputIndex, String label) {
+		if(label==null) {
+			label = "<html>Y<sub>" + (designerIndex+1) + "," 
+					+ (outputIndex+1) + "</sub></html>";
+		}
+		variableLabel.setText(label);
+		variableLabel.setIcon(Utilities.getUserIcon(designerIndex));
+	}
+	
 	/* (non-Javadoc)
 	 * @see javax.swing.JComponent#setEnabled(boolean)
 	 */
@@ -116,6 +130,24 @@ public class BasicOutputPanel extends OutputPanel {
 							new Color(0xff,0xcc,0xcc));
 	}
 	
+	/**
+	 * Sets the variable represented by this panel, e.g. to reuse the panel
+	 * for another variable.
+	 *
+	 * @param designerIndex the designer index
+	 * @param outputIndex the output index
+	 * @param targetOutput the target output
+	 * @param outputValue the output value
+	 * @param label the label
+	 */
+	public void setVariable(int designerIndex, int outputIndex, 
+			double targetOutput, double outputValue, String label) {
+		this.targetOutput = targetOutput;
+		setLabel(designerIndex, outputIndex, label);
+		setValue(outputValue);
+		outputSlider.repaint();
+	}
+	
 	/* (non-Javadoc)
 	 * @see edu.mit.collab.util.OutputPanel#isWithinRange()
 	 */
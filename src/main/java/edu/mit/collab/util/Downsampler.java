@@ -0,0 +1,173 @@
+package edu.mit.collab.util;
+
+import java.util.List;
+
+/**
+ * <code>Downsampler</code> incrementally selects the points of a growing
+ * series to display in a series of a ring buffer dataset using the
+ * Largest-Triangle-Three-Buckets (LTTB) algorithm. All points are shown
+ * while the series fits the capacity of the dataset. Afterwards, the first
+ * and last points are always kept; the points in between are divided into
+ * buckets of equal width and the point of each bucket which forms the
+ * largest triangle with the point selected from the previous bucket and
+ * the average of the next bucket is kept. This preserves the peaks and
+ * overall shape of the series at a fixed point budget.
+ *
+ * The selection of a bucket is final once the next bucket is complete, so
+ * each update only selects points for the new data and the last bucket.
+ * The bucket width doubles whenever the buckets exceed the budget, which
+ * is the only time all points are selected again.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ */
+public class Downsampler {
+	private final RingBufferXYDataset dataset; // immutable
+	private final int series; // immutable
+	private final int xColumn, yColumn; // immutable
+	private final int threshold; // immutable
+
+	private int length; // mutable
+	private int bucketWidth; // mutable
+	private int finalBuckets; // mutable
+	private int selected; // mutable
+	private int finalCount; // mutable
+
+	/**
+	 * Instantiates a new downsampler for a series of a dataset. The series
+	 * is cleared and its capacity is the maximum number of points to
+	 * display.
+	 *
+	 * @param dataset the dataset
+	 * @param series the series index
+	 * @param xColumn the column of the x values in each row
+	 * @param yColumn the column of the y values in each row
+	 */
+	public Downsampler(RingBufferXYDataset dataset, int series,
+			int xColumn, int yColumn) {
+		if(dataset.getCapacity() < 4) {
+			throw new IllegalArgumentException(
+					"Capacity must be at least 4.");
+		}
+		this.dataset = dataset;
+		this.series = series;
+		this.xColumn = xColumn;
+		this.yColumn = yColumn;
+		threshold = dataset.getCapacity();
+		dataset.clear(series);
+	}
+
+	/**
+	 * Adds a point of the series to the dataset.
+	 *
+	 * @param rows the rows of the series
+	 * @param index the point index
+	 */
+	private void add(List<double[]> rows, int index) {
+		dataset.add(series, rows.get(index)[xColumn],
+				rows.get(index)[yColumn]);
+	}
+
+	/**
+	 * Selects the point of a bucket which forms the largest triangle with
+	 * the previously-selected point and the average of the following
+	 * points.
+	 *
+	 * @param rows the rows of the series
+	 * @param start the first point of the bucket
+	 * @param end the end (exclusive) of the bucket
+	 * @param nextStart the first of the following points
+	 * @param nextEnd the end (exclusive) of the following points
+	 * @return the index of the selected point
+	 */
+	private int selectPoint(List<double[]> rows, int start, int end,
+			int nextStart, int nextEnd) {
+		// compute the average of the following points
+		double averageX = 0, averageY = 0;
+		for(int i = nextStart; i < nextEnd; i++) {
+			averageX += rows.get(i)[xColumn];
+			averageY += rows.get(i)[yColumn];
+		}
+		averageX /= (nextEnd - nextStart);
+		averageY /= (nextEnd - nextStart);
+
+		// select the point forming the largest triangle
+		double x = rows.get(selected)[xColumn];
+		double y = rows.get(selected)[yColumn];
+		double maxArea = -1;
+		int maxIndex = start;
+		for(int i = start; i < end; i++) {
+			double area = Math.abs(
+					(x - averageX) * (rows.get(i)[yColumn] - y)
+					- (x - rows.get(i)[xColumn]) * (averageY - y));
+			if(area > maxArea) {
+				maxArea = area;
+				maxIndex = i;
+			}
+		}
+		return maxIndex;
+	}
+
+	/**
+	 * Updates the dataset series with the points added to the series since
+	 * the last update, without notifying listeners.
+	 *
+	 * @param rows the rows of the series, which may only grow between
+	 * updates
+	 */
+	public void update(List<double[]> rows) {
+		int n = rows.size();
+		if(n == length) {
+			return;
+		}
+
+		if(bucketWidth == 0 && n <= threshold) {
+			// show all points while the series fits the budget
+			for(int i = length; i < n; i++) {
+				add(rows, i);
+			}
+			length = n;
+			return;
+		}
+
+		// the points after the first are divided into buckets; the first
+		// and last point, one selection for each final bucket, and one
+		// selection for the last complete bucket are shown
+		if(bucketWidth == 0 || (n - 1) / bucketWidth > threshold - 2) {
+			// double the bucket width until the buckets fit the budget and
+			// select all points again
+			bucketWidth = Math.max(2, bucketWidth);
+			while((n - 1) / bucketWidth > threshold - 2) {
+				bucketWidth *= 2;
+			}
+			dataset.clear(series);
+			add(rows, 0);
+			finalBuckets = 0;
+			selected = 0;
+			finalCount = dataset.getItemCount(series);
+		} else {
+			// remove the points selected for the last bucket
+			dataset.truncate(series, finalCount);
+		}
+
+		// select points for buckets whose next bucket is complete
+		int completeBuckets = (n - 1) / bucketWidth;
+		for(; finalBuckets < completeBuckets - 1; finalBuckets++) {
+			int start = 1 + finalBuckets*bucketWidth;
+			selected = selectPoint(rows, start, start + bucketWidth,
+					start + bucketWidth, start + 2*bucketWidth);
+			add(rows, selected);
+		}
+		finalCount = dataset.getItemCount(series);
+
+		// select a point for the last complete bucket with the average of
+		// the remaining points, then show the last point
+		if(completeBuckets > finalBuckets) {
+			int start = 1 + finalBuckets*bucketWidth;
+			int end = start + bucketWidth;
+			add(rows, end < n ? selectPoint(rows, start, end, end, n)
+					: selectPoint(rows, start, end, n - 1, n));
+		}
+		add(rows, n - 1);
+		length = n;
+	}
+}
@@ -0,0 +1,155 @@
+package edu.mit.collab.util;
+
+import java.awt.GraphicsEnvironment;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.swing.JOptionPane;
+import javax.swing.Timer;
+
+/**
+ * <code>ErrorReporter</code> records exceptions raised while handling
+ * transport callbacks without blocking the callback thread. Each error is
+ * logged with its context and counted; errors are then shown in an error
+ * dialog on the Swing event thread, at most one dialog at a time and no
+ * more often than <code>MIN_DIALOG_INTERVAL</code>. Errors raised while a
+ * dialog is pending or open are summarized in the next dialog.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ */
+public class ErrorReporter {
+	public static final int MIN_DIALOG_INTERVAL = 5000;
+
+	private final String source; // immutable
+	private final AtomicLong errorCount = new AtomicLong(); // mutable
+	private final ConcurrentMap<String, AtomicLong> errorCounts =
+			new ConcurrentHashMap<String, AtomicLong>(); // mutable
+
+	// dialog state; only accessed while synchronized
+	private boolean dialogScheduled; // mutable
+	private String latestMessage; // mutable
+	private int unreportedCount; // mutable
+	private long lastDialogTime; // mutable
+
+	/**
+	 * Instantiates a new error reporter.
+	 *
+	 * @param source the name of the application reporting errors, used in
+	 * log messages
+	 */
+	public ErrorReporter(String source) {
+		this.source = source;
+	}
+
+	/**
+	 * Gets the total number of errors reported.
+	 *
+	 * @return the error count
+	 */
+	public long getErrorCount() {
+		return errorCount.get();
+	}
+
+	/**
+	 * Gets the number of errors reported for each action.
+	 *
+	 * @return the error counts keyed by action
+	 */
+	public Map<String, Long> getErrorCounts() {
+		Map<String, Long> counts = new HashMap<String, Long>();
+		for(Map.Entry<String, AtomicLong> entry : errorCounts.entrySet()) {
+			counts.put(entry.getKey(), entry.getValue().get());
+		}
+		return counts;
+	}
+
+	/**
+	 * Reports an exception. This method returns immediately; the error
+	 * dialog is shown later on the Swing event thread.
+	 *
+	 * @param action the action during which the exception occurred, e.g.
+	 * "decoding an attribute update"
+	 * @param context the context of the action, e.g. the object instance
+	 * name (may be null)
+	 * @param ex the exception
+	 */
+	public void report(String action, String context, Exception ex) {
+		// record and count the error
+		long count = errorCount.incrementAndGet();
+		errorCounts.putIfAbsent(action, new AtomicLong());
+		errorCounts.get(action).incrementAndGet();
+		System.err.println(source + " Error: exception while " + action
+				+ (context == null ? "" : " (" + context + ")")
+				+ "; " + count + " errors in total");
+		ex.printStackTrace();
+
+		// nothing to show in headless environments
+		if(GraphicsEnvironment.isHeadless()) {
+			return;
+		}
+
+		// schedule a dialog unless one is already pending or open
+		synchronized(this) {
+			latestMessage = "An exception of type " + ex.getMessage()
+					+ " occurred while " + action + ". See stack trace "
+					+ "for more information.";
+			unreportedCount++;
+			if(!dialogScheduled) {
+				dialogScheduled = true;
+				scheduleDialog((int) Math.max(0, lastDialogTime
+						+ MIN_DIALOG_INTERVAL - System.currentTimeMillis()));
+			}
+		}
+	}
+
+	/**
+	 * Schedules the error dialog to be shown on the Swing event thread.
+	 *
+	 * @param delay the delay (milliseconds)
+	 */
+	private void scheduleDialog(int delay) {
+		Timer timer = new Timer(delay, new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				showDialog();
+			}
+		});
+		timer.setRepeats(false);
+		timer.start();
+	}
+
+	/**
+	 * Shows the error dialog for the latest error and summarizes any other
+	 * unreported errors. Once closed, another dialog is scheduled after the
+	 * minimum interval if further errors were reported meanwhile.
+	 */
+	private void showDialog() {
+		String message;
+		int otherCount;
+		synchronized(this) {
+			message = latestMessage;
+			otherCount = unreportedCount - 1;
+			unreportedCount = 0;
+		}
+		if(otherCount > 0) {
+			message += " (" + otherCount + " other error"
+					+ (otherCount > 1 ? "s were" : " was")
+					+ " also recorded.)";
+		}
+		JOptionPane.showMessageDialog(null, message, "Error",
+				JOptionPane.ERROR_MESSAGE);
+		synchronized(this) {
+			lastDialogTime = System.currentTimeMillis();
+			if(unreportedCount > 0) {
+				scheduleDialog(MIN_DIALOG_INTERVAL);
+			} else {
+				dialogScheduled = false;
+			}
+		}
+	}
+}
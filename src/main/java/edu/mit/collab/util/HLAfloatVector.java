@@ -1,5 +1,8 @@
 package edu.mit.collab.util;
 
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+
 import hla.rti1516e.encoding.ByteWrapper;
 import hla.rti1516e.encoding.DataElement;
 import hla.rti1516e.encoding.DataElementFactory;
@@ -13,44 +16,96 @@ import org.apache.commons.math3.linear.ArrayRealVector;
 import org.apache.commons.math3.linear.RealVector;
 
 /**
- * <code>HLAfloatVector</code> is a wrapper around the HLAvariableArray class 
- * to provide improved functionality for storing real vectors (i.e. arrays with
- * 64-bit floating point elements) in HLA data types. In particular, it 
- * provides <code>getValue</code> and <code>setValue</code> functions to 
- * automatically transform data to and from the <code>RealVector</code> object 
- * classes.
- * 
+ * <code>HLAfloatVector</code> is a data element to provide improved
+ * functionality for storing real vectors (i.e. arrays with 64-bit floating
+ * point elements) in HLA data types. In particular, it provides
+ * <code>getValue</code> and <code>setValue</code> functions to automatically
+ * transform data to and from the <code>RealVector</code> object classes.
+ *
+ * Values are stored in a primitive array and encoded or decoded in bulk as
+ * big-endian doubles rather than through one element object per entry. The
+ * encoding matches the HLAvariableArray layout (a 32-bit element count, any
+ * padding to the element boundary, then the elements) so it remains
+ * compatible with federates using the standard encoders. Internal buffers
+ * are re-used, so a long-lived instance can be used as a reusable decoder.
+ *
  * @author Paul T. Grogan, ptgrogan@mit.edu
  */
 public class HLAfloatVector implements DataElement {
-	private final HLAvariableArray<HLAfloat64BE> hlaArray;
-	
+	private static final int ELEMENT_LENGTH = 8;
+
+	// standard header length: 4-byte count padded to the 8-byte boundary
+	private static final int STANDARD_HEADER_LENGTH = 8;
+
+	private final int headerLength; // immutable
+	private double[] values = new double[0]; // mutable
+	private int size; // mutable
+	private byte[] buffer = new byte[0]; // mutable
+	private DoubleBuffer bufferView = ByteBuffer.wrap(buffer).asDoubleBuffer(); // mutable
+
+	/**
+	 * Instantiates a new HLAfloatVector object using the standard
+	 * HLAvariableArray layout.
+	 */
+	public HLAfloatVector() {
+		headerLength = STANDARD_HEADER_LENGTH;
+	}
+
 	/**
-	 * Instantiates a new HLAfloatVector object.
+	 * Instantiates a new HLAfloatVector object using the same layout as the
+	 * variable arrays created by an HLA encoder factory.
 	 *
 	 * @param encoderFactory the HLA encoder factory
 	 */
 	public HLAfloatVector(final EncoderFactory encoderFactory) {
-		// initialize the underlying HLA data type, which is a
-		// variable array of floating point values in this case
-		hlaArray = encoderFactory.createHLAvariableArray(
-				// define a data element factory to generate floating point
-				// data elements on demand
-				new DataElementFactory<HLAfloat64BE>() {
-					@Override
-					public HLAfloat64BE createElement(int index) {
-						return encoderFactory.createHLAfloat64BE();
-					}
-				});
-	}
-	
+		headerLength = getHeaderLength(encoderFactory);
+	}
+
+	/**
+	 * Gets the header length (element count plus any padding) used by
+	 * variable arrays of floating point values created by an encoder factory.
+	 * The length is measured by encoding a single-element array.
+	 *
+	 * @param encoderFactory the HLA encoder factory
+	 * @return the header length
+	 */
+	private static int getHeaderLength(final EncoderFactory encoderFactory) {
+		try {
+			HLAvariableArray<HLAfloat64BE> probe =
+					encoderFactory.createHLAvariableArray(
+							new DataElementFactory<HLAfloat64BE>() {
+								@Override
+								public HLAfloat64BE createElement(int index) {
+									return encoderFactory.createHLAfloat64BE();
+								}
+							}, encoderFactory.createHLAfloat64BE());
+			return probe.toByteArray().length - ELEMENT_LENGTH;
+		} catch (EncoderException ex) {
+			// fall back to the standard layout
+			return STANDARD_HEADER_LENGTH;
+		}
+	}
+
 	/* (non-Javadoc)
 	 * @see hla.rti1516e.encoding.DataElement#decode(byte[])
 	 */
 	@Override
 	public void decode(byte[] bytes) throws DecoderException {
-		// access built-in function of underlying data type
-		hlaArray.decode(bytes);
+		if(bytes.length < headerLength) {
+			throw new DecoderException("Insufficient data for vector header.");
+		}
+
+		// read the element count and copy elements in bulk
+		ByteBuffer byteBuffer = ByteBuffer.wrap(bytes);
+		int length = byteBuffer.getInt();
+		if(length < 0 || bytes.length - headerLength
+				< (long) length * ELEMENT_LENGTH) {
+			throw new DecoderException("Insufficient data for "
+					+ length + " vector elements.");
+		}
+		byteBuffer.position(headerLength);
+		resize(length);
+		byteBuffer.asDoubleBuffer().get(values, 0, length);
 	}
 
 	/* (non-Javadoc)
@@ -58,8 +113,23 @@ public class HLAfloatVector implements DataElement {
 	 */
 	@Override
 	public void decode(ByteWrapper byteWrapper) throws DecoderException {
-		// access built-in function of underlying data type
-		hlaArray.decode(byteWrapper);
+		// read the element count and skip any padding
+		byteWrapper.verify(headerLength);
+		int length = byteWrapper.getInt();
+		if(length < 0) {
+			throw new DecoderException("Invalid vector length " + length + ".");
+		}
+		byteWrapper.advance(headerLength - 4);
+
+		// copy element bytes into the re-used buffer and convert in bulk
+		if(byteWrapper.remaining() < (long) length * ELEMENT_LENGTH) {
+			throw new DecoderException("Insufficient data for " 
+					+ length + " vector elements.");
+		}
+		resize(length);
+		byteWrapper.get(buffer);
+		bufferView.position(0);
+		bufferView.get(values, 0, length);
 	}
 
 	/* (non-Javadoc)
@@ -67,8 +137,20 @@ public class HLAfloatVector implements DataElement {
 	 */
 	@Override
 	public void encode(ByteWrapper byteWrapper) throws EncoderException {
-		// access built-in function of underlying data type
-		hlaArray.encode(byteWrapper);
+		if(byteWrapper.remaining() < getEncodedLength()) {
+			throw new EncoderException("Insufficient space to encode vector.");
+		}
+
+		// write the element count and zero padding
+		byteWrapper.putInt(size);
+		for(int i = 4; i < headerLength; i++) {
+			byteWrapper.put(0);
+		}
+
+		// convert elements in bulk into the re-used buffer and copy bytes
+		bufferView.position(0);
+		bufferView.put(values, 0, size);
+		byteWrapper.put(buffer);
 	}
 
 	/* (non-Javadoc)
@@ -76,8 +158,7 @@ public class HLAfloatVector implements DataElement {
 	 */
 	@Override
 	public int getEncodedLength() {
-		// access built-in function of underlying data type
-		return hlaArray.getEncodedLength();
+		return headerLength + size * ELEMENT_LENGTH;
 	}
 
 	/* (non-Javadoc)
@@ -85,8 +166,7 @@ public class HLAfloatVector implements DataElement {
 	 */
 	@Override
 	public int getOctetBoundary() {
-		// access built-in function of underlying data type
-		return hlaArray.getOctetBoundary();
+		return ELEMENT_LENGTH;
 	}
 
 	/**
@@ -95,36 +175,125 @@ public class HLAfloatVector implements DataElement {
 	 * @return the value
 	 */
 	public RealVector getValue() {
-		// create a vector of real values with the same size as the
-		// underlying HLA array variable
-		RealVector vector = new ArrayRealVector(hlaArray.size());
-		for(int i = 0; i < hlaArray.size(); i++) {
-			// set each vector entry from the HLA array
-			vector.setEntry(i, hlaArray.get(i).getValue());
+		// create a vector of real values copying the stored elements
+		return new ArrayRealVector(values, 0, size);
+	}
+
+	/**
+	 * Gets the value by copying it into a primitive array. The passed buffer
+	 * is re-used if it is large enough to hold all elements; otherwise a new
+	 * array is allocated. Use <code>size</code> to get the number of valid
+	 * elements in the returned array.
+	 *
+	 * @param buffer the buffer to re-use (may be null)
+	 * @return the buffer containing the value
+	 */
+	public double[] getValue(double[] buffer) {
+		// only allocate a new buffer if the existing one is too small
+		if(buffer == null || buffer.length < size) {
+			buffer = new double[size];
 		}
-		return vector;
+		System.arraycopy(values, 0, buffer, 0, size);
+		return buffer;
+	}
+
+	/**
+	 * Gets the number of elements.
+	 *
+	 * @return the number of elements
+	 */
+	public int size() {
+		return size;
 	}
-	
+
 	/**
 	 * Sets the value as a <code>RealVector</code> object.
 	 *
 	 * @param vector the new value
 	 */
 	public void setValue(RealVector vector) {
-		// resize the HLA array to match the vector size
-		hlaArray.resize(vector.getDimension());
-		for(int i = 0; i < vector.getDimension(); i++) {
-			// set each array entry from the vector
-			hlaArray.get(i).setValue(vector.getEntry(i));
+		// resize the stored elements to match the vector size
+		resize(vector.getDimension());
+		if(vector instanceof ArrayRealVector) {
+			// copy directly from the underlying array
+			System.arraycopy(((ArrayRealVector) vector).getDataRef(),
+					0, values, 0, size);
+		} else {
+			for(int i = 0; i < size; i++) {
+				// set each entry from the vector
+				values[i] = vector.getEntry(i);
+			}
 		}
 	}
-	
+
+	/**
+	 * Sets the value from a primitive array.
+	 *
+	 * @param vector the array containing the new value
+	 * @param length the number of elements to copy
+	 */
+	public void setValue(double[] vector, int length) {
+		resize(length);
+		System.arraycopy(vector, 0, values, 0, length);
+	}
+
+	/**
+	 * Resizes the stored elements and the byte buffer, only allocating new
+	 * arrays when the size changes.
+	 *
+	 * @param length the new number of elements
+	 * @throws IllegalArgumentException if the encoded length would exceed 
+	 * the maximum array size
+	 */
+	private void resize(int length) {
+		if((long) length * ELEMENT_LENGTH > Integer.MAX_VALUE - headerLength) {
+			throw new IllegalArgumentException("Vector length " + length 
+					+ " exceeds the maximum encoded length.");
+		}
+		if(values.length < length) {
+			values = new double[length];
+		}
+		if(buffer.length != length * ELEMENT_LENGTH) {
+			buffer = new byte[length * ELEMENT_LENGTH];
+			bufferView = ByteBuffer.wrap(buffer).asDoubleBuffer();
+		}
+		size = length;
+	}
+
 	/* (non-Javadoc)
 	 * @see hla.rti1516e.encoding.DataElement#toByteArray()
 	 */
 	@Override
 	public byte[] toByteArray() throws EncoderException {
-		// access built-in function of underlying data type
-		return hlaArray.toByteArray();
+		// encode header and elements directly into a new array; the array
+		// cannot be re-used since transports and listeners may keep it
+		// after the call (e.g. in-process reflections delivered later)
+		long encodedLength = headerLength + (long) size * ELEMENT_LENGTH;
+		if(encodedLength > Integer.MAX_VALUE) {
+			throw new EncoderException("Vector length " + size 
+					+ " exceeds the maximum encoded length.");
+		}
+		byte[] bytes = new byte[(int) encodedLength];
+		ByteBuffer byteBuffer = ByteBuffer.wrap(bytes);
+		byteBuffer.putInt(size);
+		byteBuffer.position(headerLength);
+		byteBuffer.asDoubleBuffer().put(values, 0, size);
+		return bytes;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		// format like a RealVector, i.e. {1.0; 2.0}
+		StringBuilder builder = new StringBuilder("{");
+		for(int i = 0; i < size; i++) {
+			if(i > 0) {
+				builder.append("; ");
+			}
+			builder.append(values[i]);
+		}
+		return builder.append("}").toString();
 	}
 }
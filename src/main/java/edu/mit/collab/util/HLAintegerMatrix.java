@@ -1,40 +1,50 @@
 package edu.mit.collab.util;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import hla.rti1516e.encoding.ByteWrapper;
 import hla.rti1516e.encoding.DataElement;
-import hla.rti1516e.encoding.DataElementFactory;
 import hla.rti1516e.encoding.DecoderException;
 import hla.rti1516e.encoding.EncoderException;
 import hla.rti1516e.encoding.EncoderFactory;
-import hla.rti1516e.encoding.HLAvariableArray;
 
 /**
- * <code>HLAfloatVector</code> is a wrapper around the HLAvariableArray class 
- * to provide improved functionality for storing integer matrices in HLA data 
- * types. In particular, it provides <code>getValue</code> and 
- * <code>setValue </code> functions to automatically transform data to and 
- * from the <code>int[][]</code> object classes.
+ * <code>HLAintegerMatrix</code> is a data element to provide improved 
+ * functionality for storing integer matrices in HLA data types. In 
+ * particular, it provides <code>getValue</code> and <code>setValue </code> 
+ * functions to automatically transform data to and from the 
+ * <code>int[][]</code> object classes.
+ * 
+ * The matrix is encoded using the HLAvariableArray layout (a 32-bit row count
+ * followed by the rows), where each row is an <code>HLAintegerVector</code> 
+ * encoded in bulk. Row vectors are pooled by index and re-used between 
+ * successive calls to <code>decode</code> and <code>setValue</code>.
  * 
  * @author Paul T. Grogan, ptgrogan@mit.edu
  */
 public class HLAintegerMatrix implements DataElement {
-	private final HLAvariableArray<HLAintegerVector> intMatrix;
+	private static final int HEADER_LENGTH = 4;
+	
+	private final List<HLAintegerVector> rowPool = 
+			new ArrayList<HLAintegerVector>(); // mutable
+	private int size; // mutable
 	
 	/**
 	 * Instantiates a new HLAintegerMatrix object.
+	 */
+	public HLAintegerMatrix() {
+		
+	}
+	
+	/**
+	 * Instantiates a new HLAintegerMatrix object. The 32-bit element layout 
+	 * does not require padding, so the encoder factory is not consulted.
 	 *
 	 * @param encoderFactory the HLA encoder factory
 	 */
 	public HLAintegerMatrix(final EncoderFactory encoderFactory) {
-		// initialize the underlying HLA data type, which is a
-		// variable array of integer vectors in this case
-		intMatrix = encoderFactory.createHLAvariableArray(
-				new DataElementFactory<HLAintegerVector>() {
-					@Override
-					public HLAintegerVector createElement(int index) {
-						return new HLAintegerVector(encoderFactory);
-					}
-				});
+		this();
 	}
 	
 	/* (non-Javadoc)
@@ -42,8 +52,8 @@ public class HLAintegerMatrix implements DataElement {
 	 */
 	@Override
 	public void decode(byte[] bytes) throws DecoderException {
-		// access built-in function of underlying data type
-		intMatrix.decode(bytes);
+		// wrap the bytes to decode each row in sequence
+		decode(new ByteWrapper(bytes));
 	}
 
 	/* (non-Javadoc)
@@ -51,8 +61,21 @@ public class HLAintegerMatrix implements DataElement {
 	 */
 	@Override
 	public void decode(ByteWrapper byteWrapper) throws DecoderException {
-		// access built-in function of underlying data type
-		intMatrix.decode(byteWrapper);
+		// read the row count
+		byteWrapper.verify(HEADER_LENGTH);
+		int length = byteWrapper.getInt();
+		if(length < 0 || length > byteWrapper.remaining() / HEADER_LENGTH) {
+			// each row has at least a header
+			throw new DecoderException("Invalid matrix length " + length + ".");
+		}
+		
+		// decode each row into a pooled row vector and only update the 
+		// size once all rows are decoded
+		growPool(length);
+		for(int i = 0; i < length; i++) {
+			rowPool.get(i).decode(byteWrapper);
+		}
+		size = length;
 	}
 
 	/* (non-Javadoc)
@@ -60,8 +83,15 @@ public class HLAintegerMatrix implements DataElement {
 	 */
 	@Override
 	public void encode(ByteWrapper byteWrapper) throws EncoderException {
-		// access built-in function of underlying data type
-		intMatrix.encode(byteWrapper);
+		if(byteWrapper.remaining() < getEncodedLength()) {
+			throw new EncoderException("Insufficient space to encode matrix.");
+		}
+		
+		// write the row count followed by each row
+		byteWrapper.putInt(size);
+		for(int i = 0; i < size; i++) {
+			rowPool.get(i).encode(byteWrapper);
+		}
 	}
 
 	/* (non-Javadoc)
@@ -69,8 +99,11 @@ public class HLAintegerMatrix implements DataElement {
 	 */
 	@Override
 	public int getEncodedLength() {
-		// access built-in function of underlying data type
-		return intMatrix.getEncodedLength();
+		int length = HEADER_LENGTH;
+		for(int i = 0; i < size; i++) {
+			length += rowPool.get(i).getEncodedLength();
+		}
+		return length;
 	}
 
 	/* (non-Javadoc)
@@ -78,8 +111,7 @@ public class HLAintegerMatrix implements DataElement {
 	 */
 	@Override
 	public int getOctetBoundary() {
-		// access built-in function of underlying data type
-		return intMatrix.getOctetBoundary();
+		return HEADER_LENGTH;
 	}
 
 	/**
@@ -88,36 +120,58 @@ public class HLAintegerMatrix implements DataElement {
 	 * @return the value
 	 */
 	public int[][] getValue() {
-		// create an integer matrix with the same size as the
-		// underlying HLA array variable
-		int[][] matrix = new int[intMatrix.size()][];
-		for(int i = 0; i < intMatrix.size(); i++) {
-			// set each vector entry from the HLA array
-			matrix[i] = intMatrix.get(i).getValue();
+		// create an integer matrix with the same number of rows
+		int[][] matrix = new int[size][];
+		for(int i = 0; i < size; i++) {
+			// set each row from the pooled row vectors
+			matrix[i] = rowPool.get(i).getValue();
 		}
 		return matrix;
 	}
 	
+	/**
+	 * Grows the row pool to hold at least the specified number of rows.
+	 *
+	 * @param length the number of rows
+	 */
+	private void growPool(int length) {
+		while(rowPool.size() < length) {
+			rowPool.add(new HLAintegerVector());
+		}
+	}
+	
 	/**
 	 * Sets the value.
 	 *
 	 * @param matrix the new value
 	 */
 	public void setValue(int[][] matrix) {
-		// resize the HLA array to match the matrix size
-		intMatrix.resize(matrix.length);
+		// resize the pooled rows to match the matrix size
+		resize(matrix.length);
 		for(int i = 0; i < matrix.length; i++) {
-			// set each array entry from the matrix
-			intMatrix.get(i).setValue(matrix[i]);
+			// set each row from the matrix
+			rowPool.get(i).setValue(matrix[i]);
 		}
 	}
 	
+	/**
+	 * Resizes the matrix, growing the row pool if necessary.
+	 *
+	 * @param length the new number of rows
+	 */
+	private void resize(int length) {
+		growPool(length);
+		size = length;
+	}
+	
 	/* (non-Javadoc)
 	 * @see hla.rti1516e.encoding.DataElement#toByteArray()
 	 */
 	@Override
 	public byte[] toByteArray() throws EncoderException {
-		// access built-in function of underlying data type
-		return intMatrix.toByteArray();
+		// encode header and rows directly into a new array
+		ByteWrapper byteWrapper = new ByteWrapper(getEncodedLength());
+		encode(byteWrapper);
+		return byteWrapper.array();
 	}
 }
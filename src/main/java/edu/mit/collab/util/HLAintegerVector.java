@@ -1,43 +1,52 @@
 package edu.mit.collab.util;
 
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
 import hla.rti1516e.encoding.ByteWrapper;
 import hla.rti1516e.encoding.DataElement;
-import hla.rti1516e.encoding.DataElementFactory;
 import hla.rti1516e.encoding.DecoderException;
 import hla.rti1516e.encoding.EncoderException;
 import hla.rti1516e.encoding.EncoderFactory;
-import hla.rti1516e.encoding.HLAinteger32BE;
-import hla.rti1516e.encoding.HLAvariableArray;
 
 /**
- * <code>HLAintegerVector</code> is a wrapper around the HLAvariableArray class 
- * to provide improved functionality for storing integer arrays in HLA data 
- * types. In particular, it provides <code>getValue</code> and 
- * <code>setValue</code> functions to automatically transform data to and from 
- * the <code>int[]</code> object classes.
+ * <code>HLAintegerVector</code> is a data element to provide improved 
+ * functionality for storing integer arrays in HLA data types. In particular, 
+ * it provides <code>getValue</code> and <code>setValue</code> functions to 
+ * automatically transform data to and from the <code>int[]</code> object 
+ * classes.
+ * 
+ * Values are stored in a primitive array and encoded or decoded in bulk as 
+ * big-endian integers using the HLAvariableArray layout (a 32-bit element 
+ * count followed by the elements). Internal buffers are re-used between 
+ * successive calls to <code>decode</code> and <code>setValue</code>.
  * 
  * @author Paul T. Grogan, ptgrogan@mit.edu
  */
 public class HLAintegerVector implements DataElement {
-	private final HLAvariableArray<HLAinteger32BE> hlaArray;
+	private static final int ELEMENT_LENGTH = 4;
+	private static final int HEADER_LENGTH = 4;
+	
+	private int[] values = new int[0]; // mutable
+	private int size; // mutable
+	private byte[] buffer = new byte[0]; // mutable
+	private IntBuffer bufferView = ByteBuffer.wrap(buffer).asIntBuffer(); // mutable
 	
 	/**
 	 * Instantiates a new HLAintegerVector object.
+	 */
+	public HLAintegerVector() {
+		
+	}
+	
+	/**
+	 * Instantiates a new HLAintegerVector object. The 32-bit element layout 
+	 * does not require padding, so the encoder factory is not consulted.
 	 *
 	 * @param encoderFactory the HLA encoder factory
 	 */
 	public HLAintegerVector(final EncoderFactory encoderFactory) {
-		// initialize the underlying HLA data type, which is a
-		// variable array of integer values in this case
-		hlaArray = encoderFactory.createHLAvariableArray(
-				// define a data element factory to generate integer
-				// data elements on demand
-				new DataElementFactory<HLAinteger32BE>() {
-					@Override
-					public HLAinteger32BE createElement(int index) {
-						return encoderFactory.createHLAinteger32BE();
-					}
-				});
+		this();
 	}
 	
 	/* (non-Javadoc)
@@ -45,8 +54,20 @@ public class HLAintegerVector implements DataElement {
 	 */
 	@Override
 	public void decode(byte[] bytes) throws DecoderException {
-		// access built-in function of underlying data type
-		hlaArray.decode(bytes);
+		if(bytes.length < HEADER_LENGTH) {
+			throw new DecoderException("Insufficient data for vector header.");
+		}
+		
+		// read the element count and copy elements in bulk
+		ByteBuffer byteBuffer = ByteBuffer.wrap(bytes);
+		int length = byteBuffer.getInt();
+		if(length < 0 || bytes.length - HEADER_LENGTH 
+				< (long) length * ELEMENT_LENGTH) {
+			throw new DecoderException("Insufficient data for " 
+					+ length + " vector elements.");
+		}
+		resize(length);
+		byteBuffer.asIntBuffer().get(values, 0, length);
 	}
 
 	/* (non-Javadoc)
@@ -54,8 +75,22 @@ public class HLAintegerVector implements DataElement {
 	 */
 	@Override
 	public void decode(ByteWrapper byteWrapper) throws DecoderException {
-		// access built-in function of underlying data type
-		hlaArray.decode(byteWrapper);
+		// read the element count
+		byteWrapper.verify(HEADER_LENGTH);
+		int length = byteWrapper.getInt();
+		if(length < 0) {
+			throw new DecoderException("Invalid vector length " + length + ".");
+		}
+		
+		// copy element bytes into the re-used buffer and convert in bulk
+		if(byteWrapper.remaining() < (long) length * ELEMENT_LENGTH) {
+			throw new DecoderException("Insufficient data for " 
+					+ length + " vector elements.");
+		}
+		resize(length);
+		byteWrapper.get(buffer);
+		bufferView.position(0);
+		bufferView.get(values, 0, length);
 	}
 
 	/* (non-Javadoc)
@@ -63,8 +98,16 @@ public class HLAintegerVector implements DataElement {
 	 */
 	@Override
 	public void encode(ByteWrapper byteWrapper) throws EncoderException {
-		// access built-in function of underlying data type
-		hlaArray.encode(byteWrapper);
+		if(byteWrapper.remaining() < getEncodedLength()) {
+			throw new EncoderException("Insufficient space to encode vector.");
+		}
+		
+		// write the element count, then convert elements in bulk into the 
+		// re-used buffer and copy bytes
+		byteWrapper.putInt(size);
+		bufferView.position(0);
+		bufferView.put(values, 0, size);
+		byteWrapper.put(buffer);
 	}
 
 	/* (non-Javadoc)
@@ -72,8 +115,7 @@ public class HLAintegerVector implements DataElement {
 	 */
 	@Override
 	public int getEncodedLength() {
-		// access built-in function of underlying data type
-		return hlaArray.getEncodedLength();
+		return HEADER_LENGTH + size * ELEMENT_LENGTH;
 	}
 
 	/* (non-Javadoc)
@@ -81,8 +123,7 @@ public class HLAintegerVector implements DataElement {
 	 */
 	@Override
 	public int getOctetBoundary() {
-		// access built-in function of underlying data type
-		return hlaArray.getOctetBoundary();
+		return ELEMENT_LENGTH;
 	}
 
 	/**
@@ -91,28 +132,82 @@ public class HLAintegerVector implements DataElement {
 	 * @return the value
 	 */
 	public int[] getValue() {
-		// create an integer array with the same size as the
-		// underlying HLA array variable
-		int[] vector = new int[hlaArray.size()];
-		for(int i = 0; i < hlaArray.size(); i++) {
-			// set each array entry from the HLA array
-			vector[i] = hlaArray.get(i).getValue();
-		}
+		// create an integer array copying the stored elements
+		int[] vector = new int[size];
+		System.arraycopy(values, 0, vector, 0, size);
 		return vector;
 	}
 	
+	/**
+	 * Gets the value by copying it into a primitive array. The passed buffer 
+	 * is re-used if it is large enough to hold all elements; otherwise a new 
+	 * array is allocated. Use <code>size</code> to get the number of valid 
+	 * elements in the returned array.
+	 *
+	 * @param buffer the buffer to re-use (may be null)
+	 * @return the buffer containing the value
+	 */
+	public int[] getValue(int[] buffer) {
+		// only allocate a new buffer if the existing one is too small
+		if(buffer == null || buffer.length < size) {
+			buffer = new int[size];
+		}
+		System.arraycopy(values, 0, buffer, 0, size);
+		return buffer;
+	}
+	
+	/**
+	 * Gets the number of elements.
+	 *
+	 * @return the number of elements
+	 */
+	public int size() {
+		return size;
+	}
+	
 	/**
 	 * Sets the value.
 	 *
 	 * @param vector the new value
 	 */
 	public void setValue(int[] vector) {
-		// resize the HLA array to match the vector size
-		hlaArray.resize(vector.length);
-		for(int i = 0; i < vector.length; i++) {
-			// set each array entry from the array
-			hlaArray.get(i).setValue(vector[i]);
+		// resize the stored elements to match the vector size
+		resize(vector.length);
+		System.arraycopy(vector, 0, values, 0, size);
+	}
+	
+	/**
+	 * Sets the value from a primitive array.
+	 *
+	 * @param vector the array containing the new value
+	 * @param length the number of elements to copy
+	 */
+	public void setValue(int[] vector, int length) {
+		resize(length);
+		System.arraycopy(vector, 0, values, 0, length);
+	}
+	
+	/**
+	 * Resizes the stored elements and the byte buffer, only allocating new 
+	 * arrays when the size changes.
+	 *
+	 * @param length the new number of elements
+	 * @throws IllegalArgumentException if the encoded length would exceed 
+	 * the maximum array size
+	 */
+	private void resize(int length) {
+		if((long) length * ELEMENT_LENGTH > Integer.MAX_VALUE - HEADER_LENGTH) {
+			throw new IllegalArgumentException("Vector length " + length 
+					+ " exceeds the maximum encoded length.");
+		}
+		if(values.length < length) {
+			values = new int[length];
 		}
+		if(buffer.length != length * ELEMENT_LENGTH) {
+			buffer = new byte[length * ELEMENT_LENGTH];
+			bufferView = ByteBuffer.wrap(buffer).asIntBuffer();
+		}
+		size = length;
 	}
 	
 	/* (non-Javadoc)
@@ -120,7 +215,18 @@ public class HLAintegerVector implements DataElement {
 	 */
 	@Override
 	public byte[] toByteArray() throws EncoderException {
-		// access built-in function of underlying data type
-		return hlaArray.toByteArray();
+		// encode header and elements directly into a new array; the array 
+		// cannot be re-used since transports and listeners may keep it 
+		// after the call (e.g. in-process reflections delivered later)
+		long encodedLength = HEADER_LENGTH + (long) size * ELEMENT_LENGTH;
+		if(encodedLength > Integer.MAX_VALUE) {
+			throw new EncoderException("Vector length " + size 
+					+ " exceeds the maximum encoded length.");
+		}
+		byte[] bytes = new byte[(int) encodedLength];
+		ByteBuffer byteBuffer = ByteBuffer.wrap(bytes);
+		byteBuffer.putInt(size);
+		byteBuffer.asIntBuffer().put(values, 0, size);
+		return bytes;
 	}
 }
@@ -1,5 +1,8 @@
 package edu.mit.collab.util;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import hla.rti1516e.encoding.ByteWrapper;
 import hla.rti1516e.encoding.DataElement;
 import hla.rti1516e.encoding.DataElementFactory;
@@ -16,10 +19,15 @@ import hla.rti1516e.encoding.HLAvariableArray;
  * <code>setValue</code> functions to automatically transform data to and 
  * from the <code>String[]</code> object classes.
  * 
+ * Element objects are pooled by index and re-used between successive calls to
+ * <code>decode</code> and <code>setValue</code>.
+ * 
  * @author Paul T. Grogan, ptgrogan@mit.edu
  */
 public class HLAstringVector implements DataElement {
 	private final HLAvariableArray<HLAunicodeString> hlaArray;
+	private final List<HLAunicodeString> elementPool = 
+			new ArrayList<HLAunicodeString>(); // mutable
 	
 	/**
 	 * Instantiates a new HLAfloatVector object.
@@ -31,11 +39,14 @@ public class HLAstringVector implements DataElement {
 		// variable array of unicode string values in this case
 		hlaArray = encoderFactory.createHLAvariableArray(
 				// define a data element factory to generate unicode string
-				// data elements on demand
+				// data elements on demand, re-using pooled elements by index
 				new DataElementFactory<HLAunicodeString>() {
 					@Override
 					public HLAunicodeString createElement(int index) {
-						return encoderFactory.createHLAunicodeString();
+						while(elementPool.size() <= index) {
+							elementPool.add(encoderFactory.createHLAunicodeString());
+						}
+						return elementPool.get(index);
 					}
 				});
 	}
@@ -31,4 +31,31 @@ public class InputEvent extends EventObject {
 		this.inputIndex = inputIndex;
 		this.inputValue = inputValue;
 	}
+	
+	/**
+	 * Gets the designer index.
+	 *
+	 * @return the designer index
+	 */
+	public int getDesignerIndex() {
+		return designerIndex;
+	}
+	
+	/**
+	 * Gets the input index.
+	 *
+	 * @return the input index
+	 */
+	public int getInputIndex() {
+		return inputIndex;
+	}
+	
+	/**
+	 * Gets the input value.
+	 *
+	 * @return the input value
+	 */
+	public double getInputValue() {
+		return inputValue;
+	}
 }
@@ -0,0 +1,84 @@
+package edu.mit.collab.util;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <code>ModelDictionary</code> stores encoded model attribute values (e.g.
+ * labels and index matrices) keyed by a hash of their content so values
+ * which repeat across models are sent once and referenced by key
+ * afterwards. The key is the first 64 bits of the SHA-256 digest of the
+ * encoded value. The least-recently used entries are evicted once the
+ * capacity is reached; a sender evicting an entry only causes the value to
+ * be sent again, and a receiver missing an entry requests the value.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ */
+public class ModelDictionary {
+	public static final int DEFAULT_CAPACITY = 256;
+
+	private final Map<Long, byte[]> entries; // mutable
+
+	/**
+	 * Instantiates a new model dictionary with the default capacity.
+	 */
+	public ModelDictionary() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Instantiates a new model dictionary.
+	 *
+	 * @param capacity the maximum number of entries
+	 */
+	public ModelDictionary(final int capacity) {
+		entries = new LinkedHashMap<Long, byte[]>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	/**
+	 * Computes the key of an encoded value.
+	 *
+	 * @param value the encoded value
+	 * @return the key
+	 */
+	public static long hash(byte[] value) {
+		try {
+			return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256")
+					.digest(value)).getLong();
+		} catch (NoSuchAlgorithmException ex) {
+			// all java platforms are required to support SHA-256
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	/**
+	 * Gets an encoded value.
+	 *
+	 * @param key the key
+	 * @return the encoded value, or null if not stored
+	 */
+	public synchronized byte[] get(long key) {
+		return entries.get(key);
+	}
+
+	/**
+	 * Stores an encoded value.
+	 *
+	 * @param key the key
+	 * @param value the encoded value
+	 * @return true, if the value was not stored before
+	 */
+	public synchronized boolean put(long key, byte[] value) {
+		return entries.put(key, value) == null;
+	}
+}
@@ -0,0 +1,208 @@
+package edu.mit.collab.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jfree.data.DomainOrder;
+import org.jfree.data.xy.AbstractXYDataset;
+
+/**
+ * <code>RingBufferXYDataset</code> is an XY dataset which stores the items
+ * of each series in primitive ring buffers of a fixed capacity, i.e. once a
+ * series is full, adding an item replaces its oldest item. Items are added
+ * in O(1) time without boxing and without firing change events; listeners
+ * (e.g. charts) are notified once by calling <code>flush</code> after a
+ * batch of items has been added. Items must be added to a series in
+ * ascending order of x value; adding an item with the same x value as the
+ * latest item updates its y value instead.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ */
+public class RingBufferXYDataset extends AbstractXYDataset {
+	private static final long serialVersionUID = 1L;
+
+	private final int capacity; // immutable
+	private final List<Comparable<?>> seriesKeys =
+			new ArrayList<Comparable<?>>(); // mutable
+	private final List<double[]> xValues = new ArrayList<double[]>(); // mutable
+	private final List<double[]> yValues = new ArrayList<double[]>(); // mutable
+	private final List<int[]> positions = new ArrayList<int[]>(); // mutable
+
+	/**
+	 * Instantiates a new ring buffer dataset.
+	 *
+	 * @param capacity the maximum number of items of each series
+	 */
+	public RingBufferXYDataset(int capacity) {
+		if(capacity < 1) {
+			throw new IllegalArgumentException(
+					"Capacity must be at least 1.");
+		}
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Adds an item to a series without notifying listeners.
+	 *
+	 * @param series the series index
+	 * @param x the x value
+	 * @param y the y value
+	 */
+	public void add(int series, double x, double y) {
+		double[] xs = xValues.get(series);
+		double[] ys = yValues.get(series);
+		int[] position = positions.get(series); // {start, count}
+
+		// update the latest item if it has the same x value
+		if(position[1] > 0) {
+			int latest = (position[0] + position[1] - 1) % capacity;
+			if(xs[latest] == x) {
+				ys[latest] = y;
+				return;
+			}
+		}
+
+		// write the item after the latest one, replacing the oldest item
+		// if the series is full
+		int next = (position[0] + position[1]) % capacity;
+		xs[next] = x;
+		ys[next] = y;
+		if(position[1] < capacity) {
+			position[1]++;
+		} else {
+			position[0] = (position[0] + 1) % capacity;
+		}
+	}
+
+	/**
+	 * Adds a series and notifies listeners.
+	 *
+	 * @param key the series key
+	 * @return the series index
+	 */
+	public int addSeries(Comparable<?> key) {
+		seriesKeys.add(key);
+		xValues.add(new double[capacity]);
+		yValues.add(new double[capacity]);
+		positions.add(new int[2]);
+		fireDatasetChanged();
+		return seriesKeys.size() - 1;
+	}
+
+	/**
+	 * Removes all items of a series without notifying listeners.
+	 *
+	 * @param series the series index
+	 */
+	public void clear(int series) {
+		int[] position = positions.get(series);
+		position[0] = 0;
+		position[1] = 0;
+	}
+
+	/**
+	 * Notifies listeners that items have been added or removed.
+	 */
+	public void flush() {
+		fireDatasetChanged();
+	}
+
+	/**
+	 * Gets the capacity of each series.
+	 *
+	 * @return the capacity
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.jfree.data.xy.AbstractXYDataset#getDomainOrder()
+	 */
+	@Override
+	public DomainOrder getDomainOrder() {
+		return DomainOrder.ASCENDING;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.jfree.data.xy.XYDataset#getItemCount(int)
+	 */
+	@Override
+	public int getItemCount(int series) {
+		return positions.get(series)[1];
+	}
+
+	/* (non-Javadoc)
+	 * @see org.jfree.data.general.AbstractSeriesDataset#getSeriesCount()
+	 */
+	@Override
+	public int getSeriesCount() {
+		return seriesKeys.size();
+	}
+
+	/* (non-Javadoc)
+	 * @see org.jfree.data.general.AbstractSeriesDataset#getSeriesKey(int)
+	 */
+	@SuppressWarnings("rawtypes")
+	@Override
+	public Comparable getSeriesKey(int series) {
+		return seriesKeys.get(series);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.jfree.data.xy.XYDataset#getX(int, int)
+	 */
+	@Override
+	public Number getX(int series, int item) {
+		return getXValue(series, item);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.jfree.data.xy.AbstractXYDataset#getXValue(int, int)
+	 */
+	@Override
+	public double getXValue(int series, int item) {
+		int[] position = positions.get(series);
+		return xValues.get(series)[(position[0] + item) % capacity];
+	}
+
+	/* (non-Javadoc)
+	 * @see org.jfree.data.xy.XYDataset#getY(int, int)
+	 */
+	@Override
+	public Number getY(int series, int item) {
+		return getYValue(series, item);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.jfree.data.xy.AbstractXYDataset#getYValue(int, int)
+	 */
+	@Override
+	public double getYValue(int series, int item) {
+		int[] position = positions.get(series);
+		return yValues.get(series)[(position[0] + item) % capacity];
+	}
+
+	/**
+	 * Removes all series and notifies listeners.
+	 */
+	public void removeAllSeries() {
+		seriesKeys.clear();
+		xValues.clear();
+		yValues.clear();
+		positions.clear();
+		fireDatasetChanged();
+	}
+
+	/**
+	 * Removes the latest items of a series so that at most a number of
+	 * items remain, without notifying listeners.
+	 *
+	 * @param series the series index
+	 * @param count the maximum number of items to keep
+	 */
+	public void truncate(int series, int count) {
+		int[] position = positions.get(series);
+		position[1] = Math.max(0, Math.min(position[1], count));
+	}
+}
@@ -0,0 +1,94 @@
+package edu.mit.collab.util;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <code>SequenceFilter</code> tracks the latest sequence number received from
+ * each sender to discard stale or out-of-order updates delivered over
+ * best-effort transportation. Sequence numbers are carried in the
+ * user-supplied tag of an attribute update as a 64-bit big-endian value;
+ * updates with an empty or differently-sized tag (e.g. from federates which
+ * do not send sequence numbers) are always accepted.
+ *
+ * Updates with a sequence number equal to the latest one are accepted, since
+ * the RTI may deliver the reliable and best-effort attributes of a single
+ * update separately.
+ *
+ * @param <K> the sender key type
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ */
+public class SequenceFilter<K> {
+	public static final long NO_SEQUENCE = -1;
+	private static final int TAG_LENGTH = 8;
+
+	private final Map<K, Long> lastSequences = new HashMap<K, Long>(); // mutable
+
+	/**
+	 * Encodes a sequence number as a user-supplied tag.
+	 *
+	 * @param sequence the sequence number
+	 * @return the tag
+	 */
+	public static byte[] encodeTag(long sequence) {
+		return ByteBuffer.allocate(TAG_LENGTH).putLong(sequence).array();
+	}
+
+	/**
+	 * Decodes a sequence number from a user-supplied tag.
+	 *
+	 * @param tag the tag
+	 * @return the sequence number, or <code>NO_SEQUENCE</code> if the tag
+	 * does not contain a sequence number
+	 */
+	public static long decodeTag(byte[] tag) {
+		if(tag == null || tag.length != TAG_LENGTH) {
+			return NO_SEQUENCE;
+		}
+		return ByteBuffer.wrap(tag).getLong();
+	}
+
+	/**
+	 * Checks whether an update from a sender is current and, if so, records
+	 * its sequence number as the latest one from that sender.
+	 *
+	 * @param sender the sender
+	 * @param tag the user-supplied tag of the update
+	 * @return true, if the update is current; false if it is stale
+	 */
+	public synchronized boolean accept(K sender, byte[] tag) {
+		return accept(sender, decodeTag(tag));
+	}
+
+	/**
+	 * Checks whether an update from a sender is current and, if so, records
+	 * its sequence number as the latest one from that sender.
+	 *
+	 * @param sender the sender
+	 * @param sequence the sequence number of the update
+	 * @return true, if the update is current; false if it is stale
+	 */
+	public synchronized boolean accept(K sender, long sequence) {
+		if(sequence == NO_SEQUENCE) {
+			// no sequence number: accept for compatibility
+			return true;
+		}
+		Long lastSequence = lastSequences.get(sender);
+		if(lastSequence != null && sequence < lastSequence) {
+			// an update with a later sequence number was already received
+			return false;
+		}
+		lastSequences.put(sender, sequence);
+		return true;
+	}
+
+	/**
+	 * Removes the sequence history for a sender.
+	 *
+	 * @param sender the sender
+	 */
+	public synchronized void remove(K sender) {
+		lastSequences.remove(sender);
+	}
+}
@@ -0,0 +1,109 @@
+package edu.mit.collab.util;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.Clip;
+
+/**
+ * <code>SoundPlayer</code> plays short sounds without blocking the caller.
+ * Sounds are decoded and opened as clips once, when the player is created,
+ * and played on a dedicated audio thread; playing a sound again restarts
+ * its clip. Sounds which cannot be loaded (e.g. without an audio device)
+ * are skipped.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ */
+public class SoundPlayer {
+	private final List<Clip> clips = new ArrayList<Clip>(); // mutable
+	private final Random random = new Random(); // mutable
+	private final ExecutorService audioExecutor; // immutable
+
+	/**
+	 * Instantiates a new sound player and loads the sounds on the audio
+	 * thread.
+	 *
+	 * @param resourceNames the class path resource names of the sounds
+	 */
+	public SoundPlayer(final String... resourceNames) {
+		audioExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "Audio");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		audioExecutor.execute(new Runnable() {
+			@Override
+			public void run() {
+				for(String resourceName : resourceNames) {
+					loadClip(resourceName);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Decodes a sound and opens it as a clip. This method is only called
+	 * on the audio thread.
+	 *
+	 * @param resourceName the class path resource name of the sound
+	 */
+	private void loadClip(String resourceName) {
+		try {
+			URL resource = getClass().getClassLoader().getResource(
+					resourceName);
+			AudioInputStream inputStream =
+					AudioSystem.getAudioInputStream(resource);
+			Clip clip = AudioSystem.getClip();
+			clip.open(inputStream);
+			inputStream.close();
+			clips.add(clip);
+		} catch (Exception e) {
+			// skip sounds which cannot be loaded
+			System.err.println("Error: could not load sound "
+					+ resourceName + " (" + e.getMessage() + ")");
+		}
+	}
+
+	/**
+	 * Plays one of the sounds at random. This method returns immediately.
+	 */
+	public void playRandom() {
+		audioExecutor.execute(new Runnable() {
+			@Override
+			public void run() {
+				if(!clips.isEmpty()) {
+					Clip clip = clips.get(random.nextInt(clips.size()));
+					clip.stop();
+					clip.setFramePosition(0);
+					clip.start();
+				}
+			}
+		});
+	}
+
+	/**
+	 * Closes the clips and stops the audio thread.
+	 */
+	public void close() {
+		audioExecutor.execute(new Runnable() {
+			@Override
+			public void run() {
+				for(Clip clip : clips) {
+					clip.close();
+				}
+				clips.clear();
+			}
+		});
+		audioExecutor.shutdown();
+	}
+}
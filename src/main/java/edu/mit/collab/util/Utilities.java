@@ -11,7 +11,9 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.Type;
+import java.util.Properties;
 
 import javax.swing.ImageIcon;
 
@@ -215,6 +217,25 @@ public abstract class Utilities {
 		return userIcons[designerIndex % userIcons.length];
 	}
 	
+	/**
+	 * Reads the configuration properties from the resource at
+	 * <code>PROPERTIES_PATH</code>.
+	 *
+	 * @return the properties (empty if the resource cannot be read)
+	 */
+	public static Properties readProperties() {
+		Properties properties = new Properties();
+		try {
+			InputStream in = Utilities.class.getClassLoader()
+					.getResourceAsStream(PROPERTIES_PATH);
+			properties.load(in);
+			in.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		return properties;
+	}
+
 	/**
 	 * Reads a JSON-formatted experiment object from file.
 	 *
@@ -0,0 +1,375 @@
+package edu.mit.collab.util;
+
+import java.awt.Container;
+import java.awt.Dimension;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import javax.swing.BoxLayout;
+import javax.swing.JComponent;
+import javax.swing.JPanel;
+import javax.swing.JViewport;
+import javax.swing.Scrollable;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+
+/**
+ * <code>VirtualPanelList</code> lays out a list of equally-sized panels in a
+ * row or column inside a scroll pane, but only creates components for the
+ * panels which are visible. Panels scrolled out of view are recycled for
+ * the panels scrolled into view, so the number of components depends on
+ * the size of the viewport rather than the number of items. The state of
+ * each item is kept by the owner of the list, which binds it to a panel
+ * whenever the item becomes visible and refreshes visible items when their
+ * state changes.
+ *
+ * Panels are at least as large as the preferred size of a panel bound to
+ * the first item and are stretched to fill the viewport if all items fit.
+ *
+ * @param <T> the panel type
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ */
+public class VirtualPanelList<T extends JComponent> extends JPanel
+		implements Scrollable {
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The Interface PanelBinder creates panels and binds items to them.
+	 *
+	 * @param <T> the panel type
+	 */
+	public interface PanelBinder<T> {
+
+		/**
+		 * Creates a new panel.
+		 *
+		 * @return the panel
+		 */
+		public T createPanel();
+
+		/**
+		 * Binds an item to a panel, i.e. updates the panel to show the
+		 * state of the item.
+		 *
+		 * @param panel the panel
+		 * @param index the item index
+		 */
+		public void bindPanel(T panel, int index);
+	}
+
+	private final int axis; // immutable
+	private final int visibleCount; // immutable
+	private final PanelBinder<T> binder; // immutable
+	private final Map<Integer, T> boundPanels = new HashMap<Integer, T>(); // mutable
+	private final Deque<T> freePanels = new ArrayDeque<T>(); // mutable
+	private Dimension cellSize = new Dimension(); // mutable
+	private int itemCount; // mutable
+
+	// listener to bind panels while scrolling
+	private final ChangeListener viewportListener = new ChangeListener() {
+		@Override
+		public void stateChanged(ChangeEvent e) {
+			layoutPanels();
+		}
+	};
+
+	/**
+	 * Instantiates a new virtual panel list.
+	 *
+	 * @param axis the axis along which to lay out panels, i.e.
+	 * <code>BoxLayout.LINE_AXIS</code> or <code>BoxLayout.PAGE_AXIS</code>
+	 * @param visibleCount the number of panels to show without scrolling
+	 * in the preferred size of the viewport
+	 * @param binder the panel binder
+	 */
+	public VirtualPanelList(int axis, int visibleCount, PanelBinder<T> binder) {
+		super(null);
+		this.axis = axis;
+		this.visibleCount = visibleCount;
+		this.binder = binder;
+	}
+
+	/* (non-Javadoc)
+	 * @see javax.swing.JComponent#addNotify()
+	 */
+	@Override
+	public void addNotify() {
+		super.addNotify();
+		if(getParent() instanceof JViewport) {
+			((JViewport) getParent()).addChangeListener(viewportListener);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see java.awt.Container#doLayout()
+	 */
+	@Override
+	public void doLayout() {
+		layoutPanels();
+	}
+
+	/**
+	 * Gets the length of each panel along the axis.
+	 *
+	 * @return the cell length
+	 */
+	private int getCellLength() {
+		if(itemCount == 0) {
+			return 0;
+		}
+		// stretch panels to fill the list if all items fit
+		return Math.max(getLength(cellSize), getLength(getSize())/itemCount);
+	}
+
+	/**
+	 * Gets the number of items.
+	 *
+	 * @return the item count
+	 */
+	public int getItemCount() {
+		return itemCount;
+	}
+
+	/**
+	 * Gets the extent of a dimension along the axis.
+	 *
+	 * @param size the dimension
+	 * @return the extent along the axis
+	 */
+	private int getLength(Dimension size) {
+		return isHorizontal() ? size.width : size.height;
+	}
+
+	/**
+	 * Gets the panel bound to an item.
+	 *
+	 * @param index the item index
+	 * @return the panel, or null if the item is not visible
+	 */
+	public T getPanel(int index) {
+		return boundPanels.get(index);
+	}
+
+	/* (non-Javadoc)
+	 * @see javax.swing.Scrollable#getPreferredScrollableViewportSize()
+	 */
+	@Override
+	public Dimension getPreferredScrollableViewportSize() {
+		int count = Math.min(itemCount, visibleCount);
+		return isHorizontal()
+				? new Dimension(count*cellSize.width, cellSize.height)
+				: new Dimension(cellSize.width, count*cellSize.height);
+	}
+
+	/* (non-Javadoc)
+	 * @see javax.swing.JComponent#getPreferredSize()
+	 */
+	@Override
+	public Dimension getPreferredSize() {
+		return isHorizontal()
+				? new Dimension(itemCount*cellSize.width, cellSize.height)
+				: new Dimension(cellSize.width, itemCount*cellSize.height);
+	}
+
+	/* (non-Javadoc)
+	 * @see javax.swing.Scrollable#getScrollableBlockIncrement(java.awt.Rectangle, int, int)
+	 */
+	@Override
+	public int getScrollableBlockIncrement(Rectangle visibleRect,
+			int orientation, int direction) {
+		return Math.max(getCellLength(), isHorizontal()
+				? visibleRect.width : visibleRect.height);
+	}
+
+	/* (non-Javadoc)
+	 * @see javax.swing.Scrollable#getScrollableTracksViewportHeight()
+	 */
+	@Override
+	public boolean getScrollableTracksViewportHeight() {
+		return isHorizontal() || getParent() instanceof JViewport
+				&& getParent().getHeight() > getPreferredSize().height;
+	}
+
+	/* (non-Javadoc)
+	 * @see javax.swing.Scrollable#getScrollableTracksViewportWidth()
+	 */
+	@Override
+	public boolean getScrollableTracksViewportWidth() {
+		return !isHorizontal() || getParent() instanceof JViewport
+				&& getParent().getWidth() > getPreferredSize().width;
+	}
+
+	/* (non-Javadoc)
+	 * @see javax.swing.Scrollable#getScrollableUnitIncrement(java.awt.Rectangle, int, int)
+	 */
+	@Override
+	public int getScrollableUnitIncrement(Rectangle visibleRect,
+			int orientation, int direction) {
+		return Math.max(1, getCellLength());
+	}
+
+	/**
+	 * Checks if panels are laid out horizontally.
+	 *
+	 * @return true, if horizontal
+	 */
+	private boolean isHorizontal() {
+		return axis == BoxLayout.LINE_AXIS || axis == BoxLayout.X_AXIS;
+	}
+
+	/**
+	 * Binds the visible items to panels and lays them out. Panels of items
+	 * which are no longer visible are removed and kept for reuse.
+	 */
+	private void layoutPanels() {
+		int cellLength = getCellLength();
+		Rectangle visibleRect = getVisibleRect();
+		int first = 0, last = -1;
+		int start = isHorizontal() ? visibleRect.x : visibleRect.y;
+		int length = getLength(visibleRect.getSize());
+		if(cellLength > 0 && length > 0) {
+			// determine the range of visible items
+			first = Math.max(0, start/cellLength);
+			last = Math.min(itemCount - 1, (start + length - 1)/cellLength);
+		}
+
+		// recycle panels of items which are no longer visible
+		Iterator<Map.Entry<Integer, T>> iterator =
+				boundPanels.entrySet().iterator();
+		while(iterator.hasNext()) {
+			Map.Entry<Integer, T> entry = iterator.next();
+			if(entry.getKey() < first || entry.getKey() > last) {
+				remove(entry.getValue());
+				freePanels.push(entry.getValue());
+				iterator.remove();
+			}
+		}
+
+		// bind panels to newly-visible items and position visible panels
+		for(int i = first; i <= last; i++) {
+			T panel = boundPanels.get(i);
+			if(panel == null) {
+				panel = freePanels.isEmpty() ? binder.createPanel()
+						: freePanels.pop();
+				binder.bindPanel(panel, i);
+				boundPanels.put(i, panel);
+				add(panel);
+			}
+			if(isHorizontal()) {
+				panel.setBounds(i*cellLength, 0, cellLength, getHeight());
+			} else {
+				panel.setBounds(0, i*cellLength, getWidth(), cellLength);
+			}
+			panel.validate();
+		}
+		repaint();
+	}
+
+	/**
+	 * Refreshes all visible items, i.e. binds them to their panels again.
+	 */
+	public void refresh() {
+		for(Map.Entry<Integer, T> entry : boundPanels.entrySet()) {
+			binder.bindPanel(entry.getValue(), entry.getKey());
+		}
+	}
+
+	/**
+	 * Refreshes an item, i.e. binds it to its panel again if visible.
+	 *
+	 * @param index the item index
+	 */
+	public void refresh(int index) {
+		T panel = boundPanels.get(index);
+		if(panel != null) {
+			binder.bindPanel(panel, index);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see javax.swing.JComponent#removeNotify()
+	 */
+	@Override
+	public void removeNotify() {
+		if(getParent() instanceof JViewport) {
+			((JViewport) getParent()).removeChangeListener(viewportListener);
+		}
+		super.removeNotify();
+	}
+
+	/**
+	 * Scrolls an item into view so that its panel is bound.
+	 *
+	 * @param index the item index
+	 * @return the panel, or null if the index is out of range
+	 */
+	public T scrollToPanel(int index) {
+		if(index < 0 || index >= itemCount) {
+			return null;
+		}
+		int cellLength = getCellLength();
+		scrollRectToVisible(isHorizontal()
+				? new Rectangle(index*cellLength, 0, cellLength, getHeight())
+				: new Rectangle(0, index*cellLength, getWidth(), cellLength));
+		layoutPanels();
+		return boundPanels.get(index);
+	}
+
+	/**
+	 * Sets the number of items. All panels are unbound and the size of
+	 * each panel is measured with a panel bound to the first item.
+	 *
+	 * @param itemCount the item count
+	 */
+	public void setItemCount(int itemCount) {
+		// unbind all panels
+		for(T panel : boundPanels.values()) {
+			remove(panel);
+			freePanels.push(panel);
+		}
+		boundPanels.clear();
+		this.itemCount = itemCount;
+
+		// measure the panel size
+		cellSize = new Dimension();
+		if(itemCount > 0) {
+			T panel = freePanels.isEmpty() ? binder.createPanel()
+					: freePanels.pop();
+			binder.bindPanel(panel, 0);
+			cellSize = panel.getPreferredSize();
+			freePanels.push(panel);
+		}
+
+		// scroll to the start and lay out again
+		Container parent = getParent();
+		if(parent instanceof JViewport) {
+			((JViewport) parent).setViewPosition(new Point());
+		}
+		revalidate();
+		repaint();
+	}
+
+	/**
+	 * Updates the number of items. If the number is unchanged, the panels
+	 * are reused and all visible items are bound to them again without
+	 * measuring or laying out the panels; otherwise, this is equivalent to
+	 * setting the number of items.
+	 *
+	 * @param itemCount the item count
+	 * @return true, if the number of items changed and the layout was
+	 * invalidated
+	 */
+	public boolean updateItemCount(int itemCount) {
+		if(itemCount == this.itemCount) {
+			refresh();
+			return false;
+		}
+		setItemCount(itemCount);
+		return true;
+	}
+}
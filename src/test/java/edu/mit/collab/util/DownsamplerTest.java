@@ -0,0 +1,77 @@
+package edu.mit.collab.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the point budget and retained points of <code>Downsampler</code>
+ * as a series grows.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ */
+public class DownsamplerTest extends TestCase {
+	private static final int CAPACITY = 50;
+
+	/**
+	 * Adds points of a series with a single peak.
+	 *
+	 * @param rows the rows of the series
+	 * @param count the number of points to add
+	 */
+	private static void addPoints(List<double[]> rows, int count) {
+		for(int i = 0; i < count; i++) {
+			int x = rows.size();
+			rows.add(new double[] {x, x == 777 ? 1000 : Math.sin(x / 10.0)});
+		}
+	}
+
+	/**
+	 * Tests all points are shown while the series fits the capacity.
+	 */
+	public void testAllPoints() {
+		RingBufferXYDataset dataset = new RingBufferXYDataset(CAPACITY);
+		dataset.addSeries("series");
+		Downsampler downsampler = new Downsampler(dataset, 0, 0, 1);
+		List<double[]> rows = new ArrayList<double[]>();
+		addPoints(rows, CAPACITY);
+		downsampler.update(rows);
+		assertEquals(CAPACITY, dataset.getItemCount(0));
+		for(int i = 0; i < CAPACITY; i++) {
+			assertEquals(i, dataset.getXValue(0, i), 0);
+		}
+	}
+
+	/**
+	 * Tests the shown points stay within the capacity, in order, and keep
+	 * the first and last points and the peak over incremental updates.
+	 */
+	public void testBoundsAndEndpoints() {
+		RingBufferXYDataset dataset = new RingBufferXYDataset(CAPACITY);
+		dataset.addSeries("series");
+		Downsampler downsampler = new Downsampler(dataset, 0, 0, 1);
+		List<double[]> rows = new ArrayList<double[]>();
+		for(int update = 0; update < 300; update++) {
+			addPoints(rows, 1 + update % 7);
+			downsampler.update(rows);
+
+			int count = dataset.getItemCount(0);
+			assertTrue(count <= CAPACITY);
+			assertEquals(0, dataset.getXValue(0, 0), 0);
+			assertEquals(rows.size() - 1, dataset.getXValue(0, count - 1), 0);
+			for(int i = 1; i < count; i++) {
+				assertTrue(dataset.getXValue(0, i - 1)
+						< dataset.getXValue(0, i));
+			}
+			if(rows.size() > 800) {
+				// the peak is kept once its bucket is complete
+				boolean peak = false;
+				for(int i = 0; i < count; i++) {
+					peak |= dataset.getYValue(0, i) == 1000;
+				}
+				assertTrue(peak);
+			}
+		}
+	}
+}
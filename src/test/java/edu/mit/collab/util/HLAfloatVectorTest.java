@@ -0,0 +1,121 @@
+package edu.mit.collab.util;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import hla.rti1516e.RtiFactoryFactory;
+import hla.rti1516e.encoding.DataElementFactory;
+import hla.rti1516e.encoding.DecoderException;
+import hla.rti1516e.encoding.EncoderFactory;
+import hla.rti1516e.encoding.HLAfloat64BE;
+import hla.rti1516e.encoding.HLAvariableArray;
+import hla.rti1516e.exceptions.RTIexception;
+import junit.framework.TestCase;
+
+/**
+ * Tests the bulk encoding of <code>HLAfloatVector</code> against itself and
+ * the variable arrays of the RTI's encoder factory.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ */
+public class HLAfloatVectorTest extends TestCase {
+	private static final double[] VALUES = new double[] {1.5, -2.25, 0, 1e9};
+
+	/**
+	 * Gets the encoder factory of the default RTI.
+	 *
+	 * @return the encoder factory, or null if no RTI is available
+	 */
+	private static EncoderFactory getEncoderFactory() {
+		try {
+			return RtiFactoryFactory.getRtiFactory().getEncoderFactory();
+		} catch (RTIexception ex) {
+			return null;
+		} catch (LinkageError ex) {
+			return null;
+		}
+	}
+
+	/**
+	 * Tests a vector decodes the value it encodes.
+	 *
+	 * @throws Exception the exception
+	 */
+	public void testRoundTrip() throws Exception {
+		HLAfloatVector vector = new HLAfloatVector();
+		vector.setValue(VALUES, VALUES.length);
+		byte[] bytes = vector.toByteArray();
+		assertEquals(vector.getEncodedLength(), bytes.length);
+
+		// decode into a re-used decoder holding a longer value
+		HLAfloatVector decoder = new HLAfloatVector();
+		decoder.setValue(new double[8], 8);
+		decoder.decode(bytes);
+		assertEquals(VALUES.length, decoder.size());
+		assertTrue(Arrays.equals(VALUES, Arrays.copyOf(
+				decoder.getValue(null), decoder.size())));
+	}
+
+	/**
+	 * Tests decoding fails for a value missing its last byte.
+	 *
+	 * @throws Exception the exception
+	 */
+	public void testTruncated() throws Exception {
+		HLAfloatVector vector = new HLAfloatVector();
+		vector.setValue(VALUES, VALUES.length);
+		byte[] bytes = vector.toByteArray();
+		try {
+			vector.decode(Arrays.copyOf(bytes, bytes.length - 1));
+			fail("Truncated vector decoded.");
+		} catch (DecoderException expected) { }
+	}
+
+	/**
+	 * Tests decoding fails without allocating for an element count which
+	 * exceeds the data.
+	 */
+	public void testOversized() {
+		byte[] bytes = ByteBuffer.allocate(16)
+				.putInt(Integer.MAX_VALUE).array();
+		try {
+			new HLAfloatVector().decode(bytes);
+			fail("Oversized vector decoded.");
+		} catch (DecoderException expected) { }
+	}
+
+	/**
+	 * Tests the encoding matches the variable arrays of the RTI's encoder
+	 * factory in both directions. Skipped if no RTI is available.
+	 *
+	 * @throws Exception the exception
+	 */
+	public void testWireCompatibility() throws Exception {
+		final EncoderFactory encoderFactory = getEncoderFactory();
+		if(encoderFactory == null) {
+			return;
+		}
+		HLAvariableArray<HLAfloat64BE> array =
+				encoderFactory.createHLAvariableArray(
+						new DataElementFactory<HLAfloat64BE>() {
+							@Override
+							public HLAfloat64BE createElement(int index) {
+								return encoderFactory.createHLAfloat64BE();
+							}
+						});
+		for(double value : VALUES) {
+			array.addElement(encoderFactory.createHLAfloat64BE(value));
+		}
+
+		HLAfloatVector vector = new HLAfloatVector(encoderFactory);
+		vector.setValue(VALUES, VALUES.length);
+		assertTrue(Arrays.equals(array.toByteArray(), vector.toByteArray()));
+
+		HLAfloatVector decoder = new HLAfloatVector(encoderFactory);
+		decoder.decode(array.toByteArray());
+		assertEquals(VALUES.length, decoder.size());
+		for(int i = 0; i < VALUES.length; i++) {
+			assertEquals(VALUES[i], decoder.getValue().getEntry(i), 0);
+		}
+	}
+}
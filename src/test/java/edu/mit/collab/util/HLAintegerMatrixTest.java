@@ -0,0 +1,139 @@
+package edu.mit.collab.util;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import hla.rti1516e.RtiFactoryFactory;
+import hla.rti1516e.encoding.DataElementFactory;
+import hla.rti1516e.encoding.DecoderException;
+import hla.rti1516e.encoding.EncoderFactory;
+import hla.rti1516e.encoding.HLAinteger32BE;
+import hla.rti1516e.encoding.HLAvariableArray;
+import hla.rti1516e.exceptions.RTIexception;
+import junit.framework.TestCase;
+
+/**
+ * Tests the encoding of <code>HLAintegerMatrix</code> against itself and
+ * the nested variable arrays of the RTI's encoder factory.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ */
+public class HLAintegerMatrixTest extends TestCase {
+	private static final int[][] VALUES = new int[][] {{0, 1}, {}, {2, 3, 4}};
+
+	/**
+	 * Gets the encoder factory of the default RTI.
+	 *
+	 * @return the encoder factory, or null if no RTI is available
+	 */
+	private static EncoderFactory getEncoderFactory() {
+		try {
+			return RtiFactoryFactory.getRtiFactory().getEncoderFactory();
+		} catch (RTIexception ex) {
+			return null;
+		} catch (LinkageError ex) {
+			return null;
+		}
+	}
+
+	/**
+	 * Tests a matrix decodes the value it encodes.
+	 *
+	 * @throws Exception the exception
+	 */
+	public void testRoundTrip() throws Exception {
+		HLAintegerMatrix matrix = new HLAintegerMatrix();
+		matrix.setValue(VALUES);
+		byte[] bytes = matrix.toByteArray();
+		assertEquals(matrix.getEncodedLength(), bytes.length);
+
+		// decode into a re-used decoder holding more rows
+		HLAintegerMatrix decoder = new HLAintegerMatrix();
+		decoder.setValue(new int[5][1]);
+		decoder.decode(bytes);
+		assertTrue(Arrays.deepEquals(VALUES, decoder.getValue()));
+	}
+
+	/**
+	 * Tests decoding fails for a value missing its last byte and keeps the
+	 * previous size.
+	 *
+	 * @throws Exception the exception
+	 */
+	public void testTruncated() throws Exception {
+		HLAintegerMatrix matrix = new HLAintegerMatrix();
+		matrix.setValue(VALUES);
+		byte[] bytes = matrix.toByteArray();
+
+		HLAintegerMatrix decoder = new HLAintegerMatrix();
+		decoder.setValue(new int[1][1]);
+		try {
+			decoder.decode(Arrays.copyOf(bytes, bytes.length - 1));
+			fail("Truncated matrix decoded.");
+		} catch (DecoderException expected) { }
+		assertEquals(1, decoder.getValue().length);
+	}
+
+	/**
+	 * Tests decoding fails without growing the row pool for a row count
+	 * which exceeds the data.
+	 */
+	public void testOversized() {
+		byte[] bytes = ByteBuffer.allocate(8)
+				.putInt(Integer.MAX_VALUE).array();
+		HLAintegerMatrix decoder = new HLAintegerMatrix();
+		try {
+			decoder.decode(bytes);
+			fail("Oversized matrix decoded.");
+		} catch (DecoderException expected) { }
+		assertEquals(0, decoder.getValue().length);
+	}
+
+	/**
+	 * Tests the encoding matches nested variable arrays of the RTI's
+	 * encoder factory in both directions. Skipped if no RTI is available.
+	 *
+	 * @throws Exception the exception
+	 */
+	@SuppressWarnings("unchecked")
+	public void testWireCompatibility() throws Exception {
+		final EncoderFactory encoderFactory = getEncoderFactory();
+		if(encoderFactory == null) {
+			return;
+		}
+		final DataElementFactory<HLAinteger32BE> elementFactory =
+				new DataElementFactory<HLAinteger32BE>() {
+					@Override
+					public HLAinteger32BE createElement(int index) {
+						return encoderFactory.createHLAinteger32BE();
+					}
+				};
+		HLAvariableArray<HLAvariableArray<HLAinteger32BE>> array =
+				encoderFactory.createHLAvariableArray(
+						new DataElementFactory<
+								HLAvariableArray<HLAinteger32BE>>() {
+							@Override
+							public HLAvariableArray<HLAinteger32BE>
+									createElement(int index) {
+								return encoderFactory.createHLAvariableArray(
+										elementFactory);
+							}
+						});
+		for(int[] row : VALUES) {
+			HLAvariableArray<HLAinteger32BE> rowArray =
+					encoderFactory.createHLAvariableArray(elementFactory);
+			for(int value : row) {
+				rowArray.addElement(encoderFactory.createHLAinteger32BE(value));
+			}
+			array.addElement(rowArray);
+		}
+
+		HLAintegerMatrix matrix = new HLAintegerMatrix(encoderFactory);
+		matrix.setValue(VALUES);
+		assertTrue(Arrays.equals(array.toByteArray(), matrix.toByteArray()));
+
+		HLAintegerMatrix decoder = new HLAintegerMatrix(encoderFactory);
+		decoder.decode(array.toByteArray());
+		assertTrue(Arrays.deepEquals(VALUES, decoder.getValue()));
+	}
+}
@@ -0,0 +1,116 @@
+package edu.mit.collab.util;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import hla.rti1516e.RtiFactoryFactory;
+import hla.rti1516e.encoding.DataElementFactory;
+import hla.rti1516e.encoding.DecoderException;
+import hla.rti1516e.encoding.EncoderFactory;
+import hla.rti1516e.encoding.HLAinteger32BE;
+import hla.rti1516e.encoding.HLAvariableArray;
+import hla.rti1516e.exceptions.RTIexception;
+import junit.framework.TestCase;
+
+/**
+ * Tests the bulk encoding of <code>HLAintegerVector</code> against itself
+ * and the variable arrays of the RTI's encoder factory.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ */
+public class HLAintegerVectorTest extends TestCase {
+	private static final int[] VALUES = new int[] {3, -1, 0, Integer.MAX_VALUE};
+
+	/**
+	 * Gets the encoder factory of the default RTI.
+	 *
+	 * @return the encoder factory, or null if no RTI is available
+	 */
+	private static EncoderFactory getEncoderFactory() {
+		try {
+			return RtiFactoryFactory.getRtiFactory().getEncoderFactory();
+		} catch (RTIexception ex) {
+			return null;
+		} catch (LinkageError ex) {
+			return null;
+		}
+	}
+
+	/**
+	 * Tests a vector decodes the value it encodes.
+	 *
+	 * @throws Exception the exception
+	 */
+	public void testRoundTrip() throws Exception {
+		HLAintegerVector vector = new HLAintegerVector();
+		vector.setValue(VALUES);
+		byte[] bytes = vector.toByteArray();
+		assertEquals(vector.getEncodedLength(), bytes.length);
+
+		// decode into a re-used decoder holding a longer value
+		HLAintegerVector decoder = new HLAintegerVector();
+		decoder.setValue(new int[8]);
+		decoder.decode(bytes);
+		assertTrue(Arrays.equals(VALUES, decoder.getValue()));
+	}
+
+	/**
+	 * Tests decoding fails for a value missing its last byte.
+	 *
+	 * @throws Exception the exception
+	 */
+	public void testTruncated() throws Exception {
+		HLAintegerVector vector = new HLAintegerVector();
+		vector.setValue(VALUES);
+		byte[] bytes = vector.toByteArray();
+		try {
+			vector.decode(Arrays.copyOf(bytes, bytes.length - 1));
+			fail("Truncated vector decoded.");
+		} catch (DecoderException expected) { }
+	}
+
+	/**
+	 * Tests decoding fails without allocating for an element count which
+	 * exceeds the data.
+	 */
+	public void testOversized() {
+		byte[] bytes = ByteBuffer.allocate(8)
+				.putInt(Integer.MAX_VALUE).array();
+		try {
+			new HLAintegerVector().decode(bytes);
+			fail("Oversized vector decoded.");
+		} catch (DecoderException expected) { }
+	}
+
+	/**
+	 * Tests the encoding matches the variable arrays of the RTI's encoder
+	 * factory in both directions. Skipped if no RTI is available.
+	 *
+	 * @throws Exception the exception
+	 */
+	public void testWireCompatibility() throws Exception {
+		final EncoderFactory encoderFactory = getEncoderFactory();
+		if(encoderFactory == null) {
+			return;
+		}
+		HLAvariableArray<HLAinteger32BE> array =
+				encoderFactory.createHLAvariableArray(
+						new DataElementFactory<HLAinteger32BE>() {
+							@Override
+							public HLAinteger32BE createElement(int index) {
+								return encoderFactory.createHLAinteger32BE();
+							}
+						});
+		for(int value : VALUES) {
+			array.addElement(encoderFactory.createHLAinteger32BE(value));
+		}
+
+		HLAintegerVector vector = new HLAintegerVector(encoderFactory);
+		vector.setValue(VALUES);
+		assertTrue(Arrays.equals(array.toByteArray(), vector.toByteArray()));
+
+		HLAintegerVector decoder = new HLAintegerVector(encoderFactory);
+		decoder.decode(array.toByteArray());
+		assertTrue(Arrays.equals(VALUES, decoder.getValue()));
+	}
+}
@@ -0,0 +1,67 @@
+package edu.mit.collab.util;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the wrap-around, in-place update and truncation of
+ * <code>RingBufferXYDataset</code>.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ */
+public class RingBufferXYDatasetTest extends TestCase {
+
+	/**
+	 * Tests adding items to a full series replaces the oldest items and
+	 * keeps the items in order.
+	 */
+	public void testWrapAround() {
+		RingBufferXYDataset dataset = new RingBufferXYDataset(3);
+		int series = dataset.addSeries("series");
+		for(int i = 0; i < 5; i++) {
+			dataset.add(series, i, 10*i);
+		}
+		assertEquals(3, dataset.getItemCount(series));
+		for(int i = 0; i < 3; i++) {
+			assertEquals(i + 2, dataset.getXValue(series, i), 0);
+			assertEquals(10*(i + 2), dataset.getYValue(series, i), 0);
+		}
+	}
+
+	/**
+	 * Tests adding an item with the x value of the latest item updates its
+	 * y value in place, also after the series has wrapped around.
+	 */
+	public void testUpdateEqualX() {
+		RingBufferXYDataset dataset = new RingBufferXYDataset(3);
+		int series = dataset.addSeries("series");
+		for(int i = 0; i < 4; i++) {
+			dataset.add(series, i, i);
+		}
+		dataset.add(series, 3, 30);
+		assertEquals(3, dataset.getItemCount(series));
+		assertEquals(1, dataset.getXValue(series, 0), 0);
+		assertEquals(3, dataset.getXValue(series, 2), 0);
+		assertEquals(30, dataset.getYValue(series, 2), 0);
+	}
+
+	/**
+	 * Tests truncating removes the latest items and clearing removes all
+	 * items.
+	 */
+	public void testTruncateAndClear() {
+		RingBufferXYDataset dataset = new RingBufferXYDataset(3);
+		int series = dataset.addSeries("series");
+		for(int i = 0; i < 5; i++) {
+			dataset.add(series, i, i);
+		}
+		dataset.truncate(series, 2);
+		assertEquals(2, dataset.getItemCount(series));
+		dataset.add(series, 5, 5);
+		assertEquals(2, dataset.getXValue(series, 0), 0);
+		assertEquals(3, dataset.getXValue(series, 1), 0);
+		assertEquals(5, dataset.getXValue(series, 2), 0);
+
+		dataset.clear(series);
+		assertEquals(0, dataset.getItemCount(series));
+	}
+}
@@ -0,0 +1,52 @@
+package edu.mit.collab.util;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the ordering and reset of <code>SequenceFilter</code>.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ */
+public class SequenceFilterTest extends TestCase {
+
+	/**
+	 * Tests stale updates are dropped while equal and later updates are
+	 * accepted, independently for each sender.
+	 */
+	public void testOrdering() {
+		SequenceFilter<String> filter = new SequenceFilter<String>();
+		assertTrue(filter.accept("a", 2));
+		assertFalse(filter.accept("a", 1));
+		assertTrue(filter.accept("a", 2));
+		assertTrue(filter.accept("a", 5));
+		assertFalse(filter.accept("a", 4));
+
+		// other senders keep their own history
+		assertTrue(filter.accept("b", 1));
+	}
+
+	/**
+	 * Tests updates are filtered by the sequence number in their tag and
+	 * updates without a sequence number are always accepted.
+	 */
+	public void testTags() {
+		SequenceFilter<String> filter = new SequenceFilter<String>();
+		assertEquals(7, SequenceFilter.decodeTag(SequenceFilter.encodeTag(7)));
+		assertTrue(filter.accept("a", SequenceFilter.encodeTag(7)));
+		assertFalse(filter.accept("a", SequenceFilter.encodeTag(6)));
+		assertTrue(filter.accept("a", new byte[0]));
+		assertTrue(filter.accept("a", (byte[]) null));
+	}
+
+	/**
+	 * Tests removing a sender resets its history, e.g. for a restarted
+	 * federate whose sequence numbers start again.
+	 */
+	public void testReset() {
+		SequenceFilter<String> filter = new SequenceFilter<String>();
+		assertTrue(filter.accept("a", 10));
+		filter.remove("a");
+		assertTrue(filter.accept("a", 1));
+		assertFalse(filter.accept("a", 0));
+	}
+}